@@ -64,7 +64,7 @@ public class AdminServiceImpl implements AdminService {
             .orElse(BigDecimal.ZERO);
 
         long pendingOrders = orderServiceProvider.countOrdersByStatus(OrderStatus.PENDING);
-        long lowStockProducts = productServiceProvider.countProductsByStockLessThan(10);
+        long lowStockProducts = productServiceProvider.countLowStockProducts();
 
         double averageOrderValue = totalOrders > 0 ?
             totalRevenue.divide(BigDecimal.valueOf(totalOrders), 2, RoundingMode.HALF_UP).doubleValue() : 0.0;
@@ -120,9 +120,9 @@ public class AdminServiceImpl implements AdminService {
         long inStockProducts = productServiceProvider.countProductsByStatusAndStockGreaterThan(
             com.groceryshop.product.ProductStatus.ACTIVE, 0);
         long outOfStockProducts = productServiceProvider.countProductsByStockQuantity(0);
-        long lowStockProducts = productServiceProvider.countProductsByStockLessThan(10);
+        long lowStockProducts = productServiceProvider.countLowStockProducts();
 
-        List<Product> lowStockItems = productServiceProvider.findProductsByStockLessThan(10);
+        List<Product> lowStockItems = productServiceProvider.findLowStockProducts();
 
         return new InventoryStatus(
             totalProducts,
@@ -183,7 +183,7 @@ public class AdminServiceImpl implements AdminService {
     public void updateProductStock(Long productId, Integer newStockQuantity) {
         log.info("Updating stock for product {} to {}", productId, newStockQuantity);
 
-        productServiceProvider.updateProductStock(productId, newStockQuantity);
+        productServiceProvider.adjustProductStock(productId, newStockQuantity, "Admin stock update");
 
         log.info("Stock updated successfully for product {}", productId);
     }
@@ -3,6 +3,8 @@ package com.groceryshop.auth;
 import com.groceryshop.auth.spi.AuthServiceProvider;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -27,4 +29,14 @@ public class AuthServiceProviderImpl implements AuthServiceProvider {
     public Optional<User> findUserByEmail(String email) {
         return userRepository.findByEmail(email);
     }
+
+    @Override
+    public List<User> findUsersByIds(Collection<Long> userIds) {
+        return userRepository.findAllById(userIds);
+    }
+
+    @Override
+    public List<Long> findActiveUserIdsByRole(UserRole role) {
+        return userRepository.findIdsByRoleAndStatus(role, UserStatus.ACTIVE);
+    }
 }
@@ -1,24 +1,31 @@
 package com.groceryshop.auth;
 
-import org.springframework.context.ApplicationEvent;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.groceryshop.shared.event.DomainEvent;
 
-public class UserRegisteredEvent extends ApplicationEvent {
+/**
+ * Event published when a new user registers.
+ */
+public record UserRegisteredEvent(
+    @JsonIgnore Object source,
+    Long userId,
+    String email,
+    String firstName,
+    String lastName
+) implements DomainEvent {
 
-    private final Long userId;
-    private final String email;
-    private final String firstName;
-    private final String lastName;
+    @Override
+    public String aggregateType() {
+        return "user";
+    }
 
-    public UserRegisteredEvent(Object source, Long userId, String email, String firstName, String lastName) {
-        super(source);
-        this.userId = userId;
-        this.email = email;
-        this.firstName = firstName;
-        this.lastName = lastName;
+    @Override
+    public Long aggregateId() {
+        return userId;
     }
 
-    public Long getUserId() { return userId; }
-    public String getEmail() { return email; }
-    public String getFirstName() { return firstName; }
-    public String getLastName() { return lastName; }
+    @Override
+    public Long customerId() {
+        return userId;
+    }
 }
@@ -1,9 +1,12 @@
 package com.groceryshop.auth;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -16,4 +19,7 @@ public interface UserRepository extends JpaRepository<User, Long> {
     long countByRole(UserRole role);
 
     long countByCreatedAtAfterAndRole(LocalDateTime createdAt, UserRole role);
+
+    @Query("SELECT u.id FROM User u WHERE u.role = :role AND u.status = :status")
+    List<Long> findIdsByRoleAndStatus(@Param("role") UserRole role, @Param("status") UserStatus status);
 }
@@ -1,7 +1,10 @@
 package com.groceryshop.auth.spi;
 
 import com.groceryshop.auth.User;
+import com.groceryshop.auth.UserRole;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -25,4 +28,20 @@ public interface AuthServiceProvider {
      * @return Optional containing the user if found
      */
     Optional<User> findUserByEmail(String email);
+
+    /**
+     * Finds the users with the given IDs; IDs without a user are skipped.
+     *
+     * @param userIds the user IDs
+     * @return the users found, in no particular order
+     */
+    List<User> findUsersByIds(Collection<Long> userIds);
+
+    /**
+     * Finds the IDs of the active users with a role, e.g. every administrator.
+     *
+     * @param role the user role
+     * @return the user IDs
+     */
+    List<Long> findActiveUserIdsByRole(UserRole role);
 }
@@ -1,15 +1,34 @@
 package com.groceryshop.cart;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.groceryshop.shared.event.DomainEvent;
+
 import java.math.BigDecimal;
 
 /**
  * Event published when a cart is checked out and converted to an order.
  */
 public record CartCheckedOutEvent(
-    Object source,
+    @JsonIgnore Object source,
     Long cartId,
     Long userId,
     Long orderId,
     BigDecimal totalAmount,
     Integer itemCount
-) {}
+) implements DomainEvent {
+
+    @Override
+    public String aggregateType() {
+        return "cart";
+    }
+
+    @Override
+    public Long aggregateId() {
+        return cartId;
+    }
+
+    @Override
+    public Long customerId() {
+        return userId;
+    }
+}
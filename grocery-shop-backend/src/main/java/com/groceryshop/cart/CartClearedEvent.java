@@ -0,0 +1,30 @@
+package com.groceryshop.cart;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.groceryshop.shared.event.DomainEvent;
+
+/**
+ * Event published when all items are removed from a cart, by the customer or at checkout.
+ */
+public record CartClearedEvent(
+    @JsonIgnore Object source,
+    Long cartId,
+    Long userId,
+    Integer itemCount
+) implements DomainEvent {
+
+    @Override
+    public String aggregateType() {
+        return "cart";
+    }
+
+    @Override
+    public Long aggregateId() {
+        return cartId;
+    }
+
+    @Override
+    public Long customerId() {
+        return userId;
+    }
+}
@@ -201,6 +201,10 @@ public class CartServiceImpl implements CartService {
         cart.setTotalAmount(BigDecimal.ZERO);
         cartRepository.save(cart);
 
+        if (!items.isEmpty()) {
+            eventPublisher.publishEvent(new CartClearedEvent(this, cart.getId(), userId, items.size()));
+        }
+
         log.info("Cleared cart for user {}", userId);
     }
 
@@ -1,14 +1,33 @@
 package com.groceryshop.cart;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.groceryshop.shared.event.DomainEvent;
+
 /**
  * Event published when an item is removed from a cart.
  */
 public record ItemRemovedFromCartEvent(
-    Object source,
+    @JsonIgnore Object source,
     Long cartId,
     Long userId,
     Long productId,
     String productName,
     Integer quantityRemoved,
     Integer newStockLevel
-) {}
+) implements DomainEvent {
+
+    @Override
+    public String aggregateType() {
+        return "cart";
+    }
+
+    @Override
+    public Long aggregateId() {
+        return cartId;
+    }
+
+    @Override
+    public Long customerId() {
+        return userId;
+    }
+}
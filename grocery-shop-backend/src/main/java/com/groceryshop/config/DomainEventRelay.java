@@ -0,0 +1,83 @@
+package com.groceryshop.config;
+
+import com.groceryshop.auth.UserRegisteredEvent;
+import com.groceryshop.order.OrderCreatedEvent;
+import com.groceryshop.order.OrderStatusUpdatedEvent;
+import com.groceryshop.product.LowStockAlertEvent;
+import com.groceryshop.product.StockUpdatedEvent;
+import com.groceryshop.shared.event.DomainEvent;
+import com.groceryshop.shared.event.EventEnvelope;
+import com.groceryshop.shared.messaging.EventBus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Relays domain application events to the event bus (RabbitMQ or in-process)
+ * once the publishing transaction has committed, so asynchronous consumers never
+ * observe rolled-back state.
+ * <p>
+ * Events are wrapped in an {@link EventEnvelope} as soon as they are published, so
+ * their sequence numbers follow the order in which the domain raised them rather
+ * than the order in which commit callbacks happen to run.
+ */
+@Component
+public class DomainEventRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(DomainEventRelay.class);
+
+    private final EventBus eventBus;
+
+    public DomainEventRelay(EventBus eventBus) {
+        this.eventBus = eventBus;
+    }
+
+    @EventListener
+    public void onDomainEvent(DomainEvent event) {
+        Route route = routeFor(event);
+        if (route == null) {
+            return;
+        }
+        EventEnvelope<DomainEvent> envelope = EventEnvelope.of(event);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    relay(route, envelope);
+                }
+            });
+        } else {
+            relay(route, envelope);
+        }
+    }
+
+    private static Route routeFor(DomainEvent event) {
+        return switch (event) {
+            case OrderCreatedEvent e -> new Route(RabbitMQConfig.ORDER_EXCHANGE, RabbitMQConfig.ORDER_CREATED_KEY);
+            case OrderStatusUpdatedEvent e ->
+                new Route(RabbitMQConfig.ORDER_EXCHANGE, RabbitMQConfig.ORDER_STATUS_UPDATED_KEY);
+            case StockUpdatedEvent e -> new Route(RabbitMQConfig.INVENTORY_EXCHANGE, RabbitMQConfig.STOCK_UPDATED_KEY);
+            case LowStockAlertEvent e -> new Route(RabbitMQConfig.INVENTORY_EXCHANGE, RabbitMQConfig.LOW_STOCK_ALERT_KEY);
+            case UserRegisteredEvent e -> new Route(RabbitMQConfig.USER_EXCHANGE, RabbitMQConfig.USER_REGISTERED_KEY);
+            // Cart and catalogue events have no asynchronous consumers yet
+            default -> null;
+        };
+    }
+
+    private void relay(Route route, EventEnvelope<?> envelope) {
+        try {
+            eventBus.publish(route.exchange(), route.routingKey(), envelope);
+        } catch (RuntimeException e) {
+            // The transaction has already committed; losing the async copy must not fail the request
+            log.error("Failed to relay {} to exchange {} with key {}", envelope.eventType(),
+                    route.exchange(), route.routingKey(), e);
+        }
+    }
+
+    private record Route(String exchange, String routingKey) {
+    }
+}
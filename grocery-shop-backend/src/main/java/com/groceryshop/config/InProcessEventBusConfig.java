@@ -0,0 +1,70 @@
+package com.groceryshop.config;
+
+import com.groceryshop.shared.messaging.BackpressurePolicy;
+import com.groceryshop.shared.messaging.InProcessEventBus;
+import com.groceryshop.shared.messaging.InProcessListenerRegistrar;
+import com.groceryshop.shared.messaging.WaitStrategy;
+import com.groceryshop.sse.SseNode;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * In-process event bus used when RabbitMQ is not configured.
+ * Declares the same topology as {@link RabbitMQConfig} and delivers to the existing
+ * {@code @RabbitListener} methods on per-queue consumer threads.
+ */
+@Configuration
+@ConditionalOnExpression("'${spring.rabbitmq.host:}'.isEmpty()")
+public class InProcessEventBusConfig {
+
+    @Value("${app.messaging.in-process.ring-size:1024}")
+    private int ringSize;
+
+    @Value("${app.messaging.in-process.wait-strategy:BLOCKING}")
+    private WaitStrategy.Type waitStrategy;
+
+    @Value("${app.messaging.in-process.backpressure:BLOCK}")
+    private BackpressurePolicy backpressure;
+
+    @Value("${app.messaging.in-process.publish-timeout:PT1S}")
+    private Duration publishTimeout;
+
+    @Bean
+    public InProcessEventBus eventBus(SseNode sseNode, ObjectProvider<MeterRegistry> meterRegistry) {
+        InProcessEventBus eventBus = new InProcessEventBus(ringSize, waitStrategy, backpressure, publishTimeout);
+        eventBus.declare(MessagingTopology.declarables());
+        eventBus.declare(MessagingTopology.sseNodeDeclarables(sseNode));
+        meterRegistry.ifAvailable(registry -> bindMetrics(eventBus, registry));
+        return eventBus;
+    }
+
+    @Bean
+    public InProcessListenerRegistrar inProcessListenerRegistrar(
+            InProcessEventBus eventBus, ConfigurableListableBeanFactory beanFactory) {
+        return new InProcessListenerRegistrar(eventBus, beanFactory);
+    }
+
+    private void bindMetrics(InProcessEventBus eventBus, MeterRegistry registry) {
+        for (InProcessEventBus.QueueStats queue : eventBus.stats()) {
+            String name = queue.queue();
+            Gauge.builder("grocery.bus.queue.depth", eventBus, bus -> bus.stats(name).depth())
+                    .tag("queue", name)
+                    .register(registry);
+            FunctionCounter.builder("grocery.bus.queue.delivered", eventBus, bus -> bus.stats(name).delivered())
+                    .tag("queue", name)
+                    .register(registry);
+            FunctionCounter.builder("grocery.bus.queue.dropped", eventBus, bus -> bus.stats(name).dropped())
+                    .tag("queue", name)
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.groceryshop.config;
+
+import com.groceryshop.order.spi.OrderServiceProvider;
+import com.groceryshop.product.DemandForecaster;
+import com.groceryshop.product.InventoryLedger;
+import com.groceryshop.product.LowStockThresholds;
+import com.groceryshop.product.ProductCategory;
+import com.groceryshop.product.ProductRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.Map;
+
+/**
+ * Inventory: the nightly batch that fits a demand model per product to its daily sales, read
+ * from the order lines, and the forecasts it serves; the ledger every stock change is recorded
+ * in, with its batching and snapshots; and the low-stock thresholds alerts are raised at.
+ */
+@Configuration
+public class InventoryConfig {
+
+    @Value("${app.inventory.forecast.history-days:56}")
+    private int historyDays;
+
+    @Value("${app.inventory.forecast.horizon-days:45}")
+    private int horizonDays;
+
+    @Value("${app.inventory.forecast.service-level:0.95}")
+    private double serviceLevel;
+
+    @Value("${app.inventory.forecast.lead-time:P2D}")
+    private Duration leadTime;
+
+    @Value("${app.inventory.forecast.run-at:02:00}")
+    private String runAt;
+
+    @Value("${app.inventory.forecast.parallelism:0}")
+    private int parallelism;
+
+    @Value("${app.inventory.ledger.capacity:10000}")
+    private int ledgerCapacity;
+
+    @Value("${app.inventory.ledger.batch-size:500}")
+    private int ledgerBatchSize;
+
+    @Value("${app.inventory.ledger.linger:PT0.2S}")
+    private Duration ledgerLinger;
+
+    @Value("${app.inventory.ledger.snapshot-interval:PT1H}")
+    private Duration ledgerSnapshotInterval;
+
+    @Value("${app.inventory.low-stock.default-threshold:10}")
+    private int defaultLowStockThreshold;
+
+    @Value("${app.inventory.low-stock.rearm-ratio:1.5}")
+    private double lowStockRearmRatio;
+
+    @Bean
+    public LowStockThresholds lowStockThresholds(Environment environment) {
+        Map<ProductCategory, Integer> categoryThresholds = Binder.get(environment)
+                .bind("app.inventory.low-stock.category-thresholds", Bindable.mapOf(ProductCategory.class, Integer.class))
+                .orElse(Map.of());
+        return new LowStockThresholds(defaultLowStockThreshold, categoryThresholds, lowStockRearmRatio);
+    }
+
+    @Bean
+    public DemandForecaster demandForecaster(ProductRepository productRepository,
+                                             OrderServiceProvider orderServiceProvider,
+                                             ObjectProvider<MeterRegistry> meterRegistry) {
+        DemandForecaster forecaster = new DemandForecaster(productRepository,
+                (from, to, visitor) -> orderServiceProvider.forEachDailySale(from, to, visitor::visit),
+                historyDays, horizonDays, serviceLevel, (int) leadTime.toDays(),
+                parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors(),
+                Clock.systemDefaultZone());
+        MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        Gauge.builder("grocery.inventory.forecast.products", forecaster, DemandForecaster::size)
+                .register(registry);
+        Gauge.builder("grocery.inventory.forecast.run.seconds", forecaster,
+                        f -> f.getLastRunTime().toNanos() / 1e9)
+                .register(registry);
+        forecaster.start(LocalTime.parse(runAt));
+        return forecaster;
+    }
+
+    @Bean
+    public InventoryLedger inventoryLedger(JdbcTemplate jdbcTemplate, ObjectProvider<MeterRegistry> meterRegistry) {
+        InventoryLedger ledger = new InventoryLedger(jdbcTemplate, ledgerCapacity, ledgerBatchSize, ledgerLinger,
+                ledgerSnapshotInterval, Clock.systemDefaultZone());
+        MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        FunctionCounter.builder("grocery.inventory.ledger.written", ledger, InventoryLedger::getWrittenCount)
+                .description("Stock changes recorded in the inventory ledger")
+                .register(registry);
+        FunctionCounter.builder("grocery.inventory.ledger.failed-batches", ledger, InventoryLedger::getFailedBatchCount)
+                .register(registry);
+        FunctionCounter.builder("grocery.inventory.ledger.dropped", ledger, InventoryLedger::getDroppedCount)
+                .description("Stock changes dropped because they can never be recorded")
+                .register(registry);
+        FunctionCounter.builder("grocery.inventory.ledger.snapshots", ledger, InventoryLedger::getSnapshotCount)
+                .register(registry);
+        Gauge.builder("grocery.inventory.ledger.queued", ledger, InventoryLedger::getQueued)
+                .register(registry);
+        ledger.start();
+        return ledger;
+    }
+}
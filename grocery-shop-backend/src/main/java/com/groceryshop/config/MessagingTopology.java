@@ -0,0 +1,85 @@
+package com.groceryshop.config;
+
+import com.groceryshop.sse.SseNode;
+import org.springframework.amqp.core.*;
+
+import java.util.List;
+
+import static com.groceryshop.config.RabbitMQConfig.*;
+
+/**
+ * Single definition of the messaging topology (exchanges, queues and bindings).
+ * Used by {@link RabbitMQConfig} to declare the broker topology and by
+ * {@link InProcessEventBusConfig} to replicate the same routing in-process.
+ */
+public final class MessagingTopology {
+
+    private MessagingTopology() {
+    }
+
+    public static Declarables declarables() {
+        // Order Exchange (Direct Exchange)
+        DirectExchange orderExchange = new DirectExchange(ORDER_EXCHANGE);
+        // Inventory Exchange (Topic Exchange)
+        TopicExchange inventoryExchange = new TopicExchange(INVENTORY_EXCHANGE);
+        // User Exchange (Fanout Exchange)
+        FanoutExchange userExchange = new FanoutExchange(USER_EXCHANGE);
+        // Notification Exchange (Headers Exchange)
+        HeadersExchange notificationExchange = new HeadersExchange(NOTIFICATION_EXCHANGE);
+
+        // Queues
+        Queue orderProcessingQueue = new Queue(ORDER_PROCESSING_QUEUE, true);
+        Queue orderEventsQueue = new Queue(ORDER_EVENTS_QUEUE, true);
+        Queue inventoryUpdatesQueue = new Queue(INVENTORY_UPDATES_QUEUE, true);
+        Queue inventoryEventsQueue = new Queue(INVENTORY_EVENTS_QUEUE, true);
+        Queue notificationEmailQueue = new Queue(NOTIFICATION_EMAIL_QUEUE, true);
+        Queue notificationPushQueue = new Queue(NOTIFICATION_PUSH_QUEUE, true);
+        Queue notificationEventsQueue = new Queue(NOTIFICATION_EVENTS_QUEUE, true);
+        Queue analyticsEventsQueue = new Queue(ANALYTICS_EVENTS_QUEUE, true);
+
+        return new Declarables(List.of(
+            orderExchange, inventoryExchange, userExchange, notificationExchange,
+            orderProcessingQueue, orderEventsQueue, inventoryUpdatesQueue, inventoryEventsQueue,
+            notificationEmailQueue, notificationPushQueue, notificationEventsQueue, analyticsEventsQueue,
+
+            // Bindings for Order Exchange
+            BindingBuilder.bind(orderProcessingQueue).to(orderExchange).with(ORDER_PROCESSING_KEY),
+
+            // Bindings for Inventory Exchange
+            BindingBuilder.bind(inventoryUpdatesQueue).to(inventoryExchange).with(STOCK_UPDATED_KEY),
+            BindingBuilder.bind(inventoryUpdatesQueue).to(inventoryExchange).with(LOW_STOCK_ALERT_KEY),
+
+            // Bindings for User Exchange (Fanout - no routing key needed)
+            BindingBuilder.bind(analyticsEventsQueue).to(userExchange),
+
+            // Bindings for Notification Exchange (Headers)
+            BindingBuilder.bind(notificationEmailQueue).to(notificationExchange).where(EMAIL_HEADER).matches(EMAIL_VALUE),
+            BindingBuilder.bind(notificationPushQueue).to(notificationExchange).where(PUSH_HEADER).matches(PUSH_VALUE),
+
+            // Bindings for SSE Event Queues. A direct exchange has no wildcards, so the
+            // order events queue is bound to each order key the relay publishes.
+            BindingBuilder.bind(orderEventsQueue).to(orderExchange).with(ORDER_CREATED_KEY),
+            BindingBuilder.bind(orderEventsQueue).to(orderExchange).with(ORDER_STATUS_UPDATED_KEY),
+            BindingBuilder.bind(inventoryEventsQueue).to(inventoryExchange).with("stock.*"),
+            BindingBuilder.bind(notificationEventsQueue).to(notificationExchange).where(EMAIL_HEADER).matches(EMAIL_VALUE),
+            BindingBuilder.bind(notificationEventsQueue).to(notificationExchange).where(PUSH_HEADER).matches(PUSH_VALUE)
+        ));
+    }
+
+    /**
+     * Topology for delivering SSE events across nodes: every node's queue is bound to the
+     * presence fanout exchange, and to the delivery direct exchange under the node's id.
+     */
+    public static Declarables sseNodeDeclarables(SseNode node) {
+        FanoutExchange presenceExchange = new FanoutExchange(SSE_PRESENCE_EXCHANGE);
+        DirectExchange deliveryExchange = new DirectExchange(SSE_DELIVERY_EXCHANGE);
+        // Non-durable and auto-delete: the queue only matters while this node is running
+        Queue nodeQueue = new Queue(node.queueName(), false, false, true);
+
+        return new Declarables(List.of(
+            presenceExchange, deliveryExchange, nodeQueue,
+            BindingBuilder.bind(nodeQueue).to(presenceExchange),
+            BindingBuilder.bind(nodeQueue).to(deliveryExchange).with(node.id())
+        ));
+    }
+}
@@ -0,0 +1,155 @@
+package com.groceryshop.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.groceryshop.auth.spi.AuthServiceProvider;
+import com.groceryshop.notification.DeviceTokenRegistry;
+import com.groceryshop.notification.DeviceTokenRepository;
+import com.groceryshop.notification.MappedNotificationJournal;
+import com.groceryshop.notification.NotificationDispatcher;
+import com.groceryshop.notification.NotificationDispatcher.ChannelSettings;
+import com.groceryshop.notification.NotificationJournal;
+import com.groceryshop.notification.NotificationSender;
+import com.groceryshop.notification.NotificationType;
+import com.groceryshop.shared.messaging.BackpressurePolicy;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Notification delivery: per-channel queues, workers and provider batching of the
+ * {@link NotificationDispatcher}, the optional journal that makes queued notifications survive a restart,
+ * and the registry of devices push notifications are sent to.
+ */
+@Configuration
+public class NotificationConfig {
+
+    @Value("${app.notifications.email.workers:8}")
+    private int emailWorkers;
+
+    @Value("${app.notifications.email.capacity:10000}")
+    private int emailCapacity;
+
+    @Value("${app.notifications.email.backpressure:BLOCK}")
+    private BackpressurePolicy emailBackpressure;
+
+    @Value("${app.notifications.email.batch-size:50}")
+    private int emailBatchSize;
+
+    @Value("${app.notifications.email.linger:PT0.2S}")
+    private Duration emailLinger;
+
+    @Value("${app.notifications.push.workers:8}")
+    private int pushWorkers;
+
+    @Value("${app.notifications.push.capacity:10000}")
+    private int pushCapacity;
+
+    @Value("${app.notifications.push.backpressure:DROP}")
+    private BackpressurePolicy pushBackpressure;
+
+    @Value("${app.notifications.push.batch-size:100}")
+    private int pushBatchSize;
+
+    @Value("${app.notifications.push.linger:PT0.1S}")
+    private Duration pushLinger;
+
+    @Value("${app.notifications.push.token-cache-ttl:PT5M}")
+    private Duration pushTokenCacheTtl;
+
+    @Value("${app.notifications.sms.workers:2}")
+    private int smsWorkers;
+
+    @Value("${app.notifications.sms.capacity:1000}")
+    private int smsCapacity;
+
+    @Value("${app.notifications.sms.backpressure:DROP}")
+    private BackpressurePolicy smsBackpressure;
+
+    @Value("${app.notifications.sms.batch-size:1}")
+    private int smsBatchSize;
+
+    @Value("${app.notifications.sms.linger:PT0S}")
+    private Duration smsLinger;
+
+    @Value("${app.notifications.enqueue-timeout:PT1S}")
+    private Duration enqueueTimeout;
+
+    @Value("${app.notifications.drain-timeout:PT10S}")
+    private Duration drainTimeout;
+
+    @Value("${app.notifications.journal.enabled:false}")
+    private boolean journalEnabled;
+
+    @Value("${app.notifications.journal.directory:data/notification-journal}")
+    private Path journalDirectory;
+
+    @Value("${app.notifications.journal.segment-size:64MB}")
+    private DataSize journalSegmentSize;
+
+    @Value("${app.notifications.journal.flush-interval:PT0.01S}")
+    private Duration journalFlushInterval;
+
+    @Value("${app.notifications.journal.sync-on-enqueue:false}")
+    private boolean journalSyncOnEnqueue;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    /**
+     * Journal of queued notifications, so that they survive a restart; disabled by default.
+     */
+    @Bean
+    public NotificationJournal notificationJournal(ObjectMapper objectMapper) {
+        if (!journalEnabled) {
+            return NotificationJournal.DISABLED;
+        }
+        return new MappedNotificationJournal(journalDirectory, (int) journalSegmentSize.toBytes(),
+                journalFlushInterval, journalSyncOnEnqueue, objectMapper);
+    }
+
+    @Bean
+    public DeviceTokenRegistry deviceTokenRegistry(DeviceTokenRepository deviceTokenRepository,
+                                                   AuthServiceProvider authServiceProvider,
+                                                   ObjectProvider<MeterRegistry> meterRegistry) {
+        DeviceTokenRegistry registry = new DeviceTokenRegistry(deviceTokenRepository, authServiceProvider,
+                pushTokenCacheTtl);
+        FunctionCounter.builder("grocery.notifications.push.tokens.pruned", registry,
+                        DeviceTokenRegistry::getPrunedCount)
+                .register(meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+        return registry;
+    }
+
+    @Bean
+    public NotificationDispatcher notificationDispatcher(List<NotificationSender> senders,
+                                                         NotificationJournal notificationJournal,
+                                                         ObjectProvider<MeterRegistry> meterRegistry) {
+        Map<NotificationType, ChannelSettings> settings = Map.of(
+            NotificationType.EMAIL, new ChannelSettings(emailWorkers, emailCapacity, emailBackpressure, emailBatchSize,
+                emailLinger),
+            NotificationType.PUSH, new ChannelSettings(pushWorkers, pushCapacity, pushBackpressure, pushBatchSize,
+                pushLinger),
+            NotificationType.SMS, new ChannelSettings(smsWorkers, smsCapacity, smsBackpressure, smsBatchSize,
+                smsLinger)
+        );
+        MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        if (notificationJournal instanceof MappedNotificationJournal mapped) {
+            Gauge.builder("grocery.notifications.journal.pending", mapped, MappedNotificationJournal::getPendingCount)
+                    .register(registry);
+            Gauge.builder("grocery.notifications.journal.segments", mapped, MappedNotificationJournal::getSegmentCount)
+                    .register(registry);
+        }
+        return new NotificationDispatcher(settings, senders, enqueueTimeout, drainTimeout, virtualThreads,
+                notificationJournal, registry);
+    }
+}
@@ -1,6 +1,9 @@
 package com.groceryshop.config;
 
-import org.springframework.amqp.core.*;
+import com.groceryshop.shared.messaging.EventBus;
+import com.groceryshop.shared.messaging.RabbitEventBus;
+import com.groceryshop.sse.SseNode;
+import org.springframework.amqp.core.Declarables;
 import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
@@ -12,11 +15,11 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.retry.backoff.ExponentialBackOffPolicy;
 import org.springframework.retry.support.RetryTemplate;
 
-import java.util.Map;
-
 /**
  * RabbitMQ configuration for the Grocery Shop event-driven architecture.
  * Defines exchanges, queues, and bindings for event messaging.
+ * When no broker host is configured, {@link InProcessEventBusConfig} provides the same
+ * topology in-process instead.
  */
 @Configuration
 @ConditionalOnProperty(name = "spring.rabbitmq.host", matchIfMissing = false)
@@ -27,6 +30,8 @@ public class RabbitMQConfig {
     public static final String INVENTORY_EXCHANGE = "grocery.inventory";
     public static final String USER_EXCHANGE = "grocery.users";
     public static final String NOTIFICATION_EXCHANGE = "grocery.notifications";
+    public static final String SSE_PRESENCE_EXCHANGE = "grocery.sse.presence";
+    public static final String SSE_DELIVERY_EXCHANGE = "grocery.sse.delivery";
 
     // Queue Names
     public static final String ORDER_PROCESSING_QUEUE = "order.processing";
@@ -45,6 +50,7 @@ public class RabbitMQConfig {
     public static final String ORDER_SHIPPED_KEY = "order.shipped";
     public static final String ORDER_DELIVERED_KEY = "order.delivered";
     public static final String ORDER_CANCELLED_KEY = "order.cancelled";
+    public static final String ORDER_STATUS_UPDATED_KEY = "order.status_updated";
 
     public static final String STOCK_UPDATED_KEY = "stock.updated";
     public static final String LOW_STOCK_ALERT_KEY = "stock.low";
@@ -80,146 +86,28 @@ public class RabbitMQConfig {
         return rabbitTemplate;
     }
 
-    // Order Exchange (Direct Exchange)
-    @Bean
-    public DirectExchange orderExchange() {
-        return new DirectExchange(ORDER_EXCHANGE);
-    }
-
-    // Inventory Exchange (Topic Exchange)
-    @Bean
-    public TopicExchange inventoryExchange() {
-        return new TopicExchange(INVENTORY_EXCHANGE);
-    }
-
-    // User Exchange (Fanout Exchange)
-    @Bean
-    public FanoutExchange userExchange() {
-        return new FanoutExchange(USER_EXCHANGE);
-    }
-
-    // Notification Exchange (Headers Exchange)
-    @Bean
-    public HeadersExchange notificationExchange() {
-        return new HeadersExchange(NOTIFICATION_EXCHANGE);
-    }
-
-    // Queues
-    @Bean
-    public Queue orderProcessingQueue() {
-        return new Queue(ORDER_PROCESSING_QUEUE, true);
-    }
-
-    @Bean
-    public Queue orderEventsQueue() {
-        return new Queue(ORDER_EVENTS_QUEUE, true);
-    }
-
-    @Bean
-    public Queue inventoryUpdatesQueue() {
-        return new Queue(INVENTORY_UPDATES_QUEUE, true);
-    }
-
-    @Bean
-    public Queue inventoryEventsQueue() {
-        return new Queue(INVENTORY_EVENTS_QUEUE, true);
-    }
-
-    @Bean
-    public Queue notificationEmailQueue() {
-        return new Queue(NOTIFICATION_EMAIL_QUEUE, true);
-    }
-
-    @Bean
-    public Queue notificationPushQueue() {
-        return new Queue(NOTIFICATION_PUSH_QUEUE, true);
-    }
-
-    @Bean
-    public Queue notificationEventsQueue() {
-        return new Queue(NOTIFICATION_EVENTS_QUEUE, true);
-    }
-
-    @Bean
-    public Queue analyticsEventsQueue() {
-        return new Queue(ANALYTICS_EVENTS_QUEUE, true);
-    }
-
-    // Bindings for Order Exchange
-    @Bean
-    public Binding orderProcessingBinding() {
-        return BindingBuilder.bind(orderProcessingQueue())
-                .to(orderExchange())
-                .with(ORDER_PROCESSING_KEY);
-    }
-
-    // Bindings for Inventory Exchange
-    @Bean
-    public Binding inventoryUpdatesBinding() {
-        return BindingBuilder.bind(inventoryUpdatesQueue())
-                .to(inventoryExchange())
-                .with(STOCK_UPDATED_KEY);
-    }
-
-    @Bean
-    public Binding lowStockAlertBinding() {
-        return BindingBuilder.bind(inventoryUpdatesQueue())
-                .to(inventoryExchange())
-                .with(LOW_STOCK_ALERT_KEY);
-    }
-
-    // Bindings for User Exchange (Fanout - no routing key needed)
-    @Bean
-    public Binding userAnalyticsBinding() {
-        return BindingBuilder.bind(analyticsEventsQueue())
-                .to(userExchange());
-    }
-
-    // Bindings for Notification Exchange (Headers)
-    @Bean
-    public Binding emailNotificationBinding() {
-        return BindingBuilder.bind(notificationEmailQueue())
-                .to(notificationExchange())
-                .where(EMAIL_HEADER)
-                .matches(EMAIL_VALUE);
-    }
-
-    @Bean
-    public Binding pushNotificationBinding() {
-        return BindingBuilder.bind(notificationPushQueue())
-                .to(notificationExchange())
-                .where(PUSH_HEADER)
-                .matches(PUSH_VALUE);
-    }
-
-    // Bindings for SSE Event Queues
-    @Bean
-    public Binding orderEventsBinding() {
-        return BindingBuilder.bind(orderEventsQueue())
-                .to(orderExchange())
-                .with("*"); // Bind to all order events
-    }
-
+    /**
+     * Declares the exchanges, queues and bindings described by {@link MessagingTopology}
+     * so that RabbitAdmin creates them on the broker.
+     */
     @Bean
-    public Binding inventoryEventsBinding() {
-        return BindingBuilder.bind(inventoryEventsQueue())
-                .to(inventoryExchange())
-                .with("*"); // Bind to all inventory events
+    public Declarables groceryTopology() {
+        return MessagingTopology.declarables();
     }
 
+    /**
+     * Declares this node's SSE cluster queue, which is deleted when the node disconnects.
+     */
     @Bean
-    public Binding notificationEventsEmailBinding() {
-        return BindingBuilder.bind(notificationEventsQueue())
-                .to(notificationExchange())
-                .where(EMAIL_HEADER)
-                .matches(EMAIL_VALUE);
+    public Declarables sseNodeTopology(SseNode sseNode) {
+        return MessagingTopology.sseNodeDeclarables(sseNode);
     }
 
+    /**
+     * Broker-backed event bus used by the domain event relay.
+     */
     @Bean
-    public Binding notificationEventsPushBinding() {
-        return BindingBuilder.bind(notificationEventsQueue())
-                .to(notificationExchange())
-                .where(PUSH_HEADER)
-                .matches(PUSH_VALUE);
+    public EventBus eventBus(RabbitTemplate rabbitTemplate) {
+        return new RabbitEventBus(rabbitTemplate);
     }
 }
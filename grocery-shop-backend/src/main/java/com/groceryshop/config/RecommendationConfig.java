@@ -0,0 +1,273 @@
+package com.groceryshop.config;
+
+import com.groceryshop.order.spi.OrderServiceProvider;
+import com.groceryshop.product.spi.ProductServiceProvider;
+import com.groceryshop.recommendation.CartComplementEngine;
+import com.groceryshop.recommendation.CategoryCandidates;
+import com.groceryshop.recommendation.CoPurchaseMatrix;
+import com.groceryshop.recommendation.CoPurchaseTracker;
+import com.groceryshop.recommendation.ItemSimilarityIndex;
+import com.groceryshop.recommendation.ItemSimilarityJob;
+import com.groceryshop.recommendation.PopularityCounters;
+import com.groceryshop.recommendation.PopularityTracker;
+import com.groceryshop.recommendation.ProductLookup;
+import com.groceryshop.recommendation.ProductSimilarityIndex;
+import com.groceryshop.recommendation.ProductVectorizer;
+import com.groceryshop.recommendation.RecommendationCache;
+import com.groceryshop.recommendation.PurchaseProfileStore;
+import com.groceryshop.recommendation.UserPurchaseProfileRepository;
+import com.groceryshop.recommendation.spi.RecommendationServiceProvider;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Recommendations: the in-memory product lookup the recommendation algorithms resolve ranked
+ * product IDs through, the co-purchase matrix behind "frequently bought together" with its
+ * snapshot, the time-decayed popularity counters behind "popular", the customers' purchase
+ * profiles and the offline item-to-item similarities behind personalized recommendations, the
+ * content-based similar-products index, the cart-complement engine with its per-category
+ * candidate lists, and the cache of computed per-user results.
+ */
+@Configuration
+public class RecommendationConfig {
+
+    @Value("${app.recommendations.product-cache.ttl:PT30S}")
+    private Duration productCacheTtl;
+
+    @Value("${app.recommendations.product-cache.max-entries:50000}")
+    private int productCacheMaxEntries;
+
+    @Value("${app.recommendations.co-purchase.max-neighbours:50}")
+    private int coPurchaseMaxNeighbours;
+
+    @Value("${app.recommendations.co-purchase.max-items-per-order:50}")
+    private int coPurchaseMaxItemsPerOrder;
+
+    @Value("${app.recommendations.co-purchase.snapshot-file:data/recommendations/co-purchase.bin}")
+    private Path coPurchaseSnapshotFile;
+
+    @Value("${app.recommendations.co-purchase.snapshot-interval:PT5M}")
+    private Duration coPurchaseSnapshotInterval;
+
+    @Value("${app.recommendations.co-purchase.catch-up-batch-size:1000}")
+    private int coPurchaseCatchUpBatchSize;
+
+    @Value("${app.recommendations.popularity.half-life:P7D}")
+    private Duration popularityHalfLife;
+
+    @Value("${app.recommendations.popularity.top-n:200}")
+    private int popularityTopN;
+
+    @Value("${app.recommendations.popularity.republish-interval:PT5S}")
+    private Duration popularityRepublishInterval;
+
+    @Value("${app.recommendations.popularity.warm-up-window:P28D}")
+    private Duration popularityWarmUpWindow;
+
+    @Value("${app.recommendations.purchase-profiles.max-cached:10000}")
+    private int purchaseProfilesMaxCached;
+
+    @Value("${app.recommendations.cache.max-users:100000}")
+    private int cacheMaxUsers;
+
+    @Value("${app.recommendations.cache.ttl:PT10M}")
+    private Duration cacheTtl;
+
+    @Value("${app.recommendations.cache.refresh-after:PT1M}")
+    private Duration cacheRefreshAfter;
+
+    @Value("${app.recommendations.cache.refresh-threads:2}")
+    private int cacheRefreshThreads;
+
+    @Value("${app.recommendations.item-similarity.file:data/recommendations/item-similarity.bin}")
+    private Path itemSimilarityFile;
+
+    @Value("${app.recommendations.item-similarity.interval:P1D}")
+    private Duration itemSimilarityInterval;
+
+    @Value("${app.recommendations.item-similarity.k:20}")
+    private int itemSimilarityK;
+
+    @Value("${app.recommendations.item-similarity.min-common-customers:2}")
+    private int itemSimilarityMinCommonCustomers;
+
+    @Value("${app.recommendations.item-similarity.max-products-per-customer:500}")
+    private int itemSimilarityMaxProductsPerCustomer;
+
+    @Value("${app.recommendations.item-similarity.parallelism:0}")
+    private int itemSimilarityParallelism;
+
+    @Value("${app.recommendations.similar-products.dimensions:256}")
+    private int similarProductsDimensions;
+
+    @Value("${app.recommendations.similar-products.max-links:16}")
+    private int similarProductsMaxLinks;
+
+    @Value("${app.recommendations.similar-products.ef-construction:100}")
+    private int similarProductsEfConstruction;
+
+    @Value("${app.recommendations.similar-products.ef-search:64}")
+    private int similarProductsEfSearch;
+
+    @Value("${app.recommendations.similar-products.build-parallelism:0}")
+    private int similarProductsBuildParallelism;
+
+    @Value("${app.recommendations.cart-complement.candidates-per-category:50}")
+    private int cartComplementCandidatesPerCategory;
+
+    @Value("${app.recommendations.cart-complement.candidates-ttl:PT1M}")
+    private Duration cartComplementCandidatesTtl;
+
+    @Value("${app.recommendations.cart-complement.category-weight:0.5}")
+    private double cartComplementCategoryWeight;
+
+    @Bean
+    public ProductLookup productLookup(RecommendationServiceProvider recommendationServiceProvider) {
+        return new ProductLookup(recommendationServiceProvider, productCacheTtl, productCacheMaxEntries);
+    }
+
+    @Bean
+    public CoPurchaseMatrix coPurchaseMatrix(ObjectProvider<MeterRegistry> meterRegistry) {
+        CoPurchaseMatrix matrix = new CoPurchaseMatrix(coPurchaseMaxNeighbours, coPurchaseMaxItemsPerOrder);
+        Gauge.builder("grocery.recommendations.co-purchase.products", matrix, CoPurchaseMatrix::productCount)
+                .register(meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+        return matrix;
+    }
+
+    @Bean
+    public CoPurchaseTracker coPurchaseTracker(CoPurchaseMatrix coPurchaseMatrix,
+                                               RecommendationServiceProvider recommendationServiceProvider) {
+        CoPurchaseTracker tracker = new CoPurchaseTracker(coPurchaseMatrix, recommendationServiceProvider,
+                coPurchaseSnapshotFile, coPurchaseCatchUpBatchSize);
+        tracker.start(coPurchaseSnapshotInterval);
+        return tracker;
+    }
+
+    @Bean
+    public PopularityCounters popularityCounters(ObjectProvider<MeterRegistry> meterRegistry) {
+        PopularityCounters counters = new PopularityCounters(popularityHalfLife, popularityTopN, System.currentTimeMillis());
+        Gauge.builder("grocery.recommendations.popularity.products", counters, PopularityCounters::size)
+                .register(meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+        return counters;
+    }
+
+    @Bean
+    public PopularityTracker popularityTracker(PopularityCounters popularityCounters, ProductLookup productLookup,
+                                               RecommendationServiceProvider recommendationServiceProvider) {
+        PopularityTracker tracker = new PopularityTracker(popularityCounters, productLookup,
+                recommendationServiceProvider, popularityWarmUpWindow, coPurchaseCatchUpBatchSize,
+                Clock.systemDefaultZone());
+        tracker.start(popularityRepublishInterval);
+        return tracker;
+    }
+
+    @Bean
+    public PurchaseProfileStore purchaseProfileStore(UserPurchaseProfileRepository userPurchaseProfileRepository,
+                                                     OrderServiceProvider orderServiceProvider,
+                                                     ProductServiceProvider productServiceProvider,
+                                                     ObjectProvider<MeterRegistry> meterRegistry) {
+        PurchaseProfileStore store = new PurchaseProfileStore(userPurchaseProfileRepository,
+                orderServiceProvider::findPurchasedProductsByCustomer, productServiceProvider::findProductsByIds,
+                purchaseProfilesMaxCached);
+        Gauge.builder("grocery.recommendations.purchase-profiles.cached", store, PurchaseProfileStore::size)
+                .register(meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+        return store;
+    }
+
+    @Bean
+    public RecommendationCache recommendationCache(ObjectProvider<MeterRegistry> meterRegistry) {
+        RecommendationCache cache = new RecommendationCache(cacheMaxUsers, cacheTtl, cacheRefreshAfter,
+                cacheRefreshThreads);
+        MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        FunctionCounter.builder("grocery.recommendations.cache.requests", cache, RecommendationCache::getHitCount)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("grocery.recommendations.cache.requests", cache, RecommendationCache::getMissCount)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("grocery.recommendations.cache.stale-hits", cache, RecommendationCache::getStaleHitCount)
+                .register(registry);
+        FunctionCounter.builder("grocery.recommendations.cache.refreshes", cache, RecommendationCache::getRefreshCount)
+                .register(registry);
+        FunctionCounter.builder("grocery.recommendations.cache.invalidations", cache,
+                        RecommendationCache::getInvalidationCount)
+                .register(registry);
+        FunctionCounter.builder("grocery.recommendations.cache.evictions", cache, RecommendationCache::getEvictionCount)
+                .register(registry);
+        Gauge.builder("grocery.recommendations.cache.users", cache, RecommendationCache::size)
+                .register(registry);
+        return cache;
+    }
+
+    @Bean
+    public ItemSimilarityIndex itemSimilarityIndex() {
+        return new ItemSimilarityIndex();
+    }
+
+    @Bean
+    public ItemSimilarityJob itemSimilarityJob(RecommendationServiceProvider recommendationServiceProvider,
+                                               ItemSimilarityIndex itemSimilarityIndex,
+                                               ObjectProvider<MeterRegistry> meterRegistry) {
+        int parallelism = itemSimilarityParallelism > 0
+                ? itemSimilarityParallelism
+                : Runtime.getRuntime().availableProcessors();
+        ItemSimilarityJob job = new ItemSimilarityJob(recommendationServiceProvider, itemSimilarityIndex,
+                itemSimilarityFile, itemSimilarityK, itemSimilarityMinCommonCustomers,
+                itemSimilarityMaxProductsPerCustomer, parallelism);
+        MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        Gauge.builder("grocery.recommendations.item-similarity.products", itemSimilarityIndex,
+                        ItemSimilarityIndex::itemCount)
+                .register(registry);
+        Gauge.builder("grocery.recommendations.item-similarity.run.seconds", job,
+                        j -> j.getLastReport() == null ? 0 : lastRunNanos(j.getLastReport()) / 1e9)
+                .register(registry);
+        Gauge.builder("grocery.recommendations.item-similarity.run.speed-up", job,
+                        j -> j.getLastReport() == null ? 0 : j.getLastReport().speedUp())
+                .register(registry);
+        Gauge.builder("grocery.recommendations.item-similarity.run.memory", job,
+                        j -> j.getLastReport() == null ? 0 : j.getLastReport().memoryBytes())
+                .baseUnit("bytes")
+                .register(registry);
+        job.start(itemSimilarityInterval);
+        return job;
+    }
+
+    @Bean
+    public ProductSimilarityIndex productSimilarityIndex(RecommendationServiceProvider recommendationServiceProvider,
+                                                         ObjectProvider<MeterRegistry> meterRegistry) {
+        int parallelism = similarProductsBuildParallelism > 0
+                ? similarProductsBuildParallelism
+                : Runtime.getRuntime().availableProcessors();
+        ProductSimilarityIndex index = new ProductSimilarityIndex(recommendationServiceProvider,
+                new ProductVectorizer(similarProductsDimensions), similarProductsMaxLinks,
+                similarProductsEfConstruction, similarProductsEfSearch, parallelism);
+        Gauge.builder("grocery.recommendations.similar-products.indexed", index, ProductSimilarityIndex::size)
+                .register(meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+        index.start();
+        return index;
+    }
+
+    @Bean
+    public CartComplementEngine cartComplementEngine(RecommendationServiceProvider recommendationServiceProvider,
+                                                     ProductLookup productLookup,
+                                                     PopularityCounters popularityCounters) {
+        CategoryCandidates categoryCandidates = new CategoryCandidates(recommendationServiceProvider, productLookup,
+                popularityCounters, cartComplementCandidatesPerCategory, cartComplementCandidatesTtl);
+        return new CartComplementEngine(recommendationServiceProvider, categoryCandidates,
+                cartComplementCategoryWeight);
+    }
+
+    private static long lastRunNanos(ItemSimilarityJob.Report report) {
+        return report.loadTime().plus(report.computeTime()).plus(report.publishTime()).toNanos();
+    }
+}
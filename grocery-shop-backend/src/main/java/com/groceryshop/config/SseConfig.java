@@ -1,11 +1,27 @@
 package com.groceryshop.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.groceryshop.shared.messaging.EventBus;
+import com.groceryshop.sse.SlowConsumerPolicy;
+import com.groceryshop.sse.SseBroadcaster;
+import com.groceryshop.sse.SseCluster;
+import com.groceryshop.sse.SseConnectionLimiter;
+import com.groceryshop.sse.SseFrameEncoder;
+import com.groceryshop.sse.SseHeartbeatWheel;
+import com.groceryshop.sse.SseNode;
+import com.groceryshop.sse.SseService;
+import com.groceryshop.sse.SseSubscriptionRegistry;
+import com.groceryshop.sse.SseTopicType;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.Duration;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.UUID;
 
 @Configuration
 public class SseConfig {
@@ -13,9 +29,143 @@ public class SseConfig {
     // SSE timeout: 30 minutes (clients will reconnect automatically)
     private static final long SSE_TIMEOUT = Duration.ofMinutes(30).toMillis();
 
+    private static final int HEARTBEAT_WHEEL_SLOTS = 32;
+
+    @Value("${app.sse.queue-capacity:256}")
+    private int queueCapacity;
+
+    @Value("${app.sse.writer-threads:4}")
+    private int writerThreads;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${app.sse.max-batch:32}")
+    private int maxBatch;
+
+    @Value("${app.sse.slow-consumer-policy:DROP}")
+    private SlowConsumerPolicy slowConsumerPolicy;
+
+    @Value("${app.sse.replay-size:64}")
+    private int replaySize;
+
+    @Value("${app.sse.replay-retention:PT5M}")
+    private Duration replayRetention;
+
+    @Value("${app.sse.heartbeat-interval:PT15S}")
+    private Duration heartbeatInterval;
+
+    @Value("${app.sse.idle-timeout:PT1M}")
+    private Duration idleTimeout;
+
+    @Value("${app.sse.max-connections:10000}")
+    private int maxConnections;
+
+    @Value("${app.sse.max-connections-per-user:5}")
+    private int maxConnectionsPerUser;
+
+    @Value("${app.sse.node-id:}")
+    private String nodeId;
+
+    @Value("${app.sse.presence-ttl:PT1M}")
+    private Duration presenceTtl;
+
+    @Bean
+    public SseFrameEncoder sseFrameEncoder(ObjectMapper objectMapper) {
+        return new SseFrameEncoder(objectMapper);
+    }
+
+    /**
+     * In virtual-thread mode the writers are virtual threads and {@code writer-threads} is ignored.
+     */
+    @Bean
+    public SseBroadcaster sseBroadcaster() {
+        if (virtualThreads) {
+            return new SseBroadcaster(queueCapacity, SseBroadcaster.virtualThreadWriters(), maxBatch,
+                    slowConsumerPolicy);
+        }
+        return new SseBroadcaster(queueCapacity, writerThreads, maxBatch, slowConsumerPolicy);
+    }
+
+    @Bean
+    public SseSubscriptionRegistry sseSubscriptionRegistry() {
+        return new SseSubscriptionRegistry(replaySize, replayRetention);
+    }
+
+    @Bean
+    public SseConnectionLimiter sseConnectionLimiter() {
+        return new SseConnectionLimiter(maxConnections, maxConnectionsPerUser);
+    }
+
+    /**
+     * Identity of this instance in the SSE cluster. Unless configured, a fresh id is generated
+     * on every start, so a restarted node never inherits its predecessor's queue.
+     */
+    @Bean
+    public SseNode sseNode() {
+        return new SseNode(nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId);
+    }
+
+    @Bean
+    public SseCluster sseCluster(SseNode sseNode, SseSubscriptionRegistry subscriptions, EventBus eventBus) {
+        return new SseCluster(sseNode, subscriptions, eventBus, presenceTtl);
+    }
+
+    /**
+     * Single timer for heartbeats and idle reaping; once per revolution it also evicts
+     * topics nobody has followed for longer than the replay retention and renews this
+     * node's presence in the cluster.
+     */
+    @Bean
+    public SseHeartbeatWheel sseHeartbeatWheel(SseBroadcaster broadcaster, SseSubscriptionRegistry subscriptions,
+                                               SseCluster cluster) {
+        return new SseHeartbeatWheel(broadcaster, heartbeatInterval, idleTimeout, HEARTBEAT_WHEEL_SLOTS, () -> {
+            subscriptions.evictIdleTopics();
+            cluster.announce();
+        });
+    }
+
     @Bean
-    public ConcurrentHashMap<String, SseEmitter> sseEmitters() {
-        return new ConcurrentHashMap<>();
+    public MeterBinder sseMetrics(SseService sseService, SseBroadcaster broadcaster,
+                                  SseSubscriptionRegistry subscriptions, SseConnectionLimiter limiter,
+                                  SseHeartbeatWheel heartbeatWheel, SseCluster cluster) {
+        return registry -> {
+            Gauge.builder("grocery.sse.connections", sseService, SseService::getConnectionCount)
+                    .register(registry);
+            Gauge.builder("grocery.sse.connections.max", limiter, SseConnectionLimiter::getMaxConnections)
+                    .register(registry);
+            for (SseTopicType type : SseTopicType.values()) {
+                Gauge.builder("grocery.sse.subscribers", subscriptions, s -> s.getSubscriberCount(type))
+                        .tag("topic", type.name().toLowerCase())
+                        .register(registry);
+            }
+            Gauge.builder("grocery.sse.cluster.nodes", cluster, SseCluster::getRemoteNodeCount)
+                    .register(registry);
+            FunctionCounter.builder("grocery.sse.cluster.forwarded", cluster, SseCluster::getForwardedCount)
+                    .register(registry);
+            FunctionCounter.builder("grocery.sse.heartbeats", heartbeatWheel, SseHeartbeatWheel::getHeartbeatsSent)
+                    .register(registry);
+            FunctionCounter.builder("grocery.sse.connections.reaped", heartbeatWheel,
+                            SseHeartbeatWheel::getConnectionsReaped)
+                    .register(registry);
+            Gauge.builder("grocery.sse.topics", subscriptions, SseSubscriptionRegistry::getTopicCount)
+                    .register(registry);
+            FunctionCounter.builder("grocery.sse.resumes", subscriptions, SseSubscriptionRegistry::getReplayedCount)
+                    .tag("outcome", "replay")
+                    .register(registry);
+            FunctionCounter.builder("grocery.sse.resumes", subscriptions, SseSubscriptionRegistry::getSnapshotCount)
+                    .tag("outcome", "snapshot")
+                    .register(registry);
+            Gauge.builder("grocery.sse.queue.depth", sseService, SseService::getQueuedFrameCount)
+                    .register(registry);
+            FunctionCounter.builder("grocery.sse.frames.written", broadcaster, SseBroadcaster::getFramesWritten)
+                    .register(registry);
+            FunctionCounter.builder("grocery.sse.frames.dropped", broadcaster, SseBroadcaster::getFramesDropped)
+                    .register(registry);
+            FunctionCounter.builder("grocery.sse.slow-consumer.disconnects", broadcaster,
+                            SseBroadcaster::getSlowConsumerDisconnects)
+                    .register(registry);
+        };
     }
 
     @Bean
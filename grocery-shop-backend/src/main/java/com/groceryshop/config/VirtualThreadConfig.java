@@ -0,0 +1,34 @@
+package com.groceryshop.config;
+
+import com.groceryshop.shared.concurrent.VirtualThreadPinningMonitor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Virtual-thread execution mode, switched on with {@code spring.threads.virtual.enabled}.
+ * <p>
+ * Spring Boot then serves Tomcat requests on virtual threads, backs the application
+ * {@code AsyncTaskExecutor} (used for MVC async requests such as SSE, and {@code @Async})
+ * with virtual threads, and gives the {@code SimpleRabbitListenerContainerFactory} a
+ * virtual-thread task executor. {@link SseConfig} runs the SSE writers on virtual threads too.
+ * This class adds pinning detection, since a pinned virtual thread holds its carrier and
+ * silently shrinks the pool everything else is scheduled on.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    @Value("${app.virtual-threads.pinned-threshold:PT20MS}")
+    private Duration pinnedThreshold;
+
+    @Bean
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(MeterRegistry meterRegistry) {
+        return new VirtualThreadPinningMonitor(meterRegistry, pinnedThreshold);
+    }
+}
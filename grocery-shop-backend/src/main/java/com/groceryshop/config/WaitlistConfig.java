@@ -0,0 +1,52 @@
+package com.groceryshop.config;
+
+import com.groceryshop.auth.spi.AuthServiceProvider;
+import com.groceryshop.notification.NotificationService;
+import com.groceryshop.product.spi.ProductServiceProvider;
+import com.groceryshop.waitlist.BackInStockFanout;
+import com.groceryshop.waitlist.WaitlistIndex;
+import com.groceryshop.waitlist.WaitlistService;
+import com.groceryshop.waitlist.WaitlistSubscriptionRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Back-in-stock waitlist: the in-memory subscriber index and the fan-out that notifies
+ * subscribers when a product returns, with its paging and rate limits.
+ */
+@Configuration
+public class WaitlistConfig {
+
+    @Value("${app.waitlist.page-size:500}")
+    private int pageSize;
+
+    @Value("${app.waitlist.notifications-per-unit:3}")
+    private int notificationsPerUnit;
+
+    @Value("${app.waitlist.max-notifications-per-second:1000}")
+    private int maxNotificationsPerSecond;
+
+    @Bean
+    public WaitlistIndex waitlistIndex(WaitlistSubscriptionRepository subscriptionRepository) {
+        return new WaitlistIndex(subscriptionRepository::findUserIdsByProductId);
+    }
+
+    @Bean
+    public BackInStockFanout backInStockFanout(WaitlistIndex waitlistIndex, WaitlistService waitlistService,
+                                               ProductServiceProvider productServiceProvider,
+                                               AuthServiceProvider authServiceProvider,
+                                               NotificationService notificationService,
+                                               ObjectProvider<MeterRegistry> meterRegistry) {
+        BackInStockFanout fanout = new BackInStockFanout(waitlistIndex, waitlistService, productServiceProvider,
+                authServiceProvider, notificationService, pageSize, notificationsPerUnit, maxNotificationsPerSecond);
+        meterRegistry.ifAvailable(registry ->
+                FunctionCounter.builder("grocery.waitlist.notified", fanout, BackInStockFanout::getNotifiedCount)
+                        .description("Waiting customers notified that a product is back in stock")
+                        .register(registry));
+        return fanout;
+    }
+}
@@ -0,0 +1,143 @@
+package com.groceryshop.notification;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Template text parsed once into alternating literal and {@code ${name}} placeholder segments,
+ * so rendering is a single pass that appends each segment instead of searching the text once
+ * per placeholder.
+ * <p>
+ * A placeholder without a value is written back as {@code ${name}}, and a {@code $} not followed
+ * by a complete {@code ${name}} is literal text, so {@code $${price}} renders as {@code $4.99}.
+ * Instances are immutable and thread-safe.
+ */
+public final class CompiledTemplate {
+
+    // Builders larger than this are not kept for reuse
+    private static final int MAX_REUSED_CAPACITY = 64 * 1024;
+    private static final ThreadLocal<StringBuilder> BUILDER = ThreadLocal.withInitial(() -> new StringBuilder(1024));
+
+    private final String text;
+    // literals[i] precedes names[i]; literals has one more entry, the text after the last placeholder
+    private final String[] literals;
+    private final String[] names;
+    private final int literalLength;
+
+    private CompiledTemplate(String text, String[] literals, String[] names) {
+        this.text = text;
+        this.literals = literals;
+        this.names = names;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * Parses template text.
+     *
+     * @param text the text, with placeholders like ${name}
+     * @return the compiled template
+     */
+    public static CompiledTemplate parse(String text) {
+        List<String> literals = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        int literalStart = 0;
+        int at = text.indexOf("${");
+        while (at >= 0) {
+            int end = text.indexOf('}', at + 2);
+            if (end < 0) {
+                break;
+            }
+            literals.add(text.substring(literalStart, at));
+            names.add(text.substring(at + 2, end));
+            literalStart = end + 1;
+            at = text.indexOf("${", literalStart);
+        }
+        literals.add(text.substring(literalStart));
+        return new CompiledTemplate(text, literals.toArray(String[]::new), names.toArray(String[]::new));
+    }
+
+    /**
+     * Returns the template text as parsed.
+     */
+    public String text() {
+        return text;
+    }
+
+    /**
+     * Returns the distinct placeholder names in order of first appearance.
+     */
+    public Set<String> placeholderNames() {
+        return new LinkedHashSet<>(List.of(names));
+    }
+
+    /**
+     * Renders the template with the given placeholder values.
+     */
+    public String render(Map<String, String> values) {
+        if (names.length == 0) {
+            return text;
+        }
+        StringBuilder out = borrowBuilder();
+        renderTo(values, out);
+        String rendered = out.toString();
+        releaseBuilder(out);
+        return rendered;
+    }
+
+    /**
+     * Renders the template once per set of placeholder values, reusing one buffer for all of them.
+     */
+    public List<String> renderAll(List<Map<String, String>> values) {
+        List<String> rendered = new ArrayList<>(values.size());
+        if (names.length == 0) {
+            for (int i = 0; i < values.size(); i++) {
+                rendered.add(text);
+            }
+            return rendered;
+        }
+        StringBuilder out = BUILDER.get();
+        for (Map<String, String> each : values) {
+            out.setLength(0);
+            renderTo(each, out);
+            rendered.add(out.toString());
+        }
+        releaseBuilder(out);
+        return rendered;
+    }
+
+    /**
+     * Appends the rendered template to a builder.
+     */
+    public void renderTo(Map<String, String> values, StringBuilder out) {
+        out.ensureCapacity(out.length() + literalLength + names.length * 16);
+        for (int i = 0; i < names.length; i++) {
+            out.append(literals[i]);
+            String value = values.get(names[i]);
+            if (value != null) {
+                out.append(value);
+            } else {
+                out.append("${").append(names[i]).append('}');
+            }
+        }
+        out.append(literals[names.length]);
+    }
+
+    private static StringBuilder borrowBuilder() {
+        StringBuilder out = BUILDER.get();
+        out.setLength(0);
+        return out;
+    }
+
+    private static void releaseBuilder(StringBuilder out) {
+        if (out.capacity() > MAX_REUSED_CAPACITY) {
+            BUILDER.remove();
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.groceryshop.notification;
+
+/**
+ * Platform of a device registered for push notifications.
+ */
+public enum DevicePlatform {
+    IOS,
+    ANDROID,
+    WEB
+}
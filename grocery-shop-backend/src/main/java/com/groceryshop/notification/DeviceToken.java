@@ -0,0 +1,79 @@
+package com.groceryshop.notification;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A device's push token and the user it currently delivers to.
+ */
+@Entity
+@Table(name = "device_tokens")
+public class DeviceToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false, unique = true, length = 512)
+    private String token;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private DevicePlatform platform;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime lastSeenAt;
+
+    // Constructors
+    public DeviceToken() {}
+
+    public DeviceToken(Long userId, String token, DevicePlatform platform) {
+        this.userId = userId;
+        this.token = token;
+        this.platform = platform;
+        this.createdAt = LocalDateTime.now();
+        this.lastSeenAt = this.createdAt;
+    }
+
+    // Business methods
+    /**
+     * Records that the device registered again, possibly signed in as another user.
+     */
+    public void reregister(Long userId, DevicePlatform platform) {
+        this.userId = userId;
+        this.platform = platform;
+        this.lastSeenAt = LocalDateTime.now();
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public DevicePlatform getPlatform() {
+        return platform;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getLastSeenAt() {
+        return lastSeenAt;
+    }
+}
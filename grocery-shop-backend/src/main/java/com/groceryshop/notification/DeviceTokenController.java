@@ -0,0 +1,60 @@
+package com.groceryshop.notification;
+
+import com.groceryshop.auth.spi.AuthServiceProvider;
+import com.groceryshop.shared.dto.request.RegisterDeviceRequest;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/notifications/devices")
+@Tag(name = "Push Devices", description = "Push notification device registration APIs")
+@SecurityRequirement(name = "bearer-jwt")
+public class DeviceTokenController {
+
+    private final PushNotificationService pushNotificationService;
+    private final AuthServiceProvider authServiceProvider;
+
+    public DeviceTokenController(PushNotificationService pushNotificationService,
+                                 AuthServiceProvider authServiceProvider) {
+        this.pushNotificationService = pushNotificationService;
+        this.authServiceProvider = authServiceProvider;
+    }
+
+    @PostMapping
+    @Operation(summary = "Register device", description = "Receive push notifications on a device")
+    @PreAuthorize("hasRole('CUSTOMER') or hasRole('ADMIN')")
+    public ResponseEntity<Void> registerDevice(@Valid @RequestBody RegisterDeviceRequest request,
+                                               Authentication authentication) {
+        Long userId = getUserIdFromAuthentication(authentication);
+        pushNotificationService.registerDeviceToken(userId.toString(), request.token(), request.platform());
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/{token}")
+    @Operation(summary = "Unregister device", description = "Stop push notifications to a device")
+    @PreAuthorize("hasRole('CUSTOMER') or hasRole('ADMIN')")
+    public ResponseEntity<Void> unregisterDevice(@PathVariable String token, Authentication authentication) {
+        Long userId = getUserIdFromAuthentication(authentication);
+        pushNotificationService.unregisterDeviceToken(userId.toString(), token);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Extracts user ID from Spring Security Authentication object.
+     */
+    private Long getUserIdFromAuthentication(Authentication authentication) {
+        if (authentication.getPrincipal() instanceof org.springframework.security.core.userdetails.User userDetails) {
+            String email = userDetails.getUsername();
+            return authServiceProvider.findUserByEmail(email)
+                    .orElseThrow(() -> new RuntimeException("User not found with email: " + email))
+                    .getId();
+        }
+        throw new RuntimeException("Unable to extract user ID from authentication");
+    }
+}
@@ -0,0 +1,190 @@
+package com.groceryshop.notification;
+
+import com.groceryshop.auth.UserRole;
+import com.groceryshop.auth.spi.AuthServiceProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The devices each user receives push notifications on, stored in the database and indexed in
+ * memory by user, so resolving the tokens for a multicast to thousands of users costs at most one
+ * query for the users not already indexed.
+ * <p>
+ * Index entries expire after a while, so devices registered through another node are picked up.
+ * Tokens the provider reports as no longer valid are {@link #prune pruned}.
+ */
+public class DeviceTokenRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(DeviceTokenRegistry.class);
+
+    static final int MAX_TOKEN_LENGTH = 512;
+    // Past this many indexed users, expired entries are dropped when more are loaded
+    private static final int MAX_INDEXED_USERS = 100_000;
+
+    private final DeviceTokenRepository repository;
+    private final AuthServiceProvider authServiceProvider;
+    private final long ttlNanos;
+    private final Map<Long, Entry> byUser = new ConcurrentHashMap<>();
+    private final LongAdder pruned = new LongAdder();
+
+    /**
+     * @param ttl how long a user's devices are served from memory before being read again
+     */
+    public DeviceTokenRegistry(DeviceTokenRepository repository, AuthServiceProvider authServiceProvider,
+                               Duration ttl) {
+        this.repository = repository;
+        this.authServiceProvider = authServiceProvider;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    /**
+     * Registers a device for a user. A token already registered, e.g. by another user who
+     * signed in on the same device before, is moved to this user.
+     * <p>
+     * The insert of a new token runs and is flushed in a transaction of its own, so a concurrent
+     * registration of the same token, e.g. an app retrying, fails it on the unique constraint
+     * without spoiling a surrounding transaction; the row inserted by the other registration is
+     * then read back and moved instead.
+     */
+    public void register(long userId, String token, DevicePlatform platform) {
+        if (token == null || token.isBlank() || token.length() > MAX_TOKEN_LENGTH) {
+            throw new IllegalArgumentException("Invalid device token");
+        }
+        DeviceToken deviceToken = repository.findByToken(token).orElse(null);
+        if (deviceToken == null) {
+            try {
+                repository.saveAndFlush(new DeviceToken(userId, token, platform));
+            } catch (DataIntegrityViolationException e) {
+                moveTo(repository.findByToken(token).orElseThrow(() -> e), userId, platform);
+            }
+        } else {
+            moveTo(deviceToken, userId, platform);
+        }
+        byUser.remove(userId);
+        log.info("Registered {} device for user {}", platform, userId);
+    }
+
+    private void moveTo(DeviceToken deviceToken, long userId, DevicePlatform platform) {
+        byUser.remove(deviceToken.getUserId());
+        deviceToken.reregister(userId, platform);
+        repository.save(deviceToken);
+    }
+
+    /**
+     * Removes one of a user's devices.
+     *
+     * @return true if the device was registered to the user
+     */
+    public boolean unregister(long userId, String token) {
+        int removed = repository.deleteByUserIdAndToken(userId, token);
+        byUser.remove(userId);
+        return removed > 0;
+    }
+
+    /**
+     * Returns a user's devices.
+     */
+    public List<Device> devices(long userId) {
+        Entry entry = byUser.get(userId);
+        if (entry == null || entry.isExpired(ttlNanos)) {
+            load(List.of(userId));
+            entry = byUser.get(userId);
+        }
+        return entry.devices();
+    }
+
+    /**
+     * Returns the distinct tokens of all the users' devices.
+     */
+    public List<String> tokens(Collection<Long> userIds) {
+        List<Long> missing = new ArrayList<>();
+        for (Long userId : userIds) {
+            Entry entry = byUser.get(userId);
+            if (entry == null || entry.isExpired(ttlNanos)) {
+                missing.add(userId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            load(missing);
+        }
+        Set<String> tokens = new LinkedHashSet<>();
+        for (Long userId : userIds) {
+            Entry entry = byUser.get(userId);
+            if (entry != null) {
+                for (Device device : entry.devices()) {
+                    tokens.add(device.token());
+                }
+            }
+        }
+        return new ArrayList<>(tokens);
+    }
+
+    /**
+     * Returns the IDs of the active users with a role.
+     */
+    public List<Long> usersWithRole(UserRole role) {
+        return authServiceProvider.findActiveUserIdsByRole(role);
+    }
+
+    /**
+     * Removes tokens the provider rejected, e.g. because the app was uninstalled.
+     */
+    public void prune(Collection<String> tokens) {
+        if (tokens.isEmpty()) {
+            return;
+        }
+        for (DeviceToken deviceToken : repository.findByTokenIn(tokens)) {
+            byUser.remove(deviceToken.getUserId());
+        }
+        int removed = repository.deleteByTokenIn(tokens);
+        pruned.add(removed);
+        log.info("Pruned {} invalid device tokens", removed);
+    }
+
+    /**
+     * Returns the number of tokens pruned since startup.
+     */
+    public long getPrunedCount() {
+        return pruned.sum();
+    }
+
+    private void load(List<Long> userIds) {
+        Map<Long, List<Device>> devices = new HashMap<>();
+        for (DeviceToken deviceToken : repository.findByUserIdIn(userIds)) {
+            devices.computeIfAbsent(deviceToken.getUserId(), id -> new ArrayList<>(2))
+                    .add(new Device(deviceToken.getToken(), deviceToken.getPlatform()));
+        }
+        if (byUser.size() > MAX_INDEXED_USERS) {
+            byUser.values().removeIf(entry -> entry.isExpired(ttlNanos));
+        }
+        long now = System.nanoTime();
+        for (Long userId : userIds) {
+            // Users without devices are indexed too, so they are not queried on every send
+            byUser.put(userId, new Entry(List.copyOf(devices.getOrDefault(userId, List.of())), now));
+        }
+    }
+
+    /**
+     * A registered device.
+     */
+    public record Device(String token, DevicePlatform platform) {
+    }
+
+    private record Entry(List<Device> devices, long loadedNanos) {
+        boolean isExpired(long ttlNanos) {
+            return System.nanoTime() - loadedNanos > ttlNanos;
+        }
+    }
+}
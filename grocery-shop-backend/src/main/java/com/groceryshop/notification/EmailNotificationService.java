@@ -4,20 +4,24 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Service for sending email notifications.
- * In a production environment, this would integrate with an email service provider
- * like SendGrid, AWS SES, or Mailgun.
+ * Emails are queued on the {@link NotificationDispatcher} and delivered by the
+ * email {@link NotificationSender}.
  */
 @Service
 public class EmailNotificationService {
 
     private static final Logger log = LoggerFactory.getLogger(EmailNotificationService.class);
 
-    private final NotificationQueue notificationQueue;
+    private final NotificationDispatcher dispatcher;
 
-    public EmailNotificationService(NotificationQueue notificationQueue) {
-        this.notificationQueue = notificationQueue;
+    public EmailNotificationService(NotificationDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
     }
 
     /**
@@ -27,90 +31,81 @@ public class EmailNotificationService {
      * @param template the email template
      */
     public void sendEmail(String to, EmailTemplate template) {
-        EmailTemplate.ResolvedEmail resolved = template.resolve();
-
-        NotificationQueue.NotificationTask task = new NotificationQueue.NotificationTask(
-            NotificationQueue.NotificationType.EMAIL,
-            to,
-            resolved.subject(),
-            resolved.body(),
-            template
-        );
-
-        notificationQueue.enqueue(task);
-        log.info("Email notification queued for {}: {}", to, resolved.subject());
+        sendEmail(to, template, null);
     }
 
     /**
-     * Sends a plain text email.
+     * Sends an email that supersedes earlier ones with the same digest key, e.g. an order status
+     * update. Such emails to the same recipient that are batched together go out as one digest.
      *
      * @param to recipient email address
-     * @param subject email subject
-     * @param body email body
+     * @param template the email template
+     * @param digestKey what the email is about, e.g. {@code order-status:42}, or null
      */
-    public void sendEmail(String to, String subject, String body) {
-        NotificationQueue.NotificationTask task = new NotificationQueue.NotificationTask(
-            NotificationQueue.NotificationType.EMAIL,
+    public void sendEmail(String to, EmailTemplate template, String digestKey) {
+        EmailTemplate.ResolvedEmail resolved = template.resolve();
+
+        NotificationTask task = new NotificationTask(
+            NotificationType.EMAIL,
             to,
-            subject,
-            body,
-            null
+            resolved.subject(),
+            resolved.body(),
+            template,
+            digestKey
         );
 
-        notificationQueue.enqueue(task);
-        log.info("Plain text email notification queued for {}: {}", to, subject);
+        if (dispatcher.dispatch(task)) {
+            log.info("Email notification queued for {}: {}", to, resolved.subject());
+        }
     }
 
     /**
-     * Processes queued email notifications.
-     * This method would typically be called by a background worker or scheduled task.
+     * Sends the same template to many recipients, each with their own placeholder values.
+     * The template is compiled once and rendered for all recipients in one pass.
+     *
+     * @param template the email template; its own placeholder values are ignored
+     * @param placeholdersByRecipient placeholder values keyed by recipient email address
      */
-    public void processQueuedEmails() {
-        while (!notificationQueue.isEmpty()) {
-            try {
-                NotificationQueue.NotificationTask task = notificationQueue.dequeue();
-
-                if (task.type() == NotificationQueue.NotificationType.EMAIL) {
-                    sendEmailViaProvider(task.recipient(), task.subject(), task.content());
-                }
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                log.error("Email processing interrupted", e);
-                break;
-            } catch (Exception e) {
-                log.error("Failed to process email notification", e);
+    public void sendEmails(EmailTemplate template, Map<String, Map<String, String>> placeholdersByRecipient) {
+        List<String> recipients = new ArrayList<>(placeholdersByRecipient.keySet());
+        List<Map<String, String>> values = new ArrayList<>(placeholdersByRecipient.values());
+        List<EmailTemplate.ResolvedEmail> resolved = template.resolveAll(values);
+
+        int queued = 0;
+        for (int i = 0; i < recipients.size(); i++) {
+            NotificationTask task = new NotificationTask(
+                NotificationType.EMAIL,
+                recipients.get(i),
+                resolved.get(i).subject(),
+                resolved.get(i).body(),
+                new EmailTemplate(template.subject(), template.body(), values.get(i))
+            );
+            if (dispatcher.dispatch(task)) {
+                queued++;
             }
         }
+        log.info("{} of {} email notifications queued from template: {}", queued, recipients.size(),
+            template.subject());
     }
 
     /**
-     * Sends email via external email service provider.
-     * This is a placeholder implementation that would be replaced with actual
-     * email service integration (SendGrid, AWS SES, etc.)
+     * Sends a plain text email.
      *
-     * @param to recipient email
+     * @param to recipient email address
      * @param subject email subject
      * @param body email body
      */
-    private void sendEmailViaProvider(String to, String subject, String body) {
-        // Placeholder implementation
-        // In production, this would integrate with:
-        // - SendGrid API
-        // - AWS SES
-        // - Mailgun
-        // - SMTP server
-        // - etc.
-
-        log.info("Sending email to {} with subject: {}", to, subject);
-        log.debug("Email body: {}", body);
+    public void sendEmail(String to, String subject, String body) {
+        NotificationTask task = new NotificationTask(
+            NotificationType.EMAIL,
+            to,
+            subject,
+            body,
+            null
+        );
 
-        // Simulate email sending delay
-        try {
-            Thread.sleep(100); // Simulate network delay
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+        if (dispatcher.dispatch(task)) {
+            log.info("Plain text email notification queued for {}: {}", to, subject);
         }
-
-        log.info("Email sent successfully to {}", to);
     }
 }
@@ -1,5 +1,7 @@
 package com.groceryshop.notification;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -36,22 +38,30 @@ public record EmailTemplate(
 
     /**
      * Resolves placeholders in the template with actual values.
+     * Subject and body are compiled once through the {@link EmailTemplateRegistry}.
      *
      * @return the resolved email content
      */
     public ResolvedEmail resolve() {
-        String resolvedSubject = resolvePlaceholders(subject);
-        String resolvedBody = resolvePlaceholders(body);
+        String resolvedSubject = EmailTemplateRegistry.compile(subject).render(placeholders);
+        String resolvedBody = EmailTemplateRegistry.compile(body).render(placeholders);
         return new ResolvedEmail(resolvedSubject, resolvedBody);
     }
 
-    private String resolvePlaceholders(String text) {
-        String result = text;
-        for (Map.Entry<String, String> entry : placeholders.entrySet()) {
-            String placeholder = "${" + entry.getKey() + "}";
-            result = result.replace(placeholder, entry.getValue());
+    /**
+     * Resolves the template once per recipient, ignoring this template's own placeholder values.
+     *
+     * @param placeholdersPerRecipient the placeholder values for each recipient
+     * @return the resolved emails, in the same order
+     */
+    public List<ResolvedEmail> resolveAll(List<Map<String, String>> placeholdersPerRecipient) {
+        List<String> subjects = EmailTemplateRegistry.compile(subject).renderAll(placeholdersPerRecipient);
+        List<String> bodies = EmailTemplateRegistry.compile(body).renderAll(placeholdersPerRecipient);
+        List<ResolvedEmail> resolved = new ArrayList<>(bodies.size());
+        for (int i = 0; i < bodies.size(); i++) {
+            resolved.add(new ResolvedEmail(subjects.get(i), bodies.get(i)));
         }
-        return result;
+        return resolved;
     }
 
     /**
@@ -0,0 +1,45 @@
+package com.groceryshop.notification;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Cache of {@link CompiledTemplate}s keyed by template text, so each distinct template is
+ * parsed once however many emails are rendered from it.
+ * <p>
+ * Text without placeholders is never cached, since it renders as itself; this keeps subjects
+ * built by concatenation out of the cache. Past {@link #MAX_TEMPLATES} entries new texts are
+ * compiled without being cached, so text that varies per call cannot grow it without bound.
+ */
+public final class EmailTemplateRegistry {
+
+    static final int MAX_TEMPLATES = 512;
+
+    private static final ConcurrentMap<String, CompiledTemplate> TEMPLATES = new ConcurrentHashMap<>();
+
+    private EmailTemplateRegistry() {
+    }
+
+    /**
+     * Returns the compiled form of template text, parsing it on first use.
+     */
+    public static CompiledTemplate compile(String text) {
+        CompiledTemplate compiled = TEMPLATES.get(text);
+        if (compiled != null) {
+            return compiled;
+        }
+        compiled = CompiledTemplate.parse(text);
+        if (!compiled.placeholderNames().isEmpty() && TEMPLATES.size() < MAX_TEMPLATES) {
+            CompiledTemplate existing = TEMPLATES.putIfAbsent(text, compiled);
+            return existing != null ? existing : compiled;
+        }
+        return compiled;
+    }
+
+    /**
+     * Returns the number of cached templates.
+     */
+    public static int size() {
+        return TEMPLATES.size();
+    }
+}
@@ -0,0 +1,50 @@
+package com.groceryshop.notification;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Sends email via external email service provider.
+ * This is a placeholder implementation that would be replaced with actual
+ * email service integration (SendGrid, AWS SES, Mailgun, SMTP, etc.)
+ */
+@Component
+public class LoggingEmailSender implements NotificationSender {
+
+    private static final Logger log = LoggerFactory.getLogger(LoggingEmailSender.class);
+
+    @Override
+    public NotificationType type() {
+        return NotificationType.EMAIL;
+    }
+
+    @Override
+    public void send(NotificationTask task) throws InterruptedException {
+        log.info("Sending email to {} with subject: {}", task.recipient(), task.subject());
+        log.debug("Email body: {}", task.content());
+
+        // Simulate email sending delay
+        Thread.sleep(100);
+
+        log.info("Email sent successfully to {}", task.recipient());
+    }
+
+    /**
+     * Sends a batch as one provider request, the way bulk send APIs take it.
+     */
+    @Override
+    public void sendBatch(List<NotificationTask> tasks) throws InterruptedException {
+        log.info("Sending {} emails in one batch", tasks.size());
+        for (NotificationTask task : tasks) {
+            log.debug("Batched email to {}: {}", task.recipient(), task.subject());
+        }
+
+        // One simulated provider round trip for the whole batch
+        Thread.sleep(100);
+
+        log.info("Batch of {} emails sent successfully", tasks.size());
+    }
+}
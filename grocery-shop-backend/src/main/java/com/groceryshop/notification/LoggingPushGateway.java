@@ -0,0 +1,52 @@
+package com.groceryshop.notification;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sends push notification via external push service provider.
+ * This is a placeholder implementation that would be replaced with actual
+ * push service integration (FCM, APNS, OneSignal, etc.)
+ * <p>
+ * Like a real provider it rejects tokens it cannot deliver to; here, tokens that are not
+ * well formed (too short, or containing whitespace).
+ */
+@Component
+public class LoggingPushGateway implements PushGateway {
+
+    private static final Logger log = LoggerFactory.getLogger(LoggingPushGateway.class);
+
+    private static final int MIN_TOKEN_LENGTH = 16;
+
+    @Value("${app.notifications.push.multicast-size:500}")
+    private int multicastSize = 500;
+
+    @Override
+    public int maxTokensPerRequest() {
+        return multicastSize;
+    }
+
+    @Override
+    public MulticastResult multicast(PushMessage message, List<String> tokens) throws InterruptedException {
+        log.info("Sending push notification to {} devices with title: {}", tokens.size(), message.title());
+        log.debug("Notification body: {}", message.body());
+        log.debug("Additional data: {}", message.data());
+
+        // Simulate one push service round trip per request
+        Thread.sleep(50);
+
+        List<String> invalid = new ArrayList<>();
+        for (String token : tokens) {
+            if (token.length() < MIN_TOKEN_LENGTH || token.chars().anyMatch(Character::isWhitespace)) {
+                invalid.add(token);
+            }
+        }
+        log.info("Push notification sent successfully to {} devices", tokens.size() - invalid.size());
+        return new MulticastResult(tokens.size() - invalid.size(), invalid);
+    }
+}
@@ -0,0 +1,32 @@
+package com.groceryshop.notification;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sends SMS via external gateway.
+ * This is a placeholder implementation that would be replaced with actual
+ * SMS integration (Twilio, AWS SNS, etc.)
+ */
+@Component
+public class LoggingSmsSender implements NotificationSender {
+
+    private static final Logger log = LoggerFactory.getLogger(LoggingSmsSender.class);
+
+    @Override
+    public NotificationType type() {
+        return NotificationType.SMS;
+    }
+
+    @Override
+    public void send(NotificationTask task) throws InterruptedException {
+        log.info("Sending SMS to {}", task.recipient());
+        log.debug("SMS body: {}", task.content());
+
+        // Simulate gateway delay
+        Thread.sleep(100);
+
+        log.info("SMS sent successfully to {}", task.recipient());
+    }
+}
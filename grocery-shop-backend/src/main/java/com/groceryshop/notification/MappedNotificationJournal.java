@@ -0,0 +1,499 @@
+package com.groceryshop.notification;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only notification journal on memory-mapped segment files.
+ * <p>
+ * Appending copies the entry into the mapped active segment under a short lock, which costs
+ * microseconds and survives a crash of the process, since the pages belong to the OS. A flusher
+ * thread forces written pages to disk at a fixed interval, so one fsync covers every append
+ * since the previous one (group commit); with {@code syncOnAppend} callers also wait for that
+ * fsync, which makes entries survive a crash of the machine.
+ * <p>
+ * Entries are {@code [length][crc32][sequence][acknowledged][payload]}; the length is written
+ * last and the CRC covers sequence and payload, so a torn write ends the readable log instead of
+ * producing a corrupt notification. Acknowledging sets the entry's flag in place. Segments roll
+ * at a fixed size and are named after their first sequence.
+ * <p>
+ * The consumer offset is the lowest sequence not yet acknowledged. It is persisted on each
+ * flush, and segments wholly below it are deleted. On startup the segments are scanned and
+ * unacknowledged entries from the offset on are replayed; new entries go to a fresh segment.
+ * A segment without a readable entry, left by a crash right after it was created or before
+ * its pages reached the disk, holds nothing to replay and is deleted, since the next segment
+ * may need its name.
+ * Delivery is at least once: an acknowledgement not yet on disk when the machine fails is lost.
+ */
+public class MappedNotificationJournal implements NotificationJournal, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(MappedNotificationJournal.class);
+
+    static final String SEGMENT_SUFFIX = ".log";
+    static final String OFFSET_FILE = "dispatcher.offset";
+    private static final int HEADER_BYTES = 20;
+    private static final int ACK_OFFSET = 16;
+    private static final int NULL_LENGTH = -1;
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final long flushIntervalNanos;
+    private final boolean syncOnAppend;
+    private final ObjectMapper objectMapper;
+
+    private final NavigableMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    // Segments found on startup; new entries never go into them
+    private final List<Segment> recovered = new ArrayList<>();
+    // Unacknowledged entries and where they are, for setting their flag
+    private final ConcurrentSkipListMap<Long, Location> pending = new ConcurrentSkipListMap<>();
+    private final FileChannel offsetChannel;
+    private final Object flushMonitor = new Object();
+    private final Thread flusher;
+
+    // Guarded by this
+    private Segment active;
+    private long nextSequence;
+
+    private volatile long flushedSequence;
+    private volatile long committedOffset;
+    private volatile boolean closed;
+
+    /**
+     * Opens the journal in the directory, creating it if needed, and starts the flusher.
+     *
+     * @param segmentBytes size of each segment file
+     * @param flushInterval how often written entries are forced to disk
+     * @param syncOnAppend make {@link #append} wait until its entry has been forced to disk
+     */
+    public MappedNotificationJournal(Path directory, int segmentBytes, Duration flushInterval, boolean syncOnAppend,
+                                     ObjectMapper objectMapper) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.syncOnAppend = syncOnAppend;
+        this.objectMapper = objectMapper;
+        try {
+            Files.createDirectories(directory);
+            this.offsetChannel = FileChannel.open(directory.resolve(OFFSET_FILE),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.committedOffset = readOffset();
+            this.nextSequence = Math.max(committedOffset, openSegments() + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open notification journal in " + directory, e);
+        }
+        this.flushedSequence = nextSequence - 1;
+        this.flusher = Thread.ofPlatform().daemon().name("notification-journal-flush").start(this::flushLoop);
+        log.info("Notification journal opened in {}: {} segments, {} entries to replay",
+                directory, segments.size(), pending.size());
+    }
+
+    @Override
+    public long append(NotificationTask task) {
+        byte[] payload = encode(task);
+        if (HEADER_BYTES + payload.length > segmentBytes) {
+            log.warn("Notification to {} is larger than a journal segment and is not journaled", task.recipient());
+            return NO_SEQUENCE;
+        }
+        long sequence;
+        synchronized (this) {
+            if (closed) {
+                return NO_SEQUENCE;
+            }
+            if (active == null || active.remaining() < HEADER_BYTES + payload.length) {
+                roll();
+            }
+            sequence = nextSequence++;
+            pending.put(sequence, new Location(active, active.write(sequence, payload)));
+        }
+        if (syncOnAppend) {
+            awaitFlushed(sequence);
+        }
+        return sequence;
+    }
+
+    @Override
+    public void acknowledge(long sequence) {
+        Location location = sequence != NO_SEQUENCE ? pending.remove(sequence) : null;
+        if (location != null) {
+            location.segment().markAcknowledged(location.position());
+        }
+    }
+
+    @Override
+    public void replay(BiConsumer<Long, NotificationTask> consumer) {
+        long from = committedOffset;
+        for (Segment segment : recovered) {
+            segment.forEach((sequence, position, payload) -> {
+                if (sequence >= from && pending.containsKey(sequence)) {
+                    consumer.accept(sequence, decode(payload));
+                }
+            });
+        }
+    }
+
+    /**
+     * Forces written entries to disk, persists the consumer offset and deletes delivered segments.
+     */
+    void flush() {
+        Segment segment;
+        long written;
+        long offset;
+        synchronized (this) {
+            segment = active;
+            written = nextSequence - 1;
+            // Appends add to pending under this lock, so no lower sequence can appear afterwards
+            offset = pending.isEmpty() ? nextSequence : pending.firstKey();
+        }
+        if (segment != null && written > flushedSequence) {
+            segment.force();
+        }
+        synchronized (flushMonitor) {
+            flushedSequence = written;
+            flushMonitor.notifyAll();
+        }
+        if (offset > committedOffset) {
+            writeOffset(offset);
+            committedOffset = offset;
+            compact(offset);
+        }
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    public long getCommittedOffset() {
+        return committedOffset;
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        synchronized (this) {
+            closed = true;
+        }
+        LockSupport.unpark(flusher);
+        try {
+            flusher.join(Duration.ofSeconds(5).toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        for (Segment segment : segments.values()) {
+            segment.close();
+        }
+        offsetChannel.close();
+        log.info("Notification journal closed with {} unacknowledged entries", pending.size());
+    }
+
+    private void flushLoop() {
+        while (!closed) {
+            LockSupport.parkNanos(flushIntervalNanos);
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                log.error("Notification journal flush failed", e);
+            }
+        }
+    }
+
+    private void awaitFlushed(long sequence) {
+        LockSupport.unpark(flusher);
+        synchronized (flushMonitor) {
+            while (flushedSequence < sequence && !closed) {
+                try {
+                    flushMonitor.wait(Duration.ofNanos(flushIntervalNanos).toMillis() + 1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    // Called with the lock held
+    private void roll() {
+        if (active != null) {
+            // The flusher only forces the active segment
+            active.force();
+        }
+        try {
+            active = Segment.create(directory.resolve(segmentName(nextSequence)), nextSequence, segmentBytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create notification journal segment", e);
+        }
+        segments.put(nextSequence, active);
+    }
+
+    private void compact(long offset) {
+        for (Segment segment : segments.values()) {
+            if (segment == active || segment.lastSequence >= offset) {
+                return;
+            }
+            segments.remove(segment.firstSequence);
+            segment.close();
+            try {
+                Files.deleteIfExists(segment.path);
+            } catch (IOException e) {
+                log.warn("Cannot delete notification journal segment {}", segment.path, e);
+            }
+        }
+    }
+
+    /**
+     * Maps the existing segments, records their unacknowledged entries as pending and
+     * returns the highest sequence found, or {@code committedOffset - 1} if there is none.
+     */
+    private long openSegments() throws IOException {
+        List<Path> paths;
+        try (Stream<Path> files = Files.list(directory)) {
+            paths = new ArrayList<>(files.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList());
+        }
+        long last = committedOffset - 1;
+        for (Path path : paths) {
+            String name = path.getFileName().toString();
+            long first = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+            Segment segment = Segment.open(path, first);
+            segment.forEach((sequence, position, payload) -> {
+                segment.lastSequence = sequence;
+                if (sequence >= committedOffset && !segment.isAcknowledged(position)) {
+                    pending.put(sequence, new Location(segment, position));
+                }
+            });
+            if (segment.lastSequence < 0) {
+                log.warn("Deleting notification journal segment {} without readable entries", path);
+                segment.close();
+                Files.delete(path);
+                continue;
+            }
+            segments.put(first, segment);
+            recovered.add(segment);
+            last = Math.max(last, segment.lastSequence);
+        }
+        return last;
+    }
+
+    private long readOffset() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+        if (offsetChannel.read(buffer, 0) < Long.BYTES) {
+            return 0;
+        }
+        return buffer.flip().getLong();
+    }
+
+    private void writeOffset(long offset) {
+        try {
+            offsetChannel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, offset), 0);
+            offsetChannel.force(false);
+        } catch (IOException e) {
+            log.error("Cannot persist notification journal offset", e);
+        }
+    }
+
+    private static String segmentName(long firstSequence) {
+        return String.format("%020d%s", firstSequence, SEGMENT_SUFFIX);
+    }
+
+    private byte[] encode(NotificationTask task) {
+        byte[][] fields = {
+            utf8(task.recipient()), utf8(task.subject()), utf8(task.content()), utf8(metadataJson(task.metadata())),
+            utf8(task.digestKey())
+        };
+        int size = 1;
+        for (byte[] field : fields) {
+            size += Integer.BYTES + (field != null ? field.length : 0);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.put((byte) task.type().ordinal());
+        for (byte[] field : fields) {
+            buffer.putInt(field != null ? field.length : NULL_LENGTH);
+            if (field != null) {
+                buffer.put(field);
+            }
+        }
+        return buffer.array();
+    }
+
+    private NotificationTask decode(ByteBuffer payload) {
+        NotificationType type = NotificationType.values()[payload.get()];
+        String recipient = readString(payload);
+        String subject = readString(payload);
+        String content = readString(payload);
+        String metadata = readString(payload);
+        String digestKey = payload.hasRemaining() ? readString(payload) : null;
+        return new NotificationTask(type, recipient, subject, content, metadataFromJson(metadata), digestKey);
+    }
+
+    private String metadataJson(Object metadata) {
+        if (metadata == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(metadata);
+        } catch (JsonProcessingException e) {
+            log.warn("Notification metadata of type {} is not journaled", metadata.getClass().getSimpleName());
+            return null;
+        }
+    }
+
+    /**
+     * Replayed metadata comes back as plain JSON structures (maps, lists, values),
+     * not as the type that was journaled.
+     */
+    private Object metadataFromJson(String json) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, Object.class);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    private static byte[] utf8(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * CRC of an entry's sequence and payload; the acknowledged flag changes after writing.
+     */
+    private static int checksum(ByteBuffer buffer, int at, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(at + 8, 8));
+        crc.update(buffer.slice(at + HEADER_BYTES, length));
+        return (int) crc.getValue();
+    }
+
+    private record Location(Segment segment, int position) {
+    }
+
+    @FunctionalInterface
+    private interface EntryVisitor {
+        void visit(long sequence, int position, ByteBuffer payload);
+    }
+
+    /**
+     * One segment file. Writes use absolute positions, so the flusher can force the buffer
+     * while appends continue.
+     */
+    private static final class Segment {
+        private final Path path;
+        private final long firstSequence;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private int position;
+        private volatile long lastSequence = -1;
+
+        private Segment(Path path, long firstSequence, FileChannel channel, MappedByteBuffer buffer) {
+            this.path = path;
+            this.firstSequence = firstSequence;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        static Segment create(Path path, long firstSequence, int size) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            return new Segment(path, firstSequence, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+
+        static Segment open(Path path, long firstSequence) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return new Segment(path, firstSequence, channel,
+                    channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size()));
+        }
+
+        int remaining() {
+            return buffer.capacity() - position;
+        }
+
+        /**
+         * Writes an entry and returns its position.
+         */
+        int write(long sequence, byte[] payload) {
+            int at = position;
+            buffer.putLong(at + 8, sequence);
+            buffer.put(at + HEADER_BYTES, payload);
+            buffer.putInt(at + 4, checksum(buffer, at, payload.length));
+            // Length last: a reader never sees a complete header in front of a partial entry
+            buffer.putInt(at, payload.length);
+            position = at + HEADER_BYTES + payload.length;
+            lastSequence = sequence;
+            return at;
+        }
+
+        void markAcknowledged(int at) {
+            buffer.put(at + ACK_OFFSET, (byte) 1);
+        }
+
+        boolean isAcknowledged(int at) {
+            return buffer.get(at + ACK_OFFSET) != 0;
+        }
+
+        /**
+         * Visits entries in order, stopping at the end of the log or at the first torn entry.
+         */
+        void forEach(EntryVisitor visitor) {
+            int at = 0;
+            while (at + HEADER_BYTES <= buffer.capacity()) {
+                int length = buffer.getInt(at);
+                if (length <= 0 || at + HEADER_BYTES + length > buffer.capacity()
+                        || buffer.getInt(at + 4) != checksum(buffer, at, length)) {
+                    return;
+                }
+                visitor.visit(buffer.getLong(at + 8), at, buffer.slice(at + HEADER_BYTES, length));
+                at += HEADER_BYTES + length;
+            }
+        }
+
+        void force() {
+            buffer.force();
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.debug("Failed to close journal segment {}", path, e);
+            }
+        }
+    }
+}
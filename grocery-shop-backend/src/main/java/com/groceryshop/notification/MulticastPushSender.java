@@ -0,0 +1,78 @@
+package com.groceryshop.notification;
+
+import com.groceryshop.notification.PushGateway.MulticastResult;
+import com.groceryshop.notification.PushGateway.PushMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Delivers push notifications through the {@link PushGateway}'s multicast API.
+ * <p>
+ * Each task's recipient is a {@link PushAudience}. Tasks in a batch that carry the same message
+ * are merged, their audiences resolved to device tokens through the {@link DeviceTokenRegistry},
+ * and the message is sent once per {@link PushGateway#maxTokensPerRequest()} tokens rather than
+ * once per user. Tokens the provider rejects are pruned from the registry.
+ */
+@Component
+public class MulticastPushSender implements NotificationSender {
+
+    private static final Logger log = LoggerFactory.getLogger(MulticastPushSender.class);
+
+    private final DeviceTokenRegistry registry;
+    private final PushGateway gateway;
+
+    public MulticastPushSender(DeviceTokenRegistry registry, PushGateway gateway) {
+        this.registry = registry;
+        this.gateway = gateway;
+    }
+
+    @Override
+    public NotificationType type() {
+        return NotificationType.PUSH;
+    }
+
+    @Override
+    public void send(NotificationTask task) throws Exception {
+        sendBatch(List.of(task));
+    }
+
+    @Override
+    public void sendBatch(List<NotificationTask> tasks) throws Exception {
+        Map<PushMessage, Set<Long>> audiences = new LinkedHashMap<>();
+        for (NotificationTask task : tasks) {
+            PushMessage message = new PushMessage(task.subject(), task.content(), task.metadata());
+            Set<Long> userIds = audiences.computeIfAbsent(message, m -> new LinkedHashSet<>());
+            switch (PushAudience.parse(task.recipient())) {
+                case PushAudience.User user -> userIds.add(user.userId());
+                case PushAudience.Users users -> userIds.addAll(users.userIds());
+                case PushAudience.Role role -> userIds.addAll(registry.usersWithRole(role.role()));
+            }
+        }
+        for (Map.Entry<PushMessage, Set<Long>> audience : audiences.entrySet()) {
+            multicast(audience.getKey(), registry.tokens(audience.getValue()));
+        }
+    }
+
+    private void multicast(PushMessage message, List<String> tokens) throws Exception {
+        if (tokens.isEmpty()) {
+            log.debug("No registered devices for push notification: {}", message.title());
+            return;
+        }
+        int chunkSize = gateway.maxTokensPerRequest();
+        List<String> invalid = new ArrayList<>();
+        for (int from = 0; from < tokens.size(); from += chunkSize) {
+            MulticastResult result = gateway.multicast(message,
+                    tokens.subList(from, Math.min(tokens.size(), from + chunkSize)));
+            invalid.addAll(result.invalidTokens());
+        }
+        registry.prune(invalid);
+    }
+}
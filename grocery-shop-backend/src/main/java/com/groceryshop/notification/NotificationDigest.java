@@ -0,0 +1,35 @@
+package com.groceryshop.notification;
+
+import java.util.List;
+
+/**
+ * Merges notifications with the same recipient and {@link NotificationTask#digestKey() digest key},
+ * batched together by the {@link NotificationDispatcher}, into the one notification sent instead.
+ */
+final class NotificationDigest {
+
+    private static final String SEPARATOR = "\n----------------------------------------\n\n";
+
+    private NotificationDigest() {
+    }
+
+    /**
+     * Returns the notification to send in place of several updates, oldest first.
+     * Push and SMS notifications show only the latest update, since it supersedes the others;
+     * an email digest leads with the latest update and keeps the earlier ones below it.
+     */
+    static NotificationTask merge(List<NotificationTask> updates) {
+        NotificationTask latest = updates.get(updates.size() - 1);
+        if (updates.size() == 1 || latest.type() != NotificationType.EMAIL) {
+            return latest;
+        }
+        StringBuilder body = new StringBuilder(latest.content());
+        body.append("\n\nEarlier updates:\n");
+        for (int i = updates.size() - 2; i >= 0; i--) {
+            body.append(SEPARATOR).append(updates.get(i).content());
+        }
+        return new NotificationTask(latest.type(), latest.recipient(),
+                latest.subject() + " (" + updates.size() + " updates)", body.toString(), latest.metadata(),
+                latest.digestKey());
+    }
+}
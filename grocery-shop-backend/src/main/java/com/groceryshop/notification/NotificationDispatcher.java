@@ -0,0 +1,403 @@
+package com.groceryshop.notification;
+
+import com.groceryshop.shared.messaging.BackpressurePolicy;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Delivers queued notifications through their channel's {@link NotificationSender}.
+ * <p>
+ * Each channel (email, push, SMS) has its own bounded queues and workers, so a slow provider
+ * only delays its own channel. A channel is split into shards, one worker each, and a
+ * notification goes to the shard chosen by its recipient: provider calls for different
+ * recipients run in parallel while notifications for the same recipient keep their order.
+ * <p>
+ * When a shard is full the channel's {@link BackpressurePolicy} applies: {@code BLOCK} makes
+ * the caller wait up to the enqueue timeout, {@code DROP} sheds the notification at once.
+ * Either way a notification that cannot be queued is counted as dropped and never blocks the
+ * caller indefinitely.
+ * <p>
+ * A worker hands its provider up to the channel's batch size of notifications per call,
+ * waiting up to the linger time for a batch to fill. Within a batch, notifications to the same
+ * recipient with the same {@link NotificationTask#digestKey() digest key} are coalesced into one
+ * {@link NotificationDigest digest}, so a wave of status updates costs a few provider calls.
+ * <p>
+ * Notifications are appended to the {@link NotificationJournal} before they are queued and
+ * acknowledged once their delivery attempt is over, or once they are shed. Those still
+ * unacknowledged when the application stopped are replayed on start.
+ */
+public class NotificationDispatcher implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    private static final long POLL_MILLIS = 100;
+
+    private final Map<NotificationType, Channel> channels = new EnumMap<>(NotificationType.class);
+    private final NotificationJournal journal;
+    private final long enqueueTimeoutNanos;
+    private final Duration drainTimeout;
+    private final boolean virtualThreads;
+
+    private volatile boolean running;
+
+    /**
+     * @param settings queue and worker settings per channel; channels without settings or without
+     *                 a sender are not served
+     * @param enqueueTimeout how long a {@code BLOCK} channel makes callers wait for space
+     * @param drainTimeout how long shutdown waits for queued notifications to be delivered
+     * @param virtualThreads run workers on virtual threads instead of platform threads
+     * @param journal records queued notifications, or {@link NotificationJournal#DISABLED}
+     */
+    public NotificationDispatcher(Map<NotificationType, ChannelSettings> settings, List<NotificationSender> senders,
+                                  Duration enqueueTimeout, Duration drainTimeout, boolean virtualThreads,
+                                  NotificationJournal journal, MeterRegistry meterRegistry) {
+        this.journal = journal;
+        this.enqueueTimeoutNanos = enqueueTimeout.toNanos();
+        this.drainTimeout = drainTimeout;
+        this.virtualThreads = virtualThreads;
+        for (NotificationSender sender : senders) {
+            ChannelSettings channelSettings = settings.get(sender.type());
+            if (channelSettings == null) {
+                log.warn("No dispatcher settings for {} notifications, sender {} is unused",
+                        sender.type(), sender.getClass().getSimpleName());
+                continue;
+            }
+            Channel channel = new Channel(sender.type(), sender, channelSettings);
+            channel.bindMetrics(meterRegistry);
+            channels.put(sender.type(), channel);
+        }
+    }
+
+    /**
+     * Queues a notification for delivery.
+     *
+     * @return true if the notification was queued, false if it was shed
+     */
+    public boolean dispatch(NotificationTask task) {
+        Channel channel = channels.get(task.type());
+        if (channel == null) {
+            log.warn("No sender for {} notifications, dropped notification to {}", task.type(), task.recipient());
+            return false;
+        }
+        return channel.offer(task, journal.append(task));
+    }
+
+    /**
+     * Returns counters for one channel.
+     */
+    public ChannelStats stats(NotificationType type) {
+        Channel channel = channels.get(type);
+        if (channel == null) {
+            throw new IllegalArgumentException("No channel for " + type);
+        }
+        return channel.stats();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        channels.values().forEach(Channel::start);
+        log.info("Notification dispatcher started with channels {}", channels.keySet());
+        replayJournal();
+    }
+
+    private void replayJournal() {
+        int[] replayed = new int[1];
+        journal.replay((sequence, task) -> {
+            Channel channel = channels.get(task.type());
+            if (channel == null) {
+                journal.acknowledge(sequence);
+            } else if (channel.offer(task, sequence)) {
+                replayed[0]++;
+            }
+        });
+        if (replayed[0] > 0) {
+            log.info("Replayed {} journaled notifications", replayed[0]);
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        long deadline = System.nanoTime() + drainTimeout.toNanos();
+        for (Channel channel : channels.values()) {
+            channel.stop(deadline);
+        }
+        log.info("Notification dispatcher stopped");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Queue and worker settings for one channel.
+     *
+     * @param workers number of shards, each with one worker
+     * @param capacity total queued notifications, split evenly across the shards
+     * @param backpressure what happens when a shard is full
+     * @param batchSize most notifications handed to the provider in one call
+     * @param linger longest a notification waits for its batch to fill
+     */
+    public record ChannelSettings(int workers, int capacity, BackpressurePolicy backpressure, int batchSize,
+                                  Duration linger) {
+
+        /**
+         * Settings for a channel that sends one notification per provider call.
+         */
+        public ChannelSettings(int workers, int capacity, BackpressurePolicy backpressure) {
+            this(workers, capacity, backpressure, 1, Duration.ZERO);
+        }
+    }
+
+    /**
+     * Counters for one channel. {@code sent} and {@code failed} count notifications, including
+     * those coalesced into a digest; {@code providerCalls} counts calls to the provider.
+     */
+    public record ChannelStats(NotificationType type, int depth, int capacity, long sent, long failed, long dropped,
+                               long providerCalls, long coalesced) {
+    }
+
+    private record Queued(NotificationTask task, long sequence, long enqueuedNanos) {
+    }
+
+    private final class Channel {
+        private final NotificationType type;
+        private final NotificationSender sender;
+        private final BackpressurePolicy backpressure;
+        private final List<BlockingQueue<Queued>> shards = new ArrayList<>();
+        private final List<Thread> workers = new CopyOnWriteArrayList<>();
+        private final int capacity;
+        private final int batchSize;
+        private final long lingerNanos;
+
+        private final LongAdder sent = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+        private final LongAdder providerCalls = new LongAdder();
+        private final LongAdder coalesced = new LongAdder();
+        private Timer latency;
+
+        Channel(NotificationType type, NotificationSender sender, ChannelSettings settings) {
+            this.type = type;
+            this.sender = sender;
+            this.backpressure = settings.backpressure();
+            int shardCapacity = Math.max(1, settings.capacity() / settings.workers());
+            for (int i = 0; i < settings.workers(); i++) {
+                shards.add(new ArrayBlockingQueue<>(shardCapacity));
+            }
+            this.capacity = shardCapacity * settings.workers();
+            this.batchSize = Math.max(1, settings.batchSize());
+            this.lingerNanos = settings.linger().toNanos();
+        }
+
+        void bindMetrics(MeterRegistry registry) {
+            String channel = type.name().toLowerCase();
+            Gauge.builder("grocery.notifications.queue.depth", this, Channel::depth)
+                    .tag("channel", channel)
+                    .register(registry);
+            FunctionCounter.builder("grocery.notifications.sent", sent, LongAdder::sum)
+                    .tag("channel", channel)
+                    .register(registry);
+            FunctionCounter.builder("grocery.notifications.failed", failed, LongAdder::sum)
+                    .tag("channel", channel)
+                    .register(registry);
+            FunctionCounter.builder("grocery.notifications.dropped", dropped, LongAdder::sum)
+                    .tag("channel", channel)
+                    .register(registry);
+            FunctionCounter.builder("grocery.notifications.provider.calls", providerCalls, LongAdder::sum)
+                    .tag("channel", channel)
+                    .register(registry);
+            FunctionCounter.builder("grocery.notifications.coalesced", coalesced, LongAdder::sum)
+                    .description("Notifications merged into a digest instead of being sent on their own")
+                    .tag("channel", channel)
+                    .register(registry);
+            latency = Timer.builder("grocery.notifications.latency")
+                    .description("Time from queueing a notification to the end of its delivery attempt")
+                    .tag("channel", channel)
+                    .publishPercentiles(0.5, 0.99)
+                    .register(registry);
+        }
+
+        boolean offer(NotificationTask task, long sequence) {
+            BlockingQueue<Queued> shard = shards.get(Math.floorMod(task.recipient().hashCode(), shards.size()));
+            Queued queued = new Queued(task, sequence, System.nanoTime());
+            if (shard.offer(queued) || awaitCapacity(shard, queued)) {
+                return true;
+            }
+            journal.acknowledge(sequence);
+            dropped.increment();
+            log.warn("{} notification queue is full, dropped notification to {}", type, task.recipient());
+            return false;
+        }
+
+        private boolean awaitCapacity(BlockingQueue<Queued> shard, Queued queued) {
+            if (backpressure == BackpressurePolicy.DROP || workers.contains(Thread.currentThread())) {
+                // A worker queueing onto its own full shard would wait for itself
+                return false;
+            }
+            try {
+                return shard.offer(queued, enqueueTimeoutNanos, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        void start() {
+            Thread.Builder builder = virtualThreads ? Thread.ofVirtual() : Thread.ofPlatform().daemon();
+            for (int i = 0; i < shards.size(); i++) {
+                BlockingQueue<Queued> shard = shards.get(i);
+                workers.add(builder.name("notify-" + type.name().toLowerCase() + "-" + i)
+                        .start(() -> work(shard)));
+            }
+        }
+
+        void stop(long deadlineNanos) {
+            for (Thread worker : workers) {
+                try {
+                    long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+                    if (remainingMillis <= 0 || !worker.join(Duration.ofMillis(remainingMillis))) {
+                        worker.interrupt();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    worker.interrupt();
+                }
+            }
+            int abandoned = depth();
+            if (abandoned > 0) {
+                log.warn("{} {} notifications were still queued at shutdown", abandoned, type);
+            }
+        }
+
+        private void work(BlockingQueue<Queued> shard) {
+            List<Queued> batch = new ArrayList<>(batchSize);
+            // Keep draining after stop() until the shard is empty or the drain timeout interrupts us
+            while (running || !shard.isEmpty()) {
+                try {
+                    Queued first = shard.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    fill(shard, batch);
+                } catch (InterruptedException e) {
+                    // Anything taken but not delivered is still in the journal and replayed on start
+                    return;
+                }
+                deliver(batch);
+                batch.clear();
+            }
+        }
+
+        /**
+         * Adds queued notifications to the batch until it is full or the oldest has lingered long enough.
+         */
+        private void fill(BlockingQueue<Queued> shard, List<Queued> batch) throws InterruptedException {
+            shard.drainTo(batch, batchSize - batch.size());
+            long deadline = batch.get(0).enqueuedNanos() + lingerNanos;
+            // No lingering while draining for shutdown
+            while (batch.size() < batchSize && running) {
+                long remaining = deadline - System.nanoTime();
+                Queued next = remaining > 0 ? shard.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                if (next == null) {
+                    return;
+                }
+                batch.add(next);
+                shard.drainTo(batch, batchSize - batch.size());
+            }
+        }
+
+        private void deliver(List<Queued> batch) {
+            List<NotificationTask> tasks = coalesce(batch);
+            try {
+                if (tasks.size() == 1) {
+                    sender.send(tasks.get(0));
+                } else {
+                    sender.sendBatch(tasks);
+                }
+                sent.add(batch.size());
+                acknowledge(batch);
+            } catch (InterruptedException e) {
+                // Interrupted by shutdown: left unacknowledged so that they are replayed on start
+                Thread.currentThread().interrupt();
+                failed.add(batch.size());
+            } catch (Exception e) {
+                failed.add(batch.size());
+                acknowledge(batch);
+                if (tasks.size() == 1) {
+                    log.error("Failed to deliver {} notification to {}", type, tasks.get(0).recipient(), e);
+                } else {
+                    log.error("Failed to deliver batch of {} {} notifications", tasks.size(), type, e);
+                }
+            } finally {
+                providerCalls.increment();
+                long now = System.nanoTime();
+                for (Queued queued : batch) {
+                    latency.record(now - queued.enqueuedNanos(), TimeUnit.NANOSECONDS);
+                }
+            }
+        }
+
+        /**
+         * Returns the notifications to send for a batch, with each recipient's notifications
+         * sharing a digest key merged into one, placed where the first of them was.
+         */
+        private List<NotificationTask> coalesce(List<Queued> batch) {
+            if (batch.size() == 1) {
+                return List.of(batch.get(0).task());
+            }
+            Map<Object, List<NotificationTask>> groups = new LinkedHashMap<>();
+            for (Queued queued : batch) {
+                NotificationTask task = queued.task();
+                // Notifications without a digest key get a key of their own
+                Object key = task.digestKey() != null ? List.of(task.recipient(), task.digestKey()) : new Object();
+                groups.computeIfAbsent(key, k -> new ArrayList<>(1)).add(task);
+            }
+            List<NotificationTask> tasks = new ArrayList<>(groups.size());
+            for (List<NotificationTask> group : groups.values()) {
+                tasks.add(NotificationDigest.merge(group));
+            }
+            coalesced.add(batch.size() - tasks.size());
+            return tasks;
+        }
+
+        private void acknowledge(List<Queued> batch) {
+            for (Queued queued : batch) {
+                journal.acknowledge(queued.sequence());
+            }
+        }
+
+        int depth() {
+            int depth = 0;
+            for (BlockingQueue<Queued> shard : shards) {
+                depth += shard.size();
+            }
+            return depth;
+        }
+
+        ChannelStats stats() {
+            return new ChannelStats(type, depth(), capacity, sent.sum(), failed.sum(), dropped.sum(),
+                    providerCalls.sum(), coalesced.sum());
+        }
+    }
+}
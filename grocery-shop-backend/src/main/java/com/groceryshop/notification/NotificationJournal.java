@@ -0,0 +1,54 @@
+package com.groceryshop.notification;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Durable record of queued notifications, so that notifications accepted before a crash or
+ * restart are still delivered afterwards.
+ * <p>
+ * The {@link NotificationDispatcher} appends each notification before queueing it and
+ * acknowledges it once its delivery attempt is over; on startup it replays whatever was
+ * appended but never acknowledged.
+ */
+public interface NotificationJournal {
+
+    /**
+     * Journal that records nothing, used when journaling is disabled.
+     */
+    NotificationJournal DISABLED = new NotificationJournal() {
+        @Override
+        public long append(NotificationTask task) {
+            return NO_SEQUENCE;
+        }
+
+        @Override
+        public void acknowledge(long sequence) {
+        }
+
+        @Override
+        public void replay(BiConsumer<Long, NotificationTask> consumer) {
+        }
+    };
+
+    /**
+     * Sequence of a notification that is not journaled.
+     */
+    long NO_SEQUENCE = -1;
+
+    /**
+     * Records a notification.
+     *
+     * @return the notification's sequence number, or {@link #NO_SEQUENCE} if it was not recorded
+     */
+    long append(NotificationTask task);
+
+    /**
+     * Marks a notification as done with, delivered or not, so it is not replayed.
+     */
+    void acknowledge(long sequence);
+
+    /**
+     * Passes every recorded, unacknowledged notification to the consumer in sequence order.
+     */
+    void replay(BiConsumer<Long, NotificationTask> consumer);
+}
@@ -0,0 +1,39 @@
+package com.groceryshop.notification;
+
+import java.util.List;
+
+/**
+ * Delivers notifications of one channel to an external provider (email service, push service,
+ * SMS gateway). Called from the {@link NotificationDispatcher}'s workers, so implementations may
+ * block on the network; several workers call the same sender concurrently.
+ * <p>
+ * Providers with a bulk API override {@link #sendBatch} to deliver a whole batch in one call;
+ * the dispatcher only hands over batches larger than one when the channel is configured for it.
+ */
+public interface NotificationSender {
+
+    /**
+     * Returns the channel this sender delivers.
+     */
+    NotificationType type();
+
+    /**
+     * Delivers a notification.
+     *
+     * @param task the notification to deliver
+     * @throws Exception if delivery failed
+     */
+    void send(NotificationTask task) throws Exception;
+
+    /**
+     * Delivers several notifications, in order. The default sends them one at a time.
+     *
+     * @param tasks the notifications to deliver, more than one
+     * @throws Exception if delivery failed; the whole batch counts as failed
+     */
+    default void sendBatch(List<NotificationTask> tasks) throws Exception {
+        for (NotificationTask task : tasks) {
+            send(task);
+        }
+    }
+}
@@ -4,6 +4,8 @@ import com.groceryshop.order.Order;
 import com.groceryshop.auth.User;
 import com.groceryshop.product.Product;
 
+import java.util.List;
+
 /**
  * Service interface for handling various types of notifications.
  */
@@ -52,4 +54,13 @@ public interface NotificationService {
      * @param product the product that is now available
      */
     void sendProductAvailableNotification(User user, Product product);
+
+    /**
+     * Sends product availability notifications to many users at once, e.g. everyone on the
+     * product's waitlist. The email is rendered for all of them in one pass.
+     *
+     * @param users the users to notify
+     * @param product the product that is now available
+     */
+    void sendProductAvailableNotifications(List<User> users, Product product);
 }
@@ -3,11 +3,15 @@ package com.groceryshop.notification;
 import com.groceryshop.order.Order;
 import com.groceryshop.order.OrderStatus;
 import com.groceryshop.auth.User;
+import com.groceryshop.auth.UserRole;
 import com.groceryshop.product.Product;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -19,6 +23,103 @@ public class NotificationServiceImpl implements NotificationService {
 
     private static final Logger log = LoggerFactory.getLogger(NotificationServiceImpl.class);
 
+    // Email bodies, compiled once by the EmailTemplateRegistry on first use
+    private static final String ORDER_CONFIRMATION_BODY = """
+    Dear ${customerName},
+
+    Thank you for your order! Your order has been successfully placed.
+
+    Order Details:
+    - Order ID: ${orderId}
+    - Total Amount: $${totalAmount}
+    - Order Date: ${orderDate}
+    - Delivery Address: ${deliveryAddress}
+
+    You will receive updates on your order status. If you have any questions,
+    please contact our customer service.
+
+    Best regards,
+    Grocery Shop Team
+    """;
+
+    private static final String ORDER_STATUS_UPDATE_BODY = """
+    Dear ${customerName},
+
+    Your order status has been updated.
+
+    Order Details:
+    - Order ID: ${orderId}
+    - New Status: ${status}
+    - Updated: ${updateTime}
+
+    ${additionalInfo}
+
+    Best regards,
+    Grocery Shop Team
+    """;
+
+    private static final String LOW_STOCK_ALERT_BODY = """
+    Alert: Low Stock Level Detected
+
+    Product: ${productName}
+    Current Stock: ${currentStock}
+    Threshold: ${threshold}
+
+    Please restock this item soon to avoid stockouts.
+
+    Grocery Shop System
+    """;
+
+    private static final String WELCOME_BODY = """
+    Welcome ${firstName}!
+
+    Thank you for joining Grocery Shop. We're excited to have you as part of our community.
+
+    You can now:
+    - Browse our wide selection of fresh products
+    - Place orders for home delivery
+    - Track your orders in real-time
+    - Manage your shopping cart
+
+    Start shopping now and enjoy fresh, quality groceries delivered to your door!
+
+    Best regards,
+    Grocery Shop Team
+    """;
+
+    private static final String PASSWORD_RESET_BODY = """
+    Hi ${firstName},
+
+    You requested a password reset for your Grocery Shop account.
+
+    Click the link below to reset your password:
+    ${resetLink}
+
+    This link will expire in 24 hours.
+
+    If you didn't request this reset, please ignore this email.
+
+    Best regards,
+    Grocery Shop Team
+    """;
+
+    private static final String PRODUCT_AVAILABLE_BODY = """
+    Hi ${firstName},
+
+    Great news! The product you were waiting for is now back in stock.
+
+    Product: ${productName}
+    Price: $${price}
+
+    Click here to add it to your cart:
+    ${productLink}
+
+    Happy shopping!
+
+    Best regards,
+    Grocery Shop Team
+    """;
+
     private final EmailNotificationService emailService;
     private final PushNotificationService pushService;
 
@@ -38,23 +139,7 @@ public class NotificationServiceImpl implements NotificationService {
         // Email notification
         EmailTemplate emailTemplate = EmailTemplate.of(
             "Order Confirmation - Order #" + order.getId(),
-            """
-            Dear ${customerName},
-
-            Thank you for your order! Your order has been successfully placed.
-
-            Order Details:
-            - Order ID: ${orderId}
-            - Total Amount: $${totalAmount}
-            - Order Date: ${orderDate}
-            - Delivery Address: ${deliveryAddress}
-
-            You will receive updates on your order status. If you have any questions,
-            please contact our customer service.
-
-            Best regards,
-            Grocery Shop Team
-            """,
+            ORDER_CONFIRMATION_BODY,
             Map.of(
                 "customerName", customer.getFirstName() + " " + customer.getLastName(),
                 "orderId", order.getId().toString(),
@@ -88,21 +173,7 @@ public class NotificationServiceImpl implements NotificationService {
         // Email notification
         EmailTemplate emailTemplate = EmailTemplate.of(
             "Order Status Update - Order #" + order.getId(),
-            """
-            Dear ${customerName},
-
-            Your order status has been updated.
-
-            Order Details:
-            - Order ID: ${orderId}
-            - New Status: ${status}
-            - Updated: ${updateTime}
-
-            ${additionalInfo}
-
-            Best regards,
-            Grocery Shop Team
-            """,
+            ORDER_STATUS_UPDATE_BODY,
             Map.of(
                 "customerName", customer.getFirstName() + " " + customer.getLastName(),
                 "orderId", order.getId().toString(),
@@ -112,14 +183,17 @@ public class NotificationServiceImpl implements NotificationService {
             )
         );
 
-        emailService.sendEmail(customerEmail, emailTemplate);
+        // Updates of one order that are delivered together are coalesced into a digest
+        String digestKey = "order-status:" + order.getId();
+        emailService.sendEmail(customerEmail, emailTemplate, digestKey);
 
         // Push notification
         pushService.sendPushNotification(
             customerId,
             "Order Update",
             "Your order #" + order.getId() + " is now " + statusMessage.toLowerCase(),
-            Map.of("orderId", order.getId(), "status", order.getStatus().toString(), "type", "ORDER_UPDATE")
+            Map.of("orderId", order.getId(), "status", order.getStatus().toString(), "type", "ORDER_UPDATE"),
+            digestKey
         );
 
         log.info("Order status update notifications sent for order {}: {}", order.getId(), order.getStatus());
@@ -133,29 +207,18 @@ public class NotificationServiceImpl implements NotificationService {
 
         EmailTemplate emailTemplate = EmailTemplate.of(
             "Low Stock Alert - " + product.getName(),
-            """
-            Alert: Low Stock Level Detected
-
-            Product: ${productName}
-            Current Stock: ${currentStock}
-            Threshold: ${threshold}
-
-            Please restock this item soon to avoid stockouts.
-
-            Grocery Shop System
-            """,
+            LOW_STOCK_ALERT_BODY,
             Map.of(
                 "productName", product.getName(),
                 "currentStock", product.getStockQuantity().toString(),
-                "threshold", "10" // Should come from config
+                "threshold", product.getLowStockThreshold().toString()
             )
         );
 
         emailService.sendEmail(adminEmail, emailTemplate);
 
-        // Push notification to admin users (placeholder - would need admin user management)
-        pushService.sendPushNotification(
-            "admin", // Placeholder admin user ID
+        pushService.sendPushNotificationToRole(
+            UserRole.ADMIN,
             "Low Stock Alert",
             product.getName() + " is running low on stock",
             Map.of("productId", product.getId(), "productName", product.getName(), "type", "LOW_STOCK")
@@ -168,22 +231,7 @@ public class NotificationServiceImpl implements NotificationService {
     public void sendWelcomeEmail(User user) {
         EmailTemplate emailTemplate = EmailTemplate.of(
             "Welcome to Grocery Shop!",
-            """
-            Welcome ${firstName}!
-
-            Thank you for joining Grocery Shop. We're excited to have you as part of our community.
-
-            You can now:
-            - Browse our wide selection of fresh products
-            - Place orders for home delivery
-            - Track your orders in real-time
-            - Manage your shopping cart
-
-            Start shopping now and enjoy fresh, quality groceries delivered to your door!
-
-            Best regards,
-            Grocery Shop Team
-            """,
+            WELCOME_BODY,
             Map.of("firstName", user.getFirstName())
         );
 
@@ -204,21 +252,7 @@ public class NotificationServiceImpl implements NotificationService {
     public void sendPasswordResetEmail(User user, String resetToken) {
         EmailTemplate emailTemplate = EmailTemplate.of(
             "Password Reset Request",
-            """
-            Hi ${firstName},
-
-            You requested a password reset for your Grocery Shop account.
-
-            Click the link below to reset your password:
-            ${resetLink}
-
-            This link will expire in 24 hours.
-
-            If you didn't request this reset, please ignore this email.
-
-            Best regards,
-            Grocery Shop Team
-            """,
+            PASSWORD_RESET_BODY,
             Map.of(
                 "firstName", user.getFirstName(),
                 "resetLink", "https://grocery-shop.com/reset-password?token=" + resetToken
@@ -234,22 +268,7 @@ public class NotificationServiceImpl implements NotificationService {
     public void sendProductAvailableNotification(User user, Product product) {
         EmailTemplate emailTemplate = EmailTemplate.of(
             product.getName() + " is now available!",
-            """
-            Hi ${firstName},
-
-            Great news! The product you were waiting for is now back in stock.
-
-            Product: ${productName}
-            Price: $${price}
-
-            Click here to add it to your cart:
-            ${productLink}
-
-            Happy shopping!
-
-            Best regards,
-            Grocery Shop Team
-            """,
+            PRODUCT_AVAILABLE_BODY,
             Map.of(
                 "firstName", user.getFirstName(),
                 "productName", product.getName(),
@@ -271,6 +290,37 @@ public class NotificationServiceImpl implements NotificationService {
         log.info("Product availability notification sent to {} for product: {}", user.getEmail(), product.getName());
     }
 
+    @Override
+    public void sendProductAvailableNotifications(List<User> users, Product product) {
+        if (users.isEmpty()) {
+            return;
+        }
+        EmailTemplate emailTemplate = EmailTemplate.of(product.getName() + " is now available!", PRODUCT_AVAILABLE_BODY);
+        Map<String, Map<String, String>> placeholdersByRecipient = new LinkedHashMap<>();
+        List<String> userIds = new ArrayList<>(users.size());
+        for (User user : users) {
+            placeholdersByRecipient.put(user.getEmail(), Map.of(
+                "firstName", user.getFirstName(),
+                "productName", product.getName(),
+                "price", product.getPrice().toString(),
+                "productLink", "https://grocery-shop.com/products/" + product.getId()
+            ));
+            userIds.add(user.getId().toString());
+        }
+
+        emailService.sendEmails(emailTemplate, placeholdersByRecipient);
+
+        // Push notification
+        pushService.sendPushNotificationToUsers(
+            userIds,
+            "Product Available",
+            product.getName() + " is back in stock!",
+            Map.of("productId", product.getId(), "type", "PRODUCT_AVAILABLE")
+        );
+
+        log.info("Product availability notifications sent to {} users for product: {}", users.size(), product.getName());
+    }
+
     private String getStatusMessage(OrderStatus status) {
         return switch (status) {
             case PENDING -> "Pending";
@@ -2,12 +2,14 @@ package com.groceryshop.notification;
 
 import com.groceryshop.auth.UserRepository;
 import com.groceryshop.sse.SseService;
+import com.groceryshop.sse.SseTopicType;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
@@ -33,18 +35,15 @@ public class NotificationSseController {
     @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
     @PreAuthorize("hasRole('CUSTOMER') or hasRole('ADMIN')")
     @Operation(summary = "Subscribe to notifications", description = "Receive real-time notifications via SSE")
-    public SseEmitter subscribeToNotifications(Authentication authentication) {
+    public SseEmitter subscribeToNotifications(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            Authentication authentication) {
         Long userId = getUserIdFromAuthentication(authentication);
-        String emitterId = "notifications-user-" + userId;
-        SseEmitter emitter = sseService.createEmitter(emitterId);
-
-        // Send initial connection confirmation
-        sseService.sendEvent(emitterId, new com.groceryshop.sse.SseEvent(
+        // Replay missed notifications on reconnect, otherwise send a connection confirmation
+        return sseService.subscribe(SseTopicType.USER, userId, authentication.getName(), lastEventId, () -> new com.groceryshop.sse.SseEvent(
             "connection-established",
             new ConnectionEvent("Successfully connected to notification stream", java.time.LocalDateTime.now())
         ));
-
-        return emitter;
     }
 
     /**
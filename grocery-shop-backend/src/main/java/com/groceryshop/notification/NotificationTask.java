@@ -0,0 +1,27 @@
+package com.groceryshop.notification;
+
+/**
+ * A notification waiting to be delivered through its channel's provider.
+ *
+ * @param type the delivery channel
+ * @param recipient email address, user id or phone number, depending on the channel
+ * @param subject subject line or title
+ * @param content message body
+ * @param metadata channel-specific data, e.g. the push payload
+ * @param digestKey identifies notifications that supersede each other, e.g. status updates of one
+ *                  order; those batched together for the same recipient are sent as one digest.
+ *                  Null if the notification is always sent on its own.
+ */
+public record NotificationTask(
+    NotificationType type,
+    String recipient,
+    String subject,
+    String content,
+    Object metadata,
+    String digestKey
+) {
+
+    public NotificationTask(NotificationType type, String recipient, String subject, String content, Object metadata) {
+        this(type, recipient, subject, content, metadata, null);
+    }
+}
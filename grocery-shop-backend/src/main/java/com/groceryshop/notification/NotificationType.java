@@ -0,0 +1,10 @@
+package com.groceryshop.notification;
+
+/**
+ * Delivery channels for notifications. Each channel has its own queues and workers.
+ */
+public enum NotificationType {
+    EMAIL,
+    PUSH,
+    SMS
+}
@@ -0,0 +1,66 @@
+package com.groceryshop.notification;
+
+import com.groceryshop.auth.UserRole;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Who a push notification is for, carried in its {@link NotificationTask#recipient() recipient}:
+ * a user id ({@code 42}), several user ids ({@code users:1,2,3}) or every active user with a
+ * role ({@code role:ADMIN}). The {@link MulticastPushSender} resolves it to device tokens.
+ */
+public sealed interface PushAudience {
+
+    String USERS_PREFIX = "users:";
+    String ROLE_PREFIX = "role:";
+
+    /**
+     * Returns the recipient string for this audience.
+     */
+    String recipient();
+
+    static PushAudience parse(String recipient) {
+        if (recipient.startsWith(ROLE_PREFIX)) {
+            return new Role(UserRole.valueOf(recipient.substring(ROLE_PREFIX.length())));
+        }
+        if (recipient.startsWith(USERS_PREFIX)) {
+            return new Users(Arrays.stream(recipient.substring(USERS_PREFIX.length()).split(","))
+                    .map(Long::valueOf)
+                    .toList());
+        }
+        try {
+            return new User(Long.parseLong(recipient));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a push audience: " + recipient, e);
+        }
+    }
+
+    record User(long userId) implements PushAudience {
+        @Override
+        public String recipient() {
+            return Long.toString(userId);
+        }
+    }
+
+    record Users(List<Long> userIds) implements PushAudience {
+        @Override
+        public String recipient() {
+            StringBuilder recipient = new StringBuilder(USERS_PREFIX);
+            for (int i = 0; i < userIds.size(); i++) {
+                if (i > 0) {
+                    recipient.append(',');
+                }
+                recipient.append(userIds.get(i));
+            }
+            return recipient.toString();
+        }
+    }
+
+    record Role(UserRole role) implements PushAudience {
+        @Override
+        public String recipient() {
+            return ROLE_PREFIX + role.name();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.groceryshop.notification;
+
+import java.util.List;
+
+/**
+ * A push service provider's multicast API (FCM, APNS, OneSignal, etc.): one message to many
+ * device tokens per request.
+ */
+public interface PushGateway {
+
+    /**
+     * Returns the most tokens the provider accepts in one request.
+     */
+    int maxTokensPerRequest();
+
+    /**
+     * Sends a message to each of the tokens.
+     *
+     * @param message the message
+     * @param tokens at most {@link #maxTokensPerRequest()} device tokens
+     * @return the outcome, including the tokens the provider reported as no longer valid
+     * @throws Exception if the request failed as a whole
+     */
+    MulticastResult multicast(PushMessage message, List<String> tokens) throws Exception;
+
+    /**
+     * The content of a push notification.
+     */
+    record PushMessage(String title, String body, Object data) {
+    }
+
+    /**
+     * Outcome of a multicast request.
+     *
+     * @param delivered tokens the provider accepted the message for
+     * @param invalidTokens tokens the provider rejected as unregistered or malformed
+     */
+    record MulticastResult(int delivered, List<String> invalidTokens) {
+    }
+}
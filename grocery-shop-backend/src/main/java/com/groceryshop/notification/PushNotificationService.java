@@ -1,24 +1,34 @@
 package com.groceryshop.notification;
 
+import com.groceryshop.auth.UserRole;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Service for sending push notifications.
- * In a production environment, this would integrate with push notification services
- * like Firebase Cloud Messaging (FCM), Apple Push Notification Service (APNS),
- * or OneSignal.
+ * Notifications are queued on the {@link NotificationDispatcher} and delivered by the
+ * push {@link NotificationSender}, which sends each message to all the recipients' registered
+ * devices at once.
  */
 @Service
 public class PushNotificationService {
 
     private static final Logger log = LoggerFactory.getLogger(PushNotificationService.class);
 
-    private final NotificationQueue notificationQueue;
+    private final NotificationDispatcher dispatcher;
+    private final DeviceTokenRegistry registry;
+
+    @Value("${app.notifications.push.multicast-size:500}")
+    private int multicastSize = 500;
 
-    public PushNotificationService(NotificationQueue notificationQueue) {
-        this.notificationQueue = notificationQueue;
+    public PushNotificationService(NotificationDispatcher dispatcher, DeviceTokenRegistry registry) {
+        this.dispatcher = dispatcher;
+        this.registry = registry;
     }
 
     /**
@@ -30,20 +40,37 @@ public class PushNotificationService {
      * @param data additional data payload
      */
     public void sendPushNotification(String userId, String title, String body, Object data) {
-        NotificationQueue.NotificationTask task = new NotificationQueue.NotificationTask(
-            NotificationQueue.NotificationType.PUSH,
+        sendPushNotification(userId, title, body, data, null);
+    }
+
+    /**
+     * Sends a push notification that supersedes earlier ones with the same digest key, e.g. an
+     * order status update. Of those batched together for the same user, only the latest is sent.
+     *
+     * @param userId the user ID to send notification to
+     * @param title notification title
+     * @param body notification body
+     * @param data additional data payload
+     * @param digestKey what the notification is about, e.g. {@code order-status:42}, or null
+     */
+    public void sendPushNotification(String userId, String title, String body, Object data, String digestKey) {
+        NotificationTask task = new NotificationTask(
+            NotificationType.PUSH,
             userId,
             title,
             body,
-            data
+            data,
+            digestKey
         );
 
-        notificationQueue.enqueue(task);
-        log.info("Push notification queued for user {}: {}", userId, title);
+        if (dispatcher.dispatch(task)) {
+            log.info("Push notification queued for user {}: {}", userId, title);
+        }
     }
 
     /**
      * Sends a push notification to multiple users.
+     * The users are queued in groups, each sent as one multicast to their devices.
      *
      * @param userIds list of user IDs
      * @param title notification title
@@ -51,83 +78,49 @@ public class PushNotificationService {
      * @param data additional data payload
      */
     public void sendPushNotificationToUsers(Iterable<String> userIds, String title, String body, Object data) {
+        List<Long> group = new ArrayList<>(multicastSize);
         for (String userId : userIds) {
-            sendPushNotification(userId, title, body, data);
-        }
-    }
-
-    /**
-     * Processes queued push notifications.
-     * This method would typically be called by a background worker or scheduled task.
-     */
-    public void processQueuedPushNotifications() {
-        while (!notificationQueue.isEmpty()) {
-            try {
-                NotificationQueue.NotificationTask task = notificationQueue.dequeue();
-
-                if (task.type() == NotificationQueue.NotificationType.PUSH) {
-                    sendPushNotificationViaProvider(task.recipient(), task.subject(), task.content(), task.metadata());
-                }
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                log.error("Push notification processing interrupted", e);
-                break;
-            } catch (Exception e) {
-                log.error("Failed to process push notification", e);
+            group.add(Long.valueOf(userId));
+            if (group.size() == multicastSize) {
+                dispatchToAudience(new PushAudience.Users(List.copyOf(group)), title, body, data);
+                group.clear();
             }
         }
+        if (!group.isEmpty()) {
+            dispatchToAudience(new PushAudience.Users(List.copyOf(group)), title, body, data);
+        }
     }
 
     /**
-     * Sends push notification via external push service provider.
-     * This is a placeholder implementation that would be replaced with actual
-     * push service integration (FCM, APNS, OneSignal, etc.)
+     * Sends a push notification to every active user with a role, e.g. all administrators.
      *
-     * @param userId user identifier
+     * @param role the role
      * @param title notification title
      * @param body notification body
-     * @param data additional payload data
+     * @param data additional data payload
      */
-    private void sendPushNotificationViaProvider(String userId, String title, String body, Object data) {
-        // Placeholder implementation
-        // In production, this would integrate with:
-        // - Firebase Cloud Messaging (FCM)
-        // - Apple Push Notification Service (APNS)
-        // - OneSignal
-        // - Pushover
-        // - etc.
-
-        log.info("Sending push notification to user {} with title: {}", userId, title);
-        log.debug("Notification body: {}", body);
-        log.debug("Additional data: {}", data);
+    public void sendPushNotificationToRole(UserRole role, String title, String body, Object data) {
+        dispatchToAudience(new PushAudience.Role(role), title, body, data);
+    }
 
-        // Simulate push notification sending delay
-        try {
-            Thread.sleep(50); // Simulate network delay
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+    private void dispatchToAudience(PushAudience audience, String title, String body, Object data) {
+        NotificationTask task = new NotificationTask(NotificationType.PUSH, audience.recipient(), title, body, data);
+        if (dispatcher.dispatch(task)) {
+            log.info("Push notification queued for {}: {}", audience, title);
         }
-
-        log.info("Push notification sent successfully to user {}", userId);
     }
 
     /**
      * Registers a device token for push notifications.
-     * In a real implementation, this would store the token in a database
-     * and associate it with the user.
+     * A token already registered to another user is moved to this one.
      *
      * @param userId the user ID
      * @param deviceToken the device token
      * @param platform the device platform (iOS, Android, Web)
+     * @throws IllegalArgumentException if the token or platform is not valid
      */
     public void registerDeviceToken(String userId, String deviceToken, String platform) {
-        // Placeholder implementation
-        // In production, this would:
-        // 1. Validate the device token
-        // 2. Store it in the database associated with the user
-        // 3. Handle token updates and cleanup of old tokens
-
-        log.info("Registered device token for user {} on platform {}", userId, platform);
+        registry.register(Long.parseLong(userId), deviceToken, DevicePlatform.valueOf(platform.toUpperCase()));
     }
 
     /**
@@ -137,7 +130,8 @@ public class PushNotificationService {
      * @param deviceToken the device token to remove
      */
     public void unregisterDeviceToken(String userId, String deviceToken) {
-        // Placeholder implementation
-        log.info("Unregistered device token for user {}", userId);
+        if (registry.unregister(Long.parseLong(userId), deviceToken)) {
+            log.info("Unregistered device token for user {}", userId);
+        }
     }
 }
@@ -1,7 +1,10 @@
 package com.groceryshop.order;
 
+import com.groceryshop.shared.event.DomainEvent;
+
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * Event published when a new order is created.
@@ -10,12 +13,29 @@ public record OrderCreatedEvent(
     Long orderId,
     Long customerId,
     BigDecimal totalAmount,
+    OrderStatus status,
     String deliveryAddress,
     LocalDateTime orderDate,
-    String customerEmail
-) {
+    String customerEmail,
+    List<Long> productIds
+) implements DomainEvent {
+
+    public OrderCreatedEvent(Long orderId, Long customerId, BigDecimal totalAmount, OrderStatus status,
+                             String deliveryAddress, LocalDateTime orderDate, String customerEmail) {
+        this(orderId, customerId, totalAmount, status, deliveryAddress, orderDate, customerEmail, List.of());
+    }
 
     public OrderCreatedEvent(Long orderId, Long customerId, BigDecimal totalAmount) {
-        this(orderId, customerId, totalAmount, null, LocalDateTime.now(), null);
+        this(orderId, customerId, totalAmount, OrderStatus.PENDING, null, LocalDateTime.now(), null);
+    }
+
+    @Override
+    public String aggregateType() {
+        return "order";
+    }
+
+    @Override
+    public Long aggregateId() {
+        return orderId;
     }
 }
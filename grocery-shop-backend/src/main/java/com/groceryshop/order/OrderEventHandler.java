@@ -1,6 +1,7 @@
 package com.groceryshop.order;
 
 import com.groceryshop.config.RabbitMQConfig;
+import com.groceryshop.shared.event.EventEnvelope;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
@@ -54,12 +55,13 @@ public class OrderEventHandler {
 
         // Additional business logic for status changes
         switch (event.newStatus()) {
+            case PENDING -> log.info("Order {} set back to pending", event.orderId());
             case CONFIRMED -> log.info("Order {} confirmed, payment processed", event.orderId());
             case PROCESSING -> log.info("Order {} is being prepared", event.orderId());
             case SHIPPED -> log.info("Order {} has been shipped", event.orderId());
             case DELIVERED -> log.info("Order {} has been delivered", event.orderId());
             case CANCELLED -> log.info("Order {} has been cancelled", event.orderId());
-            default -> throw new IllegalArgumentException("Unexpected value: " + event.newStatus());
+            default -> log.warn("Order {} moved to unhandled status {}", event.orderId(), event.newStatus());
         }
     }
 
@@ -68,7 +70,8 @@ public class OrderEventHandler {
      * This could be used for asynchronous order processing.
      */
     @RabbitListener(queues = RabbitMQConfig.ORDER_PROCESSING_QUEUE)
-    public void processOrderFromQueue(OrderCreatedEvent event) {
+    public void processOrderFromQueue(EventEnvelope<OrderCreatedEvent> envelope) {
+        OrderCreatedEvent event = envelope.payload();
         log.info("Received order processing message from queue for order ID: {}", event.orderId());
 
         try {
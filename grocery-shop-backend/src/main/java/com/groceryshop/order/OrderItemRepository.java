@@ -1,11 +1,17 @@
 package com.groceryshop.order;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
@@ -17,4 +23,30 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
 
     @Query("SELECT SUM(oi.quantity) FROM OrderItem oi WHERE oi.product.id = :productId")
     Integer sumQuantityByProductId(@Param("productId") Long productId);
+
+    @Query("SELECT oi.order.id, oi.product.id FROM OrderItem oi WHERE oi.order.id IN :orderIds")
+    List<Object[]> findOrderAndProductIdsByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+
+    @Query("SELECT oi.product.id, oi.product.category, COUNT(oi), MAX(oi.order.id) FROM OrderItem oi "
+            + "WHERE oi.order.customer.id = :customerId GROUP BY oi.product.id, oi.product.category")
+    List<Object[]> summarizePurchasesByCustomerId(@Param("customerId") Long customerId);
+
+    /**
+     * Streams the customer and product of every order line, read from a cursor a page at a time.
+     * Must be consumed inside a transaction and closed.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT oi.order.customer.id, oi.product.id FROM OrderItem oi")
+    Stream<Object[]> streamCustomerAndProductIds();
+
+    /**
+     * Streams the units ordered per product and day, in orders placed in {@code [from, to)} that
+     * are not in the excluded status. Must be consumed inside a transaction and closed.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT oi.product.id, CAST(oi.order.orderDate AS LocalDate), SUM(oi.quantity) FROM OrderItem oi "
+            + "WHERE oi.order.orderDate >= :from AND oi.order.orderDate < :to AND oi.order.status <> :excluded "
+            + "GROUP BY oi.product.id, CAST(oi.order.orderDate AS LocalDate)")
+    Stream<Object[]> streamDailyQuantitiesByProduct(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                                    @Param("excluded") OrderStatus excluded);
 }
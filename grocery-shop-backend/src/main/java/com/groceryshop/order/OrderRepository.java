@@ -1,5 +1,6 @@
 package com.groceryshop.order;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -49,4 +50,10 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     java.util.List<Order> findByOrderDateBetweenAndStatus(@Param("startDate") LocalDateTime startDate,
                                                           @Param("endDate") LocalDateTime endDate,
                                                           @Param("status") OrderStatus status);
+
+    @Query("SELECT o.id, o.orderDate FROM Order o WHERE o.id > :afterOrderId ORDER BY o.id")
+    List<Object[]> findIdsAndOrderDatesAfter(@Param("afterOrderId") Long afterOrderId, Pageable pageable);
+
+    @Query("SELECT MAX(o.id) FROM Order o WHERE o.orderDate < :date")
+    Long findMaxIdByOrderDateBefore(@Param("date") LocalDateTime date);
 }
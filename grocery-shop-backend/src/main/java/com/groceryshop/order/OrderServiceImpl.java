@@ -5,6 +5,7 @@ import com.groceryshop.auth.spi.AuthServiceProvider;
 import com.groceryshop.cart.Cart;
 import com.groceryshop.cart.CartItem;
 import com.groceryshop.cart.spi.CartServiceProvider;
+import com.groceryshop.product.InventoryTransactionType;
 import com.groceryshop.product.Product;
 import com.groceryshop.product.StockUpdatedEvent;
 import com.groceryshop.product.spi.ProductServiceProvider;
@@ -16,6 +17,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -75,6 +77,7 @@ public class OrderServiceImpl implements OrderService {
         Order savedOrder = orderRepository.save(order);
 
         // Convert cart items to order items and update stock
+        List<Long> productIds = new ArrayList<>(cartItems.size());
         for (CartItem cartItem : cartItems) {
             OrderItem orderItem = new OrderItem();
             orderItem.setOrder(savedOrder);
@@ -88,6 +91,8 @@ public class OrderServiceImpl implements OrderService {
 
             // Update product stock
             Product product = cartItem.getProduct();
+            productIds.add(product.getId());
+            int oldStockQuantity = product.getStockQuantity();
             int newStockQuantity = product.getStockQuantity() - cartItem.getQuantity();
             productServiceProvider.updateProductStock(product.getId(), newStockQuantity);
 
@@ -96,8 +101,10 @@ public class OrderServiceImpl implements OrderService {
                 this,
                 product.getId(),
                 product.getName(),
-                cartItem.getQuantity(),
-                newStockQuantity
+                oldStockQuantity,
+                newStockQuantity,
+                InventoryTransactionType.STOCK_OUT,
+                "Order " + savedOrder.getId()
             ));
         }
 
@@ -106,9 +113,11 @@ public class OrderServiceImpl implements OrderService {
             savedOrder.getId(),
             customerId,
             savedOrder.getTotalAmount(),
+            savedOrder.getStatus(),
             deliveryAddress,
             savedOrder.getOrderDate(),
-            customer.getEmail()
+            customer.getEmail(),
+            productIds
         ));
 
         log.info("Order created with ID: {} for customer {}", savedOrder.getId(), customerId);
@@ -136,6 +145,8 @@ public class OrderServiceImpl implements OrderService {
         Order updatedOrder = orderRepository.save(order);
         log.info("Order {} status updated from {} to {}", id, oldStatus, status);
 
+        eventPublisher.publishEvent(new OrderStatusUpdatedEvent(id, order.getCustomer().getId(), oldStatus, status));
+
         return updatedOrder;
     }
 
@@ -143,9 +154,12 @@ public class OrderServiceImpl implements OrderService {
     @Transactional
     public void cancelOrder(Long id) {
         Order order = getOrderById(id);
+        OrderStatus oldStatus = order.getStatus();
         order.setStatus(OrderStatus.CANCELLED);
         orderRepository.save(order);
         log.info("Order {} cancelled", id);
+
+        eventPublisher.publishEvent(new OrderStatusUpdatedEvent(id, order.getCustomer().getId(), oldStatus, OrderStatus.CANCELLED));
     }
 
     @Override
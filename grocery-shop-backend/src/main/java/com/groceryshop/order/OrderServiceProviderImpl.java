@@ -1,13 +1,24 @@
 package com.groceryshop.order;
 
+import com.groceryshop.order.spi.DailySalesVisitor;
+import com.groceryshop.order.spi.OrderProducts;
 import com.groceryshop.order.spi.OrderServiceProvider;
+import com.groceryshop.order.spi.PurchaseVisitor;
+import com.groceryshop.order.spi.PurchasedProduct;
+import com.groceryshop.product.ProductCategory;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Implementation of the OrderServiceProvider SPI.
@@ -17,9 +28,11 @@ import java.util.Optional;
 public class OrderServiceProviderImpl implements OrderServiceProvider {
 
     private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
 
-    public OrderServiceProviderImpl(OrderRepository orderRepository) {
+    public OrderServiceProviderImpl(OrderRepository orderRepository, OrderItemRepository orderItemRepository) {
         this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
     }
 
     @Override
@@ -71,4 +84,57 @@ public class OrderServiceProviderImpl implements OrderServiceProvider {
     public List<Object[]> findTopCustomersByOrderCount(int limit) {
         return orderRepository.findTopCustomersByOrderCount(limit);
     }
+
+    @Override
+    public List<OrderProducts> findOrderProductsAfter(long afterOrderId, int maxOrders) {
+        List<Object[]> orders = orderRepository.findIdsAndOrderDatesAfter(afterOrderId, PageRequest.of(0, maxOrders));
+        if (orders.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, List<Long>> productIds = new LinkedHashMap<>();
+        for (Object[] order : orders) {
+            productIds.put((Long) order[0], new ArrayList<>());
+        }
+        for (Object[] row : orderItemRepository.findOrderAndProductIdsByOrderIdIn(productIds.keySet())) {
+            productIds.get((Long) row[0]).add((Long) row[1]);
+        }
+        List<OrderProducts> result = new ArrayList<>(orders.size());
+        for (Object[] order : orders) {
+            Long orderId = (Long) order[0];
+            result.add(new OrderProducts(orderId, (LocalDateTime) order[1], productIds.get(orderId)));
+        }
+        return result;
+    }
+
+    @Override
+    public long findLastOrderIdBefore(LocalDateTime date) {
+        Long orderId = orderRepository.findMaxIdByOrderDateBefore(date);
+        return orderId != null ? orderId : 0L;
+    }
+
+    @Override
+    public List<PurchasedProduct> findPurchasedProductsByCustomer(Long customerId) {
+        List<PurchasedProduct> purchases = new ArrayList<>();
+        for (Object[] row : orderItemRepository.summarizePurchasesByCustomerId(customerId)) {
+            purchases.add(new PurchasedProduct((Long) row[0], (ProductCategory) row[1], (Long) row[2], (Long) row[3]));
+        }
+        return purchases;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachPurchase(PurchaseVisitor visitor) {
+        try (Stream<Object[]> rows = orderItemRepository.streamCustomerAndProductIds()) {
+            rows.forEach(row -> visitor.visit((Long) row[0], (Long) row[1]));
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachDailySale(LocalDate from, LocalDate to, DailySalesVisitor visitor) {
+        try (Stream<Object[]> rows = orderItemRepository.streamDailyQuantitiesByProduct(
+                from.atStartOfDay(), to.atStartOfDay(), OrderStatus.CANCELLED)) {
+            rows.forEach(row -> visitor.visit((Long) row[0], (LocalDate) row[1], ((Number) row[2]).longValue()));
+        }
+    }
 }
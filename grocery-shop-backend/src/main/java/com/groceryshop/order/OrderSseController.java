@@ -2,6 +2,7 @@ package com.groceryshop.order;
 
 import com.groceryshop.auth.UserRepository;
 import com.groceryshop.sse.SseService;
+import com.groceryshop.sse.SseTopicType;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.http.MediaType;
@@ -9,6 +10,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
@@ -36,7 +38,9 @@ public class OrderSseController {
     @GetMapping(value = "/{orderId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
     @PreAuthorize("hasRole('CUSTOMER') or hasRole('ADMIN')")
     @Operation(summary = "Track order events", description = "Subscribe to real-time order status updates via SSE")
-    public SseEmitter trackOrderEvents(@PathVariable Long orderId, Authentication authentication) {
+    public SseEmitter trackOrderEvents(@PathVariable Long orderId,
+                                       @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+                                       Authentication authentication) {
         Long userId = getUserIdFromAuthentication(authentication);
         Order order = orderService.getOrderById(orderId);
 
@@ -45,16 +49,20 @@ public class OrderSseController {
             throw new RuntimeException("Access denied to order events");
         }
 
-        String emitterId = "order-" + orderId + "-user-" + userId;
-        SseEmitter emitter = sseService.createEmitter(emitterId);
-
-        // Send initial order status
-        sseService.sendEvent(emitterId, new com.groceryshop.sse.SseEvent(
+        // Resume from Last-Event-ID if possible, otherwise send the current order status
+        return sseService.subscribe(SseTopicType.ORDER, orderId, authentication.getName(), lastEventId, () -> new com.groceryshop.sse.SseEvent(
             "order-status",
             new OrderStatusEvent(orderId, order.getStatus(), order.getUpdatedAt())
         ));
+    }
 
-        return emitter;
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Track all order events", description = "Subscribe to real-time status updates for every order via SSE")
+    public SseEmitter trackAllOrderEvents(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            Authentication authentication) {
+        return sseService.subscribeAll(SseTopicType.ORDER, authentication.getName(), lastEventId, null);
     }
 
     /**
@@ -1,6 +1,9 @@
 package com.groceryshop.order;
 
+import com.groceryshop.shared.event.EventEnvelope;
+import com.groceryshop.shared.event.StaleEventFilter;
 import com.groceryshop.sse.SseService;
+import com.groceryshop.sse.SseTopicType;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.stereotype.Component;
 
@@ -8,39 +11,55 @@ import java.time.LocalDateTime;
 
 /**
  * Event handler that bridges RabbitMQ order events to SSE streams.
+ * Everything needed to route an event is carried by its envelope, so no database
+ * lookups happen per message. Status updates older than the last one delivered for
+ * the same order are dropped.
  */
 @Component
 public class OrderSseEventHandler {
 
     private final SseService sseService;
-    private final OrderRepository orderRepository;
+    private final StaleEventFilter statusUpdateFilter = new StaleEventFilter();
+    private final StaleEventFilter createdFilter = new StaleEventFilter();
 
-    public OrderSseEventHandler(SseService sseService, OrderRepository orderRepository) {
+    public OrderSseEventHandler(SseService sseService) {
         this.sseService = sseService;
-        this.orderRepository = orderRepository;
     }
 
+    /**
+     * Single listener for the order events queue: two listeners on one queue would
+     * compete for messages instead of each seeing every event.
+     */
     @RabbitListener(queues = "order-events")
-    public void handleOrderStatusUpdated(OrderStatusUpdatedEvent event) {
-        // Get the order to find customer ID
-        Order order = orderRepository.findById(event.orderId()).orElse(null);
-        if (order == null) return;
-
-        Long customerId = order.getCustomer().getId();
+    public void handleOrderEvent(EventEnvelope<?> envelope) {
+        switch (envelope.payload()) {
+            case OrderStatusUpdatedEvent event -> {
+                if (statusUpdateFilter.accept(envelope)) {
+                    handleOrderStatusUpdated(event);
+                }
+            }
+            case OrderCreatedEvent event -> {
+                if (createdFilter.accept(envelope)) {
+                    handleOrderCreated(event);
+                }
+            }
+            default -> {
+            }
+        }
+    }
 
-        // Send it to a specific order tracking emitter
-        String orderEmitterId = "order-" + event.orderId() + "-user-" + customerId;
-        if (sseService.hasEmitter(orderEmitterId)) {
-            sseService.sendEvent(orderEmitterId, new com.groceryshop.sse.SseEvent(
+    void handleOrderStatusUpdated(OrderStatusUpdatedEvent event) {
+        // Send it to everyone tracking the order
+        if (sseService.hasSubscribers(SseTopicType.ORDER, event.orderId())) {
+            sseService.publish(SseTopicType.ORDER, event.orderId(), new com.groceryshop.sse.SseEvent(
                 "order-status-update",
                 new OrderStatusEvent(event.orderId(), event.newStatus(), event.updatedAt())
             ));
         }
 
         // Also send it to the user's general notification stream
-        String userEmitterId = "notifications-user-" + customerId;
-        if (sseService.hasEmitter(userEmitterId)) {
-            sseService.sendEvent(userEmitterId, new com.groceryshop.sse.SseEvent(
+        if (event.customerId() != null && sseService.hasSubscribers(SseTopicType.USER, event.customerId())) {
+            sseService.publish(SseTopicType.USER, event.customerId(), new com.groceryshop.sse.SseEvent(
                 "order-notification",
                 new OrderNotificationEvent(
                     "Order Status Update",
@@ -53,16 +72,12 @@ public class OrderSseEventHandler {
         }
     }
 
-    @RabbitListener(queues = "order-events")
-    public void handleOrderCreated(OrderCreatedEvent event) {
+    void handleOrderCreated(OrderCreatedEvent event) {
         // Send it to the user's general notification stream
-        String userEmitterId = "notifications-user-" + event.customerId();
-        if (sseService.hasEmitter(userEmitterId)) {
-            // For order created, we need to determine the initial status
-            Order order = orderRepository.findById(event.orderId()).orElse(null);
-            OrderStatus status = order != null ? order.getStatus() : OrderStatus.PENDING;
+        if (event.customerId() != null && sseService.hasSubscribers(SseTopicType.USER, event.customerId())) {
+            OrderStatus status = event.status() != null ? event.status() : OrderStatus.PENDING;
 
-            sseService.sendEvent(userEmitterId, new com.groceryshop.sse.SseEvent(
+            sseService.publish(SseTopicType.USER, event.customerId(), new com.groceryshop.sse.SseEvent(
                 "order-notification",
                 new OrderNotificationEvent(
                     "Order Created",
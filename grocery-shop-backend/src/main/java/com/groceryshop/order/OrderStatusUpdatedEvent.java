@@ -1,5 +1,7 @@
 package com.groceryshop.order;
 
+import com.groceryshop.shared.event.DomainEvent;
+
 import java.time.LocalDateTime;
 
 /**
@@ -7,13 +9,24 @@ import java.time.LocalDateTime;
  */
 public record OrderStatusUpdatedEvent(
     Long orderId,
+    Long customerId,
     OrderStatus oldStatus,
     OrderStatus newStatus,
     LocalDateTime updatedAt,
     String updatedBy
-) {
+) implements DomainEvent {
+
+    public OrderStatusUpdatedEvent(Long orderId, Long customerId, OrderStatus oldStatus, OrderStatus newStatus) {
+        this(orderId, customerId, oldStatus, newStatus, LocalDateTime.now(), null);
+    }
+
+    @Override
+    public String aggregateType() {
+        return "order";
+    }
 
-    public OrderStatusUpdatedEvent(Long orderId, OrderStatus oldStatus, OrderStatus newStatus) {
-        this(orderId, oldStatus, newStatus, LocalDateTime.now(), null);
+    @Override
+    public Long aggregateId() {
+        return orderId;
     }
 }
@@ -0,0 +1,17 @@
+package com.groceryshop.order.spi;
+
+import java.time.LocalDate;
+
+/**
+ * Receives the daily sales streamed by {@link OrderServiceProvider#forEachDailySale}.
+ */
+@FunctionalInterface
+public interface DailySalesVisitor {
+
+    /**
+     * Called once per product and day with sales.
+     *
+     * @param quantity units of the product ordered that day
+     */
+    void visit(long productId, LocalDate day, long quantity);
+}
@@ -0,0 +1,10 @@
+package com.groceryshop.order.spi;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * The products bought in one order, for modules that learn from order history.
+ */
+public record OrderProducts(long orderId, LocalDateTime orderDate, List<Long> productIds) {
+}
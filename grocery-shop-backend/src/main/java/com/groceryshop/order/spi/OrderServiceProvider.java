@@ -4,6 +4,7 @@ import com.groceryshop.order.Order;
 import com.groceryshop.order.OrderStatus;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -98,4 +99,40 @@ public interface OrderServiceProvider {
      * @return list of customer data with order counts and total spent
      */
     List<Object[]> findTopCustomersByOrderCount(int limit);
+
+    /**
+     * Gets the products of the orders placed after a given order, oldest order first.
+     *
+     * @param afterOrderId the order ID to start after, 0 for the first order
+     * @param maxOrders the maximum number of orders to return
+     * @return the products of each order, in ascending order ID
+     */
+    List<OrderProducts> findOrderProductsAfter(long afterOrderId, int maxOrders);
+
+    /**
+     * Finds the last order placed before a date.
+     *
+     * @param date the date
+     * @return the highest ID of the orders placed before the date, or 0 if there are none
+     */
+    long findLastOrderIdBefore(LocalDateTime date);
+
+    /**
+     * Gets every product a customer has bought, with purchase counts.
+     *
+     * @param customerId the customer ID
+     * @return one entry per distinct product
+     */
+    List<PurchasedProduct> findPurchasedProductsByCustomer(Long customerId);
+
+    /**
+     * Streams every order line to the visitor without loading them all into memory.
+     */
+    void forEachPurchase(PurchaseVisitor visitor);
+
+    /**
+     * Streams the units sold per product and day, for orders placed from {@code from} up to but
+     * not including {@code to}. Cancelled orders are not counted.
+     */
+    void forEachDailySale(LocalDate from, LocalDate to, DailySalesVisitor visitor);
 }
@@ -0,0 +1,13 @@
+package com.groceryshop.order.spi;
+
+/**
+ * Receives the purchases streamed by {@link OrderServiceProvider#forEachPurchase}.
+ */
+@FunctionalInterface
+public interface PurchaseVisitor {
+
+    /**
+     * Called once per order line.
+     */
+    void visit(long customerId, long productId);
+}
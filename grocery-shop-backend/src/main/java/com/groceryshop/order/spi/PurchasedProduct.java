@@ -0,0 +1,14 @@
+package com.groceryshop.order.spi;
+
+import com.groceryshop.product.ProductCategory;
+
+/**
+ * A product a customer has bought, summed over their orders.
+ *
+ * @param productId the product
+ * @param category the product's category
+ * @param purchases the number of order lines with the product
+ * @param lastOrderId the latest order with the product
+ */
+public record PurchasedProduct(long productId, ProductCategory category, long purchases, long lastOrderId) {
+}
@@ -0,0 +1,118 @@
+package com.groceryshop.product;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Units sold per product and day over the last {@code days} days, for demand forecasting.
+ * <p>
+ * All series share one {@code int[]}, a row of {@code days} slots per product. Days are kept in
+ * a ring indexed by epoch day, so moving on to a new day clears one slot per product instead of
+ * shifting every series, and a product costs four bytes a day.
+ * <p>
+ * Not thread-safe: written by the forecasting batch, then read by its workers once loading is done.
+ */
+public class DailySalesHistory {
+
+    private final int days;
+    private final Map<Long, Integer> rows = new HashMap<>();
+    private int[] sales;
+    private long lastDay = Long.MIN_VALUE;
+
+    /**
+     * @param days how many days each series covers
+     */
+    public DailySalesHistory(int days) {
+        if (days < 1) {
+            throw new IllegalArgumentException("Sales history must cover at least one day");
+        }
+        this.days = days;
+        this.sales = new int[64 * days];
+    }
+
+    public int days() {
+        return days;
+    }
+
+    /**
+     * Returns the last day the series cover, or null before the first {@link #advanceTo}.
+     */
+    public LocalDate lastDay() {
+        return lastDay == Long.MIN_VALUE ? null : LocalDate.ofEpochDay(lastDay);
+    }
+
+    public int productCount() {
+        return rows.size();
+    }
+
+    /**
+     * Adds units sold of a product on a day. Days older than the history are ignored; a later day
+     * moves the history on to it.
+     */
+    public void add(long productId, LocalDate day, long quantity) {
+        long epochDay = day.toEpochDay();
+        if (epochDay > lastDay) {
+            advanceTo(day);
+        }
+        if (epochDay <= lastDay - days) {
+            return;
+        }
+        int index = row(productId) * days + slot(epochDay);
+        sales[index] = (int) Math.min((long) sales[index] + quantity, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Moves the history on to end at the given day, clearing the days it passes over. Earlier
+     * days leave it as it is.
+     */
+    public void advanceTo(LocalDate day) {
+        long epochDay = day.toEpochDay();
+        if (lastDay == Long.MIN_VALUE) {
+            lastDay = epochDay;
+            return;
+        }
+        for (long d = lastDay + 1; d <= Math.min(epochDay, lastDay + days); d++) {
+            int slot = slot(d);
+            for (int row = 0, count = rows.size(); row < count; row++) {
+                sales[row * days + slot] = 0;
+            }
+        }
+        lastDay = Math.max(lastDay, epochDay);
+    }
+
+    /**
+     * Returns the product's units sold per day, oldest first, ending at {@link #lastDay()}. A
+     * product without sales has a series of zeros.
+     */
+    public int[] series(long productId) {
+        int[] series = new int[days];
+        Integer row = rows.get(productId);
+        if (row == null) {
+            return series;
+        }
+        long firstDay = lastDay - days + 1;
+        for (int i = 0; i < days; i++) {
+            series[i] = sales[row * days + slot(firstDay + i)];
+        }
+        return series;
+    }
+
+    private int row(long productId) {
+        Integer row = rows.get(productId);
+        if (row != null) {
+            return row;
+        }
+        int next = rows.size();
+        if ((next + 1) * days > sales.length) {
+            sales = Arrays.copyOf(sales, sales.length * 2);
+        }
+        rows.put(productId, next);
+        return next;
+    }
+
+    private int slot(long epochDay) {
+        return (int) Math.floorMod(epochDay, (long) days);
+    }
+}
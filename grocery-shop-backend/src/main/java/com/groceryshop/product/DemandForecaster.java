@@ -0,0 +1,268 @@
+package com.groceryshop.product;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Forecasts each product's demand from its daily sales, for {@link InventoryService#getInventoryForecast}.
+ * <p>
+ * A nightly batch adds the previous days' sales to the {@link DailySalesHistory}, fits a
+ * {@link HoltWinters} model per product of the catalog on a pool of {@code parallelism} threads,
+ * and publishes the forecast daily demand of each for the next {@code horizonDays} days. Requests
+ * only add up precomputed days and compare them with the current stock.
+ * <p>
+ * The restock recommendation covers the forecast demand plus a safety stock, sized so the stock
+ * lasts the forecast period with probability {@code serviceLevel} if forecast errors are normal.
+ * The confidence level reported is that probability for the stock after restocking.
+ */
+public class DemandForecaster implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(DemandForecaster.class);
+
+    /**
+     * Days a forecast covers.
+     */
+    static final int FORECAST_DAYS = 30;
+
+    /**
+     * Streams units sold per product and day for orders placed in {@code [from, to)}.
+     */
+    @FunctionalInterface
+    public interface SalesSource {
+        void forEachDailySale(LocalDate from, LocalDate to, SalesVisitor visitor);
+    }
+
+    @FunctionalInterface
+    public interface SalesVisitor {
+        void visit(long productId, LocalDate day, long quantity);
+    }
+
+    private final ProductRepository productRepository;
+    private final SalesSource salesSource;
+    private final DailySalesHistory history;
+    private final int horizonDays;
+    private final double safetyFactor;
+    private final int leadTimeDays;
+    private final int parallelism;
+    private final Clock clock;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("demand-forecast").daemon().factory());
+    private volatile Map<Long, Forecast> forecasts = Map.of();
+    private volatile Duration lastRunTime = Duration.ZERO;
+    private LocalDate loadedUntil;
+
+    /**
+     * @param historyDays days of sales the models are fitted to; at least two weeks
+     * @param horizonDays days forecast ahead by each batch; more keeps forecasts usable if a batch is missed
+     * @param serviceLevel probability the recommended stock should cover the forecast period
+     * @param leadTimeDays days a restock takes to arrive
+     */
+    public DemandForecaster(ProductRepository productRepository, SalesSource salesSource, int historyDays,
+                            int horizonDays, double serviceLevel, int leadTimeDays, int parallelism, Clock clock) {
+        if (historyDays < 2 * HoltWinters.SEASON) {
+            throw new IllegalArgumentException("Demand forecasting needs at least two weeks of sales history");
+        }
+        if (horizonDays < FORECAST_DAYS) {
+            throw new IllegalArgumentException("Forecast horizon must cover at least " + FORECAST_DAYS + " days");
+        }
+        if (serviceLevel <= 0.5 || serviceLevel >= 1) {
+            throw new IllegalArgumentException("Service level must be between 0.5 and 1");
+        }
+        this.productRepository = productRepository;
+        this.salesSource = salesSource;
+        this.history = new DailySalesHistory(historyDays);
+        this.horizonDays = horizonDays;
+        this.safetyFactor = inverseNormal(serviceLevel);
+        this.leadTimeDays = leadTimeDays;
+        this.parallelism = parallelism;
+        this.clock = clock;
+    }
+
+    /**
+     * Runs the batch now in the background, then every night at the given time.
+     */
+    public void start(LocalTime runAt) {
+        executor.execute(this::runSafely);
+        scheduleNext(runAt);
+    }
+
+    private void scheduleNext(LocalTime runAt) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDateTime next = now.toLocalDate().atTime(runAt);
+        if (!next.isAfter(now)) {
+            next = next.plusDays(1);
+        }
+        executor.schedule(() -> {
+            try {
+                runSafely();
+            } finally {
+                scheduleNext(runAt);
+            }
+        }, Duration.between(now, next).toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void runSafely() {
+        try {
+            run();
+        } catch (RuntimeException e) {
+            log.error("Demand forecasting failed", e);
+        }
+    }
+
+    /**
+     * Loads the sales of the days completed since the last run and forecasts every product.
+     * Called from one thread at a time.
+     */
+    void run() {
+        long startNanos = System.nanoTime();
+        LocalDate today = LocalDate.now(clock);
+        LocalDate from = loadedUntil != null ? loadedUntil : today.minusDays(history.days());
+        if (from.isBefore(today)) {
+            salesSource.forEachDailySale(from, today, history::add);
+            history.advanceTo(today.minusDays(1));
+            loadedUntil = today;
+        }
+
+        List<Long> productIds = productRepository.findAllIds();
+        Map<Long, Forecast> computed = new ConcurrentHashMap<>(productIds.size() * 2);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.submit(() -> productIds.parallelStream()
+                    .forEach(productId -> computed.put(productId, forecast(history.series(productId), today))))
+                    .join();
+        } finally {
+            pool.shutdown();
+        }
+        forecasts = computed;
+        lastRunTime = Duration.ofNanos(System.nanoTime() - startNanos);
+        log.info("Forecast demand of {} products in {} ms on {} threads", computed.size(),
+                lastRunTime.toMillis(), parallelism);
+    }
+
+    private Forecast forecast(int[] series, LocalDate firstDay) {
+        HoltWinters.Fit fit = HoltWinters.fit(series);
+        float[] daily = new float[horizonDays];
+        for (int i = 0; i < horizonDays; i++) {
+            daily[i] = (float) fit.forecast(i + 1);
+        }
+        return new Forecast(firstDay, daily, (float) fit.residualStdDev());
+    }
+
+    /**
+     * Returns the product's inventory forecast from today, based on the last batch.
+     */
+    public InventoryForecast forecast(Product product) {
+        LocalDate today = LocalDate.now(clock);
+        int stock = product.getStockQuantity();
+        Forecast forecast = forecasts.get(product.getId());
+        int offset = forecast == null ? 0 : (int) Math.max(0, today.toEpochDay() - forecast.firstDay().toEpochDay());
+        if (forecast == null || offset >= forecast.daily().length) {
+            // Added since the last batch, no batch yet, or none for longer than the horizon: nothing to go on
+            return new InventoryForecast(product.getId(), product.getName(), stock, null, 0, null, 0,
+                    BigDecimal.ZERO.setScale(2, RoundingMode.HALF_UP));
+        }
+
+        int days = Math.min(FORECAST_DAYS, forecast.daily().length - offset);
+        double demand = 0;
+        for (int i = 0; i < days; i++) {
+            demand += forecast.daily()[offset + i];
+        }
+        // Errors of days apart taken as independent
+        double spread = forecast.residualStdDev() * Math.sqrt(days);
+        double safetyStock = safetyFactor * spread;
+        int recommended = (int) Math.max(0, Math.ceil(demand + safetyStock - stock));
+        double confidence = spread == 0
+                ? (stock + recommended >= demand ? 1 : 0)
+                : normal((stock + recommended - demand) / spread);
+
+        return new InventoryForecast(
+                product.getId(),
+                product.getName(),
+                stock,
+                (int) Math.round(demand / days),
+                (int) Math.round(demand),
+                nextRestockDate(forecast, offset, stock, safetyStock, today),
+                recommended,
+                BigDecimal.valueOf(confidence).setScale(2, RoundingMode.HALF_UP)
+        );
+    }
+
+    /**
+     * The day a restock should be ordered so it arrives before forecast demand takes the stock
+     * below the safety stock; today if it already has, the end of the horizon if it does not in it.
+     */
+    private LocalDate nextRestockDate(Forecast forecast, int offset, int stock, double safetyStock, LocalDate today) {
+        double remaining = stock;
+        for (int i = offset; i < forecast.daily().length; i++) {
+            remaining -= forecast.daily()[i];
+            if (remaining < safetyStock) {
+                int day = i - offset - leadTimeDays;
+                return day <= 0 ? today : today.plusDays(day);
+            }
+        }
+        return today.plusDays(forecast.daily().length - offset);
+    }
+
+    public int size() {
+        return forecasts.size();
+    }
+
+    public Duration getLastRunTime() {
+        return lastRunTime;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Standard normal cumulative distribution, Abramowitz and Stegun 26.2.17; error below 1e-7.
+     */
+    static double normal(double x) {
+        double t = 1 / (1 + 0.2316419 * Math.abs(x));
+        double density = Math.exp(-x * x / 2) / Math.sqrt(2 * Math.PI);
+        double tail = density * t * (0.319381530 + t * (-0.356563782 + t * (1.781477937
+                + t * (-1.821255978 + t * 1.330274429))));
+        return x >= 0 ? 1 - tail : tail;
+    }
+
+    /**
+     * Inverse of {@link #normal} by bisection; only used once, for the service level.
+     */
+    static double inverseNormal(double p) {
+        double low = -10;
+        double high = 10;
+        for (int i = 0; i < 100; i++) {
+            double mid = (low + high) / 2;
+            if (normal(mid) < p) {
+                low = mid;
+            } else {
+                high = mid;
+            }
+        }
+        return (low + high) / 2;
+    }
+
+    /**
+     * Forecast daily demand of a product from {@code firstDay} on.
+     */
+    private record Forecast(LocalDate firstDay, float[] daily, float residualStdDev) {
+    }
+}
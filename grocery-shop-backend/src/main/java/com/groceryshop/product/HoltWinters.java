@@ -0,0 +1,106 @@
+package com.groceryshop.product;
+
+/**
+ * Additive Holt-Winters exponential smoothing with a damped trend and a weekly season, for daily
+ * sales.
+ * <p>
+ * The smoothing factors are chosen per series from a small grid by the error of its one-step-ahead
+ * forecasts, the first week left out while the model settles. The standard deviation of those
+ * errors measures how far actual sales stray from the forecast.
+ */
+final class HoltWinters {
+
+    static final int SEASON = 7;
+
+    private static final double DAMPING = 0.9;
+    private static final double[] ALPHAS = {0.05, 0.1, 0.2, 0.3, 0.5};
+    private static final double[] BETAS = {0.0, 0.05, 0.15};
+    private static final double[] GAMMAS = {0.05, 0.15, 0.3};
+
+    private HoltWinters() {
+    }
+
+    /**
+     * Fits the model to a series of daily sales, oldest first, of at least two weeks.
+     */
+    static Fit fit(int[] series) {
+        if (series.length < 2 * SEASON) {
+            throw new IllegalArgumentException("Holt-Winters needs at least two weeks of sales");
+        }
+        boolean sold = false;
+        for (int value : series) {
+            sold |= value != 0;
+        }
+        if (!sold) {
+            return new Fit(0, 0, new double[SEASON], 0);
+        }
+        Fit best = null;
+        for (double alpha : ALPHAS) {
+            for (double beta : BETAS) {
+                for (double gamma : GAMMAS) {
+                    Fit fit = smooth(series, alpha, beta, gamma);
+                    if (best == null || fit.residualStdDev() < best.residualStdDev()) {
+                        best = fit;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    private static Fit smooth(int[] series, double alpha, double beta, double gamma) {
+        // Level and trend from the first two weeks, season from the first one
+        double firstWeek = 0;
+        double secondWeek = 0;
+        for (int i = 0; i < SEASON; i++) {
+            firstWeek += series[i];
+            secondWeek += series[SEASON + i];
+        }
+        double level = firstWeek / SEASON;
+        double trend = (secondWeek - firstWeek) / (SEASON * SEASON);
+        double[] season = new double[SEASON];
+        for (int i = 0; i < SEASON; i++) {
+            season[i] = series[i] - level;
+        }
+
+        double squaredErrors = 0;
+        for (int t = 0; t < series.length; t++) {
+            int phase = t % SEASON;
+            double predicted = level + DAMPING * trend + season[phase];
+            if (t >= SEASON) {
+                double error = series[t] - predicted;
+                squaredErrors += error * error;
+            }
+            double previousLevel = level;
+            level = alpha * (series[t] - season[phase]) + (1 - alpha) * (previousLevel + DAMPING * trend);
+            trend = beta * (level - previousLevel) + (1 - beta) * DAMPING * trend;
+            season[phase] = gamma * (series[t] - level) + (1 - gamma) * season[phase];
+        }
+
+        // Season of the days after the series, from the next one on
+        double[] ahead = new double[SEASON];
+        for (int j = 0; j < SEASON; j++) {
+            ahead[j] = season[(series.length + j) % SEASON];
+        }
+        return new Fit(level, trend, ahead, Math.sqrt(squaredErrors / (series.length - SEASON)));
+    }
+
+    /**
+     * A fitted model.
+     *
+     * @param season seasonal offset of each of the seven days after the series
+     * @param residualStdDev standard deviation of the one-step-ahead errors
+     */
+    record Fit(double level, double trend, double[] season, double residualStdDev) {
+
+        /**
+         * Returns the sales forecast for the given day after the series, 1 being the next day;
+         * never negative.
+         */
+        double forecast(int daysAhead) {
+            // The trend's effect fades: phi + phi^2 + ... + phi^h
+            double damped = DAMPING * (1 - Math.pow(DAMPING, daysAhead)) / (1 - DAMPING);
+            return Math.max(0, level + damped * trend + season[(daysAhead - 1) % SEASON]);
+        }
+    }
+}
@@ -0,0 +1,335 @@
+package com.groceryshop.product;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Types;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Append-only inventory ledger: every committed stock change becomes a row of
+ * {@code inventory_transactions}, and every product's stock is snapshotted periodically in
+ * {@code inventory_snapshots}.
+ * <p>
+ * Changes are queued and written by a single thread, up to {@code batchSize} rows per multi-row
+ * insert, waiting at most {@code linger} for a batch to fill; the queue is bounded and callers
+ * wait when it is full rather than lose rows. A failed batch is retried until it is written or
+ * the application stops, unless it breaks a constraint: then its rows are written one at a time
+ * and any row that can never be written, such as one for a product deleted since, is dropped,
+ * so one bad row cannot hold up the rest of the ledger.
+ * <p>
+ * Every {@code snapshotInterval} the same thread adds a snapshot for each product with rows since
+ * its last one, from that snapshot plus those rows, so a snapshot never reads the full history
+ * either. Other nodes write ledger rows too, and a row can be given an ID and commit after a row
+ * with a higher ID is already visible, so a snapshot only covers rows up to the highest ID seen at
+ * the previous snapshot, an interval earlier; every row up to it has long since committed, so a
+ * snapshot includes exactly the rows up to its {@code last_transaction_id}. Nodes snapshotting
+ * the same rows at once are kept from storing duplicates by a unique index; the loser skips.
+ */
+public class InventoryLedger implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryLedger.class);
+
+    private static final long POLL_MILLIS = 100;
+    private static final long RETRY_MILLIS = 1_000;
+    private static final long DRAIN_TIMEOUT_MILLIS = 10_000;
+    private static final int MAX_REASON_LENGTH = 255;
+
+    private static final String INSERT = "INSERT INTO inventory_transactions (product_id, transaction_type, "
+            + "quantity_change, previous_quantity, new_quantity, reason, created_by, created_at) VALUES ";
+    private static final String ROW = "(?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String SNAPSHOT = "INSERT INTO inventory_snapshots (product_id, last_transaction_id, quantity, snapshot_at) "
+            + "SELECT t.product_id, MAX(t.id), COALESCE(MAX(s.quantity), 0) + SUM(t.quantity_change), ? "
+            + "FROM inventory_transactions t "
+            + "LEFT JOIN inventory_snapshots s ON s.product_id = t.product_id AND s.last_transaction_id = "
+            + "(SELECT MAX(s2.last_transaction_id) FROM inventory_snapshots s2 WHERE s2.product_id = t.product_id) "
+            + "WHERE t.id > COALESCE(s.last_transaction_id, 0) AND t.id <= ? "
+            + "GROUP BY t.product_id";
+    private static final String LATEST_TRANSACTION = "SELECT MAX(id) FROM inventory_transactions";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlockingQueue<Entry> queue;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final long snapshotIntervalNanos;
+    private final Clock clock;
+    private final String fullBatchInsert;
+    private final Thread writer;
+
+    private final LongAdder appended = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder snapshots = new LongAdder();
+
+    private volatile boolean running = true;
+    private long lastSnapshotNanos = System.nanoTime();
+    // Highest ledger row ID at the previous snapshot; the next one covers rows up to it
+    private long snapshotWatermark;
+
+    /**
+     * @param capacity changes queued before callers wait
+     * @param batchSize most rows per insert
+     * @param linger longest a change waits for its batch to fill
+     * @param snapshotInterval how often the stock of changed products is snapshotted
+     */
+    public InventoryLedger(JdbcTemplate jdbcTemplate, int capacity, int batchSize, Duration linger,
+                           Duration snapshotInterval, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.lingerNanos = linger.toNanos();
+        this.snapshotIntervalNanos = snapshotInterval.toNanos();
+        this.clock = clock;
+        this.fullBatchInsert = insertSql(this.batchSize);
+        this.writer = Thread.ofPlatform().name("inventory-ledger").daemon().unstarted(this::work);
+    }
+
+    public void start() {
+        writer.start();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockUpdated(StockUpdatedEvent event) {
+        if (event.productId() == null || event.oldStock() == null || event.newStock() == null
+                || event.oldStock().equals(event.newStock())) {
+            return;
+        }
+        InventoryTransactionType type = event.type() != null ? event.type()
+                : event.newStock() > event.oldStock() ? InventoryTransactionType.STOCK_IN : InventoryTransactionType.STOCK_OUT;
+        append(new Entry(event.productId(), type, event.oldStock(), event.newStock(), event.reason(),
+                LocalDateTime.now(clock)));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductAdded(ProductAddedEvent event) {
+        if (event.productId() == null || event.initialStock() == null || event.initialStock() == 0) {
+            return;
+        }
+        append(new Entry(event.productId(), InventoryTransactionType.INITIAL, 0, event.initialStock(),
+                "Product added", LocalDateTime.now(clock)));
+    }
+
+    private void append(Entry entry) {
+        try {
+            queue.put(entry);
+            appended.increment();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted before recording stock change of product {} in the ledger", entry.productId());
+        }
+    }
+
+    private void work() {
+        List<Entry> batch = new ArrayList<>(batchSize);
+        // Keep draining after destroy() until the queue is empty or the drain timeout interrupts us
+        while (running || !queue.isEmpty() || !batch.isEmpty()) {
+            try {
+                if (batch.isEmpty()) {
+                    Entry first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    if (first != null) {
+                        batch.add(first);
+                        fill(batch);
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    if (write(batch)) {
+                        batch.clear();
+                    } else {
+                        Thread.sleep(RETRY_MILLIS);
+                    }
+                }
+            } catch (InterruptedException e) {
+                log.warn("{} stock changes were not recorded in the ledger at shutdown", batch.size() + queue.size());
+                return;
+            }
+            if (running && System.nanoTime() - lastSnapshotNanos >= snapshotIntervalNanos) {
+                snapshotSafely();
+            }
+        }
+    }
+
+    /**
+     * Adds queued changes to the batch until it is full or the oldest has lingered long enough.
+     */
+    private void fill(List<Entry> batch) throws InterruptedException {
+        queue.drainTo(batch, batchSize - batch.size());
+        long deadline = System.nanoTime() + lingerNanos;
+        // No lingering while draining for shutdown
+        while (batch.size() < batchSize && running) {
+            long remaining = deadline - System.nanoTime();
+            Entry next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+            queue.drainTo(batch, batchSize - batch.size());
+        }
+    }
+
+    /**
+     * Writes the batch, or as much of it as can be written: a row breaking a constraint is dropped.
+     *
+     * @return true if nothing is left to retry; otherwise the batch holds the rows still unwritten
+     */
+    private boolean write(List<Entry> batch) {
+        Object[] args = new Object[batch.size() * 8];
+        int i = 0;
+        for (Entry entry : batch) {
+            args[i++] = entry.productId();
+            args[i++] = entry.type().name();
+            args[i++] = entry.newQuantity() - entry.previousQuantity();
+            args[i++] = entry.previousQuantity();
+            args[i++] = entry.newQuantity();
+            args[i++] = new SqlParameterValue(Types.VARCHAR, entry.reason());
+            args[i++] = new SqlParameterValue(Types.BIGINT, null);
+            args[i++] = entry.createdAt();
+        }
+        try {
+            jdbcTemplate.update(batch.size() == batchSize ? fullBatchInsert : insertSql(batch.size()), args);
+            written.add(batch.size());
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            if (batch.size() == 1) {
+                drop(batch.getFirst(), e);
+                return true;
+            }
+            // Retrying would fail the same way; find the offending rows
+            return writeEach(batch);
+        } catch (DataAccessException e) {
+            failedBatches.increment();
+            log.error("Could not record {} stock changes in the ledger, retrying", batch.size(), e);
+            return false;
+        }
+    }
+
+    private boolean writeEach(List<Entry> batch) {
+        Iterator<Entry> entries = batch.iterator();
+        while (entries.hasNext()) {
+            if (!write(List.of(entries.next()))) {
+                return false;
+            }
+            entries.remove();
+        }
+        return true;
+    }
+
+    private void drop(Entry entry, DataIntegrityViolationException e) {
+        dropped.increment();
+        log.error("Dropped stock change of product {} from {} to {} that cannot be recorded in the ledger",
+                entry.productId(), entry.previousQuantity(), entry.newQuantity(), e);
+    }
+
+    private void snapshotSafely() {
+        lastSnapshotNanos = System.nanoTime();
+        try {
+            snapshot();
+        } catch (DuplicateKeyException e) {
+            log.debug("Inventory already snapshotted by another node", e);
+        } catch (DataAccessException e) {
+            log.error("Could not snapshot inventory", e);
+        }
+    }
+
+    /**
+     * Snapshots the stock of every product with ledger rows since its last snapshot, up to the
+     * highest row ID seen at the previous call. Called on the writer thread, or in tests while it
+     * is not started.
+     *
+     * @return the number of products snapshotted
+     */
+    int snapshot() {
+        long upTo = snapshotWatermark;
+        Long latest = jdbcTemplate.queryForObject(LATEST_TRANSACTION, Long.class);
+        snapshotWatermark = latest != null ? latest : 0;
+        if (upTo == 0) {
+            return 0;
+        }
+        int products = jdbcTemplate.update(SNAPSHOT, LocalDateTime.now(clock), upTo);
+        snapshots.add(products);
+        log.debug("Snapshotted the stock of {} products", products);
+        return products;
+    }
+
+    /**
+     * Writes everything queued. For tests, while the writer thread is not started.
+     */
+    void flush() {
+        List<Entry> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            if (!write(batch)) {
+                throw new IllegalStateException("Could not record stock changes in the ledger");
+            }
+            batch.clear();
+        }
+    }
+
+    private static String insertSql(int rows) {
+        StringBuilder sql = new StringBuilder(INSERT.length() + rows * (ROW.length() + 2)).append(INSERT);
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(ROW);
+        }
+        return sql.toString();
+    }
+
+    public int getQueued() {
+        return queue.size();
+    }
+
+    public long getAppendedCount() {
+        return appended.sum();
+    }
+
+    public long getWrittenCount() {
+        return written.sum();
+    }
+
+    public long getFailedBatchCount() {
+        return failedBatches.sum();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public long getSnapshotCount() {
+        return snapshots.sum();
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        if (writer.isAlive() && !writer.join(Duration.ofMillis(DRAIN_TIMEOUT_MILLIS))) {
+            writer.interrupt();
+        }
+    }
+
+    private record Entry(long productId, InventoryTransactionType type, int previousQuantity, int newQuantity,
+                         String reason, LocalDateTime createdAt) {
+
+        Entry {
+            if (reason != null && reason.length() > MAX_REASON_LENGTH) {
+                reason = reason.substring(0, MAX_REASON_LENGTH);
+            }
+        }
+    }
+}
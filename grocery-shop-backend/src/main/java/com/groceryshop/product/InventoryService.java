@@ -1,5 +1,6 @@
 package com.groceryshop.product;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -24,9 +25,18 @@ public interface InventoryService {
     Integer getStockLevel(Long productId);
 
     /**
-     * Gets all products with low stock (below threshold).
+     * Gets the stock level a product had at a point in time, from the inventory ledger.
      *
-     * @return list of products with low stock
+     * @param productId the product ID
+     * @param at the point in time
+     * @return the stock quantity at that time
+     */
+    Integer getStockLevelAt(Long productId, LocalDateTime at);
+
+    /**
+     * Gets all active products at or below their low-stock threshold.
+     *
+     * @return list of products with low stock, lowest stock first
      */
     List<Product> getLowStockProducts();
 
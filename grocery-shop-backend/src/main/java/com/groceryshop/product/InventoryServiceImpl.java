@@ -6,10 +6,9 @@ import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
-import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Implementation of the InventoryService interface.
@@ -18,16 +17,24 @@ import java.util.List;
 public class InventoryServiceImpl implements InventoryService {
 
     private static final Logger log = LoggerFactory.getLogger(InventoryServiceImpl.class);
-    private static final Integer LOW_STOCK_THRESHOLD = 10; // Configurable threshold
 
     private final ProductRepository productRepository;
     private final ApplicationEventPublisher eventPublisher;
+    private final DemandForecaster demandForecaster;
+    private final InventoryTransactionRepository inventoryTransactionRepository;
+    private final InventorySnapshotRepository inventorySnapshotRepository;
 
     public InventoryServiceImpl(
             ProductRepository productRepository,
-            ApplicationEventPublisher eventPublisher) {
+            ApplicationEventPublisher eventPublisher,
+            DemandForecaster demandForecaster,
+            InventoryTransactionRepository inventoryTransactionRepository,
+            InventorySnapshotRepository inventorySnapshotRepository) {
         this.productRepository = productRepository;
         this.eventPublisher = eventPublisher;
+        this.demandForecaster = demandForecaster;
+        this.inventoryTransactionRepository = inventoryTransactionRepository;
+        this.inventorySnapshotRepository = inventorySnapshotRepository;
     }
 
     @Override
@@ -52,12 +59,11 @@ public class InventoryServiceImpl implements InventoryService {
             productId,
             product.getName(),
             oldStock,
-            newStock
+            newStock,
+            quantity >= 0 ? InventoryTransactionType.STOCK_IN : InventoryTransactionType.STOCK_OUT,
+            "Stock update"
         ));
 
-        // Check for low stock alert
-        checkLowStockAlert(product);
-
         log.info("Updated stock for product {}: {} -> {}", productId, oldStock, newStock);
     }
 
@@ -68,9 +74,24 @@ public class InventoryServiceImpl implements InventoryService {
                 .orElseThrow(() -> new RuntimeException("Product not found with id: " + productId));
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Integer getStockLevelAt(Long productId, LocalDateTime at) {
+        if (!productRepository.existsById(productId)) {
+            throw new RuntimeException("Product not found with id: " + productId);
+        }
+
+        // The latest snapshot before then, plus the ledger rows recorded after it up to then
+        Optional<InventorySnapshot> snapshot = inventorySnapshotRepository
+                .findFirstByProductIdAndSnapshotAtLessThanEqualOrderByLastTransactionIdDesc(productId, at);
+        int base = snapshot.map(InventorySnapshot::getQuantity).orElse(0);
+        long afterId = snapshot.map(InventorySnapshot::getLastTransactionId).orElse(0L);
+        return Math.toIntExact(base + inventoryTransactionRepository.sumQuantityChanges(productId, afterId, at));
+    }
+
     @Override
     public List<Product> getLowStockProducts() {
-        return productRepository.findLowStockProducts(ProductStatus.ACTIVE, LOW_STOCK_THRESHOLD);
+        return productRepository.findLowStockProducts(ProductStatus.ACTIVE);
     }
 
     @Override
@@ -78,24 +99,8 @@ public class InventoryServiceImpl implements InventoryService {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new RuntimeException("Product not found with id: " + productId));
 
-        // Simple forecasting logic - in a real application, this would use historical data
-        // and more sophisticated algorithms
-        Integer averageDailySales = calculateAverageDailySales(productId);
-        Integer forecastedDemand = averageDailySales != null ? averageDailySales * 30 : 0; // 30-day forecast
-        Integer recommendedQuantity = Math.max(forecastedDemand - product.getStockQuantity(), 0);
-
-        LocalDate nextRestockDate = LocalDate.now().plusDays(7); // Default to 1 week
-
-        return new InventoryForecast(
-            productId,
-            product.getName(),
-            product.getStockQuantity(),
-            averageDailySales,
-            forecastedDemand,
-            nextRestockDate,
-            recommendedQuantity,
-            BigDecimal.valueOf(0.85) // 85% confidence level
-        );
+        // Served from the demand forecasts of the nightly batch
+        return demandForecaster.forecast(product);
     }
 
     @Override
@@ -103,31 +108,4 @@ public class InventoryServiceImpl implements InventoryService {
         Integer currentStock = getStockLevel(productId);
         return currentStock >= requestedQuantity;
     }
-
-    private void checkLowStockAlert(Product product) {
-        if (product.getStockQuantity() <= LOW_STOCK_THRESHOLD) {
-            eventPublisher.publishEvent(new LowStockAlertEvent(
-                product.getId(),
-                product.getName(),
-                product.getStockQuantity(),
-                LOW_STOCK_THRESHOLD,
-                LocalDateTime.now()
-            ));
-
-            log.warn("Low stock alert for product {}: {} units remaining (threshold: {})",
-                    product.getName(), product.getStockQuantity(), LOW_STOCK_THRESHOLD);
-        }
-    }
-
-    private Integer calculateAverageDailySales(Long productId) {
-        // This is a simplified calculation. In a real application, you would:
-        // 1. Query order history for the past 30-90 days
-        // 2. Calculate daily averages
-        // 3. Apply seasonal adjustments
-        // 4. Use statistical forecasting methods
-
-        // For now, return a mock value based on current stock levels
-        // This would be replaced with actual historical data analysis
-        return 5; // Mock average daily sales
-    }
 }
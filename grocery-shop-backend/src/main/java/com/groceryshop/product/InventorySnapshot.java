@@ -0,0 +1,55 @@
+package com.groceryshop.product;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * A product's stock as of a ledger row, so reconstructing the stock at a point in time only adds
+ * up the rows after the latest snapshot before it. Written by the {@link InventoryLedger}.
+ */
+@Entity
+@Immutable
+@Table(name = "inventory_snapshots")
+public class InventorySnapshot {
+
+    @Id
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "last_transaction_id", nullable = false)
+    private Long lastTransactionId;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Column(nullable = false)
+    private LocalDateTime snapshotAt;
+
+    // Constructors
+    protected InventorySnapshot() {}
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public Long getLastTransactionId() {
+        return lastTransactionId;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public LocalDateTime getSnapshotAt() {
+        return snapshotAt;
+    }
+}
@@ -0,0 +1,24 @@
+package com.groceryshop.product;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface InventorySnapshotRepository extends JpaRepository<InventorySnapshot, Long> {
+
+    Optional<InventorySnapshot> findFirstByProductIdAndSnapshotAtLessThanEqualOrderByLastTransactionIdDesc(
+            Long productId, LocalDateTime at);
+
+    /**
+     * Deletes a product's snapshots, for deleting the product.
+     */
+    @Modifying
+    @Query("DELETE FROM InventorySnapshot s WHERE s.productId = :productId")
+    int deleteByProductId(@Param("productId") Long productId);
+}
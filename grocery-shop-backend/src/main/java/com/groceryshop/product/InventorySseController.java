@@ -2,11 +2,14 @@ package com.groceryshop.product;
 
 import com.groceryshop.admin.AdminService;
 import com.groceryshop.sse.SseService;
+import com.groceryshop.sse.SseTopicType;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
@@ -30,18 +33,17 @@ public class InventorySseController {
     @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Subscribe to inventory alerts", description = "Receive real-time inventory alerts and stock updates via SSE")
-    public SseEmitter subscribeToInventoryAlerts() {
-        String emitterId = "inventory-admin-alerts";
-        SseEmitter emitter = sseService.createEmitter(emitterId);
-
-        // Send initial inventory status
-        AdminService.InventoryStatus status = adminService.getInventoryStatus();
-        sseService.sendEvent(emitterId, new com.groceryshop.sse.SseEvent(
-            "inventory-status",
-            new InventoryStatusEvent((int)status.totalProducts(), (int)status.lowStockProducts(), (int)status.outOfStockProducts())
-        ));
-
-        return emitter;
+    public SseEmitter subscribeToInventoryAlerts(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            Authentication authentication) {
+        // Resume from Last-Event-ID if possible, otherwise send the current inventory status
+        return sseService.subscribe(SseTopicType.ADMIN_INVENTORY, 0, authentication.getName(), lastEventId, () -> {
+            AdminService.InventoryStatus status = adminService.getInventoryStatus();
+            return new com.groceryshop.sse.SseEvent(
+                "inventory-status",
+                new InventoryStatusEvent((int)status.totalProducts(), (int)status.lowStockProducts(), (int)status.outOfStockProducts())
+            );
+        });
     }
 
     /**
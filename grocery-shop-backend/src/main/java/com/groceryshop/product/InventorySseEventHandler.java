@@ -1,41 +1,64 @@
 package com.groceryshop.product;
 
+import com.groceryshop.shared.event.EventEnvelope;
+import com.groceryshop.shared.event.StaleEventFilter;
 import com.groceryshop.sse.SseService;
+import com.groceryshop.sse.SseTopicType;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.stereotype.Component;
 
 /**
  * Event handler that bridges RabbitMQ inventory events to SSE streams.
+ * Stock updates that arrive after a newer update for the same product are dropped.
  */
 @Component
 public class InventorySseEventHandler {
 
     private final SseService sseService;
+    private final StaleEventFilter stockUpdateFilter = new StaleEventFilter();
+    private final StaleEventFilter lowStockFilter = new StaleEventFilter();
 
     public InventorySseEventHandler(SseService sseService) {
         this.sseService = sseService;
     }
 
+    /**
+     * Single listener for the inventory events queue, dispatching on the payload type.
+     */
     @RabbitListener(queues = "inventory-events")
-    public void handleLowStockAlert(LowStockAlertEvent event) {
+    public void handleInventoryEvent(EventEnvelope<?> envelope) {
+        switch (envelope.payload()) {
+            case StockUpdatedEvent event -> {
+                if (stockUpdateFilter.accept(envelope)) {
+                    handleStockUpdated(event);
+                }
+            }
+            case LowStockAlertEvent event -> {
+                if (lowStockFilter.accept(envelope)) {
+                    handleLowStockAlert(event);
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    void handleLowStockAlert(LowStockAlertEvent event) {
         // Send to admin inventory alerts stream
-        String adminEmitterId = "inventory-admin-alerts";
-        if (sseService.hasEmitter(adminEmitterId)) {
-            sseService.sendEvent(adminEmitterId, new com.groceryshop.sse.SseEvent(
+        if (sseService.hasSubscribers(SseTopicType.ADMIN_INVENTORY, 0)) {
+            sseService.publish(SseTopicType.ADMIN_INVENTORY, 0, new com.groceryshop.sse.SseEvent(
                 "low-stock-alert",
                 new LowStockAlertData(event.productId(), event.productName(), event.currentStock(), event.threshold())
             ));
         }
     }
 
-    @RabbitListener(queues = "inventory-events")
-    public void handleStockUpdated(StockUpdatedEvent event) {
+    void handleStockUpdated(StockUpdatedEvent event) {
         // Send it to admin inventory alerts stream
-        String adminEmitterId = "inventory-admin-alerts";
-        if (sseService.hasEmitter(adminEmitterId)) {
-            sseService.sendEvent(adminEmitterId, new com.groceryshop.sse.SseEvent(
+        if (sseService.hasSubscribers(SseTopicType.ADMIN_INVENTORY, 0)) {
+            sseService.publish(SseTopicType.ADMIN_INVENTORY, 0, new com.groceryshop.sse.SseEvent(
                 "stock-updated",
-                new StockUpdateData(event.getProductId(), event.getProductName(), event.getNewStock(), event.getOldStock())
+                new StockUpdateData(event.productId(), event.productName(), event.newStock(), event.oldStock())
             ));
         }
     }
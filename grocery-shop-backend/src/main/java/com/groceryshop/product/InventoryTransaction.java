@@ -0,0 +1,84 @@
+package com.groceryshop.product;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * A row of the inventory ledger: one change of a product's stock. Rows are only ever appended, by
+ * the {@link InventoryLedger}; this mapping is for reading them.
+ */
+@Entity
+@Immutable
+@Table(name = "inventory_transactions")
+public class InventoryTransaction {
+
+    @Id
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "transaction_type", nullable = false, length = 20)
+    private InventoryTransactionType type;
+
+    @Column(name = "quantity_change", nullable = false)
+    private Integer quantityChange;
+
+    @Column(name = "previous_quantity", nullable = false)
+    private Integer previousQuantity;
+
+    @Column(name = "new_quantity", nullable = false)
+    private Integer newQuantity;
+
+    @Column
+    private String reason;
+
+    @Column(name = "created_by")
+    private Long createdBy;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    // Constructors
+    protected InventoryTransaction() {}
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public InventoryTransactionType getType() {
+        return type;
+    }
+
+    public Integer getQuantityChange() {
+        return quantityChange;
+    }
+
+    public Integer getPreviousQuantity() {
+        return previousQuantity;
+    }
+
+    public Integer getNewQuantity() {
+        return newQuantity;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public Long getCreatedBy() {
+        return createdBy;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,28 @@
+package com.groceryshop.product;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface InventoryTransactionRepository extends JpaRepository<InventoryTransaction, Long> {
+
+    /**
+     * Sums a product's stock changes recorded after the given ledger row, up to the given time.
+     */
+    @Query("SELECT COALESCE(SUM(t.quantityChange), 0) FROM InventoryTransaction t "
+            + "WHERE t.productId = :productId AND t.id > :afterId AND t.createdAt <= :at")
+    long sumQuantityChanges(@Param("productId") Long productId, @Param("afterId") Long afterId,
+                            @Param("at") LocalDateTime at);
+
+    /**
+     * Deletes a product's ledger rows, for deleting the product.
+     */
+    @Modifying
+    @Query("DELETE FROM InventoryTransaction t WHERE t.productId = :productId")
+    int deleteByProductId(@Param("productId") Long productId);
+}
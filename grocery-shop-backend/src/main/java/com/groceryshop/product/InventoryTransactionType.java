@@ -0,0 +1,15 @@
+package com.groceryshop.product;
+
+/**
+ * Kinds of stock movement recorded in the inventory ledger.
+ */
+public enum InventoryTransactionType {
+    /** Stock a product was added to the catalog with. */
+    INITIAL,
+    /** Stock received. */
+    STOCK_IN,
+    /** Stock sold or otherwise taken out. */
+    STOCK_OUT,
+    /** Stock set to a counted or corrected level. */
+    ADJUSTMENT
+}
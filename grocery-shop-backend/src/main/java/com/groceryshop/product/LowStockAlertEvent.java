@@ -1,5 +1,7 @@
 package com.groceryshop.product;
 
+import com.groceryshop.shared.event.DomainEvent;
+
 import java.time.LocalDateTime;
 
 /**
@@ -11,5 +13,15 @@ public record LowStockAlertEvent(
     Integer currentStock,
     Integer threshold,
     LocalDateTime alertTime
-) {
+) implements DomainEvent {
+
+    @Override
+    public String aggregateType() {
+        return "product";
+    }
+
+    @Override
+    public Long aggregateId() {
+        return productId;
+    }
 }
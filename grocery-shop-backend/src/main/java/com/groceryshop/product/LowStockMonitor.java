@@ -0,0 +1,73 @@
+package com.groceryshop.product;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Raises a {@link LowStockAlertEvent} when a product's stock falls to its low-stock threshold,
+ * once per crossing.
+ * <p>
+ * Each product's alert is armed or fired, as recorded in {@code products.low_stock_alerted}. An
+ * armed alert fires when the stock reaches the threshold; a fired one stays quiet however often
+ * the stock changes until it rises above the high-water mark of {@link LowStockThresholds}, which
+ * re-arms it. The flag only changes through conditional updates, so when concurrent changes cross
+ * the threshold together exactly one of them fires.
+ * <p>
+ * Runs in the transaction of the stock change, so the alert is only relayed if the change commits.
+ */
+@Component
+public class LowStockMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(LowStockMonitor.class);
+
+    private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LowStockThresholds thresholds;
+
+    public LowStockMonitor(ProductRepository productRepository, ApplicationEventPublisher eventPublisher,
+                           LowStockThresholds thresholds) {
+        this.productRepository = productRepository;
+        this.eventPublisher = eventPublisher;
+        this.thresholds = thresholds;
+    }
+
+    @EventListener
+    @Transactional
+    public void onStockUpdated(StockUpdatedEvent event) {
+        if (event.productId() == null || event.newStock() == null) {
+            return;
+        }
+        productRepository.findById(event.productId())
+                .ifPresent(product -> check(product, event.newStock()));
+    }
+
+    private void check(Product product, int stock) {
+        int threshold = product.getLowStockThreshold();
+        if (stock <= threshold) {
+            // Already fired: nothing to write, however busy the product
+            if (!product.isLowStockAlerted() && productRepository.markLowStockAlerted(product.getId()) == 1) {
+                product.setLowStockAlerted(true);
+                eventPublisher.publishEvent(new LowStockAlertEvent(
+                    product.getId(),
+                    product.getName(),
+                    stock,
+                    threshold,
+                    LocalDateTime.now()
+                ));
+
+                log.warn("Low stock alert for product {}: {} units remaining (threshold: {})",
+                        product.getName(), stock, threshold);
+            }
+        } else if (stock > thresholds.highWaterMark(threshold) && product.isLowStockAlerted()
+                && productRepository.rearmLowStockAlert(product.getId()) == 1) {
+            product.setLowStockAlerted(false);
+            log.info("Low stock alert re-armed for product {}: {} units in stock", product.getName(), stock);
+        }
+    }
+}
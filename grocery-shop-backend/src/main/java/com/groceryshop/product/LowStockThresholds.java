@@ -0,0 +1,51 @@
+package com.groceryshop.product;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Low-stock thresholds: the threshold a new product starts with, by category, and the high-water
+ * mark above which a product's low-stock alert re-arms.
+ * <p>
+ * A product keeps its own threshold once created, so changing the category defaults only affects
+ * products added afterwards.
+ */
+public class LowStockThresholds {
+
+    private final int defaultThreshold;
+    private final Map<ProductCategory, Integer> categoryThresholds;
+    private final double rearmRatio;
+
+    /**
+     * @param defaultThreshold threshold of products in categories without their own
+     * @param rearmRatio how far above its threshold, as a multiple of it, stock must rise to re-arm the alert
+     */
+    public LowStockThresholds(int defaultThreshold, Map<ProductCategory, Integer> categoryThresholds,
+                              double rearmRatio) {
+        if (defaultThreshold < 0 || categoryThresholds.values().stream().anyMatch(threshold -> threshold < 0)) {
+            throw new IllegalArgumentException("Low-stock thresholds cannot be negative");
+        }
+        if (rearmRatio < 1) {
+            throw new IllegalArgumentException("Low-stock re-arm ratio must be at least 1");
+        }
+        this.defaultThreshold = defaultThreshold;
+        this.categoryThresholds = categoryThresholds.isEmpty()
+                ? Map.of() : new EnumMap<>(categoryThresholds);
+        this.rearmRatio = rearmRatio;
+    }
+
+    /**
+     * Returns the threshold new products of the category start with.
+     */
+    public int forCategory(ProductCategory category) {
+        return categoryThresholds.getOrDefault(category, defaultThreshold);
+    }
+
+    /**
+     * Returns the stock level a product with the given threshold must rise above for its alert to
+     * re-arm; never below the threshold itself.
+     */
+    public int highWaterMark(int threshold) {
+        return Math.max(threshold, (int) Math.ceil(threshold * rearmRatio));
+    }
+}
@@ -9,6 +9,11 @@ import java.time.LocalDateTime;
 @Table(name = "products")
 public class Product {
 
+    /**
+     * Threshold of products created without one.
+     */
+    public static final int DEFAULT_LOW_STOCK_THRESHOLD = 10;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -42,6 +47,14 @@ public class Product {
     @Column(nullable = false)
     private Integer stockQuantity = 0;
 
+    @Min(0)
+    @Column(nullable = false)
+    private Integer lowStockThreshold = DEFAULT_LOW_STOCK_THRESHOLD;
+
+    // Written only by the conditional updates of LowStockMonitor
+    @Column(nullable = false, insertable = false, updatable = false)
+    private boolean lowStockAlerted;
+
     @Column(nullable = false)
     private LocalDateTime createdAt;
 
@@ -80,7 +93,7 @@ public class Product {
     }
 
     public boolean isLowStock() {
-        return stockQuantity > 0 && stockQuantity <= 10; // Threshold for low stock
+        return stockQuantity > 0 && stockQuantity <= lowStockThreshold;
     }
 
     public void reduceStock(int quantity) {
@@ -159,6 +172,25 @@ public class Product {
         this.stockQuantity = stockQuantity;
     }
 
+    public Integer getLowStockThreshold() {
+        return lowStockThreshold;
+    }
+
+    public void setLowStockThreshold(Integer lowStockThreshold) {
+        this.lowStockThreshold = lowStockThreshold;
+    }
+
+    public boolean isLowStockAlerted() {
+        return lowStockAlerted;
+    }
+
+    /**
+     * Keeps a loaded product in line with a conditional update of the flag; never written from here.
+     */
+    void setLowStockAlerted(boolean lowStockAlerted) {
+        this.lowStockAlerted = lowStockAlerted;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -1,21 +1,25 @@
 package com.groceryshop.product;
 
-import org.springframework.context.ApplicationEvent;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.groceryshop.shared.event.DomainEvent;
 
-public class ProductAddedEvent extends ApplicationEvent {
+/**
+ * Event published when a product is added to the catalog.
+ */
+public record ProductAddedEvent(
+    @JsonIgnore Object source,
+    Long productId,
+    String productName,
+    Integer initialStock
+) implements DomainEvent {
 
-    private final Long productId;
-    private final String productName;
-    private final Integer initialStock;
-
-    public ProductAddedEvent(Object source, Long productId, String productName, Integer initialStock) {
-        super(source);
-        this.productId = productId;
-        this.productName = productName;
-        this.initialStock = initialStock;
+    @Override
+    public String aggregateType() {
+        return "product";
     }
 
-    public Long getProductId() { return productId; }
-    public String getProductName() { return productName; }
-    public Integer getInitialStock() { return initialStock; }
+    @Override
+    public Long aggregateId() {
+        return productId;
+    }
 }
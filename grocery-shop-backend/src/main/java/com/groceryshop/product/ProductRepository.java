@@ -2,6 +2,7 @@ package com.groceryshop.product;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -15,8 +16,34 @@ public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpec
 
     List<Product> findByStatus(ProductStatus status);
 
-    @Query("SELECT p FROM Product p WHERE p.status = :status AND p.stockQuantity <= :threshold")
-    List<Product> findLowStockProducts(@Param("status") ProductStatus status, @Param("threshold") Integer threshold);
+    /**
+     * Products at or below their own low-stock threshold, lowest stock first; served by a partial
+     * index on databases that support one.
+     */
+    @Query("SELECT p FROM Product p WHERE p.status = :status AND p.stockQuantity <= p.lowStockThreshold "
+            + "ORDER BY p.stockQuantity")
+    List<Product> findLowStockProducts(@Param("status") ProductStatus status);
+
+    @Query("SELECT COUNT(p) FROM Product p WHERE p.status = :status AND p.stockQuantity <= p.lowStockThreshold")
+    long countLowStockProducts(@Param("status") ProductStatus status);
+
+    /**
+     * Fires the product's low-stock alert if it is armed.
+     *
+     * @return 1 if this call fired it, 0 if it had already fired
+     */
+    @Modifying
+    @Query("UPDATE Product p SET p.lowStockAlerted = true WHERE p.id = :id AND p.lowStockAlerted = false")
+    int markLowStockAlerted(@Param("id") Long id);
+
+    /**
+     * Re-arms the product's low-stock alert if it has fired.
+     *
+     * @return 1 if this call re-armed it, 0 if it was armed
+     */
+    @Modifying
+    @Query("UPDATE Product p SET p.lowStockAlerted = false WHERE p.id = :id AND p.lowStockAlerted = true")
+    int rearmLowStockAlert(@Param("id") Long id);
 
     @Query("SELECT p FROM Product p WHERE LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%')) AND p.status = :status")
     List<Product> findByNameContainingIgnoreCaseAndStatus(@Param("name") String name, @Param("status") ProductStatus status);
@@ -37,4 +64,7 @@ public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpec
     List<Product> findByStockQuantityLessThan(int stockQuantity);
 
     long countByStatusAndStockQuantityGreaterThan(ProductStatus status, int stockQuantity);
+
+    @Query("SELECT p.id FROM Product p")
+    List<Long> findAllIds();
 }
@@ -20,10 +20,19 @@ public class ProductServiceImpl implements ProductService {
 
     private final ProductRepository productRepository;
     private final ApplicationEventPublisher eventPublisher;
-
-    public ProductServiceImpl(ProductRepository productRepository, ApplicationEventPublisher eventPublisher) {
+    private final LowStockThresholds lowStockThresholds;
+    private final InventoryTransactionRepository inventoryTransactionRepository;
+    private final InventorySnapshotRepository inventorySnapshotRepository;
+
+    public ProductServiceImpl(ProductRepository productRepository, ApplicationEventPublisher eventPublisher,
+                              LowStockThresholds lowStockThresholds,
+                              InventoryTransactionRepository inventoryTransactionRepository,
+                              InventorySnapshotRepository inventorySnapshotRepository) {
         this.productRepository = productRepository;
         this.eventPublisher = eventPublisher;
+        this.lowStockThresholds = lowStockThresholds;
+        this.inventoryTransactionRepository = inventoryTransactionRepository;
+        this.inventorySnapshotRepository = inventorySnapshotRepository;
     }
 
     @Override
@@ -83,6 +92,8 @@ public class ProductServiceImpl implements ProductService {
         product.setImageUrl(request.imageUrl());
         product.setCategory(request.category());
         product.setStockQuantity(request.stockQuantity());
+        product.setLowStockThreshold(request.lowStockThreshold() != null
+                ? request.lowStockThreshold() : lowStockThresholds.forCategory(request.category()));
 
         Product savedProduct = productRepository.save(product);
 
@@ -108,6 +119,8 @@ public class ProductServiceImpl implements ProductService {
         if (request.imageUrl() != null) product.setImageUrl(request.imageUrl());
         if (request.category() != null) product.setCategory(request.category());
         if (request.status() != null) product.setStatus(request.status());
+        // Takes effect on the next stock change
+        if (request.lowStockThreshold() != null) product.setLowStockThreshold(request.lowStockThreshold());
         if (request.stockQuantity() != null) {
             int oldStock = product.getStockQuantity();
             product.setStockQuantity(request.stockQuantity());
@@ -119,7 +132,9 @@ public class ProductServiceImpl implements ProductService {
                     product.getId(),
                     product.getName(),
                     oldStock,
-                    request.stockQuantity()
+                    request.stockQuantity(),
+                    InventoryTransactionType.ADJUSTMENT,
+                    "Product update"
                 ));
             }
         }
@@ -142,6 +157,10 @@ public class ProductServiceImpl implements ProductService {
     @Transactional
     public void deleteProduct(Long id) {
         Product product = getProductById(id);
+        // The product's ledger rows and snapshots reference it, so they go with it. A change still
+        // queued for the ledger is dropped by the ledger once its insert fails.
+        inventorySnapshotRepository.deleteByProductId(id);
+        inventoryTransactionRepository.deleteByProductId(id);
         productRepository.delete(product);
     }
 
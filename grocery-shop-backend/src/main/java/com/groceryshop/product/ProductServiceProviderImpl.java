@@ -1,8 +1,12 @@
 package com.groceryshop.product;
 
 import com.groceryshop.product.spi.ProductServiceProvider;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -13,9 +17,11 @@ import java.util.Optional;
 public class ProductServiceProviderImpl implements ProductServiceProvider {
 
     private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public ProductServiceProviderImpl(ProductRepository productRepository) {
+    public ProductServiceProviderImpl(ProductRepository productRepository, ApplicationEventPublisher eventPublisher) {
         this.productRepository = productRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -23,6 +29,24 @@ public class ProductServiceProviderImpl implements ProductServiceProvider {
         return productRepository.findById(productId);
     }
 
+    @Override
+    public List<Product> findProductsByIds(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return List.of();
+        }
+        return productRepository.findAllById(productIds);
+    }
+
+    @Override
+    public List<Product> findProductsByCategoryAndStatus(ProductCategory category, ProductStatus status) {
+        return productRepository.findByCategoryAndStatus(category, status);
+    }
+
+    @Override
+    public List<Product> findProductsByStatus(ProductStatus status) {
+        return productRepository.findByStatus(status);
+    }
+
     @Override
     public void updateProductStock(Long productId, Integer newStockQuantity) {
         Product product = productRepository.findById(productId)
@@ -32,6 +56,29 @@ public class ProductServiceProviderImpl implements ProductServiceProvider {
         productRepository.save(product);
     }
 
+    @Override
+    @Transactional
+    public void adjustProductStock(Long productId, Integer newStockQuantity, String reason) {
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new RuntimeException("Product not found with id: " + productId));
+
+        int oldStock = product.getStockQuantity();
+        product.setStockQuantity(newStockQuantity);
+        productRepository.save(product);
+
+        if (oldStock != newStockQuantity) {
+            eventPublisher.publishEvent(new StockUpdatedEvent(
+                this,
+                productId,
+                product.getName(),
+                oldStock,
+                newStockQuantity,
+                InventoryTransactionType.ADJUSTMENT,
+                reason
+            ));
+        }
+    }
+
     @Override
     public java.util.List<Product> findAllProducts(int page, int size) {
         return productRepository.findAll(org.springframework.data.domain.PageRequest.of(page, size)).getContent();
@@ -52,6 +99,11 @@ public class ProductServiceProviderImpl implements ProductServiceProvider {
         return productRepository.countByStockQuantityLessThan(stockThreshold);
     }
 
+    @Override
+    public long countLowStockProducts() {
+        return productRepository.countLowStockProducts(ProductStatus.ACTIVE);
+    }
+
     @Override
     public long countProductsByStockQuantity(int stockQuantity) {
         return productRepository.countByStockQuantity(stockQuantity);
@@ -61,4 +113,9 @@ public class ProductServiceProviderImpl implements ProductServiceProvider {
     public java.util.List<Product> findProductsByStockLessThan(int stockThreshold) {
         return productRepository.findByStockQuantityLessThan(stockThreshold);
     }
+
+    @Override
+    public List<Product> findLowStockProducts() {
+        return productRepository.findLowStockProducts(ProductStatus.ACTIVE);
+    }
 }
@@ -1,18 +1,24 @@
 package com.groceryshop.product;
 
-import org.springframework.context.ApplicationEvent;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.groceryshop.shared.event.DomainEvent;
 
-public class ProductUpdatedEvent extends ApplicationEvent {
+/**
+ * Event published when a product's details are updated.
+ */
+public record ProductUpdatedEvent(
+    @JsonIgnore Object source,
+    Long productId,
+    String productName
+) implements DomainEvent {
 
-    private final Long productId;
-    private final String productName;
-
-    public ProductUpdatedEvent(Object source, Long productId, String productName) {
-        super(source);
-        this.productId = productId;
-        this.productName = productName;
+    @Override
+    public String aggregateType() {
+        return "product";
     }
 
-    public Long getProductId() { return productId; }
-    public String getProductName() { return productName; }
+    @Override
+    public Long aggregateId() {
+        return productId;
+    }
 }
@@ -1,24 +1,39 @@
 package com.groceryshop.product;
 
-import org.springframework.context.ApplicationEvent;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.groceryshop.shared.event.DomainEvent;
 
-public class StockUpdatedEvent extends ApplicationEvent {
-
-    private final Long productId;
-    private final String productName;
-    private final Integer oldStock;
-    private final Integer newStock;
+/**
+ * Event published when a product's stock level changes.
+ *
+ * @param type what kind of movement changed it, as recorded in the inventory ledger
+ * @param reason why it changed, or null
+ */
+public record StockUpdatedEvent(
+    @JsonIgnore Object source,
+    Long productId,
+    String productName,
+    Integer oldStock,
+    Integer newStock,
+    InventoryTransactionType type,
+    String reason
+) implements DomainEvent {
 
+    /**
+     * A stock change recorded as stock in or out by its direction, without a reason.
+     */
     public StockUpdatedEvent(Object source, Long productId, String productName, Integer oldStock, Integer newStock) {
-        super(source);
-        this.productId = productId;
-        this.productName = productName;
-        this.oldStock = oldStock;
-        this.newStock = newStock;
+        this(source, productId, productName, oldStock, newStock,
+                newStock >= oldStock ? InventoryTransactionType.STOCK_IN : InventoryTransactionType.STOCK_OUT, null);
+    }
+
+    @Override
+    public String aggregateType() {
+        return "product";
     }
 
-    public Long getProductId() { return productId; }
-    public String getProductName() { return productName; }
-    public Integer getOldStock() { return oldStock; }
-    public Integer getNewStock() { return newStock; }
+    @Override
+    public Long aggregateId() {
+        return productId;
+    }
 }
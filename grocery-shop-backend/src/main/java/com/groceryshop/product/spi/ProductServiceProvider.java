@@ -1,7 +1,10 @@
 package com.groceryshop.product.spi;
 
 import com.groceryshop.product.Product;
+import com.groceryshop.product.ProductCategory;
+import com.groceryshop.product.ProductStatus;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,6 +22,31 @@ public interface ProductServiceProvider {
      */
     Optional<Product> findProductById(Long productId);
 
+    /**
+     * Finds products by their IDs. IDs without a product are skipped.
+     *
+     * @param productIds the product IDs
+     * @return the products found, in no particular order
+     */
+    List<Product> findProductsByIds(Collection<Long> productIds);
+
+    /**
+     * Finds products by category and status.
+     *
+     * @param category the product category
+     * @param status the product status
+     * @return list of matching products
+     */
+    List<Product> findProductsByCategoryAndStatus(ProductCategory category, ProductStatus status);
+
+    /**
+     * Finds products by status.
+     *
+     * @param status the product status
+     * @return list of matching products
+     */
+    List<Product> findProductsByStatus(ProductStatus status);
+
     /**
      * Gets all products with pagination.
      *
@@ -52,6 +80,13 @@ public interface ProductServiceProvider {
      */
     long countProductsByStockLessThan(int stockThreshold);
 
+    /**
+     * Counts active products at or below their own low-stock threshold.
+     *
+     * @return count of products with low stock
+     */
+    long countLowStockProducts();
+
     /**
      * Counts products with exact stock quantity.
      *
@@ -68,6 +103,13 @@ public interface ProductServiceProvider {
      */
     List<Product> findProductsByStockLessThan(int stockThreshold);
 
+    /**
+     * Finds active products at or below their own low-stock threshold.
+     *
+     * @return list of products with low stock, lowest stock first
+     */
+    List<Product> findLowStockProducts();
+
     /**
      * Updates product stock quantity.
      *
@@ -75,4 +117,14 @@ public interface ProductServiceProvider {
      * @param newStockQuantity the new stock quantity
      */
     void updateProductStock(Long productId, Integer newStockQuantity);
+
+    /**
+     * Sets a product's stock to a counted or corrected level and publishes the change, so it is
+     * recorded in the inventory ledger as an adjustment.
+     *
+     * @param productId the product ID
+     * @param newStockQuantity the new stock quantity
+     * @param reason why the stock was adjusted
+     */
+    void adjustProductStock(Long productId, Integer newStockQuantity, String reason);
 }
@@ -0,0 +1,103 @@
+package com.groceryshop.recommendation;
+
+import com.groceryshop.product.ProductCategory;
+import com.groceryshop.recommendation.spi.RecommendationServiceProvider;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Ranks products that complement a cart. Two signals are summed per product:
+ * <ul>
+ *     <li>how often it was bought together with each cart line, relative to that line's most
+ *     co-purchased product, so every line weighs the same;</li>
+ *     <li>its rank among the {@link CategoryCandidates} of each category the cart has nothing of,
+ *     weighing {@code categoryWeight / (rank + 1)}.</li>
+ * </ul>
+ * Products in the cart are left out. Only the best {@code limit} candidates are kept, in a
+ * bounded heap, so the cost grows with the number of cart lines and {@code limit}, not with the
+ * catalog.
+ */
+public class CartComplementEngine {
+
+    private static final Comparator<Scored> BY_SCORE = Comparator.comparingDouble(Scored::score)
+            .thenComparing(Comparator.comparingLong(Scored::productId).reversed());
+
+    private final RecommendationServiceProvider recommendationServiceProvider;
+    private final CategoryCandidates categoryCandidates;
+    private final double categoryWeight;
+
+    /**
+     * @param categoryWeight score of the best candidate of a missing category, against at most 1
+     *                       per cart line for the product bought most often with it
+     */
+    public CartComplementEngine(RecommendationServiceProvider recommendationServiceProvider,
+                                CategoryCandidates categoryCandidates, double categoryWeight) {
+        this.recommendationServiceProvider = recommendationServiceProvider;
+        this.categoryCandidates = categoryCandidates;
+        this.categoryWeight = categoryWeight;
+    }
+
+    /**
+     * Returns the IDs of up to {@code limit} products complementing the cart, best first.
+     *
+     * @param cartProductIds the products in the cart
+     * @param cartCategories the categories of the products in the cart
+     */
+    public long[] rank(Collection<Long> cartProductIds, Collection<ProductCategory> cartCategories, int limit) {
+        if (limit <= 0) {
+            return new long[0];
+        }
+        Set<Long> inCart = new HashSet<>(cartProductIds);
+        Map<Long, Double> scores = new HashMap<>();
+
+        for (Long productId : inCart) {
+            Map<Long, Long> counts = recommendationServiceProvider.getFrequentlyBoughtTogetherProductCounts(productId);
+            long max = counts.values().stream().mapToLong(Long::longValue).max().orElse(0);
+            if (max == 0) {
+                continue;
+            }
+            counts.forEach((neighbour, count) -> {
+                if (!inCart.contains(neighbour)) {
+                    scores.merge(neighbour, (double) count / max, Double::sum);
+                }
+            });
+        }
+
+        for (ProductCategory category : ProductCategory.values()) {
+            if (cartCategories.contains(category)) {
+                continue;
+            }
+            long[] candidates = categoryCandidates.get(category);
+            // No more than limit candidates of a category can make the cut on this signal alone
+            for (int rank = 0, taken = 0; rank < candidates.length && taken < limit; rank++) {
+                if (!inCart.contains(candidates[rank])) {
+                    scores.merge(candidates[rank], categoryWeight / (rank + 1), Double::sum);
+                    taken++;
+                }
+            }
+        }
+
+        // Min-heap of the best so far; the weakest is dropped once it holds more than limit
+        PriorityQueue<Scored> best = new PriorityQueue<>(limit + 1, BY_SCORE);
+        scores.forEach((productId, score) -> {
+            best.add(new Scored(productId, score));
+            if (best.size() > limit) {
+                best.poll();
+            }
+        });
+        long[] ranked = new long[best.size()];
+        for (int i = ranked.length - 1; i >= 0; i--) {
+            ranked[i] = best.poll().productId();
+        }
+        return ranked;
+    }
+
+    private record Scored(long productId, double score) {
+    }
+}
@@ -0,0 +1,86 @@
+package com.groceryshop.recommendation;
+
+import com.groceryshop.product.Product;
+import com.groceryshop.product.ProductCategory;
+import com.groceryshop.product.ProductStatus;
+import com.groceryshop.recommendation.spi.RecommendationServiceProvider;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pre-ranked candidate products per category for the {@link CartComplementEngine}: the category's
+ * most popular products, then, if there are too few of them, its other active in-stock products.
+ * <p>
+ * A list is built on first use and kept for {@code ttl}, so the category is read at most once per
+ * {@code ttl} instead of on every request. Products read while building are handed to the
+ * {@link ProductLookup}, so resolving the candidates does not read them again.
+ */
+public class CategoryCandidates {
+
+    private final RecommendationServiceProvider recommendationServiceProvider;
+    private final ProductLookup productLookup;
+    private final PopularityCounters popularityCounters;
+    private final int size;
+    private final long ttlNanos;
+    private final Map<ProductCategory, Entry> candidates = new ConcurrentHashMap<>();
+
+    /**
+     * @param size candidates kept per category
+     * @param ttl how long a list is used before being built again
+     */
+    public CategoryCandidates(RecommendationServiceProvider recommendationServiceProvider, ProductLookup productLookup,
+                              PopularityCounters popularityCounters, int size, Duration ttl) {
+        this.recommendationServiceProvider = recommendationServiceProvider;
+        this.productLookup = productLookup;
+        this.popularityCounters = popularityCounters;
+        this.size = size;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    /**
+     * Returns the category's candidate product IDs, best first.
+     */
+    public long[] get(ProductCategory category) {
+        Entry entry = candidates.get(category);
+        if (entry == null || System.nanoTime() - entry.builtNanos() > ttlNanos) {
+            // Concurrent builds of the same category are harmless; the last one wins
+            entry = new Entry(build(category), System.nanoTime());
+            candidates.put(category, entry);
+        }
+        return entry.productIds();
+    }
+
+    private long[] build(ProductCategory category) {
+        long[] popular = popularityCounters.top(category, size);
+        if (popular.length >= size) {
+            return popular;
+        }
+        Set<Long> included = new HashSet<>(popular.length * 2);
+        List<Long> ranked = new ArrayList<>(size);
+        for (long productId : popular) {
+            included.add(productId);
+            ranked.add(productId);
+        }
+        List<Product> loaded = new ArrayList<>();
+        for (Product product : recommendationServiceProvider.findProductsByCategoryAndStatus(category, ProductStatus.ACTIVE)) {
+            if (ranked.size() >= size) {
+                break;
+            }
+            if (product.isInStock() && included.add(product.getId())) {
+                ranked.add(product.getId());
+                loaded.add(product);
+            }
+        }
+        productLookup.putAll(loaded);
+        return ranked.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private record Entry(long[] productIds, long builtNanos) {
+    }
+}
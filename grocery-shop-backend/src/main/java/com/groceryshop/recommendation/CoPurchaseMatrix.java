@@ -0,0 +1,218 @@
+package com.groceryshop.recommendation;
+
+import com.groceryshop.shared.collection.LongLongHashMap;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * How often each pair of products was bought in the same order, for "frequently bought together".
+ * <p>
+ * Sparse: each product keeps only its co-purchased products and their counts, in a primitive
+ * {@link LongLongHashMap}. Once a product has more than twice {@code maxNeighbours}, it is pruned
+ * back to its {@code maxNeighbours} most frequent ones, so memory stays proportional to the
+ * catalog and answering a query reads at most {@code 2 * maxNeighbours} entries. A pruned pair
+ * starts again from its next co-purchase, so rare pairs are approximate; the frequent ones that
+ * get recommended are kept.
+ * <p>
+ * Updated incrementally, one order at a time. It can be {@link #save saved} to and
+ * {@link #load loaded} from a snapshot file, together with the last order it includes, so a
+ * restart only needs to replay the orders placed since.
+ */
+public class CoPurchaseMatrix {
+
+    private static final int SNAPSHOT_MAGIC = 0x43505331; // "CPS1"
+
+    private final int maxNeighbours;
+    private final int maxItemsPerOrder;
+    private final Map<Long, Neighbours> products = new ConcurrentHashMap<>();
+    private final AtomicLong lastOrderId = new AtomicLong();
+
+    /**
+     * @param maxNeighbours co-purchased products kept per product after pruning
+     * @param maxItemsPerOrder distinct products of an order that are paired; the rest of a very
+     *                         large order is ignored, as it says little about what goes together
+     */
+    public CoPurchaseMatrix(int maxNeighbours, int maxItemsPerOrder) {
+        this.maxNeighbours = maxNeighbours;
+        this.maxItemsPerOrder = maxItemsPerOrder;
+    }
+
+    /**
+     * Counts every pair of distinct products in an order.
+     */
+    public void record(long orderId, Collection<Long> productIds) {
+        long[] ids = productIds.stream()
+                .mapToLong(Long::longValue)
+                .distinct()
+                .limit(maxItemsPerOrder)
+                .toArray();
+        for (long productId : ids) {
+            if (ids.length > 1) {
+                Neighbours neighbours = products.computeIfAbsent(productId, id -> new Neighbours());
+                neighbours.increment(ids, productId, maxNeighbours);
+            }
+        }
+        lastOrderId.accumulateAndGet(orderId, Math::max);
+    }
+
+    /**
+     * Returns the products most often bought with a product, with their counts, most frequent first.
+     */
+    public Map<Long, Long> neighbours(long productId, int limit) {
+        Neighbours neighbours = products.get(productId);
+        if (neighbours == null) {
+            return Map.of();
+        }
+        return neighbours.top(limit);
+    }
+
+    /**
+     * Returns the highest order ID recorded.
+     */
+    public long lastOrderId() {
+        return lastOrderId.get();
+    }
+
+    /**
+     * Returns the number of products with at least one co-purchase.
+     */
+    public int productCount() {
+        return products.size();
+    }
+
+    /**
+     * Writes a snapshot to the file, replacing it atomically.
+     */
+    public void save(Path file) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            // Read before the counts: orders recorded meanwhile are replayed again after a restart
+            out.writeLong(lastOrderId.get());
+            out.writeInt(products.size());
+            for (Map.Entry<Long, Neighbours> product : products.entrySet()) {
+                out.writeLong(product.getKey());
+                product.getValue().writeTo(out);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Replaces the contents with the snapshot in the file.
+     *
+     * @return true if the file existed and was loaded
+     * @throws IOException if the file could not be read or is not a snapshot
+     */
+    public boolean load(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("Not a co-purchase snapshot: " + file);
+            }
+            long snapshotOrderId = in.readLong();
+            int productCount = in.readInt();
+            Map<Long, Neighbours> loaded = new ConcurrentHashMap<>(productCount * 2);
+            for (int i = 0; i < productCount; i++) {
+                loaded.put(in.readLong(), Neighbours.readFrom(in));
+            }
+            products.clear();
+            products.putAll(loaded);
+            lastOrderId.set(snapshotOrderId);
+        }
+        return true;
+    }
+
+    /**
+     * One product's co-purchased products and counts.
+     */
+    private static final class Neighbours {
+        private LongLongHashMap counts = new LongLongHashMap();
+
+        synchronized void increment(long[] orderProductIds, long self, int maxNeighbours) {
+            for (long other : orderProductIds) {
+                if (other != self) {
+                    counts.addTo(other, 1);
+                }
+            }
+            if (counts.size() > 2 * maxNeighbours) {
+                prune(maxNeighbours);
+            }
+        }
+
+        synchronized Map<Long, Long> top(int limit) {
+            long[][] entries = sortedEntries();
+            Map<Long, Long> top = new LinkedHashMap<>();
+            for (int i = 0; i < Math.min(limit, entries.length); i++) {
+                top.put(entries[i][0], entries[i][1]);
+            }
+            return top;
+        }
+
+        synchronized void writeTo(DataOutputStream out) throws IOException {
+            out.writeInt(counts.size());
+            IOException[] failure = new IOException[1];
+            counts.forEach((productId, count) -> {
+                try {
+                    out.writeLong(productId);
+                    out.writeLong(count);
+                } catch (IOException e) {
+                    failure[0] = e;
+                }
+            });
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+        }
+
+        static Neighbours readFrom(DataInputStream in) throws IOException {
+            int size = in.readInt();
+            Neighbours neighbours = new Neighbours();
+            neighbours.counts = new LongLongHashMap(size);
+            for (int i = 0; i < size; i++) {
+                neighbours.counts.put(in.readLong(), in.readLong());
+            }
+            return neighbours;
+        }
+
+        private void prune(int keep) {
+            long[][] entries = sortedEntries();
+            LongLongHashMap kept = new LongLongHashMap(keep);
+            for (int i = 0; i < keep; i++) {
+                kept.put(entries[i][0], entries[i][1]);
+            }
+            counts = kept;
+        }
+
+        /**
+         * Entries as {@code [productId, count]}, highest count first, ties by lower product ID.
+         */
+        private long[][] sortedEntries() {
+            long[][] entries = new long[counts.size()][];
+            int[] next = {0};
+            counts.forEach((productId, count) -> entries[next[0]++] = new long[] {productId, count});
+            Arrays.sort(entries, (a, b) -> a[1] != b[1] ? Long.compare(b[1], a[1]) : Long.compare(a[0], b[0]));
+            return entries;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.groceryshop.recommendation;
+
+import com.groceryshop.order.OrderCreatedEvent;
+import com.groceryshop.order.spi.OrderProducts;
+import com.groceryshop.recommendation.spi.RecommendationServiceProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the {@link CoPurchaseMatrix} up to date and persisted.
+ * <p>
+ * On start, the matrix is loaded from its snapshot and the orders placed since are replayed from
+ * the database; without a snapshot, every order is. From then on each order this node creates is
+ * recorded once its transaction commits, and the snapshot is rewritten periodically and on
+ * shutdown. All updates run on one background thread, so they never hold up checkout.
+ */
+public class CoPurchaseTracker implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(CoPurchaseTracker.class);
+
+    private final CoPurchaseMatrix matrix;
+    private final RecommendationServiceProvider recommendationServiceProvider;
+    private final Path snapshotFile;
+    private final int catchUpBatchSize;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("co-purchase").daemon().factory());
+    // Orders up to this one were replayed from the database; their events are not counted again
+    private long replayedUpToOrderId;
+
+    public CoPurchaseTracker(CoPurchaseMatrix matrix, RecommendationServiceProvider recommendationServiceProvider,
+                             Path snapshotFile, int catchUpBatchSize) {
+        this.matrix = matrix;
+        this.recommendationServiceProvider = recommendationServiceProvider;
+        this.snapshotFile = snapshotFile;
+        this.catchUpBatchSize = catchUpBatchSize;
+    }
+
+    /**
+     * Loads the matrix in the background and starts saving snapshots at the interval.
+     */
+    public void start(Duration snapshotInterval) {
+        executor.execute(this::warmUp);
+        executor.scheduleWithFixedDelay(this::saveSnapshot, snapshotInterval.toMillis(),
+                snapshotInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderCreated(OrderCreatedEvent event) {
+        List<Long> productIds = event.productIds();
+        if (productIds == null || productIds.size() < 2) {
+            return;
+        }
+        executor.execute(() -> {
+            if (event.orderId() > replayedUpToOrderId) {
+                matrix.record(event.orderId(), productIds);
+            }
+        });
+    }
+
+    void warmUp() {
+        try {
+            if (matrix.load(snapshotFile)) {
+                log.info("Loaded co-purchase snapshot of {} products up to order {}",
+                        matrix.productCount(), matrix.lastOrderId());
+            }
+        } catch (IOException e) {
+            log.warn("Could not load co-purchase snapshot {}, rebuilding from orders", snapshotFile, e);
+        }
+        try {
+            int replayed = catchUp();
+            log.info("Replayed {} orders into the co-purchase matrix", replayed);
+        } catch (RuntimeException e) {
+            log.error("Could not replay orders into the co-purchase matrix", e);
+        }
+        replayedUpToOrderId = matrix.lastOrderId();
+    }
+
+    /**
+     * Records the orders placed after the last one in the matrix.
+     *
+     * @return the number of orders recorded
+     */
+    int catchUp() {
+        int replayed = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            List<OrderProducts> orders = recommendationServiceProvider
+                    .findOrderProductsAfter(matrix.lastOrderId(), catchUpBatchSize);
+            for (OrderProducts order : orders) {
+                matrix.record(order.orderId(), order.productIds());
+            }
+            replayed += orders.size();
+            if (orders.size() < catchUpBatchSize) {
+                break;
+            }
+        }
+        return replayed;
+    }
+
+    void saveSnapshot() {
+        try {
+            matrix.save(snapshotFile);
+        } catch (IOException e) {
+            log.warn("Could not save co-purchase snapshot {}", snapshotFile, e);
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        executor.shutdown();
+        if (executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            saveSnapshot();
+        } else {
+            executor.shutdownNow();
+        }
+    }
+}
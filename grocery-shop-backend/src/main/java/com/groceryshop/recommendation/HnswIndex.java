@@ -0,0 +1,472 @@
+package com.groceryshop.recommendation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Approximate nearest neighbour index over normalized vectors by cosine similarity: a
+ * hierarchical navigable small world graph (Malkov and Yashunin). Each vector is linked to its
+ * closest, mutually diverse neighbours on its layers; a search descends greedily through the
+ * sparse upper layers and widens to a beam of {@code ef} candidates on the bottom one, so it
+ * visits a few hundred vectors however many there are.
+ * <p>
+ * Inserts may run concurrently, each locking only the nodes whose links it changes. Searches
+ * take no locks. Re-adding a key replaces its vector: the old node stays in the graph for
+ * navigation but is never returned, and {@link #deletedCount()} tells when a rebuild pays off.
+ */
+public class HnswIndex {
+
+    private static final ThreadLocal<Visited> VISITED = ThreadLocal.withInitial(Visited::new);
+
+    private final int dimensions;
+    private final int maxLinks;
+    private final int maxLinksBottom;
+    private final int efConstruction;
+    private final double levelFactor;
+    private final Map<Long, Integer> nodeByKey = new ConcurrentHashMap<>();
+    private final Object growLock = new Object();
+    private volatile Node[] nodes = new Node[64];
+    private int size;
+    private final AtomicInteger deleted = new AtomicInteger();
+    private volatile int entryPoint = -1;
+
+    /**
+     * @param maxLinks links kept per node on the upper layers; twice as many on the bottom one
+     * @param efConstruction beam width when linking a new node
+     */
+    public HnswIndex(int dimensions, int maxLinks, int efConstruction) {
+        this.dimensions = dimensions;
+        this.maxLinks = maxLinks;
+        this.maxLinksBottom = maxLinks * 2;
+        this.efConstruction = efConstruction;
+        this.levelFactor = 1 / Math.log(maxLinks);
+    }
+
+    /**
+     * Adds or replaces the vector for a key. The vector must be normalized.
+     */
+    public void add(long key, float[] vector) {
+        if (vector.length != dimensions) {
+            throw new IllegalArgumentException("Expected " + dimensions + " dimensions, got " + vector.length);
+        }
+        int level = (int) (-Math.log(1 - ThreadLocalRandom.current().nextDouble()) * levelFactor);
+        Node node = new Node(key, vector, level);
+        int id = append(node);
+        Integer previous = nodeByKey.put(key, id);
+        if (previous != null) {
+            node(previous).deleted = true;
+            deleted.incrementAndGet();
+        }
+
+        int entry;
+        synchronized (growLock) {
+            entry = entryPoint;
+            if (entry < 0) {
+                entryPoint = id;
+                return;
+            }
+        }
+        Node entryNode = node(entry);
+        int current = entry;
+        for (int layer = entryNode.level; layer > level; layer--) {
+            current = greedyClosest(vector, current, layer);
+        }
+        for (int layer = Math.min(level, entryNode.level); layer >= 0; layer--) {
+            List<Candidate> candidates = searchLayer(vector, current, efConstruction, layer);
+            int[] links = selectNeighbours(candidates, layer == 0 ? maxLinksBottom : maxLinks);
+            synchronized (node) {
+                // A concurrent insert may already have linked back to this node
+                int[] existing = node.links(layer);
+                node.links.set(layer, existing.length == 0 ? links : prune(node, merge(existing, links), layer));
+            }
+            for (int neighbour : links) {
+                link(neighbour, id, layer);
+            }
+            current = candidates.get(0).id();
+        }
+        if (level > entryNode.level) {
+            synchronized (growLock) {
+                if (level > node(entryPoint).level) {
+                    entryPoint = id;
+                }
+            }
+        }
+    }
+
+    /**
+     * Marks a key's vector as gone; it is no longer returned by searches.
+     */
+    public void remove(long key) {
+        Integer id = nodeByKey.remove(key);
+        if (id != null) {
+            node(id).deleted = true;
+            deleted.incrementAndGet();
+        }
+    }
+
+    /**
+     * Returns the keys of up to {@code k} vectors closest to the query, closest first.
+     *
+     * @param ef the beam width; larger finds more of the true nearest neighbours, more slowly
+     * @param excludedKey a key left out of the results, e.g. the query's own
+     */
+    public long[] search(float[] query, int k, int ef, long excludedKey) {
+        int entry = entryPoint;
+        if (entry < 0) {
+            return new long[0];
+        }
+        int current = entry;
+        for (int layer = node(entry).level; layer > 0; layer--) {
+            current = greedyClosest(query, current, layer);
+        }
+        List<Candidate> candidates = searchLayer(query, current, Math.max(ef, k + 1), 0);
+        long[] keys = new long[k];
+        int found = 0;
+        for (Candidate candidate : candidates) {
+            Node node = node(candidate.id());
+            if (!node.deleted && node.key != excludedKey) {
+                keys[found++] = node.key;
+                if (found == k) {
+                    break;
+                }
+            }
+        }
+        return found == k ? keys : Arrays.copyOf(keys, found);
+    }
+
+    /**
+     * Returns the stored vector for a key, or null.
+     */
+    public float[] vector(long key) {
+        Integer id = nodeByKey.get(key);
+        return id == null ? null : node(id).vector;
+    }
+
+    public int size() {
+        return nodeByKey.size();
+    }
+
+    /**
+     * Returns the number of replaced or removed vectors still in the graph.
+     */
+    public int deletedCount() {
+        return deleted.get();
+    }
+
+    private int append(Node node) {
+        synchronized (growLock) {
+            Node[] current = nodes;
+            if (size == current.length) {
+                current = Arrays.copyOf(current, size * 2);
+            }
+            current[size] = node;
+            nodes = current;
+            return size++;
+        }
+    }
+
+    private Node node(int id) {
+        return nodes[id];
+    }
+
+    private int greedyClosest(float[] query, int start, int layer) {
+        int current = start;
+        float best = distance(query, node(current).vector);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int neighbour : node(current).links(layer)) {
+                float distance = distance(query, node(neighbour).vector);
+                if (distance < best) {
+                    best = distance;
+                    current = neighbour;
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Beam search on one layer.
+     *
+     * @return up to {@code ef} closest nodes found, closest first
+     */
+    private List<Candidate> searchLayer(float[] query, int start, int ef, int layer) {
+        Visited visited = VISITED.get().reset(nodes.length);
+        visited.add(start);
+        float startDistance = distance(query, node(start).vector);
+        Heap toVisit = new Heap(ef * 2, false);
+        Heap closest = new Heap(ef + 1, true);
+        toVisit.push(start, startDistance);
+        closest.push(start, startDistance);
+        while (toVisit.size() > 0) {
+            float distance = toVisit.topDistance();
+            int candidate = toVisit.pop();
+            if (distance > closest.topDistance() && closest.size() >= ef) {
+                break;
+            }
+            for (int neighbour : node(candidate).links(layer)) {
+                if (!visited.add(neighbour)) {
+                    continue;
+                }
+                float neighbourDistance = distance(query, node(neighbour).vector);
+                if (closest.size() < ef || neighbourDistance < closest.topDistance()) {
+                    toVisit.push(neighbour, neighbourDistance);
+                    closest.push(neighbour, neighbourDistance);
+                    if (closest.size() > ef) {
+                        closest.pop();
+                    }
+                }
+            }
+        }
+        List<Candidate> result = new ArrayList<>(closest.size());
+        while (closest.size() > 0) {
+            float distance = closest.topDistance();
+            result.add(new Candidate(closest.pop(), distance));
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    /**
+     * Picks up to {@code max} of the candidates, closest first, skipping any closer to an
+     * already picked one than to the query, so links point in different directions. Skipped
+     * candidates fill the remaining places.
+     */
+    private int[] selectNeighbours(List<Candidate> candidates, int max) {
+        List<Candidate> picked = new ArrayList<>(max);
+        List<Candidate> skipped = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            if (picked.size() == max) {
+                break;
+            }
+            float[] vector = node(candidate.id()).vector;
+            boolean diverse = true;
+            for (Candidate other : picked) {
+                if (distance(vector, node(other.id()).vector) < candidate.distance()) {
+                    diverse = false;
+                    break;
+                }
+            }
+            (diverse ? picked : skipped).add(candidate);
+        }
+        for (int i = 0; i < skipped.size() && picked.size() < max; i++) {
+            picked.add(skipped.get(i));
+        }
+        int[] ids = new int[picked.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = picked.get(i).id();
+        }
+        return ids;
+    }
+
+    /**
+     * Adds a back link from a neighbour to a new node, re-selecting the neighbour's links when it
+     * has too many.
+     */
+    private void link(int from, int to, int layer) {
+        Node node = node(from);
+        synchronized (node) {
+            node.links.set(layer, prune(node, merge(node.links(layer), new int[] {to}), layer));
+        }
+    }
+
+    /**
+     * Re-selects a node's links when there are more than a layer allows.
+     */
+    private int[] prune(Node node, int[] links, int layer) {
+        int max = layer == 0 ? maxLinksBottom : maxLinks;
+        if (links.length <= max) {
+            return links;
+        }
+        List<Candidate> candidates = new ArrayList<>(links.length);
+        for (int id : links) {
+            candidates.add(new Candidate(id, distance(node.vector, node(id).vector)));
+        }
+        candidates.sort(Comparator.comparingDouble(Candidate::distance));
+        return selectNeighbours(candidates, max);
+    }
+
+    private static int[] merge(int[] links, int[] added) {
+        int[] merged = Arrays.copyOf(links, links.length + added.length);
+        int size = links.length;
+        for (int id : added) {
+            boolean present = false;
+            for (int i = 0; i < links.length && !present; i++) {
+                present = links[i] == id;
+            }
+            if (!present) {
+                merged[size++] = id;
+            }
+        }
+        return size == merged.length ? merged : Arrays.copyOf(merged, size);
+    }
+
+    /**
+     * Cosine distance of two normalized vectors.
+     */
+    static float distance(float[] a, float[] b) {
+        // Four independent sums let the CPU overlap the additions
+        float s0 = 0;
+        float s1 = 0;
+        float s2 = 0;
+        float s3 = 0;
+        int i = 0;
+        for (int end = a.length - 3; i < end; i += 4) {
+            s0 += a[i] * b[i];
+            s1 += a[i + 1] * b[i + 1];
+            s2 += a[i + 2] * b[i + 2];
+            s3 += a[i + 3] * b[i + 3];
+        }
+        for (; i < a.length; i++) {
+            s0 += a[i] * b[i];
+        }
+        return 1 - (s0 + s1 + s2 + s3);
+    }
+
+    private record Candidate(int id, float distance) {
+    }
+
+    /**
+     * Binary heap of node ids by distance, closest on top or, as a max-heap, farthest on top.
+     */
+    private static final class Heap {
+        private int[] ids;
+        private float[] distances;
+        private final boolean max;
+        private int size;
+
+        Heap(int capacity, boolean max) {
+            this.ids = new int[Math.max(capacity, 4)];
+            this.distances = new float[ids.length];
+            this.max = max;
+        }
+
+        int size() {
+            return size;
+        }
+
+        float topDistance() {
+            return distances[0];
+        }
+
+        void push(int id, float distance) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                distances = Arrays.copyOf(distances, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!above(distance, distances[parent])) {
+                    break;
+                }
+                ids[i] = ids[parent];
+                distances[i] = distances[parent];
+                i = parent;
+            }
+            ids[i] = id;
+            distances[i] = distance;
+        }
+
+        int pop() {
+            int top = ids[0];
+            size--;
+            int id = ids[size];
+            float distance = distances[size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && above(distances[child + 1], distances[child])) {
+                    child++;
+                }
+                if (!above(distances[child], distance)) {
+                    break;
+                }
+                ids[i] = ids[child];
+                distances[i] = distances[child];
+                i = child;
+            }
+            ids[i] = id;
+            distances[i] = distance;
+            return top;
+        }
+
+        private boolean above(float a, float b) {
+            return max ? a > b : a < b;
+        }
+    }
+
+    /**
+     * Nodes seen by a search, reused by each thread: a node is visited when its mark equals the
+     * current epoch, so resetting is a counter increment.
+     */
+    private static final class Visited {
+        private int[] marks = new int[0];
+        private int epoch;
+
+        Visited reset(int capacity) {
+            if (marks.length < capacity) {
+                marks = new int[capacity];
+                epoch = 0;
+            }
+            if (++epoch == Integer.MAX_VALUE) {
+                Arrays.fill(marks, 0);
+                epoch = 1;
+            }
+            return this;
+        }
+
+        /**
+         * @return true if the node was not visited yet
+         */
+        boolean add(int id) {
+            if (id >= marks.length) {
+                // Appended by a concurrent insert since the search started
+                marks = Arrays.copyOf(marks, Math.max(id + 1, marks.length * 2));
+            }
+            if (marks[id] == epoch) {
+                return false;
+            }
+            marks[id] = epoch;
+            return true;
+        }
+    }
+
+    private static final class Node {
+        private static final int[] NO_LINKS = new int[0];
+
+        final long key;
+        final float[] vector;
+        final int level;
+        // Per layer, replaced whole under the node's lock so searches always see a complete array
+        final AtomicReferenceArray<int[]> links;
+        volatile boolean deleted;
+
+        Node(long key, float[] vector, int level) {
+            this.key = key;
+            this.vector = vector;
+            this.level = level;
+            this.links = new AtomicReferenceArray<>(level + 1);
+            for (int layer = 0; layer <= level; layer++) {
+                links.set(layer, NO_LINKS);
+            }
+        }
+
+        int[] links(int layer) {
+            return layer < links.length() ? links.get(layer) : NO_LINKS;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.groceryshop.recommendation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Serves item-to-item similarities from the file the {@link ItemSimilarityJob} publishes. The
+ * file is memory-mapped read-only, so it costs no heap, is shared by the page cache with the
+ * job that wrote it, and a lookup is a binary search plus reading {@code k} slots.
+ * <p>
+ * A new file is written next to the current one and moved over it, and then mapped in its place;
+ * lookups in progress keep reading the mapping they started with.
+ * <p>
+ * Layout, big-endian: magic, {@code k} and item count as ints; the item product IDs ascending as
+ * longs; per item its neighbour count as an int; per item {@code k} neighbour product IDs as longs;
+ * per item {@code k} similarities as floats, highest first.
+ */
+public class ItemSimilarityIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ItemSimilarityIndex.class);
+
+    private static final int MAGIC = 0x49534D31; // "ISM1"
+    private static final int HEADER_BYTES = 12;
+
+    private volatile Mapping mapping;
+
+    /**
+     * Maps the file at the path, if there is one.
+     *
+     * @return true if similarities are now served from it
+     */
+    public boolean load(Path file) {
+        if (!Files.exists(file)) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IllegalArgumentException("Not an item similarity file: " + file);
+            }
+            mapping = new Mapping(buffer, buffer.getInt(4), buffer.getInt(8));
+            log.info("Serving similarities of {} products from {}", mapping.itemCount(), file);
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public boolean isEmpty() {
+        Mapping current = mapping;
+        return current == null || current.itemCount() == 0;
+    }
+
+    public int itemCount() {
+        Mapping current = mapping;
+        return current == null ? 0 : current.itemCount();
+    }
+
+    /**
+     * Returns up to {@code limit} products most similar to the given one, most similar first.
+     */
+    public long[] similar(long productId, int limit) {
+        Mapping current = mapping;
+        if (current == null) {
+            return new long[0];
+        }
+        int item = current.indexOf(productId);
+        if (item < 0) {
+            return new long[0];
+        }
+        long[] neighbours = new long[Math.min(limit, current.neighbourCount(item))];
+        for (int j = 0; j < neighbours.length; j++) {
+            neighbours[j] = current.neighbour(item, j);
+        }
+        return neighbours;
+    }
+
+    /**
+     * Ranks the products similar to any of the given ones by their summed similarity, leaving out
+     * the given ones.
+     */
+    public long[] recommend(Set<Long> productIds) {
+        Mapping current = mapping;
+        if (current == null || productIds.isEmpty()) {
+            return new long[0];
+        }
+        Map<Long, Double> scores = new HashMap<>();
+        for (Long productId : productIds) {
+            int item = current.indexOf(productId);
+            if (item < 0) {
+                continue;
+            }
+            for (int j = 0, n = current.neighbourCount(item); j < n; j++) {
+                long neighbour = current.neighbour(item, j);
+                if (!productIds.contains(neighbour)) {
+                    scores.merge(neighbour, (double) current.score(item, j), Double::sum);
+                }
+            }
+        }
+        return scores.entrySet()
+                .stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .mapToLong(Map.Entry::getKey)
+                .toArray();
+    }
+
+    /**
+     * Writes a similarity file and moves it into place.
+     *
+     * @param productIds the product of each item, ascending
+     * @param neighbourCounts how many of each item's {@code k} slots are used
+     * @param neighbours per item, {@code k} neighbour product IDs
+     * @param scores per item, {@code k} similarities, highest first
+     * @return the size of the file in bytes
+     */
+    public static long write(Path file, int k, long[] productIds, int[] neighbourCounts, long[] neighbours,
+                             float[] scores) {
+        long bytes = HEADER_BYTES + (long) productIds.length * (8 + 4 + k * 12L);
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Item similarity file would exceed 2 GB; lower k");
+        }
+        try {
+            Path directory = file.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(k);
+                out.writeInt(productIds.length);
+                for (long productId : productIds) {
+                    out.writeLong(productId);
+                }
+                for (int count : neighbourCounts) {
+                    out.writeInt(count);
+                }
+                for (long neighbour : neighbours) {
+                    out.writeLong(neighbour);
+                }
+                for (float score : scores) {
+                    out.writeFloat(score);
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return bytes;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record Mapping(MappedByteBuffer buffer, int k, int itemCount) {
+
+        int indexOf(long productId) {
+            int low = 0;
+            int high = itemCount - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                long value = buffer.getLong(HEADER_BYTES + mid * 8);
+                if (value < productId) {
+                    low = mid + 1;
+                } else if (value > productId) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -1;
+        }
+
+        int neighbourCount(int item) {
+            return buffer.getInt(HEADER_BYTES + itemCount * 8 + item * 4);
+        }
+
+        long neighbour(int item, int j) {
+            return buffer.getLong(HEADER_BYTES + itemCount * 12 + (item * k + j) * 8);
+        }
+
+        float score(int item, int j) {
+            return buffer.getFloat(HEADER_BYTES + itemCount * 12 + itemCount * k * 8 + (item * k + j) * 4);
+        }
+    }
+}
@@ -0,0 +1,485 @@
+package com.groceryshop.recommendation;
+
+import com.groceryshop.recommendation.spi.RecommendationServiceProvider;
+import com.groceryshop.shared.collection.LongLongHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Batch job computing item-to-item collaborative filtering: for every product, the {@code k}
+ * products bought by the most similar set of customers, by cosine similarity of their
+ * customer vectors, published as a file the {@link ItemSimilarityIndex} serves.
+ * <p>
+ * A run streams all order lines from the database, building the customer-product matrix as
+ * compressed rows of dense ints, both ways (customers' products and products' customers). The
+ * similarities of a product come from walking its customers' products and counting overlaps,
+ * so only products that share a customer are ever compared. Products are split into ranges
+ * computed in parallel on a fork/join pool, each leaf with its own counter array.
+ * <p>
+ * Customers who bought more than {@code maxProductsPerCustomer} distinct products are left out:
+ * they relate nearly everything to everything and dominate the cost. Pairs with fewer than
+ * {@code minCommonCustomers} customers in common are not considered similar.
+ * <p>
+ * Runtime per phase, memory and the parallel speed-up of each run are logged and kept as the
+ * {@link #getLastReport last report}.
+ */
+public class ItemSimilarityJob implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ItemSimilarityJob.class);
+
+    private final RecommendationServiceProvider recommendationServiceProvider;
+    private final ItemSimilarityIndex index;
+    private final Path file;
+    private final int k;
+    private final int minCommonCustomers;
+    private final int maxProductsPerCustomer;
+    private final int parallelism;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("item-similarity").daemon().factory());
+    private volatile Report lastReport;
+
+    /**
+     * @param k how many similar products are kept per product
+     * @param parallelism threads computing similarities
+     */
+    public ItemSimilarityJob(RecommendationServiceProvider recommendationServiceProvider, ItemSimilarityIndex index,
+                             Path file, int k, int minCommonCustomers, int maxProductsPerCustomer, int parallelism) {
+        this.recommendationServiceProvider = recommendationServiceProvider;
+        this.index = index;
+        this.file = file;
+        this.k = k;
+        this.minCommonCustomers = minCommonCustomers;
+        this.maxProductsPerCustomer = maxProductsPerCustomer;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Serves the last published file and runs the job at the interval; right away if there is no file yet.
+     */
+    public void start(Duration interval) {
+        boolean loaded = false;
+        try {
+            loaded = index.load(file);
+        } catch (RuntimeException e) {
+            log.warn("Could not load item similarities from {}, recomputing", file, e);
+        }
+        executor.scheduleWithFixedDelay(this::runSafely, loaded ? interval.toMillis() : 0, interval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    private void runSafely() {
+        try {
+            run();
+        } catch (RuntimeException e) {
+            log.error("Item similarity job failed", e);
+        }
+    }
+
+    /**
+     * Computes and publishes the similarities.
+     */
+    public Report run() {
+        long startNanos = System.nanoTime();
+        Matrix matrix = load();
+        long loadedNanos = System.nanoTime();
+
+        Similarities similarities = new Similarities(matrix, k, minCommonCustomers);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            int leafSize = Math.max(16, matrix.productCount() / (parallelism * 8));
+            pool.invoke(new ComputeRange(similarities, 0, matrix.productCount(), leafSize));
+        } finally {
+            pool.shutdown();
+        }
+        long computedNanos = System.nanoTime();
+
+        long fileBytes = ItemSimilarityIndex.write(file, k, matrix.productIds(), similarities.neighbourCounts,
+                similarities.neighbours, similarities.scores);
+        index.load(file);
+        long publishedNanos = System.nanoTime();
+
+        long computeWallNanos = computedNanos - loadedNanos;
+        Report report = new Report(matrix.customerCount(), matrix.productCount(), matrix.purchases(),
+                similarities.pairsCompared.sum(), Duration.ofNanos(loadedNanos - startNanos),
+                Duration.ofNanos(computeWallNanos), Duration.ofNanos(publishedNanos - computedNanos),
+                matrix.bytes() + similarities.bytes(), fileBytes, parallelism,
+                computeWallNanos == 0 ? 1 : (double) similarities.busyNanos.sum() / computeWallNanos);
+        lastReport = report;
+        log.info("Item similarities for {} products from {} customers: load {} ms, compute {} ms ({} threads, "
+                        + "speed-up {}), publish {} ms, {} KB in memory, {} KB on disk",
+                report.products(), report.customers(), report.loadTime().toMillis(), report.computeTime().toMillis(),
+                report.parallelism(), String.format("%.2f", report.speedUp()), report.publishTime().toMillis(),
+                report.memoryBytes() / 1024, report.fileBytes() / 1024);
+        return report;
+    }
+
+    /**
+     * Streams the order lines into compressed customer and product rows.
+     */
+    private Matrix load() {
+        LongLongHashMap customerIndex = new LongLongHashMap();
+        LongLongHashMap productIndex = new LongLongHashMap();
+        IntList customerOf = new IntList();
+        IntList productOf = new IntList();
+        LongList customerIds = new LongList();
+        LongList productIds = new LongList();
+        recommendationServiceProvider.forEachPurchase((customerId, productId) -> {
+            customerOf.add(denseIndex(customerIndex, customerIds, customerId));
+            productOf.add(denseIndex(productIndex, productIds, productId));
+        });
+
+        // Number products in ascending ID order, the order the file is searched in
+        long[] sortedProductIds = Arrays.copyOf(productIds.values, productIds.size);
+        Arrays.sort(sortedProductIds);
+        int[] renumber = new int[productIds.size];
+        for (int i = 0; i < sortedProductIds.length; i++) {
+            renumber[(int) productIndex.get(sortedProductIds[i])] = i;
+        }
+        int[] products = new int[productOf.size];
+        for (int i = 0; i < products.length; i++) {
+            products[i] = renumber[productOf.values[i]];
+        }
+
+        Rows customerProducts = Rows.of(customerIds.size, customerOf.values, products, customerOf.size);
+        customerProducts = customerProducts.withoutRowsLongerThan(maxProductsPerCustomer);
+        Rows productCustomers = customerProducts.transpose(sortedProductIds.length);
+        return new Matrix(sortedProductIds, customerProducts, productCustomers, customerOf.size);
+    }
+
+    private static int denseIndex(LongLongHashMap index, LongList ids, long id) {
+        if (index.containsKey(id)) {
+            return (int) index.get(id);
+        }
+        index.put(id, ids.size);
+        ids.add(id);
+        return ids.size - 1;
+    }
+
+    public Report getLastReport() {
+        return lastReport;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * What a run did and what it cost.
+     *
+     * @param memoryBytes the size of the matrix and result arrays
+     * @param speedUp time spent computing on all threads divided by the elapsed time
+     */
+    public record Report(int customers, int products, long purchases, long pairsCompared, Duration loadTime,
+                         Duration computeTime, Duration publishTime, long memoryBytes, long fileBytes,
+                         int parallelism, double speedUp) {
+    }
+
+    private record Matrix(long[] productIds, Rows customerProducts, Rows productCustomers, long purchases) {
+
+        int productCount() {
+            return productIds.length;
+        }
+
+        int customerCount() {
+            return customerProducts.rowCount();
+        }
+
+        long bytes() {
+            return productIds.length * 8L + customerProducts.bytes() + productCustomers.bytes();
+        }
+    }
+
+    /**
+     * Sparse 0/1 matrix in compressed row form: row {@code r} holds
+     * {@code columns[offsets[r]..offsets[r + 1])}, ascending and distinct.
+     */
+    private record Rows(int[] offsets, int[] columns) {
+
+        static Rows of(int rowCount, int[] rowOf, int[] columnOf, int size) {
+            int[] offsets = new int[rowCount + 1];
+            for (int i = 0; i < size; i++) {
+                offsets[rowOf[i] + 1]++;
+            }
+            for (int r = 0; r < rowCount; r++) {
+                offsets[r + 1] += offsets[r];
+            }
+            int[] next = Arrays.copyOf(offsets, rowCount);
+            int[] columns = new int[size];
+            for (int i = 0; i < size; i++) {
+                columns[next[rowOf[i]]++] = columnOf[i];
+            }
+            // Sort and de-duplicate each row in place, compacting as we go
+            int[] compacted = new int[rowCount + 1];
+            int kept = 0;
+            for (int r = 0; r < rowCount; r++) {
+                Arrays.sort(columns, offsets[r], offsets[r + 1]);
+                for (int i = offsets[r]; i < offsets[r + 1]; i++) {
+                    if (i == offsets[r] || columns[i] != columns[i - 1]) {
+                        columns[kept++] = columns[i];
+                    }
+                }
+                compacted[r + 1] = kept;
+            }
+            return new Rows(compacted, Arrays.copyOf(columns, kept));
+        }
+
+        int rowCount() {
+            return offsets.length - 1;
+        }
+
+        int length(int row) {
+            return offsets[row + 1] - offsets[row];
+        }
+
+        Rows withoutRowsLongerThan(int maxLength) {
+            int[] newOffsets = new int[offsets.length];
+            int[] newColumns = new int[columns.length];
+            int kept = 0;
+            for (int r = 0; r < rowCount(); r++) {
+                if (length(r) <= maxLength) {
+                    System.arraycopy(columns, offsets[r], newColumns, kept, length(r));
+                    kept += length(r);
+                }
+                newOffsets[r + 1] = kept;
+            }
+            return new Rows(newOffsets, Arrays.copyOf(newColumns, kept));
+        }
+
+        Rows transpose(int columnCount) {
+            int[] newOffsets = new int[columnCount + 1];
+            for (int column : columns) {
+                newOffsets[column + 1]++;
+            }
+            for (int c = 0; c < columnCount; c++) {
+                newOffsets[c + 1] += newOffsets[c];
+            }
+            int[] next = Arrays.copyOf(newOffsets, columnCount);
+            int[] newColumns = new int[columns.length];
+            // Rows are walked in order, so each transposed row comes out ascending
+            for (int r = 0; r < rowCount(); r++) {
+                for (int i = offsets[r]; i < offsets[r + 1]; i++) {
+                    newColumns[next[columns[i]]++] = r;
+                }
+            }
+            return new Rows(newOffsets, newColumns);
+        }
+
+        long bytes() {
+            return (offsets.length + (long) columns.length) * 4;
+        }
+    }
+
+    /**
+     * The result arrays, {@code k} slots per product, filled by the leaves of the computation.
+     */
+    private static final class Similarities {
+        final Matrix matrix;
+        final int k;
+        final int minCommonCustomers;
+        final int[] neighbourCounts;
+        final long[] neighbours;
+        final float[] scores;
+        final LongAdder pairsCompared = new LongAdder();
+        final LongAdder busyNanos = new LongAdder();
+
+        Similarities(Matrix matrix, int k, int minCommonCustomers) {
+            this.matrix = matrix;
+            this.k = k;
+            this.minCommonCustomers = minCommonCustomers;
+            this.neighbourCounts = new int[matrix.productCount()];
+            this.neighbours = new long[matrix.productCount() * k];
+            this.scores = new float[matrix.productCount() * k];
+        }
+
+        long bytes() {
+            return neighbourCounts.length * 4L + neighbours.length * 8L + scores.length * 4L;
+        }
+
+        /**
+         * Computes the products in {@code [from, to)}.
+         */
+        void compute(int from, int to) {
+            long startNanos = System.nanoTime();
+            Rows customersOf = matrix.productCustomers();
+            Rows productsOf = matrix.customerProducts();
+            int[] common = new int[matrix.productCount()];
+            int[] touched = new int[matrix.productCount()];
+            TopK top = new TopK(k);
+            long compared = 0;
+            for (int product = from; product < to; product++) {
+                int touchedCount = 0;
+                for (int i = customersOf.offsets()[product]; i < customersOf.offsets()[product + 1]; i++) {
+                    int customer = customersOf.columns()[i];
+                    for (int j = productsOf.offsets()[customer]; j < productsOf.offsets()[customer + 1]; j++) {
+                        int other = productsOf.columns()[j];
+                        if (other != product && common[other]++ == 0) {
+                            touched[touchedCount++] = other;
+                        }
+                    }
+                }
+                top.clear();
+                double productNorm = Math.sqrt(customersOf.length(product));
+                for (int t = 0; t < touchedCount; t++) {
+                    int other = touched[t];
+                    if (common[other] >= minCommonCustomers) {
+                        // Cosine of two 0/1 vectors: shared customers over the geometric mean of their counts
+                        top.offer(other, (float) (common[other] / (productNorm * Math.sqrt(customersOf.length(other)))));
+                    }
+                    common[other] = 0;
+                }
+                compared += touchedCount;
+                neighbourCounts[product] = top.drainInto(matrix.productIds(), neighbours, scores, product * k);
+            }
+            pairsCompared.add(compared);
+            busyNanos.add(System.nanoTime() - startNanos);
+        }
+    }
+
+    private static final class ComputeRange extends RecursiveAction {
+        private final Similarities similarities;
+        private final int from;
+        private final int to;
+        private final int leafSize;
+
+        ComputeRange(Similarities similarities, int from, int to, int leafSize) {
+            this.similarities = similarities;
+            this.from = from;
+            this.to = to;
+            this.leafSize = leafSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= leafSize) {
+                similarities.compute(from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ComputeRange(similarities, from, mid, leafSize),
+                    new ComputeRange(similarities, mid, to, leafSize));
+        }
+    }
+
+    /**
+     * The {@code k} highest-scoring products offered, kept in a min-heap.
+     */
+    private static final class TopK {
+        private final int[] products;
+        private final float[] scores;
+        private int size;
+
+        TopK(int k) {
+            this.products = new int[k];
+            this.scores = new float[k];
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        void offer(int product, float score) {
+            if (size < products.length) {
+                products[size] = product;
+                scores[size] = score;
+                siftUp(size++);
+            } else if (products.length > 0 && score > scores[0]) {
+                products[0] = product;
+                scores[0] = score;
+                siftDown(0);
+            }
+        }
+
+        /**
+         * Writes the kept products, highest score first, and empties the heap.
+         *
+         * @return how many were written
+         */
+        int drainInto(long[] productIds, long[] neighbours, float[] neighbourScores, int offset) {
+            int count = size;
+            // Popping the minimum fills the slots from the back
+            for (int slot = count - 1; slot >= 0; slot--) {
+                neighbours[offset + slot] = productIds[products[0]];
+                neighbourScores[offset + slot] = scores[0];
+                size--;
+                products[0] = products[size];
+                scores[0] = scores[size];
+                siftDown(0);
+            }
+            return count;
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (scores[parent] <= scores[i]) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int smallest = i;
+                int left = 2 * i + 1;
+                if (left < size && scores[left] < scores[smallest]) {
+                    smallest = left;
+                }
+                if (left + 1 < size && scores[left + 1] < scores[smallest]) {
+                    smallest = left + 1;
+                }
+                if (smallest == i) {
+                    return;
+                }
+                swap(i, smallest);
+                i = smallest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int product = products[a];
+            products[a] = products[b];
+            products[b] = product;
+            float score = scores[a];
+            scores[a] = scores[b];
+            scores[b] = score;
+        }
+    }
+
+    private static final class IntList {
+        int[] values = new int[1024];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size + (size >> 1));
+            }
+            values[size++] = value;
+        }
+    }
+
+    private static final class LongList {
+        long[] values = new long[1024];
+        int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size + (size >> 1));
+            }
+            values[size++] = value;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.groceryshop.recommendation;
+
+import com.groceryshop.product.Product;
+import com.groceryshop.product.ProductCategory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * Time-decayed popularity of each product: every purchase adds to the product's score, and a
+ * purchase counts half as much after each {@code halfLife}, so recent demand ranks first.
+ * <p>
+ * Rather than decaying every score over time, purchases are weighted up by how long after a fixed
+ * landmark they happened ({@code 2^((t - landmark) / halfLife)}); the ranking is the same, and
+ * recording is a single add to a striped {@link DoubleAdder}, so checkouts on many threads do not
+ * contend. The weights grow without bound, so the landmark is moved forward and the scores scaled
+ * down before they could overflow, roughly once every 64 half-lives.
+ * <p>
+ * Reads never touch the counters: {@link #republish} sorts them into a top-N ranking, overall and
+ * per category, published as plain arrays that {@link #top} reads without locking.
+ */
+public class PopularityCounters {
+
+    private static final double REBASE_AFTER_HALF_LIVES = 64;
+    // Products whose current score drops below this are forgotten
+    private static final double MIN_SCORE = 1e-3;
+
+    private final double halfLifeMillis;
+    private final int topN;
+    private final Map<Long, Counter> counters = new ConcurrentHashMap<>();
+    private volatile long landmarkMillis;
+    private volatile Ranking overall = Ranking.EMPTY;
+    private volatile Map<ProductCategory, Ranking> byCategory = Map.of();
+
+    /**
+     * @param halfLife how long until a purchase counts half as much
+     * @param topN products kept in each published ranking
+     * @param nowMillis the current time, used as the initial landmark
+     */
+    public PopularityCounters(Duration halfLife, int topN, long nowMillis) {
+        this.halfLifeMillis = halfLife.toMillis();
+        this.topN = topN;
+        this.landmarkMillis = nowMillis;
+    }
+
+    /**
+     * Counts a purchase of a product at a time.
+     */
+    public void record(long productId, long purchasedAtMillis) {
+        counters.computeIfAbsent(productId, id -> new Counter()).score.add(weight(purchasedAtMillis));
+    }
+
+    /**
+     * Returns up to {@code limit} product IDs, most popular first.
+     */
+    public long[] top(int limit) {
+        return overall.top(limit);
+    }
+
+    /**
+     * Returns up to {@code limit} product IDs of a category, most popular first.
+     */
+    public long[] top(ProductCategory category, int limit) {
+        return byCategory.getOrDefault(category, Ranking.EMPTY).top(limit);
+    }
+
+    /**
+     * Returns the number of products being counted.
+     */
+    public int size() {
+        return counters.size();
+    }
+
+    /**
+     * Re-ranks the products and publishes the new rankings. Products whose category is not known
+     * yet are looked up; those that no longer exist are dropped, as are products whose score has
+     * decayed to nothing. Called periodically from a single thread.
+     *
+     * @param lookup loads products by ID
+     */
+    public void republish(ProductLookup lookup, long nowMillis) {
+        if ((nowMillis - landmarkMillis) / halfLifeMillis > REBASE_AFTER_HALF_LIVES) {
+            rebase(nowMillis);
+        }
+        resolveCategories(lookup);
+
+        double minScore = MIN_SCORE * weight(nowMillis);
+        List<Scored> scored = new ArrayList<>(counters.size());
+        for (Map.Entry<Long, Counter> entry : counters.entrySet()) {
+            Counter counter = entry.getValue();
+            double score = counter.score.sum();
+            if (score < minScore) {
+                counters.remove(entry.getKey(), counter);
+            } else if (counter.category != null) {
+                scored.add(new Scored(entry.getKey(), counter.category, score));
+            }
+        }
+        scored.sort(null);
+
+        Map<ProductCategory, List<Scored>> categories = new EnumMap<>(ProductCategory.class);
+        for (Scored product : scored) {
+            List<Scored> category = categories.computeIfAbsent(product.category(), c -> new ArrayList<>());
+            if (category.size() < topN) {
+                category.add(product);
+            }
+        }
+        Map<ProductCategory, Ranking> published = new EnumMap<>(ProductCategory.class);
+        categories.forEach((category, products) -> published.put(category, Ranking.of(products)));
+
+        overall = Ranking.of(scored.subList(0, Math.min(topN, scored.size())));
+        byCategory = Collections.unmodifiableMap(published);
+    }
+
+    private void resolveCategories(ProductLookup lookup) {
+        List<Long> unknown = new ArrayList<>();
+        counters.forEach((productId, counter) -> {
+            if (counter.category == null) {
+                unknown.add(productId);
+            }
+        });
+        if (unknown.isEmpty()) {
+            return;
+        }
+        Map<Long, Product> products = lookup.getAll(unknown);
+        for (Long productId : unknown) {
+            Product product = products.get(productId);
+            if (product == null) {
+                counters.remove(productId);
+            } else {
+                counters.get(productId).category = product.getCategory();
+            }
+        }
+    }
+
+    /**
+     * Moves the landmark to now, scaling every score to match. A purchase recorded while this runs
+     * may keep its old, larger weight; the error is as small as it is rare.
+     */
+    private void rebase(long nowMillis) {
+        double scale = 1 / weight(nowMillis);
+        for (Counter counter : counters.values()) {
+            counter.score.add(counter.score.sumThenReset() * scale);
+        }
+        landmarkMillis = nowMillis;
+    }
+
+    private double weight(long atMillis) {
+        return Math.pow(2, (atMillis - landmarkMillis) / halfLifeMillis);
+    }
+
+    private static final class Counter {
+        final DoubleAdder score = new DoubleAdder();
+        volatile ProductCategory category;
+    }
+
+    private record Scored(long productId, ProductCategory category, double score) implements Comparable<Scored> {
+        @Override
+        public int compareTo(Scored other) {
+            int byScore = Double.compare(other.score, score);
+            return byScore != 0 ? byScore : Long.compare(productId, other.productId);
+        }
+    }
+
+    /**
+     * A published ranking: product IDs, most popular first.
+     */
+    private record Ranking(long[] productIds) {
+        static final Ranking EMPTY = new Ranking(new long[0]);
+
+        static Ranking of(List<Scored> products) {
+            long[] ids = new long[products.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = products.get(i).productId();
+            }
+            return new Ranking(ids);
+        }
+
+        long[] top(int limit) {
+            return Arrays.copyOf(productIds, Math.min(limit, productIds.length));
+        }
+    }
+}
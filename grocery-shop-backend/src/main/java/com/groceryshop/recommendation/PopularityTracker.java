@@ -0,0 +1,144 @@
+package com.groceryshop.recommendation;
+
+import com.groceryshop.order.OrderCreatedEvent;
+import com.groceryshop.order.spi.OrderProducts;
+import com.groceryshop.recommendation.spi.RecommendationServiceProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feeds purchases into the {@link PopularityCounters} and republishes their rankings.
+ * <p>
+ * On start, the orders of the last {@code warmUpWindow} are replayed from the database, weighted
+ * by when they were placed, so the rankings survive a restart. From then on each order this
+ * node creates is counted once its transaction commits. With several nodes, each counts the
+ * orders it takes, a sample that ranks products the same way.
+ */
+public class PopularityTracker implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(PopularityTracker.class);
+
+    private final PopularityCounters counters;
+    private final ProductLookup productLookup;
+    private final RecommendationServiceProvider recommendationServiceProvider;
+    private final Duration warmUpWindow;
+    private final int catchUpBatchSize;
+    private final Clock clock;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("popularity").daemon().factory());
+    // Orders up to this one were replayed from the database; their events are not counted again
+    private volatile long replayedUpToOrderId;
+    private volatile boolean warmedUp;
+
+    public PopularityTracker(PopularityCounters counters, ProductLookup productLookup,
+                             RecommendationServiceProvider recommendationServiceProvider, Duration warmUpWindow,
+                             int catchUpBatchSize, Clock clock) {
+        this.counters = counters;
+        this.productLookup = productLookup;
+        this.recommendationServiceProvider = recommendationServiceProvider;
+        this.warmUpWindow = warmUpWindow;
+        this.catchUpBatchSize = catchUpBatchSize;
+        this.clock = clock;
+    }
+
+    /**
+     * Replays recent orders in the background and starts republishing the rankings at the interval.
+     */
+    public void start(Duration republishInterval) {
+        executor.execute(this::warmUp);
+        executor.scheduleWithFixedDelay(this::republish, republishInterval.toMillis(),
+                republishInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderCreated(OrderCreatedEvent event) {
+        List<Long> productIds = event.productIds();
+        if (productIds == null || productIds.isEmpty()) {
+            return;
+        }
+        long now = clock.millis();
+        if (warmedUp) {
+            // Counted on the caller's thread: the striped adders make this a few uncontended adds
+            countIfNotReplayed(event.orderId(), productIds, now);
+        } else {
+            // Counted once the replay is done, unless the replay already included it
+            executor.execute(() -> countIfNotReplayed(event.orderId(), productIds, now));
+        }
+    }
+
+    void warmUp() {
+        try {
+            LocalDateTime since = LocalDateTime.now(clock).minus(warmUpWindow);
+            int replayed = catchUp(recommendationServiceProvider.findLastOrderIdBefore(since));
+            log.info("Replayed {} orders since {} into the popularity counters", replayed, since);
+        } catch (RuntimeException e) {
+            log.error("Could not replay orders into the popularity counters", e);
+        }
+        warmedUp = true;
+        republish();
+    }
+
+    /**
+     * Counts the orders placed after the given one, at the time they were placed.
+     *
+     * @return the number of orders counted
+     */
+    int catchUp(long afterOrderId) {
+        ZoneId zone = clock.getZone();
+        long lastOrderId = afterOrderId;
+        int replayed = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            List<OrderProducts> orders = recommendationServiceProvider.findOrderProductsAfter(lastOrderId,
+                    catchUpBatchSize);
+            for (OrderProducts order : orders) {
+                long placedAt = order.orderDate() != null
+                        ? order.orderDate().atZone(zone).toInstant().toEpochMilli()
+                        : clock.millis();
+                recordAll(order.productIds(), placedAt);
+                lastOrderId = order.orderId();
+            }
+            replayed += orders.size();
+            if (orders.size() < catchUpBatchSize) {
+                break;
+            }
+        }
+        replayedUpToOrderId = lastOrderId;
+        return replayed;
+    }
+
+    void republish() {
+        try {
+            counters.republish(productLookup, clock.millis());
+        } catch (RuntimeException e) {
+            log.warn("Could not republish product popularity", e);
+        }
+    }
+
+    private void countIfNotReplayed(long orderId, List<Long> productIds, long atMillis) {
+        if (orderId > replayedUpToOrderId) {
+            recordAll(productIds, atMillis);
+        }
+    }
+
+    private void recordAll(List<Long> productIds, long atMillis) {
+        for (Long productId : productIds) {
+            counters.record(productId, atMillis);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
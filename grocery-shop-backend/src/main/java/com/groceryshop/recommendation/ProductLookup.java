@@ -0,0 +1,115 @@
+package com.groceryshop.recommendation;
+
+import com.groceryshop.product.Product;
+import com.groceryshop.product.ProductUpdatedEvent;
+import com.groceryshop.product.StockUpdatedEvent;
+import com.groceryshop.recommendation.spi.RecommendationServiceProvider;
+import org.springframework.context.event.EventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read-through map from product ID to product for the recommendation algorithms, which rank
+ * product IDs and then need the products for the top few. Products not in the map are loaded by
+ * primary key in one query, so a lookup costs at most the number of IDs asked for, never a scan
+ * of the catalog.
+ * <p>
+ * Entries are dropped when this node changes a product's stock or details, and expire after a
+ * while so changes made through other nodes are picked up.
+ */
+public class ProductLookup {
+
+    private final RecommendationServiceProvider recommendationServiceProvider;
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final Map<Long, Entry> products = new ConcurrentHashMap<>();
+
+    /**
+     * @param ttl how long a product is served from memory before being read again
+     * @param maxEntries how many products to keep; past it, expired entries are dropped, then all
+     */
+    public ProductLookup(RecommendationServiceProvider recommendationServiceProvider, Duration ttl, int maxEntries) {
+        this.recommendationServiceProvider = recommendationServiceProvider;
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Returns the products with the given IDs. IDs without a product are left out of the map.
+     */
+    public Map<Long, Product> getAll(Collection<Long> productIds) {
+        Map<Long, Product> found = new HashMap<>(productIds.size() * 2);
+        List<Long> missing = new ArrayList<>();
+        for (Long productId : productIds) {
+            Entry entry = products.get(productId);
+            if (entry == null || entry.isExpired(ttlNanos)) {
+                missing.add(productId);
+            } else {
+                found.put(productId, entry.product());
+            }
+        }
+        if (!missing.isEmpty()) {
+            makeRoom(missing.size());
+            long now = System.nanoTime();
+            for (Product product : recommendationServiceProvider.findProductsByIds(missing)) {
+                products.put(product.getId(), new Entry(product, now));
+                found.put(product.getId(), product);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Keeps products that were just read by other means, so looking them up does not read them again.
+     */
+    public void putAll(Collection<Product> loaded) {
+        makeRoom(loaded.size());
+        long now = System.nanoTime();
+        for (Product product : loaded) {
+            products.put(product.getId(), new Entry(product, now));
+        }
+    }
+
+    /**
+     * Forgets a product; it is loaded again on next use.
+     */
+    public void evict(Long productId) {
+        products.remove(productId);
+    }
+
+    public int size() {
+        return products.size();
+    }
+
+    @EventListener
+    void onStockUpdated(StockUpdatedEvent event) {
+        evict(event.productId());
+    }
+
+    @EventListener
+    void onProductUpdated(ProductUpdatedEvent event) {
+        evict(event.productId());
+    }
+
+    private void makeRoom(int adding) {
+        if (products.size() + adding <= maxEntries) {
+            return;
+        }
+        products.values().removeIf(entry -> entry.isExpired(ttlNanos));
+        if (products.size() + adding > maxEntries) {
+            products.clear();
+        }
+    }
+
+    private record Entry(Product product, long loadedNanos) {
+        boolean isExpired(long ttlNanos) {
+            return System.nanoTime() - loadedNanos > ttlNanos;
+        }
+    }
+}
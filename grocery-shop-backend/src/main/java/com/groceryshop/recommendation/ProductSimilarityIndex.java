@@ -0,0 +1,161 @@
+package com.groceryshop.recommendation;
+
+import com.groceryshop.product.Product;
+import com.groceryshop.product.ProductAddedEvent;
+import com.groceryshop.product.ProductUpdatedEvent;
+import com.groceryshop.recommendation.spi.RecommendationServiceProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Content-based "similar products": every product's {@link ProductVectorizer vector} in an
+ * {@link HnswIndex}, so the products most like a given one are found in well under a millisecond
+ * without comparing it to the whole catalog.
+ * <p>
+ * The index is built on start, vectors computed and inserted on a pool of {@code buildParallelism}
+ * threads. Products added or changed through this node are re-indexed once their transaction
+ * commits; when replaced vectors make up a quarter of the graph it is rebuilt. Rebuilds and
+ * updates run one at a time on a thread of their own, and searches keep using the previous
+ * graph until a rebuild is complete.
+ */
+public class ProductSimilarityIndex implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSimilarityIndex.class);
+
+    private static final int PAGE_SIZE = 500;
+
+    private final RecommendationServiceProvider recommendationServiceProvider;
+    private final ProductVectorizer vectorizer;
+    private final int maxLinks;
+    private final int efConstruction;
+    private final int efSearch;
+    private final int buildParallelism;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("product-similarity").daemon().factory());
+    private volatile HnswIndex index;
+
+    /**
+     * @param maxLinks graph links per product; more raises recall and memory
+     * @param efConstruction beam width when inserting
+     * @param efSearch beam width when searching; more raises recall and latency
+     */
+    public ProductSimilarityIndex(RecommendationServiceProvider recommendationServiceProvider,
+                                  ProductVectorizer vectorizer, int maxLinks, int efConstruction, int efSearch,
+                                  int buildParallelism) {
+        this.recommendationServiceProvider = recommendationServiceProvider;
+        this.vectorizer = vectorizer;
+        this.maxLinks = maxLinks;
+        this.efConstruction = efConstruction;
+        this.efSearch = efSearch;
+        this.buildParallelism = buildParallelism;
+        this.index = new HnswIndex(vectorizer.dimensions(), maxLinks, efConstruction);
+    }
+
+    /**
+     * Builds the index in the background.
+     */
+    public void start() {
+        executor.execute(this::rebuildSafely);
+    }
+
+    /**
+     * Returns the IDs of up to {@code limit} products most similar to the given one, most similar first.
+     */
+    public long[] similar(long productId, int limit) {
+        HnswIndex current = index;
+        float[] vector = current.vector(productId);
+        if (vector == null) {
+            return new long[0];
+        }
+        return current.search(vector, limit, Math.max(efSearch, limit), productId);
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductAdded(ProductAddedEvent event) {
+        reindexLater(event.productId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductUpdated(ProductUpdatedEvent event) {
+        reindexLater(event.productId());
+    }
+
+    private void reindexLater(Long productId) {
+        if (productId == null) {
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                reindex(productId);
+            } catch (RuntimeException e) {
+                log.warn("Could not re-index product {} for similarity", productId, e);
+            }
+        });
+    }
+
+    void reindex(long productId) {
+        HnswIndex current = index;
+        List<Product> products = recommendationServiceProvider.findProductsByIds(List.of(productId));
+        if (products.isEmpty()) {
+            current.remove(productId);
+        } else {
+            current.add(productId, vectorizer.vectorize(products.get(0)));
+        }
+        if (current.deletedCount() > current.size() / 4 + 16) {
+            rebuild();
+        }
+    }
+
+    private void rebuildSafely() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.error("Could not build the product similarity index", e);
+        }
+    }
+
+    /**
+     * Vectorizes the whole catalog into a new graph and swaps it in.
+     */
+    void rebuild() {
+        long startNanos = System.nanoTime();
+        List<Product> products = new ArrayList<>();
+        for (int page = 0; ; page++) {
+            List<Product> batch = recommendationServiceProvider.findAllProducts(page, PAGE_SIZE);
+            products.addAll(batch);
+            if (batch.size() < PAGE_SIZE) {
+                break;
+            }
+        }
+        vectorizer.fit(products);
+        HnswIndex built = new HnswIndex(vectorizer.dimensions(), maxLinks, efConstruction);
+        ForkJoinPool pool = new ForkJoinPool(buildParallelism);
+        try {
+            pool.submit(() -> products.parallelStream()
+                    .forEach(product -> built.add(product.getId(), vectorizer.vectorize(product))))
+                    .join();
+        } finally {
+            pool.shutdown();
+        }
+        index = built;
+        log.info("Indexed {} products for similarity in {} ms on {} threads", built.size(),
+                (System.nanoTime() - startNanos) / 1_000_000, buildParallelism);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,135 @@
+package com.groceryshop.recommendation;
+
+import com.groceryshop.product.Product;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Locale;
+
+/**
+ * Turns a product into a small dense vector for content similarity: hashed TF-IDF over the words
+ * and character trigrams of its name and description, plus its category and price band.
+ * <p>
+ * Features are hashed into {@code dimensions} buckets with a random sign, so no vocabulary is
+ * kept. Inverse document frequencies are per bucket and {@link #fit fitted} to the catalog; until
+ * fitted every bucket weighs the same. Vectors are L2-normalized, so cosine similarity is a dot
+ * product.
+ */
+public class ProductVectorizer {
+
+    private static final float NAME_WEIGHT = 2.0f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+    private static final float CATEGORY_WEIGHT = 3.0f;
+    private static final float PRICE_WEIGHT = 1.0f;
+
+    private final int dimensions;
+    private volatile float[] idf;
+
+    public ProductVectorizer(int dimensions) {
+        if (dimensions < 8) {
+            throw new IllegalArgumentException("Product vectors need at least 8 dimensions");
+        }
+        this.dimensions = dimensions;
+        this.idf = new float[dimensions];
+        Arrays.fill(idf, 1.0f);
+    }
+
+    public int dimensions() {
+        return dimensions;
+    }
+
+    /**
+     * Computes the bucket weights from how many of the products use each bucket.
+     */
+    public void fit(Collection<Product> products) {
+        int[] documentFrequency = new int[dimensions];
+        for (Product product : products) {
+            float[] counts = termCounts(product);
+            for (int i = 0; i < dimensions; i++) {
+                if (counts[i] != 0) {
+                    documentFrequency[i]++;
+                }
+            }
+        }
+        float[] weights = new float[dimensions];
+        for (int i = 0; i < dimensions; i++) {
+            weights[i] = (float) (Math.log((products.size() + 1.0) / (documentFrequency[i] + 1.0)) + 1.0);
+        }
+        idf = weights;
+    }
+
+    /**
+     * Returns the product's normalized vector.
+     */
+    public float[] vectorize(Product product) {
+        float[] vector = termCounts(product);
+        float[] weights = idf;
+        double norm = 0;
+        for (int i = 0; i < dimensions; i++) {
+            if (vector[i] != 0) {
+                // Sublinear term frequency, keeping the sign the hash gave the bucket
+                float tf = (float) (Math.signum(vector[i]) * (1 + Math.log(Math.abs(vector[i]))));
+                vector[i] = tf * weights[i];
+                norm += vector[i] * vector[i];
+            }
+        }
+        if (norm > 0) {
+            float scale = (float) (1 / Math.sqrt(norm));
+            for (int i = 0; i < dimensions; i++) {
+                vector[i] *= scale;
+            }
+        }
+        return vector;
+    }
+
+    /**
+     * Weighted, signed feature counts per bucket, before IDF.
+     */
+    private float[] termCounts(Product product) {
+        float[] counts = new float[dimensions];
+        addText(counts, product.getName(), NAME_WEIGHT);
+        addText(counts, product.getDescription(), DESCRIPTION_WEIGHT);
+        if (product.getCategory() != null) {
+            add(counts, "c:" + product.getCategory().name(), CATEGORY_WEIGHT);
+        }
+        if (product.getPrice() != null && product.getPrice().signum() > 0) {
+            // Price bands double in width: 0-1, 1-2, 2-4, 4-8, ...
+            int band = 64 - Long.numberOfLeadingZeros(product.getPrice().longValue());
+            add(counts, "p:" + band, PRICE_WEIGHT);
+        }
+        return counts;
+    }
+
+    private void addText(float[] counts, String text, float weight) {
+        if (text == null || text.isBlank()) {
+            return;
+        }
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            add(counts, "w:" + word, weight);
+            // Trigrams of the padded word match plurals and misspellings
+            String padded = " " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                add(counts, "t:" + padded.substring(i, i + 3), weight * 0.5f);
+            }
+        }
+    }
+
+    private void add(float[] counts, String feature, float weight) {
+        int hash = mix(feature.hashCode());
+        int bucket = Math.floorMod(hash, dimensions);
+        counts[bucket] += (hash & 0x4000_0000) != 0 ? weight : -weight;
+    }
+
+    private static int mix(int hash) {
+        // murmur3 finalizer, so similar strings spread over the buckets
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+}
@@ -0,0 +1,223 @@
+package com.groceryshop.recommendation;
+
+import com.groceryshop.order.spi.PurchasedProduct;
+import com.groceryshop.product.ProductCategory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * What a customer has bought: the distinct product IDs in a sorted {@code long[]}, answering
+ * "already bought?" by binary search, and how many order lines fell in each category.
+ * <p>
+ * Profiles are immutable; an order {@link #with merges} into a copy. They are stored as a few
+ * bytes per product: the sorted IDs delta- and varint-encoded, and the category counts by name
+ * so adding a category does not invalidate stored profiles.
+ */
+public final class PurchaseProfile {
+
+    private static final byte FORMAT_VERSION = 1;
+    private static final ProductCategory[] CATEGORIES = ProductCategory.values();
+
+    private final long[] productIds;
+    private final long[] categoryCounts;
+    private final long lastOrderId;
+
+    private PurchaseProfile(long[] productIds, long[] categoryCounts, long lastOrderId) {
+        this.productIds = productIds;
+        this.categoryCounts = categoryCounts;
+        this.lastOrderId = lastOrderId;
+    }
+
+    public static PurchaseProfile empty() {
+        return new PurchaseProfile(new long[0], new long[CATEGORIES.length], 0);
+    }
+
+    /**
+     * Builds a profile from a customer's order history.
+     */
+    public static PurchaseProfile of(Collection<PurchasedProduct> purchases) {
+        long[] productIds = new long[purchases.size()];
+        long[] categoryCounts = new long[CATEGORIES.length];
+        long lastOrderId = 0;
+        int i = 0;
+        for (PurchasedProduct purchase : purchases) {
+            productIds[i++] = purchase.productId();
+            if (purchase.category() != null) {
+                categoryCounts[purchase.category().ordinal()] += purchase.purchases();
+            }
+            lastOrderId = Math.max(lastOrderId, purchase.lastOrderId());
+        }
+        Arrays.sort(productIds);
+        return new PurchaseProfile(distinct(productIds, productIds.length), categoryCounts, lastOrderId);
+    }
+
+    /**
+     * Returns a copy with an order's products added.
+     *
+     * @param categories the category of each product, where known
+     */
+    public PurchaseProfile with(long orderId, Collection<Long> orderProductIds, Map<Long, ProductCategory> categories) {
+        long[] merged = Arrays.copyOf(productIds, productIds.length + orderProductIds.size());
+        long[] counts = categoryCounts.clone();
+        int size = productIds.length;
+        for (Long productId : orderProductIds) {
+            merged[size++] = productId;
+            ProductCategory category = categories.get(productId);
+            if (category != null) {
+                counts[category.ordinal()]++;
+            }
+        }
+        Arrays.sort(merged);
+        return new PurchaseProfile(distinct(merged, size), counts, Math.max(lastOrderId, orderId));
+    }
+
+    public boolean hasPurchased(long productId) {
+        return Arrays.binarySearch(productIds, productId) >= 0;
+    }
+
+    /**
+     * Returns the purchased product IDs in ascending order, as a read-only view whose
+     * {@code contains} is a binary search.
+     */
+    public List<Long> productIds() {
+        return new ProductIds();
+    }
+
+    public int productCount() {
+        return productIds.length;
+    }
+
+    /**
+     * Returns the number of order lines per category, for the categories bought from.
+     */
+    public Map<ProductCategory, Long> categoryCounts() {
+        Map<ProductCategory, Long> counts = new EnumMap<>(ProductCategory.class);
+        for (int i = 0; i < categoryCounts.length; i++) {
+            if (categoryCounts[i] > 0) {
+                counts.put(CATEGORIES[i], categoryCounts[i]);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Returns the highest order ID merged into the profile, or 0 if none.
+     */
+    public long lastOrderId() {
+        return lastOrderId;
+    }
+
+    public byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 + productIds.length * 2);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            Map<ProductCategory, Long> counts = categoryCounts();
+            writeVarLong(out, counts.size());
+            for (Map.Entry<ProductCategory, Long> entry : counts.entrySet()) {
+                out.writeUTF(entry.getKey().name());
+                writeVarLong(out, entry.getValue());
+            }
+            writeVarLong(out, productIds.length);
+            long previous = 0;
+            for (long productId : productIds) {
+                writeVarLong(out, productId - previous);
+                previous = productId;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Reads a profile written by {@link #encode}. Counts of categories that no longer exist are dropped.
+     */
+    public static PurchaseProfile decode(byte[] encoded, long lastOrderId) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded))) {
+            byte version = in.readByte();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unsupported purchase profile format " + version);
+            }
+            long[] categoryCounts = new long[CATEGORIES.length];
+            long categories = readVarLong(in);
+            for (long i = 0; i < categories; i++) {
+                String name = in.readUTF();
+                long count = readVarLong(in);
+                for (ProductCategory category : CATEGORIES) {
+                    if (category.name().equals(name)) {
+                        categoryCounts[category.ordinal()] = count;
+                    }
+                }
+            }
+            long[] productIds = new long[Math.toIntExact(readVarLong(in))];
+            long previous = 0;
+            for (int i = 0; i < productIds.length; i++) {
+                previous += readVarLong(in);
+                productIds[i] = previous;
+            }
+            return new PurchaseProfile(productIds, categoryCounts, lastOrderId);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Corrupt purchase profile", e);
+        }
+    }
+
+    private static long[] distinct(long[] sorted, int size) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (kept == 0 || sorted[i] != sorted[kept - 1]) {
+                sorted[kept++] = sorted[i];
+            }
+        }
+        return kept == sorted.length ? sorted : Arrays.copyOf(sorted, kept);
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private final class ProductIds extends AbstractList<Long> implements RandomAccess {
+
+        @Override
+        public Long get(int index) {
+            return productIds[index];
+        }
+
+        @Override
+        public int size() {
+            return productIds.length;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof Long productId && hasPurchased(productId);
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.groceryshop.recommendation;
+
+import com.groceryshop.order.OrderCreatedEvent;
+import com.groceryshop.order.spi.PurchasedProduct;
+import com.groceryshop.product.Product;
+import com.groceryshop.product.ProductCategory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Customers' {@link PurchaseProfile purchase profiles}, the most recently used kept in memory and
+ * all of them stored in {@code user_purchase_profiles}.
+ * <p>
+ * A profile is read from memory, else from its stored row, else built from the customer's order
+ * history with one grouped query and stored. Orders placed afterwards are merged into the stored
+ * profile once their transaction commits, on a thread of its own, so ordering never waits on it.
+ * <p>
+ * Building and merging a customer's profile hold a per-user lock, so concurrent first requests
+ * build it once, and an order committed while the profile is being built is merged once it has
+ * been stored rather than lost. A customer without a stored profile is otherwise skipped; their
+ * history already has the order when the profile is first built. If another node stores the
+ * profile first, its row is kept.
+ * <p>
+ * Other nodes merge their orders into the same rows, so a merge starts from the stored row, not
+ * the cached copy, and writes it back under the row's version, starting over if another node
+ * changed it in between. Cached profiles only serve reads.
+ */
+public class PurchaseProfileStore implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(PurchaseProfileStore.class);
+    private static final int LOCK_STRIPES = 64;
+    private static final int MAX_MERGE_ATTEMPTS = 3;
+
+    private final UserPurchaseProfileRepository repository;
+    private final Function<Long, List<PurchasedProduct>> historyLoader;
+    private final Function<Collection<Long>, List<Product>> productLoader;
+    private final Map<Long, PurchaseProfile> cache;
+    private final Lock[] locks = new Lock[LOCK_STRIPES];
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("purchase-profiles").daemon().factory());
+
+    /**
+     * @param historyLoader returns the products a customer has bought
+     * @param productLoader returns products by ID, for the categories of newly ordered products
+     * @param maxCachedProfiles how many profiles are kept in memory
+     */
+    public PurchaseProfileStore(UserPurchaseProfileRepository repository,
+                                Function<Long, List<PurchasedProduct>> historyLoader,
+                                Function<Collection<Long>, List<Product>> productLoader, int maxCachedProfiles) {
+        this.repository = repository;
+        this.historyLoader = historyLoader;
+        this.productLoader = productLoader;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, PurchaseProfile> eldest) {
+                return size() > maxCachedProfiles;
+            }
+        };
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Returns a customer's profile, building it from their order history on first use.
+     */
+    public PurchaseProfile get(long userId) {
+        PurchaseProfile profile = cached(userId);
+        if (profile != null) {
+            return profile;
+        }
+        Lock lock = lockFor(userId);
+        lock.lock();
+        try {
+            profile = cached(userId);
+            if (profile == null) {
+                profile = stored(userId);
+                if (profile == null) {
+                    profile = build(userId);
+                }
+                cache(userId, profile);
+            }
+            return profile;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderCreated(OrderCreatedEvent event) {
+        List<Long> productIds = event.productIds();
+        if (event.customerId() == null || productIds == null || productIds.isEmpty()) {
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                merge(event.customerId(), event.orderId(), productIds);
+            } catch (RuntimeException e) {
+                log.warn("Could not add order {} to the purchase profile of user {}",
+                        event.orderId(), event.customerId(), e);
+            }
+        });
+    }
+
+    /**
+     * Adds an order to the customer's stored profile, if they have one and it lacks the order.
+     *
+     * @return true if the profile was updated
+     */
+    boolean merge(long userId, long orderId, List<Long> productIds) {
+        Lock lock = lockFor(userId);
+        lock.lock();
+        try {
+            Map<Long, ProductCategory> categories = null;
+            for (int attempt = 1; ; attempt++) {
+                UserPurchaseProfile row = repository.findById(userId).orElse(null);
+                if (row == null || orderId <= row.getLastOrderId()) {
+                    return false;
+                }
+                if (categories == null) {
+                    categories = categories(productIds);
+                }
+                PurchaseProfile updated = row.toProfile().with(orderId, productIds, categories);
+                row.update(updated);
+                try {
+                    repository.save(row);
+                    cache(userId, updated);
+                    return true;
+                } catch (OptimisticLockingFailureException e) {
+                    if (attempt == MAX_MERGE_ATTEMPTS) {
+                        throw e;
+                    }
+                    log.debug("Purchase profile of user {} changed while merging order {}, retrying", userId, orderId);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of profiles held in memory.
+     */
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    private PurchaseProfile cached(long userId) {
+        synchronized (cache) {
+            return cache.get(userId);
+        }
+    }
+
+    private void cache(long userId, PurchaseProfile profile) {
+        synchronized (cache) {
+            cache.put(userId, profile);
+        }
+    }
+
+    private Lock lockFor(long userId) {
+        return locks[Long.hashCode(userId) & (LOCK_STRIPES - 1)];
+    }
+
+    private PurchaseProfile build(long userId) {
+        PurchaseProfile profile = PurchaseProfile.of(historyLoader.apply(userId));
+        UserPurchaseProfile row = new UserPurchaseProfile(userId);
+        row.update(profile);
+        try {
+            repository.saveAndFlush(row);
+            return profile;
+        } catch (DataIntegrityViolationException e) {
+            // Another node stored it first, and may already have merged orders into it
+            PurchaseProfile stored = stored(userId);
+            if (stored == null) {
+                throw e;
+            }
+            return stored;
+        }
+    }
+
+    private PurchaseProfile stored(long userId) {
+        return repository.findById(userId).map(UserPurchaseProfile::toProfile).orElse(null);
+    }
+
+    private Map<Long, ProductCategory> categories(List<Long> productIds) {
+        Map<Long, ProductCategory> categories = new HashMap<>();
+        for (Product product : productLoader.apply(productIds)) {
+            categories.put(product.getId(), product.getCategory());
+        }
+        return categories;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,221 @@
+package com.groceryshop.recommendation;
+
+import com.groceryshop.product.Product;
+import com.groceryshop.shared.event.DomainEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Computed recommendations per user, strategy and limit, so repeat requests are answered from
+ * memory instead of recomputed on the request thread.
+ * <p>
+ * A result is served for up to {@code ttl}. Once older than {@code refreshAfter} it is still
+ * served, and recomputed in the background, so an active user rarely waits for a computation.
+ * A user's results are dropped when their cart changes or they place an order, once the change
+ * commits; a computation that was running at the time is discarded rather than cached.
+ * <p>
+ * Past {@code maxUsers}, the less recently active half of the users is dropped.
+ */
+public class RecommendationCache implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(RecommendationCache.class);
+
+    // Results kept per user; more only happens when a client walks through many limits
+    private static final int MAX_RESULTS_PER_USER = 8;
+
+    /**
+     * The user-specific recommendations that are cached.
+     */
+    public enum Strategy {
+        PERSONALIZED,
+        CART_BASED
+    }
+
+    private final Map<Long, UserResults> users = new ConcurrentHashMap<>();
+    private final int maxUsers;
+    private final long ttlNanos;
+    private final long refreshAfterNanos;
+    private final ThreadPoolExecutor executor;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maxUsers how many users' results to keep
+     * @param ttl how long a result is served at all
+     * @param refreshAfter how old a result gets before it is recomputed in the background
+     * @param refreshThreads threads recomputing results
+     */
+    public RecommendationCache(int maxUsers, Duration ttl, Duration refreshAfter, int refreshThreads) {
+        if (refreshAfter.compareTo(ttl) > 0) {
+            throw new IllegalArgumentException("Recommendation refresh-after must not exceed the TTL");
+        }
+        this.maxUsers = maxUsers;
+        this.ttlNanos = ttl.toNanos();
+        this.refreshAfterNanos = refreshAfter.toNanos();
+        this.executor = new ThreadPoolExecutor(refreshThreads, refreshThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(maxUsers / 10, 100)),
+                Thread.ofPlatform().name("recommendation-refresh-", 0).daemon().factory());
+    }
+
+    /**
+     * Returns the cached result, computing it with {@code loader} on a miss.
+     */
+    public List<Product> get(long userId, Strategy strategy, int limit, Supplier<List<Product>> loader) {
+        UserResults results = users.get(userId);
+        if (results == null) {
+            makeRoom();
+            results = users.computeIfAbsent(userId, id -> new UserResults());
+        }
+        long now = System.nanoTime();
+        results.lastAccessNanos = now;
+        Key key = new Key(strategy, limit);
+        Result cached = results.byKey.get(key);
+        if (cached != null) {
+            long age = now - cached.computedNanos();
+            if (age < ttlNanos) {
+                hits.increment();
+                if (age >= refreshAfterNanos) {
+                    staleHits.increment();
+                    refresh(results, key, cached, loader);
+                }
+                return cached.products();
+            }
+        }
+        misses.increment();
+        List<Product> products = List.copyOf(loader.get());
+        results.put(key, new Result(products, System.nanoTime()));
+        return products;
+    }
+
+    /**
+     * Drops a user's results.
+     */
+    public void invalidate(long userId) {
+        if (users.remove(userId) != null) {
+            invalidations.increment();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDomainEvent(DomainEvent event) {
+        // Cart contents and purchase history are what the cached strategies depend on
+        String type = event.aggregateType();
+        if (event.customerId() != null && ("cart".equals(type) || "order".equals(type))) {
+            invalidate(event.customerId());
+        }
+    }
+
+    private void refresh(UserResults results, Key key, Result stale, Supplier<List<Product>> loader) {
+        if (!stale.refreshing().compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    // If the user was invalidated meanwhile, this lands in a detached map and is dropped
+                    results.put(key, new Result(List.copyOf(loader.get()), System.nanoTime()));
+                    refreshes.increment();
+                } catch (RuntimeException e) {
+                    stale.refreshing().set(false);
+                    log.warn("Could not refresh {} recommendations", key.strategy(), e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Refresh queue full: the stale result is served until it expires or a later hit retries
+            stale.refreshing().set(false);
+        }
+    }
+
+    private void makeRoom() {
+        if (users.size() < maxUsers) {
+            return;
+        }
+        synchronized (this) {
+            if (users.size() < maxUsers) {
+                return;
+            }
+            long[] accessed = users.values().stream().mapToLong(results -> results.lastAccessNanos).toArray();
+            Arrays.sort(accessed);
+            long cutoff = accessed[accessed.length / 2];
+            int before = users.size();
+            users.values().removeIf(results -> results.lastAccessNanos - cutoff <= 0);
+            evictions.add(Math.max(0, before - users.size()));
+        }
+    }
+
+    public int size() {
+        return users.size();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of hits served while a newer result was being computed.
+     */
+    public long getStaleHitCount() {
+        return staleHits.sum();
+    }
+
+    public long getRefreshCount() {
+        return refreshes.sum();
+    }
+
+    public long getInvalidationCount() {
+        return invalidations.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private record Key(Strategy strategy, int limit) {
+    }
+
+    private record Result(List<Product> products, long computedNanos, AtomicBoolean refreshing) {
+        Result(List<Product> products, long computedNanos) {
+            this(products, computedNanos, new AtomicBoolean());
+        }
+    }
+
+    private static final class UserResults {
+        private final Map<Key, Result> byKey = new ConcurrentHashMap<>(4);
+        private volatile long lastAccessNanos = System.nanoTime();
+
+        void put(Key key, Result result) {
+            if (byKey.size() >= MAX_RESULTS_PER_USER && !byKey.containsKey(key)) {
+                byKey.clear();
+            }
+            byKey.put(key, result);
+        }
+    }
+}
@@ -37,7 +37,7 @@ public class RecommendationController {
             @RequestParam(defaultValue = "10") int limit) {
 
         Long userId = getUserIdFromAuthentication(authentication);
-        List<Product> recommendations = recommendationService.getPersonalizedRecommendations(userId, limit);
+        List<Product> recommendations = recommendationService.getPersonalizedRecommendations(userId, checkLimit(limit));
 
         List<ProductResponse> response = recommendations.stream()
                 .map(this::convertToProductResponse)
@@ -55,7 +55,7 @@ public class RecommendationController {
             @RequestParam(defaultValue = "10") int limit) {
 
         Long userId = getUserIdFromAuthentication(authentication);
-        List<Product> recommendations = recommendationService.getCartBasedRecommendations(userId, limit);
+        List<Product> recommendations = recommendationService.getCartBasedRecommendations(userId, checkLimit(limit));
 
         List<ProductResponse> response = recommendations.stream()
                 .map(this::convertToProductResponse)
@@ -72,7 +72,7 @@ public class RecommendationController {
             @Parameter(description = "Maximum number of recommendations to return")
             @RequestParam(defaultValue = "10") int limit) {
 
-        List<Product> recommendations = recommendationService.getCategoryRecommendations(category, limit);
+        List<Product> recommendations = recommendationService.getCategoryRecommendations(category, checkLimit(limit));
 
         List<ProductResponse> response = recommendations.stream()
                 .map(this::convertToProductResponse)
@@ -87,7 +87,7 @@ public class RecommendationController {
             @Parameter(description = "Maximum number of recommendations to return")
             @RequestParam(defaultValue = "10") int limit) {
 
-        List<Product> recommendations = recommendationService.getPopularProducts(limit);
+        List<Product> recommendations = recommendationService.getPopularProducts(checkLimit(limit));
 
         List<ProductResponse> response = recommendations.stream()
                 .map(this::convertToProductResponse)
@@ -104,7 +104,24 @@ public class RecommendationController {
             @Parameter(description = "Maximum number of recommendations to return")
             @RequestParam(defaultValue = "5") int limit) {
 
-        List<Product> recommendations = recommendationService.getFrequentlyBoughtTogether(productId, limit);
+        List<Product> recommendations = recommendationService.getFrequentlyBoughtTogether(productId, checkLimit(limit));
+
+        List<ProductResponse> response = recommendations.stream()
+                .map(this::convertToProductResponse)
+                .collect(Collectors.toList());
+
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/similar/{productId}")
+    @Operation(summary = "Get products similar in content to the specified product")
+    public ResponseEntity<List<ProductResponse>> getSimilarProducts(
+            @Parameter(description = "Product ID to find similar products for")
+            @PathVariable Long productId,
+            @Parameter(description = "Maximum number of recommendations to return")
+            @RequestParam(defaultValue = "5") int limit) {
+
+        List<Product> recommendations = recommendationService.getSimilarProducts(productId, checkLimit(limit));
 
         List<ProductResponse> response = recommendations.stream()
                 .map(this::convertToProductResponse)
@@ -122,7 +139,7 @@ public class RecommendationController {
             @RequestParam(defaultValue = "10") int limit) {
 
         Long userId = getUserIdFromAuthentication(authentication);
-        List<Product> recommendations = recommendationService.getUserPreferredCategoriesRecommendations(userId, limit);
+        List<Product> recommendations = recommendationService.getUserPreferredCategoriesRecommendations(userId, checkLimit(limit));
 
         List<ProductResponse> response = recommendations.stream()
                 .map(this::convertToProductResponse)
@@ -131,6 +148,13 @@ public class RecommendationController {
         return ResponseEntity.ok(response);
     }
 
+    private static int checkLimit(int limit) {
+        if (limit < 1 || limit > RecommendationService.MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + RecommendationService.MAX_LIMIT);
+        }
+        return limit;
+    }
+
     private Long getUserIdFromAuthentication(Authentication authentication) {
         // Extract user ID from authentication - this would depend on your UserDetails implementation
         // For now, assuming the principal is a User entity or contains user ID
@@ -10,6 +10,11 @@ import java.util.List;
  */
 public interface RecommendationService {
 
+    /**
+     * Most recommendations a client may ask for at once.
+     */
+    int MAX_LIMIT = 100;
+
     /**
      * Get personalized recommendations for a user based on their purchase history.
      */
@@ -35,6 +40,11 @@ public interface RecommendationService {
      */
     List<Product> getFrequentlyBoughtTogether(Long productId, int limit);
 
+    /**
+     * Get products similar in name, description, category and price to the given product.
+     */
+    List<Product> getSimilarProducts(Long productId, int limit);
+
     /**
      * Get recommendations based on user's preferred categories.
      */
@@ -18,15 +18,36 @@ import java.util.stream.Collectors;
 public class RecommendationServiceImpl implements RecommendationService {
 
     private final RecommendationServiceProvider recommendationServiceProvider;
-
-    public RecommendationServiceImpl(RecommendationServiceProvider recommendationServiceProvider) {
+    private final ProductLookup productLookup;
+    private final PopularityCounters popularityCounters;
+    private final RecommendationCache recommendationCache;
+    private final ItemSimilarityIndex itemSimilarityIndex;
+    private final ProductSimilarityIndex productSimilarityIndex;
+    private final CartComplementEngine cartComplementEngine;
+
+    public RecommendationServiceImpl(RecommendationServiceProvider recommendationServiceProvider,
+                                     ProductLookup productLookup, PopularityCounters popularityCounters,
+                                     RecommendationCache recommendationCache, ItemSimilarityIndex itemSimilarityIndex,
+                                     ProductSimilarityIndex productSimilarityIndex,
+                                     CartComplementEngine cartComplementEngine) {
         this.recommendationServiceProvider = recommendationServiceProvider;
+        this.productLookup = productLookup;
+        this.popularityCounters = popularityCounters;
+        this.recommendationCache = recommendationCache;
+        this.itemSimilarityIndex = itemSimilarityIndex;
+        this.productSimilarityIndex = productSimilarityIndex;
+        this.cartComplementEngine = cartComplementEngine;
     }
 
     @Override
     public List<Product> getPersonalizedRecommendations(Long userId, int limit) {
+        return recommendationCache.get(userId, RecommendationCache.Strategy.PERSONALIZED, limit,
+                () -> computePersonalizedRecommendations(userId, limit));
+    }
+
+    private List<Product> computePersonalizedRecommendations(Long userId, int limit) {
         // Get a user's purchase history
-        List<Long> purchasedProductIds = recommendationServiceProvider.getUserPurchasedProductIds(userId);
+        Set<Long> purchasedProductIds = new HashSet<>(recommendationServiceProvider.getUserPurchasedProductIds(userId));
 
         if (purchasedProductIds.isEmpty()) {
             // New user - return popular products
@@ -43,12 +64,16 @@ public class RecommendationServiceImpl implements RecommendationService {
                 .map(Map.Entry::getKey)
                 .toList();
 
-        List<Product> recommendations = new ArrayList<>();
+        // Products similar to what the user bought, by the offline collaborative filtering job, come first
+        List<Product> recommendations = getProducts(limit, itemSimilarityIndex.recommend(purchasedProductIds));
+        Set<Long> included = recommendations.stream().map(Product::getId).collect(Collectors.toSet());
         for (ProductCategory category : preferredCategories) {
+            if (recommendations.size() >= limit) break;
             List<Product> categoryProducts = recommendationServiceProvider
                     .findProductsByCategoryAndStatus(category, ProductStatus.ACTIVE)
                     .stream()
                     .filter(product -> !purchasedProductIds.contains(product.getId()))
+                    .filter(product -> !included.contains(product.getId()))
                     .filter(Product::isInStock)
                     .toList();
 
@@ -71,6 +96,11 @@ public class RecommendationServiceImpl implements RecommendationService {
 
     @Override
     public List<Product> getCartBasedRecommendations(Long userId, int limit) {
+        return recommendationCache.get(userId, RecommendationCache.Strategy.CART_BASED, limit,
+                () -> computeCartBasedRecommendations(userId, limit));
+    }
+
+    private List<Product> computeCartBasedRecommendations(Long userId, int limit) {
         // Get current cart items
         List<Long> cartProductIds = recommendationServiceProvider.getUserCartProductIds(userId);
 
@@ -81,59 +111,77 @@ public class RecommendationServiceImpl implements RecommendationService {
         // Get categories from cart items
         List<ProductCategory> cartCategories = recommendationServiceProvider.getUserCartCategories(userId);
 
-        // Recommend complementary products from different categories
-        List<Product> recommendations = new ArrayList<>();
-        for (ProductCategory category : ProductCategory.values()) {
-            if (!cartCategories.contains(category)) {
-                List<Product> categoryProducts = recommendationServiceProvider
-                        .findProductsByCategoryAndStatus(category, ProductStatus.ACTIVE)
-                        .stream()
-                        .filter(Product::isInStock)
-                        .limit(limit / 2) // Distribute recommendations across categories
-                        .toList();
-                recommendations.addAll(categoryProducts);
-            }
-        }
-
-        return recommendations.stream().limit(limit).collect(Collectors.toList());
+        // Products bought with the cart lines and top products of the categories it lacks; ask for
+        // more than needed, as some of the co-purchased ones are inactive or out of stock
+        return getProducts(limit, cartComplementEngine.rank(cartProductIds, cartCategories, candidates(limit, 2)));
     }
 
     @Override
     public List<Product> getCategoryRecommendations(ProductCategory category, int limit) {
-        return recommendationServiceProvider
-                .findProductsByCategoryAndStatus(category, ProductStatus.ACTIVE)
-                .stream()
-                .filter(Product::isInStock)
-                .limit(limit)
-                .collect(Collectors.toList());
+        // Most popular in the category first, then any other in-stock products of it
+        List<Product> recommendations = getProducts(limit, popularityCounters.top(category, Integer.MAX_VALUE));
+        if (recommendations.size() < limit) {
+            Set<Long> included = recommendations.stream().map(Product::getId).collect(Collectors.toSet());
+            recommendationServiceProvider
+                    .findProductsByCategoryAndStatus(category, ProductStatus.ACTIVE)
+                    .stream()
+                    .filter(Product::isInStock)
+                    .filter(product -> !included.contains(product.getId()))
+                    .limit(limit - recommendations.size())
+                    .forEach(recommendations::add);
+        }
+        return recommendations;
     }
 
     @Override
     public List<Product> getPopularProducts(int limit) {
-        // Get popular products based on purchase counts
-        Map<Long, Long> productPurchaseCounts = recommendationServiceProvider.getPopularProductCounts();
-
-        return getProducts(limit, productPurchaseCounts);
+        // Ranked by time-decayed purchase counts, republished in the background
+        return getProducts(limit, popularityCounters.top(Integer.MAX_VALUE));
     }
 
     @NotNull
-    private List<Product> getProducts(int limit, Map<Long, Long> productPurchaseCounts) {
-        return productPurchaseCounts.entrySet()
+    private List<Product> getProducts(int limit, Map<Long, Long> productCounts) {
+        long[] rankedIds = productCounts.entrySet()
                 .stream()
                 .sorted(Map.Entry.<Long, Long>comparingByValue().reversed())
-                .map(entry -> {
-                    // Find product by ID from all products
-                    return recommendationServiceProvider.findAllProducts(0, Integer.MAX_VALUE)
-                            .stream()
-                            .filter(product -> product.getId().equals(entry.getKey()))
-                            .findFirst()
-                            .orElse(null);
-                })
-                .filter(Objects::nonNull)
-                .filter(product -> product.getStatus() == ProductStatus.ACTIVE)
-                .filter(Product::isInStock)
-                .limit(limit)
-                .collect(Collectors.toList());
+                .mapToLong(Map.Entry::getKey)
+                .toArray();
+        return getProducts(limit, rankedIds);
+    }
+
+    /**
+     * Returns the active, in-stock products among the ranked IDs, in rank order. Products are
+     * looked up a few at a time, by ID, until enough are found.
+     */
+    @NotNull
+    private List<Product> getProducts(int limit, long[] rankedIds) {
+        List<Product> products = new ArrayList<>(Math.max(0, Math.min(limit, rankedIds.length)));
+        // Ask for more than needed, as some candidates are inactive or out of stock
+        int chunkSize = candidates(limit, 2);
+        for (int from = 0; from < rankedIds.length && products.size() < limit; from += chunkSize) {
+            List<Long> chunk = Arrays.stream(rankedIds, from, Math.min(rankedIds.length, from + chunkSize))
+                    .boxed()
+                    .toList();
+            Map<Long, Product> found = productLookup.getAll(chunk);
+            for (Long productId : chunk) {
+                Product product = found.get(productId);
+                if (product != null && product.getStatus() == ProductStatus.ACTIVE && product.isInStock()) {
+                    products.add(product);
+                    if (products.size() == limit) {
+                        break;
+                    }
+                }
+            }
+        }
+        return products;
+    }
+
+    /**
+     * Returns how many candidates to consider for the limit; the limit is capped first so the
+     * product cannot overflow.
+     */
+    private static int candidates(int limit, int perResult) {
+        return Math.min(Math.max(limit, 1), MAX_LIMIT) * perResult;
     }
 
     @Override
@@ -148,6 +196,12 @@ public class RecommendationServiceImpl implements RecommendationService {
         return getProducts(limit, coPurchaseCounts);
     }
 
+    @Override
+    public List<Product> getSimilarProducts(Long productId, int limit) {
+        // Ask for more than needed, as some of the closest are inactive or out of stock
+        return getProducts(limit, productSimilarityIndex.similar(productId, candidates(limit, 4)));
+    }
+
     @Override
     public List<Product> getUserPreferredCategoriesRecommendations(Long userId, int limit) {
         // This is essentially the same as personalized recommendations
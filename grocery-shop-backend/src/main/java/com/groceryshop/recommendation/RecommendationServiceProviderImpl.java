@@ -2,7 +2,9 @@ package com.groceryshop.recommendation;
 
 import com.groceryshop.cart.CartItem;
 import com.groceryshop.cart.spi.CartServiceProvider;
+import com.groceryshop.order.spi.OrderProducts;
 import com.groceryshop.order.spi.OrderServiceProvider;
+import com.groceryshop.order.spi.PurchaseVisitor;
 import com.groceryshop.product.Product;
 import com.groceryshop.product.ProductCategory;
 import com.groceryshop.product.ProductStatus;
@@ -10,6 +12,7 @@ import com.groceryshop.product.spi.ProductServiceProvider;
 import com.groceryshop.recommendation.spi.RecommendationServiceProvider;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -22,12 +25,21 @@ public class RecommendationServiceProviderImpl implements RecommendationServiceP
 
     private final ProductServiceProvider productServiceProvider;
     private final CartServiceProvider cartServiceProvider;
+    private final OrderServiceProvider orderServiceProvider;
+    private final CoPurchaseMatrix coPurchaseMatrix;
+    private final PurchaseProfileStore purchaseProfileStore;
 
     public RecommendationServiceProviderImpl(
             ProductServiceProvider productServiceProvider,
-            CartServiceProvider cartServiceProvider) {
+            CartServiceProvider cartServiceProvider,
+            OrderServiceProvider orderServiceProvider,
+            CoPurchaseMatrix coPurchaseMatrix,
+            PurchaseProfileStore purchaseProfileStore) {
         this.productServiceProvider = productServiceProvider;
         this.cartServiceProvider = cartServiceProvider;
+        this.orderServiceProvider = orderServiceProvider;
+        this.coPurchaseMatrix = coPurchaseMatrix;
+        this.purchaseProfileStore = purchaseProfileStore;
     }
 
     @Override
@@ -35,40 +47,29 @@ public class RecommendationServiceProviderImpl implements RecommendationServiceP
         return productServiceProvider.findAllProducts(page, size);
     }
 
+    @Override
+    public List<Product> findProductsByIds(Collection<Long> productIds) {
+        return productServiceProvider.findProductsByIds(productIds);
+    }
+
     @Override
     public List<Product> findProductsByCategoryAndStatus(ProductCategory category, ProductStatus status) {
-        // This method doesn't exist in ProductServiceProvider, so we need to get all products and filter
-        // In a real implementation, we might need to extend the ProductServiceProvider
-        List<Product> allProducts = productServiceProvider.findAllProducts(0, Integer.MAX_VALUE);
-        return allProducts.stream()
-                .filter(product -> product.getCategory() == category && product.getStatus() == status)
-                .collect(Collectors.toList());
+        return productServiceProvider.findProductsByCategoryAndStatus(category, status);
     }
 
     @Override
     public List<Product> findProductsByStatus(ProductStatus status) {
-        // This method doesn't exist in ProductServiceProvider, so we need to get all products and filter
-        List<Product> allProducts = productServiceProvider.findAllProducts(0, Integer.MAX_VALUE);
-        return allProducts.stream()
-                .filter(product -> product.getStatus() == status)
-                .collect(Collectors.toList());
+        return productServiceProvider.findProductsByStatus(status);
     }
 
     @Override
     public List<Long> getUserPurchasedProductIds(Long userId) {
-        // We need to get orders for this user and extract product IDs
-        // Since OrderServiceProvider doesn't have this method, we need to work with what we have
-        // This is a limitation - we might need to extend the SPI interfaces
-
-        // For now, we'll return an empty list as we can't access order items through SPI
-        // In a real implementation, we'd need to extend OrderServiceProvider
-        return Collections.emptyList();
+        return purchaseProfileStore.get(userId).productIds();
     }
 
     @Override
     public Map<ProductCategory, Long> getUserCategoryPreferences(Long userId) {
-        // Similar issue - we can't access order items through SPI
-        return Collections.emptyMap();
+        return purchaseProfileStore.get(userId).categoryCounts();
     }
 
     @Override
@@ -100,15 +101,21 @@ public class RecommendationServiceProviderImpl implements RecommendationServiceP
 
     @Override
     public Map<Long, Long> getFrequentlyBoughtTogetherProductCounts(Long productId) {
-        // This is complex and would require extending the SPI interfaces significantly
-        // For now, return an empty map
-        return Collections.emptyMap();
+        return coPurchaseMatrix.neighbours(productId, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<OrderProducts> findOrderProductsAfter(long afterOrderId, int maxOrders) {
+        return orderServiceProvider.findOrderProductsAfter(afterOrderId, maxOrders);
+    }
+
+    @Override
+    public long findLastOrderIdBefore(LocalDateTime date) {
+        return orderServiceProvider.findLastOrderIdBefore(date);
     }
 
     @Override
-    public Map<Long, Long> getPopularProductCounts() {
-        // This would require extending ProductServiceProvider or OrderServiceProvider
-        // For now, return an empty map
-        return Collections.emptyMap();
+    public void forEachPurchase(PurchaseVisitor visitor) {
+        orderServiceProvider.forEachPurchase(visitor);
     }
 }
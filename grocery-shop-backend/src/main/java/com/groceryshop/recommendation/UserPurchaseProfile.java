@@ -0,0 +1,61 @@
+package com.groceryshop.recommendation;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A customer's stored {@link PurchaseProfile}, so it is not rebuilt from the order history
+ * after a restart or once it falls out of the in-memory cache.
+ */
+@Entity
+@Table(name = "user_purchase_profiles")
+public class UserPurchaseProfile {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false)
+    private byte[] profile;
+
+    @Column(name = "last_order_id", nullable = false)
+    private Long lastOrderId;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Version
+    private Long version;
+
+    // Constructors
+    public UserPurchaseProfile() {}
+
+    public UserPurchaseProfile(Long userId) {
+        this.userId = userId;
+    }
+
+    // Business methods
+    public PurchaseProfile toProfile() {
+        return PurchaseProfile.decode(profile, lastOrderId);
+    }
+
+    public void update(PurchaseProfile purchaseProfile) {
+        this.profile = purchaseProfile.encode();
+        this.lastOrderId = purchaseProfile.lastOrderId();
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    // Getters
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Long getLastOrderId() {
+        return lastOrderId;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
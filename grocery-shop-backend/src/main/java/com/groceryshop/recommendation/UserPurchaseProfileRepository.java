@@ -0,0 +1,8 @@
+package com.groceryshop.recommendation;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UserPurchaseProfileRepository extends JpaRepository<UserPurchaseProfile, Long> {
+}
@@ -1,9 +1,13 @@
 package com.groceryshop.recommendation.spi;
 
+import com.groceryshop.order.spi.OrderProducts;
+import com.groceryshop.order.spi.PurchaseVisitor;
 import com.groceryshop.product.Product;
 import com.groceryshop.product.ProductCategory;
 import com.groceryshop.product.ProductStatus;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -18,6 +22,11 @@ public interface RecommendationServiceProvider {
      */
     List<Product> findAllProducts(int page, int size);
 
+    /**
+     * Finds products by their IDs; IDs without a product are skipped.
+     */
+    List<Product> findProductsByIds(Collection<Long> productIds);
+
     /**
      * Finds products by category and status.
      */
@@ -29,12 +38,12 @@ public interface RecommendationServiceProvider {
     List<Product> findProductsByStatus(ProductStatus status);
 
     /**
-     * Gets user purchase history (product IDs).
+     * Gets the distinct IDs of the products a user has bought, in ascending order.
      */
     List<Long> getUserPurchasedProductIds(Long userId);
 
     /**
-     * Gets user category purchase preferences.
+     * Gets the number of products a user has bought per category.
      */
     Map<ProductCategory, Long> getUserCategoryPreferences(Long userId);
 
@@ -54,7 +63,17 @@ public interface RecommendationServiceProvider {
     Map<Long, Long> getFrequentlyBoughtTogetherProductCounts(Long productId);
 
     /**
-     * Gets popular products based on purchase counts.
+     * Gets the products of the orders placed after a given order, oldest order first.
+     */
+    List<OrderProducts> findOrderProductsAfter(long afterOrderId, int maxOrders);
+
+    /**
+     * Finds the highest ID of the orders placed before a date, or 0 if there are none.
+     */
+    long findLastOrderIdBefore(LocalDateTime date);
+
+    /**
+     * Streams every purchase, as customer and product, to the visitor.
      */
-    Map<Long, Long> getPopularProductCounts();
+    void forEachPurchase(PurchaseVisitor visitor);
 }
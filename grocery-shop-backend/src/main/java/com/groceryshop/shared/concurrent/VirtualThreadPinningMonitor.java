@@ -0,0 +1,89 @@
+package com.groceryshop.shared.concurrent;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Streams JFR {@code jdk.VirtualThreadPinned} events into a timer, so that virtual threads
+ * blocking while pinned to their carrier (native frames, class initialisation, and on older
+ * JDKs {@code synchronized} blocks) show up in metrics instead of only as lost throughput.
+ * <p>
+ * The first time a pinning site is seen its top frame is logged, once per site.
+ */
+public class VirtualThreadPinningMonitor implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int MAX_LOGGED_SITES = 1_000;
+
+    private final Timer pinned;
+    private final Duration threshold;
+    private final Set<String> loggedSites = ConcurrentHashMap.newKeySet();
+
+    private RecordingStream stream;
+    private volatile boolean running;
+
+    /**
+     * @param threshold pinned periods shorter than this are not recorded
+     */
+    public VirtualThreadPinningMonitor(MeterRegistry registry, Duration threshold) {
+        this.threshold = threshold;
+        this.pinned = Timer.builder("grocery.virtual-threads.pinned")
+                .description("Time virtual threads spent blocked while pinned to a carrier thread")
+                .register(registry);
+    }
+
+    @Override
+    public void start() {
+        try {
+            stream = new RecordingStream();
+            stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+            stream.onEvent(PINNED_EVENT, this::record);
+            stream.startAsync();
+            running = true;
+        } catch (RuntimeException e) {
+            // JFR may be unavailable (e.g. disabled in the runtime image); the app runs without the metric
+            log.warn("Virtual thread pinning detection is unavailable: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    void record(RecordedEvent event) {
+        pinned.record(event.getDuration());
+        if (event.getStackTrace() == null || event.getStackTrace().getFrames().isEmpty()) {
+            return;
+        }
+        String site = describe(event.getStackTrace().getFrames().getFirst());
+        if (loggedSites.size() < MAX_LOGGED_SITES && loggedSites.add(site)) {
+            log.warn("Virtual thread pinned for {} ms at {}", event.getDuration().toMillis(), site);
+        }
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                + ":" + frame.getLineNumber();
+    }
+}
@@ -2,6 +2,7 @@ package com.groceryshop.shared.dto.request;
 
 import com.groceryshop.product.ProductCategory;
 import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -26,5 +27,15 @@ public record CreateProductRequest(
     ProductCategory category,
 
     @NotNull(message = "Stock quantity is required")
-    Integer stockQuantity
-) {}
+    Integer stockQuantity,
+
+    // Defaults to the category's threshold
+    @Min(value = 0, message = "Low-stock threshold cannot be negative")
+    Integer lowStockThreshold
+) {
+
+    public CreateProductRequest(String name, String description, BigDecimal price, String imageUrl,
+                                ProductCategory category, Integer stockQuantity) {
+        this(name, description, price, imageUrl, category, stockQuantity, null);
+    }
+}
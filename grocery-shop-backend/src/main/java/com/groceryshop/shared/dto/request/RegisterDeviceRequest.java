@@ -0,0 +1,13 @@
+package com.groceryshop.shared.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+public record RegisterDeviceRequest(
+    @NotBlank(message = "Device token is required")
+    @Size(max = 512, message = "Device token must be at most 512 characters")
+    String token,
+
+    @NotBlank(message = "Platform is required")
+    String platform
+) {}
@@ -3,6 +3,7 @@ package com.groceryshop.shared.dto.request;
 import com.groceryshop.product.ProductCategory;
 import com.groceryshop.product.ProductStatus;
 import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Size;
 
 import java.math.BigDecimal;
@@ -23,5 +24,14 @@ public record UpdateProductRequest(
 
     ProductStatus status,
 
-    Integer stockQuantity
-) {}
+    Integer stockQuantity,
+
+    @Min(value = 0, message = "Low-stock threshold cannot be negative")
+    Integer lowStockThreshold
+) {
+
+    public UpdateProductRequest(String name, String description, BigDecimal price, String imageUrl,
+                                ProductCategory category, ProductStatus status, Integer stockQuantity) {
+        this(name, description, price, imageUrl, category, status, stockQuantity, null);
+    }
+}
@@ -0,0 +1,26 @@
+package com.groceryshop.shared.event;
+
+/**
+ * Marker for events published by the domain modules.
+ * Identifies the aggregate an event belongs to so that it can be wrapped in an
+ * {@link EventEnvelope} and ordered per aggregate by consumers.
+ */
+public interface DomainEvent {
+
+    /**
+     * The kind of aggregate the event belongs to, e.g. {@code "order"}.
+     */
+    String aggregateType();
+
+    /**
+     * The identifier of the aggregate the event belongs to.
+     */
+    Long aggregateId();
+
+    /**
+     * The customer the event concerns, or null if it is not customer-specific.
+     */
+    default Long customerId() {
+        return null;
+    }
+}
@@ -0,0 +1,74 @@
+package com.groceryshop.shared.event;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versioned wrapper carried by every domain event that leaves its module.
+ * Holds everything a consumer needs to route and order the event without looking
+ * anything up: the aggregate, the customer it concerns and a sequence number.
+ * <p>
+ * Sequence numbers come from a per-node hybrid clock (microseconds since the epoch,
+ * bumped by one when two events share a tick), so they are strictly increasing for
+ * events created on the same node. They are not a per-aggregate version: across nodes
+ * they follow each node's wall clock, and with clock skew a newer event from one node
+ * can carry a lower sequence than an older one from another. Each envelope therefore
+ * names its {@code origin}, and sequences are only comparable between envelopes of the
+ * same origin.
+ *
+ * @param version the envelope format version
+ * @param eventId unique identifier of this event, usable for de-duplication
+ * @param eventType the payload type name
+ * @param aggregateType the kind of aggregate the event belongs to
+ * @param aggregateId the aggregate the event belongs to
+ * @param customerId the customer the event concerns, or null
+ * @param occurredAt when the event was created
+ * @param origin the node (application instance) that created the event
+ * @param sequence ordering key, increasing for the events of one origin
+ * @param payload the domain event
+ * @param <T> the domain event type
+ */
+public record EventEnvelope<T extends DomainEvent>(
+    int version,
+    UUID eventId,
+    String eventType,
+    String aggregateType,
+    Long aggregateId,
+    Long customerId,
+    Instant occurredAt,
+    String origin,
+    long sequence,
+    @JsonTypeInfo(use = JsonTypeInfo.Id.CLASS, property = "@type")
+    T payload
+) {
+
+    public static final int CURRENT_VERSION = 1;
+
+    private static final String ORIGIN = UUID.randomUUID().toString();
+    private static final AtomicLong CLOCK = new AtomicLong();
+
+    /**
+     * Wraps a domain event, stamping it with a new id, the current time, this node's origin and
+     * its next sequence number.
+     */
+    public static <T extends DomainEvent> EventEnvelope<T> of(T payload) {
+        Instant now = Instant.now();
+        long nowMicros = now.getEpochSecond() * 1_000_000L + now.getNano() / 1_000;
+        long sequence = CLOCK.accumulateAndGet(nowMicros, (previous, tick) -> Math.max(previous + 1, tick));
+        return new EventEnvelope<>(
+            CURRENT_VERSION,
+            UUID.randomUUID(),
+            payload.getClass().getSimpleName(),
+            payload.aggregateType(),
+            payload.aggregateId(),
+            payload.customerId(),
+            now,
+            ORIGIN,
+            sequence,
+            payload
+        );
+    }
+}
@@ -0,0 +1,61 @@
+package com.groceryshop.shared.event;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Drops events that are older than, or duplicates of, the last event accepted for
+ * the same aggregate. Remembers the last sequence number of the most recently seen
+ * aggregates only, so memory stays bounded; an aggregate that has been evicted is
+ * treated as new.
+ * <p>
+ * Sequence numbers only order the events of one node (see {@link EventEnvelope}), so the
+ * filter only drops an event against one from the same origin. An event from another node
+ * than the last one accepted for its aggregate is always accepted, even if it is in fact
+ * older: with clock skew between nodes its sequence says nothing about which came first, and
+ * dropping a newer event would be worse than processing an older one. Ordering is therefore
+ * only guaranteed while an aggregate's events are raised on a single node.
+ * <p>
+ * Use one filter per event stream whose ordering matters (for example order status updates).
+ */
+public class StaleEventFilter {
+
+    private static final int DEFAULT_CAPACITY = 10_000;
+
+    private final Map<Long, Last> lastSeen;
+
+    public StaleEventFilter() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public StaleEventFilter(int capacity) {
+        this.lastSeen = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Last> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Records the envelope's sequence number unless it is no newer than the last one seen for
+     * its aggregate from the same origin.
+     *
+     * @return true if the event should be processed, false if it is stale or a duplicate
+     */
+    public synchronized boolean accept(EventEnvelope<?> envelope) {
+        if (envelope.aggregateId() == null) {
+            return true;
+        }
+        Last last = lastSeen.get(envelope.aggregateId());
+        if (last != null && Objects.equals(last.origin(), envelope.origin()) && envelope.sequence() <= last.sequence()) {
+            return false;
+        }
+        lastSeen.put(envelope.aggregateId(), new Last(envelope.origin(), envelope.sequence()));
+        return true;
+    }
+
+    private record Last(String origin, long sequence) {
+    }
+}
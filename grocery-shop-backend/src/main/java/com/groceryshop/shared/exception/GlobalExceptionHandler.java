@@ -177,6 +177,26 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, status);
     }
 
+    /**
+     * Handle too many streaming connections exceptions
+     */
+    @ExceptionHandler(TooManyConnectionsException.class)
+    public ResponseEntity<ErrorResponse> handleTooManyConnectionsException(
+            TooManyConnectionsException ex, WebRequest request) {
+
+        logger.warn("Connection limit reached: {}", ex.getMessage());
+
+        ErrorResponse errorResponse = new ErrorResponse(
+            HttpStatus.TOO_MANY_REQUESTS.value(),
+            "Too Many Connections",
+            ex.getMessage(),
+            LocalDateTime.now(),
+            request.getDescription(false).replace("uri=", "")
+        );
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.TOO_MANY_REQUESTS);
+    }
+
     /**
      * Handle all other exceptions
      */
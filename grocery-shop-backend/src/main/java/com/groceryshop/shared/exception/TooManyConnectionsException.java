@@ -0,0 +1,11 @@
+package com.groceryshop.shared.exception;
+
+/**
+ * Exception thrown when a client opens more streaming connections than allowed
+ */
+public class TooManyConnectionsException extends RuntimeException {
+
+    public TooManyConnectionsException(String message) {
+        super(message);
+    }
+}
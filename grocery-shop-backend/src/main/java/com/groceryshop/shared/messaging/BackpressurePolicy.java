@@ -0,0 +1,18 @@
+package com.groceryshop.shared.messaging;
+
+/**
+ * What a publisher does when a queue's ring buffer is full.
+ */
+public enum BackpressurePolicy {
+
+    /**
+     * Wait for the consumer to free a slot, up to the configured publish timeout,
+     * then drop the message.
+     */
+    BLOCK,
+
+    /**
+     * Drop the message immediately.
+     */
+    DROP
+}
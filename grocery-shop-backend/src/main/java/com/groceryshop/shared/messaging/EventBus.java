@@ -0,0 +1,32 @@
+package com.groceryshop.shared.messaging;
+
+import java.util.Map;
+
+/**
+ * Publishes domain messages to an exchange using RabbitMQ routing semantics.
+ * Implemented by the broker-backed {@link RabbitEventBus} and by the in-JVM
+ * {@link InProcessEventBus} used when no broker is configured.
+ */
+public interface EventBus {
+
+    /**
+     * Publishes a message to an exchange.
+     *
+     * @param exchange the exchange name
+     * @param routingKey the routing key (ignored by fanout and headers exchanges)
+     * @param headers message headers (used by headers exchanges)
+     * @param payload the message payload
+     */
+    void publish(String exchange, String routingKey, Map<String, Object> headers, Object payload);
+
+    /**
+     * Publishes a message without headers.
+     *
+     * @param exchange the exchange name
+     * @param routingKey the routing key
+     * @param payload the message payload
+     */
+    default void publish(String exchange, String routingKey, Object payload) {
+        publish(exchange, routingKey, Map.of(), payload);
+    }
+}
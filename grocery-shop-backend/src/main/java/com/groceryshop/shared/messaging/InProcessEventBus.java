@@ -0,0 +1,414 @@
+package com.groceryshop.shared.messaging;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.Declarable;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.Exchange;
+import org.springframework.amqp.core.ExchangeTypes;
+import org.springframework.amqp.core.Queue;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * In-JVM event bus with RabbitMQ exchange/queue/binding semantics.
+ * Each queue is backed by a lock-free {@link MpscRingBuffer} drained by its own consumer
+ * thread, so publishers never run listener code. Direct, topic, fanout and headers
+ * exchanges route exactly like the broker, which lets single-node deployments and tests
+ * run the {@code @RabbitListener} handlers without RabbitMQ.
+ */
+public class InProcessEventBus implements EventBus, SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(InProcessEventBus.class);
+
+    private final int ringSize;
+    private final WaitStrategy.Type waitStrategyType;
+    private final BackpressurePolicy backpressurePolicy;
+    private final long publishTimeoutNanos;
+
+    private final Map<String, ExchangeRoute> exchanges = new ConcurrentHashMap<>();
+    private final Map<String, BusQueue> queues = new ConcurrentHashMap<>();
+    // Resolved destinations for direct, topic and fanout exchanges, keyed by exchange + routing key
+    private final Map<String, List<BusQueue>> routeCache = new ConcurrentHashMap<>();
+
+    private volatile boolean running;
+
+    public InProcessEventBus(int ringSize, WaitStrategy.Type waitStrategyType,
+                             BackpressurePolicy backpressurePolicy, Duration publishTimeout) {
+        this.ringSize = ringSize;
+        this.waitStrategyType = waitStrategyType;
+        this.backpressurePolicy = backpressurePolicy;
+        this.publishTimeoutNanos = publishTimeout.toNanos();
+    }
+
+    /**
+     * Declares exchanges, queues and bindings, mirroring what RabbitAdmin does on a broker.
+     *
+     * @param declarables the topology to declare
+     */
+    public void declare(Declarables declarables) {
+        for (Declarable declarable : declarables.getDeclarables()) {
+            if (declarable instanceof Exchange exchange) {
+                exchanges.putIfAbsent(exchange.getName(), new ExchangeRoute(exchange.getType()));
+            } else if (declarable instanceof Queue queue) {
+                queues.computeIfAbsent(queue.getName(), name -> new BusQueue(name, ringSize, waitStrategyType.create()));
+            }
+        }
+        for (Declarable declarable : declarables.getDeclarables()) {
+            if (declarable instanceof Binding binding && binding.isDestinationQueue()) {
+                ExchangeRoute route = exchanges.get(binding.getExchange());
+                if (route == null) {
+                    throw new IllegalStateException("Binding references undeclared exchange: " + binding.getExchange());
+                }
+                route.bindings.add(new QueueBinding(binding.getDestination(), binding.getRoutingKey(), binding.getArguments()));
+            }
+        }
+        routeCache.clear();
+    }
+
+    /**
+     * Subscribes a handler to a queue. Like {@code @RabbitHandler} methods on a class-level
+     * listener, each message goes to the first subscription whose type accepts the payload.
+     *
+     * @param queueName the queue to consume from
+     * @param payloadType the payload type this handler accepts
+     * @param handler the handler
+     */
+    public <T> void subscribe(String queueName, Class<T> payloadType, Consumer<? super T> handler) {
+        subscribe(queueName, payloadType, payload -> true, handler);
+    }
+
+    /**
+     * Subscribes a handler that only accepts payloads of the given type that also match a filter,
+     * e.g. an {@code EventEnvelope} carrying a particular event type.
+     *
+     * @param queueName the queue to consume from
+     * @param payloadType the payload type this handler accepts
+     * @param filter further narrows the payloads this handler accepts
+     * @param handler the handler
+     */
+    public <T> void subscribe(String queueName, Class<T> payloadType, Predicate<? super T> filter,
+                              Consumer<? super T> handler) {
+        BusQueue queue = queues.get(queueName);
+        if (queue == null) {
+            throw new IllegalArgumentException("Unknown queue: " + queueName);
+        }
+        queue.subscriptions.add(new Subscription<>(payloadType, filter, handler));
+        if (running) {
+            queue.start();
+        }
+    }
+
+    @Override
+    public void publish(String exchange, String routingKey, Map<String, Object> headers, Object payload) {
+        Objects.requireNonNull(payload, "payload");
+        List<BusQueue> destinations = route(exchange, routingKey, headers);
+        if (destinations.isEmpty()) {
+            log.debug("Message to exchange '{}' with key '{}' was not routed to any queue", exchange, routingKey);
+            return;
+        }
+        BusMessage message = new BusMessage(exchange, routingKey, headers, payload);
+        for (BusQueue queue : destinations) {
+            queue.enqueue(message);
+        }
+    }
+
+    private List<BusQueue> route(String exchange, String routingKey, Map<String, Object> headers) {
+        if (exchange == null || exchange.isEmpty()) {
+            // Default exchange: the routing key names the queue
+            BusQueue queue = queues.get(routingKey);
+            return queue != null ? List.of(queue) : List.of();
+        }
+        ExchangeRoute route = exchanges.get(exchange);
+        if (route == null) {
+            throw new IllegalArgumentException("Unknown exchange: " + exchange);
+        }
+        if (ExchangeTypes.HEADERS.equals(route.type)) {
+            return resolve(route, routingKey, headers);
+        }
+        return routeCache.computeIfAbsent(exchange + '\u0000' + routingKey, key -> resolve(route, routingKey, headers));
+    }
+
+    private List<BusQueue> resolve(ExchangeRoute route, String routingKey, Map<String, Object> headers) {
+        Set<BusQueue> matched = new LinkedHashSet<>();
+        for (QueueBinding binding : route.bindings) {
+            if (binding.matches(route.type, routingKey, headers)) {
+                matched.add(queues.get(binding.queue()));
+            }
+        }
+        return List.copyOf(matched);
+    }
+
+    /**
+     * Returns per-queue counters for metrics and benchmarking.
+     */
+    public List<QueueStats> stats() {
+        List<QueueStats> stats = new ArrayList<>();
+        for (BusQueue queue : queues.values()) {
+            stats.add(queue.stats());
+        }
+        return stats;
+    }
+
+    /**
+     * Returns counters for a single queue.
+     *
+     * @param queueName the queue name
+     * @return the queue counters
+     */
+    public QueueStats stats(String queueName) {
+        BusQueue queue = queues.get(queueName);
+        if (queue == null) {
+            throw new IllegalArgumentException("Unknown queue: " + queueName);
+        }
+        return queue.stats();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        queues.values().forEach(BusQueue::start);
+        log.info("In-process event bus started with {} queues (ring size {}, wait strategy {}, backpressure {})",
+                queues.size(), ringSize, waitStrategyType, backpressurePolicy);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        queues.values().forEach(BusQueue::stop);
+        log.info("In-process event bus stopped");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Matches an AMQP topic pattern ({@code *} = one word, {@code #} = zero or more words).
+     */
+    static boolean topicMatches(String pattern, String routingKey) {
+        return topicMatches(pattern.split("\\.", -1), 0, routingKey.split("\\.", -1), 0);
+    }
+
+    private static boolean topicMatches(String[] pattern, int p, String[] key, int k) {
+        if (p == pattern.length) {
+            return k == key.length;
+        }
+        if ("#".equals(pattern[p])) {
+            for (int i = k; i <= key.length; i++) {
+                if (topicMatches(pattern, p + 1, key, i)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        if (k == key.length) {
+            return false;
+        }
+        return ("*".equals(pattern[p]) || pattern[p].equals(key[k])) && topicMatches(pattern, p + 1, key, k + 1);
+    }
+
+    static boolean headersMatch(Map<String, Object> arguments, Map<String, Object> headers) {
+        boolean any = "any".equals(arguments.get("x-match"));
+        boolean sawArgument = false;
+        for (Map.Entry<String, Object> argument : arguments.entrySet()) {
+            if (argument.getKey().startsWith("x-")) {
+                continue;
+            }
+            sawArgument = true;
+            boolean matches = headers.containsKey(argument.getKey())
+                    && (argument.getValue() == null || argument.getValue().equals(headers.get(argument.getKey())));
+            if (any && matches) {
+                return true;
+            }
+            if (!any && !matches) {
+                return false;
+            }
+        }
+        return !any || !sawArgument;
+    }
+
+    /**
+     * Message as delivered to a queue.
+     */
+    public record BusMessage(String exchange, String routingKey, Map<String, Object> headers, Object payload) {
+    }
+
+    /**
+     * Counters for one queue.
+     */
+    public record QueueStats(String queue, int depth, int capacity, long published, long delivered, long dropped,
+                             long failed) {
+    }
+
+    private record ExchangeRoute(String type, List<QueueBinding> bindings) {
+        ExchangeRoute(String type) {
+            this(type, new CopyOnWriteArrayList<>());
+        }
+    }
+
+    private record QueueBinding(String queue, String routingKey, Map<String, Object> arguments) {
+
+        QueueBinding {
+            arguments = arguments != null ? new LinkedHashMap<>(arguments) : Map.of();
+        }
+
+        boolean matches(String exchangeType, String key, Map<String, Object> headers) {
+            return switch (exchangeType) {
+                case ExchangeTypes.FANOUT -> true;
+                case ExchangeTypes.TOPIC -> topicMatches(routingKey, key);
+                case ExchangeTypes.HEADERS -> headersMatch(arguments, headers);
+                default -> routingKey.equals(key);
+            };
+        }
+    }
+
+    private record Subscription<T>(Class<T> type, Predicate<? super T> filter, Consumer<? super T> handler) {
+
+        boolean accepts(Object payload) {
+            return type.isInstance(payload) && filter.test(type.cast(payload));
+        }
+
+        void deliver(Object payload) {
+            handler.accept(type.cast(payload));
+        }
+    }
+
+    private final class BusQueue {
+        private final String name;
+        private final MpscRingBuffer<BusMessage> buffer;
+        private final WaitStrategy waitStrategy;
+        private final List<Subscription<?>> subscriptions = new CopyOnWriteArrayList<>();
+
+        private final AtomicLong published = new AtomicLong();
+        private final AtomicLong delivered = new AtomicLong();
+        private final AtomicLong dropped = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+
+        private Thread consumer;
+        private volatile boolean consuming;
+
+        BusQueue(String name, int ringSize, WaitStrategy waitStrategy) {
+            this.name = name;
+            this.buffer = new MpscRingBuffer<>(ringSize);
+            this.waitStrategy = waitStrategy;
+        }
+
+        void enqueue(BusMessage message) {
+            if (subscriptions.isEmpty()) {
+                // Nobody consumes this queue in-process; a broker would retain it, we do not.
+                return;
+            }
+            if (!buffer.offer(message) && !awaitCapacity(message)) {
+                dropped.incrementAndGet();
+                log.warn("Queue '{}' is full, dropped message {}", name, message.payload().getClass().getSimpleName());
+                return;
+            }
+            published.incrementAndGet();
+            waitStrategy.signal();
+        }
+
+        private boolean awaitCapacity(BusMessage message) {
+            if (backpressurePolicy == BackpressurePolicy.DROP || Thread.currentThread() == consumer) {
+                // A consumer publishing to its own full queue would wait for itself forever
+                return false;
+            }
+            long deadline = System.nanoTime() + publishTimeoutNanos;
+            int tries = 0;
+            while (System.nanoTime() < deadline) {
+                if (tries++ < 100) {
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(50_000);
+                }
+                if (buffer.offer(message)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        synchronized void start() {
+            if (consumer != null || subscriptions.isEmpty()) {
+                return;
+            }
+            consuming = true;
+            consumer = new Thread(this::consume, "bus-" + name);
+            consumer.setDaemon(true);
+            consumer.start();
+        }
+
+        synchronized void stop() {
+            consuming = false;
+            if (consumer != null) {
+                consumer.interrupt();
+                try {
+                    consumer.join(Duration.ofSeconds(5).toMillis());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                consumer = null;
+            }
+        }
+
+        private void consume() {
+            int idle = 0;
+            while (consuming) {
+                BusMessage message = buffer.poll();
+                if (message == null) {
+                    try {
+                        idle = waitStrategy.idle(idle, () -> !buffer.isEmpty());
+                    } catch (InterruptedException e) {
+                        break;
+                    }
+                    continue;
+                }
+                idle = 0;
+                dispatch(message);
+            }
+            // Drain whatever was accepted before shutdown
+            BusMessage message;
+            while ((message = buffer.poll()) != null) {
+                dispatch(message);
+            }
+        }
+
+        private void dispatch(BusMessage message) {
+            Object payload = message.payload();
+            for (Subscription<?> subscription : subscriptions) {
+                if (subscription.accepts(payload)) {
+                    try {
+                        subscription.deliver(payload);
+                        delivered.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        failed.incrementAndGet();
+                        log.error("Listener on queue '{}' failed for {}", name, payload.getClass().getSimpleName(), e);
+                    }
+                    return;
+                }
+            }
+            log.debug("No listener on queue '{}' accepts {}", name, payload.getClass().getSimpleName());
+        }
+
+        QueueStats stats() {
+            return new QueueStats(name, buffer.size(), buffer.capacity(), published.get(), delivered.get(),
+                    dropped.get(), failed.get());
+        }
+    }
+}
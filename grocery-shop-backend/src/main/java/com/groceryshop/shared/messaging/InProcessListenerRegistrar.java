@@ -0,0 +1,90 @@
+package com.groceryshop.shared.messaging;
+
+import com.groceryshop.shared.event.EventEnvelope;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.BeanExpressionContext;
+import org.springframework.beans.factory.config.BeanExpressionResolver;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+
+/**
+ * Subscribes every {@code @RabbitListener} method to the {@link InProcessEventBus},
+ * so the existing listeners keep working when no broker is configured.
+ * Only the {@code queues} attribute is honoured, with placeholders and {@code #{...}}
+ * expressions resolved as Spring AMQP does; each method must take the payload
+ * as its single parameter. {@code EventEnvelope<X>} parameters only receive envelopes
+ * whose payload is an {@code X}.
+ */
+public class InProcessListenerRegistrar implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(InProcessListenerRegistrar.class);
+
+    private final InProcessEventBus eventBus;
+    private final ConfigurableListableBeanFactory beanFactory;
+
+    public InProcessListenerRegistrar(InProcessEventBus eventBus, ConfigurableListableBeanFactory beanFactory) {
+        this.eventBus = eventBus;
+        this.beanFactory = beanFactory;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (String beanName : beanFactory.getBeanNamesForType(Object.class, false, false)) {
+            Class<?> beanType = beanFactory.getType(beanName);
+            if (beanType == null) {
+                continue;
+            }
+            Class<?> userType = ClassUtils.getUserClass(beanType);
+            Map<Method, RabbitListener> listeners = MethodIntrospector.selectMethods(userType,
+                    (MethodIntrospector.MetadataLookup<RabbitListener>) method ->
+                            AnnotatedElementUtils.findMergedAnnotation(method, RabbitListener.class));
+            if (!listeners.isEmpty()) {
+                Object bean = beanFactory.getBean(beanName);
+                listeners.forEach((method, listener) -> register(bean, method, listener));
+            }
+        }
+    }
+
+    private void register(Object bean, Method method, RabbitListener listener) {
+        if (method.getParameterCount() != 1) {
+            log.warn("Skipping @RabbitListener {}: in-process delivery needs exactly one payload parameter", method);
+            return;
+        }
+        Method invocable = AopUtils.selectInvocableMethod(method, bean.getClass());
+        ReflectionUtils.makeAccessible(invocable);
+        ResolvableType parameterType = ResolvableType.forMethodParameter(method, 0);
+        Class<?> payloadType = ClassUtils.resolvePrimitiveIfNecessary(parameterType.toClass());
+        // For EventEnvelope<X> parameters, only accept envelopes whose payload is an X
+        Class<?> envelopedType = EventEnvelope.class.equals(payloadType)
+                ? parameterType.getGeneric(0).toClass() : Object.class;
+
+        for (String queue : listener.queues()) {
+            String queueName = resolveQueueName(queue);
+            eventBus.subscribe(queueName, payloadType,
+                    payload -> !(payload instanceof EventEnvelope<?> envelope) || envelopedType.isInstance(envelope.payload()),
+                    payload -> ReflectionUtils.invokeMethod(invocable, bean, payload));
+            log.info("Registered in-process listener {}.{} on queue '{}'",
+                    method.getDeclaringClass().getSimpleName(), method.getName(), queueName);
+        }
+    }
+
+    private String resolveQueueName(String queue) {
+        String resolved = beanFactory.resolveEmbeddedValue(queue);
+        BeanExpressionResolver resolver = beanFactory.getBeanExpressionResolver();
+        if (resolver == null) {
+            return resolved;
+        }
+        return String.valueOf(resolver.evaluate(resolved, new BeanExpressionContext(beanFactory, null)));
+    }
+}
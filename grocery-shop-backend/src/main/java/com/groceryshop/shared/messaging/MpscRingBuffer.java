@@ -0,0 +1,105 @@
+package com.groceryshop.shared.messaging;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded, lock-free multi-producer / single-consumer ring buffer.
+ * Producers claim a sequence with a CAS on the producer index and then publish the
+ * element into its slot; the single consumer reads slots in sequence order and frees
+ * them. A {@code null} slot marks "not yet published", so elements must be non-null.
+ *
+ * @param <E> the element type
+ */
+public final class MpscRingBuffer<E> {
+
+    private final AtomicReferenceArray<E> slots;
+    private final int capacity;
+    private final int mask;
+
+    private final AtomicLong producerIndex = new AtomicLong();
+    // Written only by the consumer thread; volatile so producers observe freed slots.
+    private volatile long consumerIndex;
+
+    /**
+     * Creates a ring buffer. The capacity is rounded up to the next power of two.
+     *
+     * @param requestedCapacity the minimum number of elements the buffer can hold
+     */
+    public MpscRingBuffer(int requestedCapacity) {
+        if (requestedCapacity < 1 || requestedCapacity > (1 << 30)) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30");
+        }
+        this.capacity = requestedCapacity == 1 ? 1 : Integer.highestOneBit(requestedCapacity - 1) << 1;
+        this.mask = capacity - 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * Adds an element if there is space. Safe to call from any thread.
+     *
+     * @param element the element to add
+     * @return false if the buffer is full
+     */
+    public boolean offer(E element) {
+        Objects.requireNonNull(element, "element");
+        while (true) {
+            long sequence = producerIndex.get();
+            if (sequence - consumerIndex >= capacity) {
+                return false;
+            }
+            if (producerIndex.compareAndSet(sequence, sequence + 1)) {
+                slots.lazySet(index(sequence), element);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Removes the next element. Must only be called from the single consumer thread.
+     *
+     * @return the next element, or null if the buffer is empty
+     */
+    public E poll() {
+        long sequence = consumerIndex;
+        int index = index(sequence);
+        E element = slots.get(index);
+        if (element == null) {
+            if (sequence == producerIndex.get()) {
+                return null;
+            }
+            // A producer claimed this sequence but has not written the slot yet.
+            do {
+                Thread.onSpinWait();
+                element = slots.get(index);
+            } while (element == null);
+        }
+        slots.lazySet(index, null);
+        consumerIndex = sequence + 1;
+        return element;
+    }
+
+    /**
+     * Returns true if there is nothing to consume.
+     */
+    public boolean isEmpty() {
+        return producerIndex.get() == consumerIndex;
+    }
+
+    /**
+     * Returns an estimate of the number of buffered elements.
+     */
+    public int size() {
+        long size = producerIndex.get() - consumerIndex;
+        return (int) Math.max(0, Math.min(size, capacity));
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    private int index(long sequence) {
+        return (int) (sequence & mask);
+    }
+}
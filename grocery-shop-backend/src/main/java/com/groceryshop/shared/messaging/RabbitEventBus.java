@@ -0,0 +1,25 @@
+package com.groceryshop.shared.messaging;
+
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.util.Map;
+
+/**
+ * Event bus that publishes to the RabbitMQ broker through {@link RabbitTemplate}.
+ */
+public class RabbitEventBus implements EventBus {
+
+    private final RabbitTemplate rabbitTemplate;
+
+    public RabbitEventBus(RabbitTemplate rabbitTemplate) {
+        this.rabbitTemplate = rabbitTemplate;
+    }
+
+    @Override
+    public void publish(String exchange, String routingKey, Map<String, Object> headers, Object payload) {
+        rabbitTemplate.convertAndSend(exchange, routingKey, payload, message -> {
+            headers.forEach(message.getMessageProperties()::setHeader);
+            return message;
+        });
+    }
+}
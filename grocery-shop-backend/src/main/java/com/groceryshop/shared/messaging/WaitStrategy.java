@@ -0,0 +1,138 @@
+package com.groceryshop.shared.messaging;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * How a consumer thread waits while its ring buffer is empty.
+ * Trades latency against CPU use: busy-spin gives the lowest latency and burns a core,
+ * blocking is the cheapest on CPU and adds a wake-up on every publish.
+ */
+public interface WaitStrategy {
+
+    /**
+     * Called by a consumer that found no work.
+     *
+     * @param idleCount how many consecutive times the consumer has found no work
+     * @param hasWork re-checked before parking so that a concurrent publish is not missed
+     * @return the updated idle counter
+     * @throws InterruptedException if the consumer is interrupted while waiting
+     */
+    int idle(int idleCount, BooleanSupplier hasWork) throws InterruptedException;
+
+    /**
+     * Wakes a consumer parked by this strategy. Called after every publish.
+     */
+    default void signal() {
+    }
+
+    /**
+     * Configurable wait strategy types.
+     */
+    enum Type {
+        BUSY_SPIN,
+        YIELDING,
+        SLEEPING,
+        BLOCKING;
+
+        public WaitStrategy create() {
+            return switch (this) {
+                case BUSY_SPIN -> new BusySpin();
+                case YIELDING -> new Yielding();
+                case SLEEPING -> new Sleeping();
+                case BLOCKING -> new Blocking();
+            };
+        }
+    }
+
+    /**
+     * Spins on the CPU. Lowest latency, one core per consumer.
+     */
+    final class BusySpin implements WaitStrategy {
+        @Override
+        public int idle(int idleCount, BooleanSupplier hasWork) {
+            Thread.onSpinWait();
+            return idleCount + 1;
+        }
+    }
+
+    /**
+     * Spins briefly, then yields the CPU to other threads.
+     */
+    final class Yielding implements WaitStrategy {
+        private static final int SPIN_TRIES = 100;
+
+        @Override
+        public int idle(int idleCount, BooleanSupplier hasWork) {
+            if (idleCount < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+            return idleCount + 1;
+        }
+    }
+
+    /**
+     * Spins, then yields, then parks for short periods. A good default for
+     * background consumers that still need sub-millisecond latency.
+     */
+    final class Sleeping implements WaitStrategy {
+        private static final int SPIN_TRIES = 100;
+        private static final int YIELD_TRIES = 200;
+        private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+        @Override
+        public int idle(int idleCount, BooleanSupplier hasWork) {
+            if (idleCount < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else if (idleCount < YIELD_TRIES) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(PARK_NANOS);
+            }
+            return idleCount + 1;
+        }
+    }
+
+    /**
+     * Parks the consumer on a condition until a publisher signals it.
+     */
+    final class Blocking implements WaitStrategy {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition notEmpty = lock.newCondition();
+        private volatile boolean consumerWaiting;
+
+        @Override
+        public int idle(int idleCount, BooleanSupplier hasWork) throws InterruptedException {
+            lock.lock();
+            try {
+                consumerWaiting = true;
+                // Re-check after announcing the wait: a publisher either sees the flag and
+                // signals, or its element is visible here.
+                if (!hasWork.getAsBoolean()) {
+                    notEmpty.await(100, TimeUnit.MILLISECONDS);
+                }
+            } finally {
+                consumerWaiting = false;
+                lock.unlock();
+            }
+            return 0;
+        }
+
+        @Override
+        public void signal() {
+            if (consumerWaiting) {
+                lock.lock();
+                try {
+                    notEmpty.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.groceryshop.sse;
+
+/**
+ * What the broadcaster does when a subscriber's queue is full.
+ */
+public enum SlowConsumerPolicy {
+    /** Discard the new event for that subscriber only. */
+    DROP,
+    /** Close the subscriber's connection; the browser reconnects and starts fresh. */
+    DISCONNECT
+}
@@ -0,0 +1,212 @@
+package com.groceryshop.sse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Non-blocking SSE fan-out. Publishing threads only enqueue pre-encoded frames onto each
+ * subscriber's bounded queue; a small pool of writer threads drains the queues and performs
+ * the blocking socket writes, so one slow browser cannot stall delivery to the others or
+ * hold up a message listener thread.
+ * <p>
+ * Each connection is drained by at most one writer at a time, up to {@code maxBatch} frames
+ * per turn with a single flush, and is then handed back to the pool so that busy streams do
+ * not starve quiet ones.
+ * <p>
+ * The writers are either a fixed pool of platform threads or, in virtual-thread mode, one
+ * virtual thread per drain: a write blocked on a slow socket then parks only its own virtual
+ * thread instead of occupying one of a handful of pool threads.
+ */
+public class SseBroadcaster implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(SseBroadcaster.class);
+
+    private final int queueCapacity;
+    private final int maxBatch;
+    private final SlowConsumerPolicy slowConsumerPolicy;
+    private final ExecutorService writers;
+
+    private final LongAdder framesWritten = new LongAdder();
+    private final LongAdder framesDropped = new LongAdder();
+    private final LongAdder slowConsumerDisconnects = new LongAdder();
+
+    public SseBroadcaster(int queueCapacity, int writerThreads, int maxBatch,
+                          SlowConsumerPolicy slowConsumerPolicy) {
+        this(queueCapacity, Executors.newFixedThreadPool(writerThreads, writerThreadFactory()), maxBatch,
+                slowConsumerPolicy);
+    }
+
+    /**
+     * @param writers runs the drains; shut down when the broadcaster is destroyed
+     */
+    public SseBroadcaster(int queueCapacity, ExecutorService writers, int maxBatch,
+                          SlowConsumerPolicy slowConsumerPolicy) {
+        this.queueCapacity = queueCapacity;
+        this.maxBatch = maxBatch;
+        this.slowConsumerPolicy = slowConsumerPolicy;
+        this.writers = writers;
+    }
+
+    /**
+     * Returns an executor that runs every drain on a new virtual thread.
+     */
+    public static ExecutorService virtualThreadWriters() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("sse-writer-", 1).factory());
+    }
+
+    /**
+     * Wraps an emitter in a connection with its own frame queue.
+     *
+     * @param owner the principal opening the stream
+     * @param onClosed called once when the connection closes, for whatever reason
+     */
+    public SseConnection open(String id, String owner, SseEmitter emitter, Consumer<SseConnection> onClosed) {
+        SseConnection connection = new SseConnection(id, owner, emitter, queueCapacity, onClosed);
+        emitter.onCompletion(connection::markClosed);
+        emitter.onTimeout(connection::markClosed);
+        emitter.onError(error -> connection.markClosed());
+        return connection;
+    }
+
+    /**
+     * Queues a frame for a connection without blocking. Applies the slow-consumer policy
+     * if the connection's queue is full.
+     *
+     * @return true if the frame was queued
+     */
+    public boolean deliver(SseConnection connection, SseFrame frame) {
+        if (!connection.isOpen()) {
+            return false;
+        }
+        if (!connection.offer(frame)) {
+            framesDropped.increment();
+            if (slowConsumerPolicy == SlowConsumerPolicy.DISCONNECT) {
+                slowConsumerDisconnects.increment();
+                log.debug("Disconnecting slow SSE consumer {}", connection.getId());
+                // Its writer is likely stuck in send() holding the emitter's lock; completing it
+                // here would block the publishing thread, and the topic lock it may hold
+                abort(connection);
+            }
+            return false;
+        }
+        schedule(connection);
+        return true;
+    }
+
+    /**
+     * Completes the connection's response; queued frames that were not yet written are discarded.
+     */
+    public void close(SseConnection connection) {
+        if (connection.markClosed()) {
+            completeQuietly(connection);
+        }
+    }
+
+    /**
+     * Closes a connection that is presumed dead without waiting on it: the emitter is
+     * completed on a writer thread, because a write stuck on a half-open socket holds the
+     * emitter's lock.
+     */
+    public void abort(SseConnection connection) {
+        if (connection.markClosed()) {
+            try {
+                writers.execute(() -> completeQuietly(connection));
+            } catch (RejectedExecutionException e) {
+                // Shutting down
+            }
+        }
+    }
+
+    public long getFramesWritten() {
+        return framesWritten.sum();
+    }
+
+    public long getFramesDropped() {
+        return framesDropped.sum();
+    }
+
+    public long getSlowConsumerDisconnects() {
+        return slowConsumerDisconnects.sum();
+    }
+
+    @Override
+    public void destroy() {
+        writers.shutdownNow();
+    }
+
+    private void schedule(SseConnection connection) {
+        if (connection.tryClaim()) {
+            try {
+                writers.execute(() -> drain(connection));
+            } catch (RejectedExecutionException e) {
+                // Shutting down
+                connection.release();
+            }
+        }
+    }
+
+    private void drain(SseConnection connection) {
+        try {
+            writeBatch(connection);
+        } finally {
+            connection.release();
+            // A frame enqueued after the last poll but before release() found the connection
+            // claimed and did not schedule it, so re-check here
+            if (connection.hasPending()) {
+                schedule(connection);
+            }
+        }
+    }
+
+    private void writeBatch(SseConnection connection) {
+        Set<ResponseBodyEmitter.DataWithMediaType> batch = new LinkedHashSet<>();
+        SseFrame frame;
+        while (batch.size() < maxBatch && (frame = connection.poll()) != null) {
+            batch.add(new ResponseBodyEmitter.DataWithMediaType(frame.bytes(), MediaType.TEXT_EVENT_STREAM));
+        }
+        if (batch.isEmpty() || !connection.isOpen()) {
+            return;
+        }
+        try {
+            connection.getEmitter().send(batch);
+            connection.markWritten(System.currentTimeMillis());
+            framesWritten.add(batch.size());
+        } catch (IOException | IllegalStateException e) {
+            // Client went away or the emitter already completed
+            log.debug("SSE write failed for {}: {}", connection.getId(), e.getMessage());
+            connection.markClosed();
+        }
+    }
+
+    private static void completeQuietly(SseConnection connection) {
+        try {
+            connection.getEmitter().complete();
+        } catch (RuntimeException e) {
+            log.debug("Failed to complete SSE emitter {}", connection.getId(), e);
+        }
+    }
+
+    private static ThreadFactory writerThreadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "sse-writer-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,148 @@
+package com.groceryshop.sse;
+
+import com.groceryshop.config.RabbitMQConfig;
+import com.groceryshop.shared.messaging.EventBus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Makes SSE topics span every instance of the application. Events for a topic are published
+ * on whichever node consumed the domain event, while the browser may be connected to another.
+ * <p>
+ * Each node announces the topics it follows on the presence fanout exchange, periodically in
+ * full and immediately when it starts following a new one, and keeps a {@link SsePresenceMap}
+ * of the other nodes' announcements. An event is then sent on the delivery exchange only to the
+ * nodes that follow its topic, keyed by node id; nodes without an interested stream never see it.
+ * With the in-process event bus there is a single node and nothing is ever forwarded.
+ */
+public class SseCluster implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(SseCluster.class);
+
+    private final SseNode node;
+    private final SseSubscriptionRegistry registry;
+    private final EventBus eventBus;
+    private final SsePresenceMap presence;
+    private final LongAdder forwarded = new LongAdder();
+
+    private volatile boolean running;
+
+    /**
+     * @param presenceTtl how long another node's announcement is trusted without being renewed
+     */
+    public SseCluster(SseNode node, SseSubscriptionRegistry registry, EventBus eventBus, Duration presenceTtl) {
+        this.node = node;
+        this.registry = registry;
+        this.eventBus = eventBus;
+        this.presence = new SsePresenceMap(presenceTtl.toMillis());
+    }
+
+    /**
+     * Returns the other nodes with streams following the topic, directly or by wildcard.
+     */
+    public List<String> nodesWatching(SseTopicType type, long id) {
+        return presence.nodesWatching(type, id, System.currentTimeMillis());
+    }
+
+    /**
+     * Sends a serialised event to the given nodes for delivery to their local streams.
+     */
+    public void forward(List<String> nodes, SseTopicType type, long id, String eventType, String data) {
+        if (nodes.isEmpty()) {
+            return;
+        }
+        SseClusterMessage.Delivery delivery = new SseClusterMessage.Delivery(node.id(), type, id, eventType, data);
+        for (String target : nodes) {
+            send(RabbitMQConfig.SSE_DELIVERY_EXCHANGE, target, delivery);
+            forwarded.increment();
+        }
+    }
+
+    /**
+     * Tells the other nodes that this node now follows a topic, so that they forward its events
+     * without waiting for the next full announcement.
+     */
+    public void joined(SseTopicType type, long id) {
+        announce(new SseClusterMessage.Presence(node.id(), false, false, Map.of(type, List.of(id)), Set.of()));
+    }
+
+    /**
+     * Tells the other nodes that this node now follows every topic of a type.
+     */
+    public void joinedAll(SseTopicType type) {
+        announce(new SseClusterMessage.Presence(node.id(), false, false, Map.of(), Set.of(type)));
+    }
+
+    /**
+     * Announces every topic this node follows and forgets nodes that stopped announcing.
+     * Called once per heartbeat wheel revolution.
+     */
+    public void announce() {
+        presence.expire(System.currentTimeMillis());
+        announce(new SseClusterMessage.Presence(node.id(), true, false, registry.topicIds(),
+                registry.watchedWildcards()));
+    }
+
+    /**
+     * Records another node's announcement. A node seen for the first time is answered with a
+     * full announcement, so a node that just started learns about this one immediately.
+     */
+    void receive(SseClusterMessage.Presence announcement) {
+        if (node.id().equals(announcement.node())) {
+            return;
+        }
+        if (presence.apply(announcement, System.currentTimeMillis()) && announcement.full()) {
+            log.info("SSE node {} joined the cluster", announcement.node());
+            announce();
+        }
+    }
+
+    public String getNodeId() {
+        return node.id();
+    }
+
+    public int getRemoteNodeCount() {
+        return presence.getNodeCount();
+    }
+
+    public long getForwardedCount() {
+        return forwarded.sum();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        announce();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        announce(new SseClusterMessage.Presence(node.id(), false, true, Map.of(), Set.of()));
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void announce(SseClusterMessage.Presence announcement) {
+        send(RabbitMQConfig.SSE_PRESENCE_EXCHANGE, "", announcement);
+    }
+
+    private void send(String exchange, String routingKey, SseClusterMessage message) {
+        try {
+            eventBus.publish(exchange, routingKey, message);
+        } catch (RuntimeException e) {
+            // Presence is renewed periodically and events are best effort, like local delivery
+            log.warn("Failed to send SSE cluster message to exchange {}: {}", exchange, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.groceryshop.sse;
+
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Consumes this node's cluster queue: events forwarded by other nodes and their presence
+ * announcements.
+ */
+@Component
+public class SseClusterListener {
+
+    private final SseService sseService;
+    private final SseCluster cluster;
+
+    public SseClusterListener(SseService sseService, SseCluster cluster) {
+        this.sseService = sseService;
+        this.cluster = cluster;
+    }
+
+    @RabbitListener(queues = "#{@sseNode.queueName()}")
+    public void onClusterMessage(SseClusterMessage message) {
+        switch (message) {
+            case SseClusterMessage.Delivery delivery -> sseService.deliver(delivery);
+            case SseClusterMessage.Presence presence -> cluster.receive(presence);
+        }
+    }
+}
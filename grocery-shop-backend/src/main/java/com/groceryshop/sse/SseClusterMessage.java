@@ -0,0 +1,27 @@
+package com.groceryshop.sse;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Messages exchanged between nodes so that an SSE event published on one node reaches
+ * streams connected to any other.
+ */
+public sealed interface SseClusterMessage {
+
+    /**
+     * An event for a topic, already serialised, sent to a node that has streams following it.
+     */
+    record Delivery(String origin, SseTopicType type, long id, String eventType, String data)
+            implements SseClusterMessage {
+    }
+
+    /**
+     * The topics a node follows. A full announcement replaces what was known about the node;
+     * otherwise the topics are added to it. A node that shuts down announces that it is leaving.
+     */
+    record Presence(String node, boolean full, boolean leaving, Map<SseTopicType, List<Long>> topics,
+                    Set<SseTopicType> wildcards) implements SseClusterMessage {
+    }
+}
@@ -0,0 +1,120 @@
+package com.groceryshop.sse;
+
+import com.groceryshop.shared.messaging.MpscRingBuffer;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * One open SSE stream: the emitter plus the bounded queue of frames waiting to be written to it.
+ * Any thread may enqueue; at most one writer drains the queue at a time, which
+ * {@link #tryClaim()} and {@link #release()} guarantee.
+ */
+public class SseConnection {
+
+    private final String id;
+    private final String owner;
+    private final SseEmitter emitter;
+    private final MpscRingBuffer<SseFrame> queue;
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final AtomicBoolean open = new AtomicBoolean(true);
+    private final AtomicLong dropped = new AtomicLong();
+    private final Consumer<SseConnection> onClosed;
+    private final Set<SseTopic> topics = ConcurrentHashMap.newKeySet();
+    private final long openedMillis = System.currentTimeMillis();
+    private volatile long lastWriteMillis = openedMillis;
+
+    SseConnection(String id, String owner, SseEmitter emitter, int queueCapacity, Consumer<SseConnection> onClosed) {
+        this.id = id;
+        this.owner = owner;
+        this.emitter = emitter;
+        this.queue = new MpscRingBuffer<>(queueCapacity);
+        this.onClosed = onClosed;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * The principal that opened the stream, used for per-user connection limits.
+     */
+    public String getOwner() {
+        return owner;
+    }
+
+    public SseEmitter getEmitter() {
+        return emitter;
+    }
+
+    public boolean isOpen() {
+        return open.get();
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * When a write last completed on this stream (or when it was opened).
+     */
+    public long getLastWriteMillis() {
+        return lastWriteMillis;
+    }
+
+    void markWritten(long nowMillis) {
+        lastWriteMillis = nowMillis;
+    }
+
+    Set<SseTopic> topics() {
+        return topics;
+    }
+
+    boolean offer(SseFrame frame) {
+        if (queue.offer(frame)) {
+            return true;
+        }
+        dropped.incrementAndGet();
+        return false;
+    }
+
+    SseFrame poll() {
+        return queue.poll();
+    }
+
+    boolean hasPending() {
+        return !queue.isEmpty();
+    }
+
+    /**
+     * Claims the right to drain this connection. Returns false if a writer already holds it.
+     */
+    boolean tryClaim() {
+        return scheduled.compareAndSet(false, true);
+    }
+
+    void release() {
+        scheduled.set(false);
+    }
+
+    /**
+     * Marks the connection closed and notifies the owner. Only the first call has any effect.
+     *
+     * @return true if this call closed the connection
+     */
+    boolean markClosed() {
+        if (open.compareAndSet(true, false)) {
+            onClosed.accept(this);
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,64 @@
+package com.groceryshop.sse;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caps the number of open SSE streams, globally and per user, so that a leaking client or a
+ * flood of tabs cannot exhaust the server's connections and buffers.
+ */
+public class SseConnectionLimiter {
+
+    private final int maxConnections;
+    private final int maxConnectionsPerUser;
+    private final AtomicInteger total = new AtomicInteger();
+    private final ConcurrentHashMap<String, AtomicInteger> perUser = new ConcurrentHashMap<>();
+
+    public SseConnectionLimiter(int maxConnections, int maxConnectionsPerUser) {
+        this.maxConnections = maxConnections;
+        this.maxConnectionsPerUser = maxConnectionsPerUser;
+    }
+
+    /**
+     * Reserves a connection slot for the user.
+     *
+     * @return false if either limit is reached
+     */
+    public boolean tryAcquire(String owner) {
+        if (total.incrementAndGet() > maxConnections) {
+            total.decrementAndGet();
+            return false;
+        }
+        boolean[] acquired = new boolean[1];
+        perUser.compute(owner, (key, count) -> {
+            AtomicInteger current = count != null ? count : new AtomicInteger();
+            if (current.get() < maxConnectionsPerUser) {
+                current.incrementAndGet();
+                acquired[0] = true;
+            }
+            return current.get() == 0 ? null : current;
+        });
+        if (!acquired[0]) {
+            total.decrementAndGet();
+        }
+        return acquired[0];
+    }
+
+    public void release(String owner) {
+        perUser.computeIfPresent(owner, (key, count) -> count.decrementAndGet() <= 0 ? null : count);
+        total.decrementAndGet();
+    }
+
+    public int getConnectionCount() {
+        return total.get();
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public int getConnectionCount(String owner) {
+        AtomicInteger count = perUser.get(owner);
+        return count != null ? count.get() : 0;
+    }
+}
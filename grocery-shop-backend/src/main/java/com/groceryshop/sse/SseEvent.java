@@ -2,6 +2,10 @@ package com.groceryshop.sse;
 
 import java.time.LocalDateTime;
 
+/**
+ * An event to send over SSE. The id is normally left null: {@link SseService} assigns
+ * monotonic per-topic ids when the event is published.
+ */
 public class SseEvent {
     private String id;
     private String eventType;
@@ -16,7 +20,6 @@ public class SseEvent {
         this();
         this.eventType = eventType;
         this.data = data;
-        this.id = String.valueOf(System.currentTimeMillis());
     }
 
     public SseEvent(String id, String eventType, Object data) {
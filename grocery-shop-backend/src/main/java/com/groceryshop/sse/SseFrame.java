@@ -0,0 +1,13 @@
+package com.groceryshop.sse;
+
+/**
+ * An SSE event already encoded in wire format ({@code id:}, {@code event:},
+ * {@code retry:} and {@code data:} lines). Encoded once and shared by every
+ * subscriber it is delivered to.
+ *
+ * @param id the event id, may be null
+ * @param eventType the event name, may be null
+ * @param bytes the UTF-8 encoded frame, terminated by a blank line
+ */
+public record SseFrame(String id, String eventType, byte[] bytes) {
+}
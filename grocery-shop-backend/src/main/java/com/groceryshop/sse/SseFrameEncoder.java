@@ -0,0 +1,72 @@
+package com.groceryshop.sse;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Serialises {@link SseEvent}s into {@link SseFrame}s: the payload is written as JSON
+ * (strings are sent as-is) and split into {@code data:} lines as the SSE format requires.
+ * The data block can be encoded once and framed several times with different ids.
+ */
+public class SseFrameEncoder {
+
+    private static final long RECONNECT_TIME_MILLIS = 3000L;
+
+    private final ObjectMapper objectMapper;
+
+    public SseFrameEncoder(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public SseFrame encode(SseEvent event) {
+        return frame(event.getId(), event.getEventType(), encodeData(event.getData()));
+    }
+
+    /**
+     * Serialises a payload into its {@code data:} lines.
+     */
+    public String encodeData(Object data) {
+        StringBuilder lines = new StringBuilder(128);
+        String text = serialize(data);
+        int start = 0;
+        int newline;
+        while ((newline = text.indexOf('\n', start)) >= 0) {
+            lines.append("data:").append(text, start, newline).append('\n');
+            start = newline + 1;
+        }
+        lines.append("data:").append(text, start, text.length()).append('\n');
+        return lines.toString();
+    }
+
+    /**
+     * Builds a complete frame around data lines produced by {@link #encodeData(Object)}.
+     */
+    public SseFrame frame(String id, String eventType, String dataLines) {
+        StringBuilder frame = new StringBuilder(dataLines.length() + 64);
+        if (id != null) {
+            frame.append("id:").append(id).append('\n');
+        }
+        if (eventType != null) {
+            frame.append("event:").append(eventType).append('\n');
+        }
+        frame.append("retry:").append(RECONNECT_TIME_MILLIS).append('\n');
+        frame.append(dataLines).append('\n');
+        return new SseFrame(id, eventType, frame.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String serialize(Object data) {
+        if (data == null) {
+            return "";
+        }
+        if (data instanceof CharSequence text) {
+            return text.toString();
+        }
+        try {
+            return objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Failed to serialize SSE payload " + data.getClass().getSimpleName(), e);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.groceryshop.sse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps SSE streams alive and reaps dead ones from a single timer thread.
+ * <p>
+ * Connections are spread over the slots of a wheel; each tick visits one slot, so every
+ * connection is checked once per heartbeat interval and the work is spread evenly instead of
+ * arriving in one burst. A visited connection gets a comment frame if nothing was written to it
+ * for a heartbeat interval, which makes the container notice a closed socket. A connection on
+ * which no write has completed for the idle timeout (a half-open socket, or a client that stopped
+ * reading) is aborted.
+ */
+public class SseHeartbeatWheel implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(SseHeartbeatWheel.class);
+
+    static final SseFrame HEARTBEAT = new SseFrame(null, null, ":\n\n".getBytes(StandardCharsets.UTF_8));
+
+    private final SseBroadcaster broadcaster;
+    private final long heartbeatMillis;
+    private final long idleTimeoutMillis;
+    private final Runnable onRevolution;
+    private final Set<SseConnection>[] slots;
+
+    private final LongAdder heartbeatsSent = new LongAdder();
+    private final LongAdder connectionsReaped = new LongAdder();
+
+    private ScheduledExecutorService timer;
+    private int cursor;
+    private volatile boolean running;
+
+    /**
+     * @param heartbeatInterval how often each connection is visited
+     * @param idleTimeout how long a connection may go without a completed write before it is aborted
+     * @param slotCount number of wheel slots, i.e. ticks per heartbeat interval
+     * @param onRevolution housekeeping run once per revolution on the timer thread
+     */
+    @SuppressWarnings("unchecked")
+    public SseHeartbeatWheel(SseBroadcaster broadcaster, Duration heartbeatInterval, Duration idleTimeout,
+                             int slotCount, Runnable onRevolution) {
+        this.broadcaster = broadcaster;
+        this.heartbeatMillis = heartbeatInterval.toMillis();
+        this.idleTimeoutMillis = idleTimeout.toMillis();
+        this.onRevolution = onRevolution;
+        this.slots = new Set[slotCount];
+        for (int i = 0; i < slotCount; i++) {
+            slots[i] = ConcurrentHashMap.newKeySet();
+        }
+    }
+
+    public void add(SseConnection connection) {
+        slots[slotOf(connection)].add(connection);
+    }
+
+    public void remove(SseConnection connection) {
+        slots[slotOf(connection)].remove(connection);
+    }
+
+    /**
+     * Visits the next slot. Runs on the timer thread; package-private for tests.
+     */
+    void tick() {
+        long now = System.currentTimeMillis();
+        for (SseConnection connection : slots[cursor]) {
+            visit(connection, now);
+        }
+        cursor = (cursor + 1) % slots.length;
+        if (cursor == 0) {
+            onRevolution.run();
+        }
+    }
+
+    private void visit(SseConnection connection, long now) {
+        if (!connection.isOpen()) {
+            remove(connection);
+            return;
+        }
+        long sinceLastWrite = now - connection.getLastWriteMillis();
+        if (sinceLastWrite >= idleTimeoutMillis) {
+            log.debug("Reaping SSE connection {} idle for {} ms", connection.getId(), sinceLastWrite);
+            connectionsReaped.increment();
+            broadcaster.abort(connection);
+        } else if (sinceLastWrite >= heartbeatMillis && connection.getQueueDepth() == 0) {
+            if (broadcaster.deliver(connection, HEARTBEAT)) {
+                heartbeatsSent.increment();
+            }
+        }
+    }
+
+    public long getHeartbeatsSent() {
+        return heartbeatsSent.sum();
+    }
+
+    public long getConnectionsReaped() {
+        return connectionsReaped.sum();
+    }
+
+    @Override
+    public void start() {
+        long tickMillis = Math.max(1, heartbeatMillis / slots.length);
+        timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sse-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.scheduleAtFixedRate(this::safeTick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (timer != null) {
+            timer.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void safeTick() {
+        try {
+            tick();
+        } catch (RuntimeException e) {
+            // An exception would cancel the scheduled task
+            log.error("SSE heartbeat tick failed", e);
+        }
+    }
+
+    private int slotOf(SseConnection connection) {
+        return Math.floorMod(System.identityHashCode(connection), slots.length);
+    }
+}
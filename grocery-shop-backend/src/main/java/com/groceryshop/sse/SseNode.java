@@ -0,0 +1,12 @@
+package com.groceryshop.sse;
+
+/**
+ * Identifies this application instance among the nodes serving SSE streams.
+ * Each node consumes cluster messages from its own queue, bound under its id.
+ */
+public record SseNode(String id) {
+
+    public String queueName() {
+        return "sse.node." + id;
+    }
+}
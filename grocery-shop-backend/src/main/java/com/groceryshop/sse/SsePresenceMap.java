@@ -0,0 +1,112 @@
+package com.groceryshop.sse;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * What the other nodes of the cluster are following, as last announced by them. Entries are
+ * leases: a node that stops announcing (crashed, partitioned) is forgotten once its lease lapses.
+ */
+class SsePresenceMap {
+
+    private final long ttlMillis;
+    private final Map<String, NodePresence> nodes = new ConcurrentHashMap<>();
+
+    SsePresenceMap(long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * Records an announcement.
+     *
+     * @return true if the announcing node was not known before
+     */
+    boolean apply(SseClusterMessage.Presence presence, long nowMillis) {
+        if (presence.leaving()) {
+            nodes.remove(presence.node());
+            return false;
+        }
+        boolean[] joined = new boolean[1];
+        NodePresence node = nodes.computeIfAbsent(presence.node(), key -> {
+            joined[0] = true;
+            return new NodePresence();
+        });
+        node.update(presence, nowMillis + ttlMillis);
+        return joined[0];
+    }
+
+    /**
+     * Returns the nodes following the topic, directly or by wildcard.
+     */
+    List<String> nodesWatching(SseTopicType type, long id, long nowMillis) {
+        List<String> watching = null;
+        for (Map.Entry<String, NodePresence> entry : nodes.entrySet()) {
+            if (entry.getValue().watches(type, id, nowMillis)) {
+                if (watching == null) {
+                    watching = new ArrayList<>(nodes.size());
+                }
+                watching.add(entry.getKey());
+            }
+        }
+        return watching != null ? watching : List.of();
+    }
+
+    /**
+     * Forgets nodes whose lease has lapsed.
+     *
+     * @return the number of nodes forgotten
+     */
+    int expire(long nowMillis) {
+        int expired = 0;
+        for (Map.Entry<String, NodePresence> entry : nodes.entrySet()) {
+            if (entry.getValue().expiresAtMillis <= nowMillis && nodes.remove(entry.getKey(), entry.getValue())) {
+                expired++;
+            }
+        }
+        return expired;
+    }
+
+    int getNodeCount() {
+        return nodes.size();
+    }
+
+    private static final class NodePresence {
+        // Replaced wholesale by full announcements, added to by incremental ones
+        private volatile Map<SseTopicType, Set<Long>> topics = emptyTopics();
+        private final Set<SseTopicType> wildcards = ConcurrentHashMap.newKeySet();
+        private volatile long expiresAtMillis;
+
+        void update(SseClusterMessage.Presence presence, long expiresAtMillis) {
+            if (presence.full()) {
+                Map<SseTopicType, Set<Long>> replacement = emptyTopics();
+                addAll(replacement, presence);
+                topics = replacement;
+                wildcards.retainAll(presence.wildcards());
+            } else {
+                addAll(topics, presence);
+            }
+            wildcards.addAll(presence.wildcards());
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        boolean watches(SseTopicType type, long id, long nowMillis) {
+            return expiresAtMillis > nowMillis && (wildcards.contains(type) || topics.get(type).contains(id));
+        }
+
+        private static void addAll(Map<SseTopicType, Set<Long>> target, SseClusterMessage.Presence presence) {
+            presence.topics().forEach((type, ids) -> target.get(type).addAll(ids));
+        }
+
+        private static Map<SseTopicType, Set<Long>> emptyTopics() {
+            Map<SseTopicType, Set<Long>> topics = new EnumMap<>(SseTopicType.class);
+            for (SseTopicType type : SseTopicType.values()) {
+                topics.put(type, ConcurrentHashMap.newKeySet());
+            }
+            return topics;
+        }
+    }
+}
@@ -1,68 +1,217 @@
 package com.groceryshop.sse;
 
+import com.groceryshop.shared.exception.TooManyConnectionsException;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.io.IOException;
-import java.util.concurrent.ConcurrentHashMap;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
+/**
+ * Opens SSE streams on topics and publishes events to them through the {@link SseBroadcaster}.
+ * Each topic can have any number of streams; publishing never blocks the caller, and an event
+ * is serialised once however many streams receive it.
+ * <p>
+ * Event ids are {@code <epoch>-<sequence>}: the sequence is monotonic per topic and the epoch
+ * identifies this process, so a {@code Last-Event-ID} issued before a restart is recognised as
+ * unusable and the client gets a fresh snapshot instead of a wrong replay.
+ * <p>
+ * Topics span the cluster: publishing also forwards the event, through the {@link SseCluster},
+ * to the other nodes with streams following the topic.
+ * <p>
+ * Streams are subject to the {@link SseConnectionLimiter} and are kept alive, or reaped,
+ * by the {@link SseHeartbeatWheel}. Each emitter also has a finite lifetime, after which the
+ * browser reconnects and resumes from its last event id.
+ */
 @Service
 public class SseService {
 
-    private final ConcurrentHashMap<String, SseEmitter> emitters;
+    private final SseSubscriptionRegistry registry;
+    private final SseBroadcaster broadcaster;
+    private final SseFrameEncoder encoder;
+    private final SseConnectionLimiter limiter;
+    private final SseHeartbeatWheel heartbeatWheel;
+    private final SseCluster cluster;
+    private final AtomicLong connectionIds = new AtomicLong();
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
 
-    public SseService(ConcurrentHashMap<String, SseEmitter> emitters) {
-        this.emitters = emitters;
+    @Value("${app.sse.emitter-timeout:PT30M}")
+    private Duration emitterTimeout = Duration.ofMinutes(30);
+
+    public SseService(SseSubscriptionRegistry registry, SseBroadcaster broadcaster, SseFrameEncoder encoder,
+                      SseConnectionLimiter limiter, SseHeartbeatWheel heartbeatWheel, SseCluster cluster) {
+        this.registry = registry;
+        this.broadcaster = broadcaster;
+        this.encoder = encoder;
+        this.limiter = limiter;
+        this.heartbeatWheel = heartbeatWheel;
+        this.cluster = cluster;
     }
 
-    public SseEmitter createEmitter(String emitterId) {
-        SseEmitter emitter = new SseEmitter(Long.MAX_VALUE);
-        emitters.put(emitterId, emitter);
+    /**
+     * Opens a stream subscribed to one topic.
+     *
+     * @param owner the principal opening the stream, for per-user connection limits
+     * @param lastEventId the client's {@code Last-Event-ID} header, may be null
+     * @param snapshotEvent builds the full current state; only called when the client cannot be
+     *                      caught up from the replay buffer. May be null or return null.
+     */
+    public SseEmitter subscribe(SseTopicType type, long id, String owner, String lastEventId,
+                                Supplier<SseEvent> snapshotEvent) {
+        SseConnection connection = open(type.name().toLowerCase() + "-" + id, owner);
+        boolean newTopic = registry.find(type, id) == null;
+        try {
+            registry.subscribe(connection, type, id, parseSequence(lastEventId), orEmpty(snapshotEvent),
+                    this::frameAt, broadcaster);
+        } catch (RuntimeException e) {
+            // The snapshot failed: give back the slot and registrations rather than leave them to the reaper
+            broadcaster.close(connection);
+            throw e;
+        }
+        if (newTopic) {
+            cluster.joined(type, id);
+        }
+        return connection.getEmitter();
+    }
 
-        emitter.onCompletion(() -> emitters.remove(emitterId));
-        emitter.onTimeout(() -> emitters.remove(emitterId));
-        emitter.onError((throwable) -> emitters.remove(emitterId));
+    /**
+     * Opens a stream subscribed to every topic of a type, e.g. all orders for an administrator.
+     * Events on such a stream carry the ids of the wildcard topic, not of the individual topics.
+     *
+     * @param owner the principal opening the stream, for per-user connection limits
+     * @param lastEventId the client's {@code Last-Event-ID} header, may be null
+     * @param snapshotEvent builds the full current state, may be null or return null
+     */
+    public SseEmitter subscribeAll(SseTopicType type, String owner, String lastEventId,
+                                   Supplier<SseEvent> snapshotEvent) {
+        SseConnection connection = open(type.name().toLowerCase() + "-*", owner);
+        boolean newTopic = !registry.isWildcardWatched(type);
+        try {
+            registry.subscribeAll(connection, type, parseSequence(lastEventId), orEmpty(snapshotEvent),
+                    this::frameAt, broadcaster);
+        } catch (RuntimeException e) {
+            broadcaster.close(connection);
+            throw e;
+        }
+        if (newTopic) {
+            cluster.joinedAll(type);
+        }
+        return connection.getEmitter();
+    }
 
-        return emitter;
+    /**
+     * Publishes an event to every stream subscribed to the topic, directly or by wildcard,
+     * on this node and on any other, and keeps it for replay to clients that reconnect.
+     */
+    public void publish(SseTopicType type, long id, SseEvent event) {
+        boolean local = registry.isWatched(type, id);
+        List<String> remote = cluster.nodesWatching(type, id);
+        if (!local && remote.isEmpty()) {
+            return;
+        }
+        String data = encoder.encodeData(event.getData());
+        if (local) {
+            publishLocally(type, id, event.getEventType(), data);
+        }
+        cluster.forward(remote, type, id, event.getEventType(), data);
     }
 
-    public void sendEvent(String emitterId, SseEvent event) {
-        SseEmitter emitter = emitters.get(emitterId);
-        if (emitter != null) {
-            try {
-                emitter.send(SseEmitter.event()
-                    .name(event.getEventType())
-                    .data(event.getData())
-                    .id(event.getId())
-                    .reconnectTime(3000L));
-            } catch (IOException e) {
-                emitters.remove(emitterId);
-            }
+    /**
+     * Publishes an event forwarded by another node to the streams connected to this one.
+     */
+    void deliver(SseClusterMessage.Delivery delivery) {
+        publishLocally(delivery.type(), delivery.id(), delivery.eventType(), delivery.data());
+    }
+
+    private void publishLocally(SseTopicType type, long id, String eventType, String data) {
+        SseTopic topic = registry.find(type, id);
+        boolean toWildcard = registry.isWildcardWatched(type);
+        if (topic != null) {
+            topic.publish(broadcaster, sequence -> encoder.frame(eventId(sequence), eventType, data));
+        }
+        if (toWildcard) {
+            registry.wildcard(type).publish(broadcaster, sequence -> encoder.frame(eventId(sequence), eventType, data));
         }
     }
 
     public void sendEventToAll(SseEvent event) {
-        emitters.forEach((id, emitter) -> {
-            try {
-                emitter.send(SseEmitter.event()
-                    .name(event.getEventType())
-                    .data(event.getData())
-                    .id(event.getId())
-                    .reconnectTime(3000L));
-            } catch (IOException e) {
-                emitters.remove(id);
-            }
-        });
-    }
-
-    public void removeEmitter(String emitterId) {
-        SseEmitter emitter = emitters.remove(emitterId);
-        if (emitter != null) {
-            emitter.complete();
+        if (registry.getConnectionCount() == 0) {
+            return;
+        }
+        SseFrame frame = encoder.encode(event);
+        for (SseConnection connection : registry.connections()) {
+            broadcaster.deliver(connection, frame);
+        }
+    }
+
+    /**
+     * True if an event published to the topic would reach a stream or be kept for replay,
+     * on this node or on another.
+     */
+    public boolean hasSubscribers(SseTopicType type, long id) {
+        return registry.isWatched(type, id) || !cluster.nodesWatching(type, id).isEmpty();
+    }
+
+    public int getConnectionCount() {
+        return registry.getConnectionCount();
+    }
+
+    /**
+     * Returns the number of frames queued across all streams and not yet written.
+     */
+    public long getQueuedFrameCount() {
+        long total = 0;
+        for (SseConnection connection : registry.connections()) {
+            total += connection.getQueueDepth();
+        }
+        return total;
+    }
+
+    private SseConnection open(String name, String owner) {
+        if (!limiter.tryAcquire(owner)) {
+            throw new TooManyConnectionsException("Too many open event streams");
+        }
+        SseEmitter emitter = new SseEmitter(emitterTimeout.toMillis());
+        SseConnection connection = broadcaster.open(name + "#" + connectionIds.incrementAndGet(), owner, emitter,
+                this::closed);
+        registry.register(connection);
+        heartbeatWheel.add(connection);
+        return connection;
+    }
+
+    private void closed(SseConnection connection) {
+        registry.unregister(connection);
+        heartbeatWheel.remove(connection);
+        limiter.release(connection.getOwner());
+    }
+
+    private SseFrame frameAt(SseEvent event, long sequence) {
+        return encoder.frame(eventId(sequence), event.getEventType(), encoder.encodeData(event.getData()));
+    }
+
+    private String eventId(long sequence) {
+        return epoch + "-" + sequence;
+    }
+
+    /**
+     * Returns the sequence in a {@code Last-Event-ID} issued by this process, or -1.
+     */
+    long parseSequence(String lastEventId) {
+        String prefix = epoch + "-";
+        if (lastEventId == null || !lastEventId.startsWith(prefix)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(lastEventId.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            return -1;
         }
     }
 
-    public boolean hasEmitter(String emitterId) {
-        return emitters.containsKey(emitterId);
+    private static Supplier<SseEvent> orEmpty(Supplier<SseEvent> snapshotEvent) {
+        return snapshotEvent != null ? snapshotEvent : () -> null;
     }
 }
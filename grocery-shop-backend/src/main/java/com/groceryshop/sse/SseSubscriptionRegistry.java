@@ -0,0 +1,224 @@
+package com.groceryshop.sse;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+/**
+ * Maps SSE topics to the connections subscribed to them. A topic can have any number of
+ * connections (several tabs, several administrators) and a connection can follow several
+ * topics. Administrators can subscribe to every topic of a type with a wildcard subscription,
+ * which has its own event sequence and replay ring.
+ * <p>
+ * Topics are created on first subscription and kept after their last subscriber leaves, so
+ * that a client reconnecting shortly afterwards can still be replayed what it missed; idle
+ * topics are removed by {@link #evictIdleTopics()}.
+ */
+public class SseSubscriptionRegistry {
+
+    private final int replaySize;
+    private final long retentionMillis;
+    private final Map<SseTopicType, ConcurrentHashMap<Long, SseTopic>> topics = new EnumMap<>(SseTopicType.class);
+    private final Map<SseTopicType, SseTopic> wildcards = new EnumMap<>(SseTopicType.class);
+    private final Set<SseConnection> connections = ConcurrentHashMap.newKeySet();
+    private final LongAdder replayed = new LongAdder();
+    private final LongAdder snapshots = new LongAdder();
+
+    /**
+     * @param replaySize how many recent events each topic keeps for resuming clients
+     * @param retention how long a topic keeps recording events after its last subscriber left
+     */
+    public SseSubscriptionRegistry(int replaySize, Duration retention) {
+        this.replaySize = replaySize;
+        this.retentionMillis = retention.toMillis();
+        for (SseTopicType type : SseTopicType.values()) {
+            topics.put(type, new ConcurrentHashMap<>());
+            wildcards.put(type, new SseTopic(type, -1, replaySize));
+        }
+    }
+
+    public void register(SseConnection connection) {
+        connections.add(connection);
+    }
+
+    /**
+     * Removes a connection from every topic it follows.
+     */
+    public void unregister(SseConnection connection) {
+        connections.remove(connection);
+        for (SseTopic topic : connection.topics()) {
+            topic.remove(connection);
+        }
+        connection.topics().clear();
+    }
+
+    /**
+     * Subscribes a connection to a topic, catching it up from {@code lastSequence}.
+     *
+     * @return true if the connection was caught up from the replay ring rather than the snapshot event
+     * @see SseTopic#subscribe
+     */
+    boolean subscribe(SseConnection connection, SseTopicType type, long id, long lastSequence,
+                      Supplier<SseEvent> snapshotEvent, BiFunction<SseEvent, Long, SseFrame> frameForSequence,
+                      SseBroadcaster broadcaster) {
+        while (true) {
+            SseTopic topic = topics.get(type).computeIfAbsent(id, key -> new SseTopic(type, id, replaySize));
+            SseTopic.CatchUp catchUp = topic.subscribe(connection, broadcaster, lastSequence, snapshotEvent,
+                    frameForSequence);
+            if (catchUp != SseTopic.CatchUp.RETIRED) {
+                connection.topics().add(topic);
+                return record(catchUp);
+            }
+        }
+    }
+
+    /**
+     * Subscribes a connection to every topic of the given type.
+     *
+     * @return true if the connection was caught up from the replay ring rather than the snapshot event
+     */
+    boolean subscribeAll(SseConnection connection, SseTopicType type, long lastSequence,
+                         Supplier<SseEvent> snapshotEvent, BiFunction<SseEvent, Long, SseFrame> frameForSequence,
+                         SseBroadcaster broadcaster) {
+        SseTopic wildcard = wildcards.get(type);
+        SseTopic.CatchUp catchUp = wildcard.subscribe(connection, broadcaster, lastSequence, snapshotEvent,
+                frameForSequence);
+        connection.topics().add(wildcard);
+        return record(catchUp);
+    }
+
+    public void unsubscribe(SseConnection connection, SseTopicType type, long id) {
+        SseTopic topic = topics.get(type).get(id);
+        if (topic != null) {
+            topic.remove(connection);
+            connection.topics().remove(topic);
+        }
+    }
+
+    /**
+     * Returns the topic if anyone follows it now or did recently, otherwise null.
+     */
+    SseTopic find(SseTopicType type, long id) {
+        return topics.get(type).get(id);
+    }
+
+    SseTopic wildcard(SseTopicType type) {
+        return wildcards.get(type);
+    }
+
+    /**
+     * True if the wildcard topic of the type has subscribers now or within the retention period,
+     * so that events should be recorded on it.
+     */
+    boolean isWildcardWatched(SseTopicType type) {
+        return wildcards.get(type).isWatchedSince(System.currentTimeMillis() - retentionMillis);
+    }
+
+    /**
+     * True if an event published to the topic would be delivered or kept for replay.
+     */
+    public boolean isWatched(SseTopicType type, long id) {
+        return topics.get(type).containsKey(id) || isWildcardWatched(type);
+    }
+
+    /**
+     * Returns the ids of every topic this registry holds, i.e. every topic whose events
+     * should be delivered to it, grouped by type.
+     */
+    public Map<SseTopicType, List<Long>> topicIds() {
+        Map<SseTopicType, List<Long>> ids = new EnumMap<>(SseTopicType.class);
+        topics.forEach((type, byId) -> {
+            if (!byId.isEmpty()) {
+                ids.put(type, new ArrayList<>(byId.keySet()));
+            }
+        });
+        return ids;
+    }
+
+    /**
+     * Returns the types whose wildcard topic is watched.
+     */
+    public Set<SseTopicType> watchedWildcards() {
+        Set<SseTopicType> watched = EnumSet.noneOf(SseTopicType.class);
+        for (SseTopicType type : SseTopicType.values()) {
+            if (isWildcardWatched(type)) {
+                watched.add(type);
+            }
+        }
+        return watched;
+    }
+
+    /**
+     * Removes topics that have had no subscribers for longer than the retention period.
+     *
+     * @return the number of topics removed
+     */
+    public int evictIdleTopics() {
+        long cutoffMillis = System.currentTimeMillis() - retentionMillis;
+        int evicted = 0;
+        for (ConcurrentHashMap<Long, SseTopic> byId : topics.values()) {
+            for (Map.Entry<Long, SseTopic> entry : byId.entrySet()) {
+                // A retired topic refuses subscribers, so one that was looked up just before
+                // removal is never subscribed to; subscribe() then creates a fresh topic
+                if (entry.getValue().retireIfUnwatchedSince(cutoffMillis) && byId.remove(entry.getKey(), entry.getValue())) {
+                    evicted++;
+                }
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Returns the number of live subscriptions to topics of the type, wildcard included.
+     */
+    public int getSubscriberCount(SseTopicType type) {
+        int count = wildcards.get(type).subscribers().length;
+        for (SseTopic topic : topics.get(type).values()) {
+            count += topic.subscribers().length;
+        }
+        return count;
+    }
+
+    public long getReplayedCount() {
+        return replayed.sum();
+    }
+
+    public long getSnapshotCount() {
+        return snapshots.sum();
+    }
+
+    public Collection<SseConnection> connections() {
+        return Collections.unmodifiableSet(connections);
+    }
+
+    public int getConnectionCount() {
+        return connections.size();
+    }
+
+    public int getTopicCount() {
+        int count = 0;
+        for (ConcurrentHashMap<Long, SseTopic> byId : topics.values()) {
+            count += byId.size();
+        }
+        return count;
+    }
+
+    private boolean record(SseTopic.CatchUp catchUp) {
+        if (catchUp == SseTopic.CatchUp.REPLAY) {
+            replayed.increment();
+            return true;
+        }
+        snapshots.increment();
+        return false;
+    }
+}
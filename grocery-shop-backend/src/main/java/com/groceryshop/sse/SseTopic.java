@@ -0,0 +1,179 @@
+package com.groceryshop.sse;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+
+/**
+ * The connections subscribed to one topic, plus the topic's event sequence and a bounded
+ * ring of the most recent frames so that reconnecting clients can resume from their
+ * {@code Last-Event-ID}.
+ * <p>
+ * Publishing and adding a subscriber hold the topic's lock, so a subscriber receives every
+ * event after the point it caught up to exactly once and in order. Subscribing and
+ * unsubscribing are O(1); fan-out reads an array snapshot that is rebuilt only after the
+ * membership changed, so publishing to an unchanged topic allocates nothing beyond the frame.
+ */
+final class SseTopic {
+
+    private static final SseConnection[] NONE = new SseConnection[0];
+
+    /**
+     * How a new subscriber was brought up to date.
+     */
+    enum CatchUp {
+        /** Missed frames were replayed from the ring. */
+        REPLAY,
+        /** The snapshot event was sent instead. */
+        SNAPSHOT,
+        /** The topic was evicted concurrently; subscribe to a fresh topic instead. */
+        RETIRED
+    }
+
+    private final SseTopicType type;
+    private final long id;
+    private final Set<SseConnection> members = new HashSet<>();
+    private SseConnection[] snapshot = NONE;
+
+    private final SseFrame[] replay;
+    private long sequence;
+    private boolean retired;
+    private long lastSubscriberMillis = Long.MIN_VALUE;
+
+    SseTopic(SseTopicType type, long id, int replaySize) {
+        this.type = type;
+        this.id = id;
+        this.replay = new SseFrame[Math.max(replaySize, 0)];
+    }
+
+    SseTopicType type() {
+        return type;
+    }
+
+    long id() {
+        return id;
+    }
+
+    /**
+     * Adds a subscriber and queues what it missed: the frames after {@code lastSequence} if
+     * they are all still in the replay ring, otherwise the snapshot event (typically the full
+     * current state) followed by anything published while the snapshot was being built.
+     * The snapshot is built outside the topic's lock, so it may do I/O.
+     *
+     * @param lastSequence the last sequence the client received on this topic, or -1 if none
+     * @param snapshotEvent produces the catch-up event when replay is not possible, may return null
+     * @param frameForSequence encodes the snapshot event with the sequence it reflects
+     * @return how the subscriber was caught up
+     */
+    CatchUp subscribe(SseConnection connection, SseBroadcaster broadcaster, long lastSequence,
+                      Supplier<SseEvent> snapshotEvent, BiFunction<SseEvent, Long, SseFrame> frameForSequence) {
+        long snapshotSequence;
+        synchronized (this) {
+            if (retired) {
+                return CatchUp.RETIRED;
+            }
+            if (canReplayFrom(lastSequence)) {
+                replayAfter(lastSequence, connection, broadcaster);
+                addMember(connection);
+                return CatchUp.REPLAY;
+            }
+            snapshotSequence = sequence;
+        }
+
+        SseEvent event = snapshotEvent.get();
+
+        synchronized (this) {
+            if (retired) {
+                return CatchUp.RETIRED;
+            }
+            if (event != null) {
+                broadcaster.deliver(connection, frameForSequence.apply(event, snapshotSequence));
+            }
+            // Events published while the snapshot was built; if the ring overflowed meanwhile
+            // they are lost, but the snapshot is at least as new as the oldest of them
+            if (canReplayFrom(snapshotSequence)) {
+                replayAfter(snapshotSequence, connection, broadcaster);
+            }
+            addMember(connection);
+            return CatchUp.SNAPSHOT;
+        }
+    }
+
+    /**
+     * Assigns the next sequence number, keeps the frame for replay and queues it for every subscriber.
+     *
+     * @param frameForSequence encodes the event with the assigned sequence
+     */
+    synchronized void publish(SseBroadcaster broadcaster, LongFunction<SseFrame> frameForSequence) {
+        long next = sequence + 1;
+        SseFrame frame = frameForSequence.apply(next);
+        sequence = next;
+        if (replay.length > 0) {
+            replay[slot(next)] = frame;
+        }
+        for (SseConnection connection : subscribers()) {
+            broadcaster.deliver(connection, frame);
+        }
+    }
+
+    synchronized void remove(SseConnection connection) {
+        if (members.remove(connection)) {
+            snapshot = null;
+            lastSubscriberMillis = System.currentTimeMillis();
+        }
+    }
+
+    synchronized boolean hasSubscribers() {
+        return !members.isEmpty();
+    }
+
+    /**
+     * True if the topic has subscribers, or had one at or after the cutoff.
+     */
+    synchronized boolean isWatchedSince(long cutoffMillis) {
+        return !members.isEmpty() || lastSubscriberMillis >= cutoffMillis;
+    }
+
+    /**
+     * Retires the topic if it has had no subscribers since the cutoff. A retired topic
+     * refuses new subscribers.
+     *
+     * @return true if the topic is retired
+     */
+    synchronized boolean retireIfUnwatchedSince(long cutoffMillis) {
+        if (!isWatchedSince(cutoffMillis)) {
+            retired = true;
+        }
+        return retired;
+    }
+
+    synchronized SseConnection[] subscribers() {
+        if (snapshot == null) {
+            snapshot = members.isEmpty() ? NONE : members.toArray(NONE);
+        }
+        return snapshot;
+    }
+
+    private void addMember(SseConnection connection) {
+        if (members.add(connection)) {
+            snapshot = null;
+        }
+        lastSubscriberMillis = System.currentTimeMillis();
+    }
+
+    private void replayAfter(long lastSequence, SseConnection connection, SseBroadcaster broadcaster) {
+        for (long s = lastSequence + 1; s <= sequence; s++) {
+            broadcaster.deliver(connection, replay[slot(s)]);
+        }
+    }
+
+    private boolean canReplayFrom(long lastSequence) {
+        return lastSequence >= 0 && lastSequence <= sequence && sequence - lastSequence <= replay.length;
+    }
+
+    private int slot(long s) {
+        return (int) (s % replay.length);
+    }
+}
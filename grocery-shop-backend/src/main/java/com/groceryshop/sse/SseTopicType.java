@@ -0,0 +1,13 @@
+package com.groceryshop.sse;
+
+/**
+ * Kinds of SSE topics. A topic is a type plus an id, e.g. the stream of events for order 42.
+ */
+public enum SseTopicType {
+    /** Notifications for one user; id is the user id. */
+    USER,
+    /** Status updates for one order; id is the order id. */
+    ORDER,
+    /** Inventory alerts for administrators; a single topic with id 0. */
+    ADMIN_INVENTORY
+}
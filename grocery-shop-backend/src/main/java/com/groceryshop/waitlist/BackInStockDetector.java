@@ -0,0 +1,41 @@
+package com.groceryshop.waitlist;
+
+import com.groceryshop.config.RabbitMQConfig;
+import com.groceryshop.product.StockUpdatedEvent;
+import com.groceryshop.shared.event.EventEnvelope;
+import com.groceryshop.shared.event.StaleEventFilter;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Watches stock updates for products coming back in stock and releases their waitlist.
+ * Listens on the inventory updates queue, whose consumers compete for messages, so each
+ * restock is handled by one node only.
+ */
+@Component
+public class BackInStockDetector {
+
+    private final BackInStockFanout fanout;
+    private final StaleEventFilter stockUpdateFilter = new StaleEventFilter();
+
+    public BackInStockDetector(BackInStockFanout fanout) {
+        this.fanout = fanout;
+    }
+
+    @RabbitListener(queues = RabbitMQConfig.INVENTORY_UPDATES_QUEUE)
+    public void handleInventoryEvent(EventEnvelope<?> envelope) {
+        if (envelope.payload() instanceof StockUpdatedEvent event && stockUpdateFilter.accept(envelope)
+                && isRestock(event)) {
+            fanout.release(event.productId());
+        }
+    }
+
+    /**
+     * True if the update takes the product from no stock to some stock.
+     */
+    static boolean isRestock(StockUpdatedEvent event) {
+        int oldStock = event.oldStock() != null ? event.oldStock() : 0;
+        int newStock = event.newStock() != null ? event.newStock() : 0;
+        return oldStock <= 0 && newStock > 0;
+    }
+}
@@ -0,0 +1,163 @@
+package com.groceryshop.waitlist;
+
+import com.groceryshop.auth.User;
+import com.groceryshop.auth.UserStatus;
+import com.groceryshop.auth.spi.AuthServiceProvider;
+import com.groceryshop.notification.NotificationService;
+import com.groceryshop.product.Product;
+import com.groceryshop.product.spi.ProductServiceProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Notifies a product's waitlist when it comes back in stock.
+ * <p>
+ * The waitlist is walked in subscription order, a page at a time, on a thread of its own, so a
+ * release never holds up the event listener that detected it. Each page is sent as one batch
+ * and taken off the waitlist. Three limits keep a popular product from flooding the notification
+ * workers:
+ * <ul>
+ *   <li>stock: at most {@code notificationsPerUnit} subscribers are notified per unit in stock,
+ *       re-checked before every page, so the fan-out stops when the product sells out again and
+ *       the remaining subscribers wait for the next restock;</li>
+ *   <li>rate: pages are paced to at most {@code maxPerSecond} notifications per second;</li>
+ *   <li>one fan-out per product at a time.</li>
+ * </ul>
+ */
+public class BackInStockFanout implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(BackInStockFanout.class);
+
+    private final WaitlistIndex index;
+    private final WaitlistService waitlistService;
+    private final ProductServiceProvider productServiceProvider;
+    private final AuthServiceProvider authServiceProvider;
+    private final NotificationService notificationService;
+    private final int pageSize;
+    private final int notificationsPerUnit;
+    private final int maxPerSecond;
+    private final Set<Long> releasing = ConcurrentHashMap.newKeySet();
+    private final LongAdder notified = new LongAdder();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("waitlist-fanout").daemon().factory());
+
+    public BackInStockFanout(WaitlistIndex index, WaitlistService waitlistService,
+                             ProductServiceProvider productServiceProvider, AuthServiceProvider authServiceProvider,
+                             NotificationService notificationService, int pageSize, int notificationsPerUnit,
+                             int maxPerSecond) {
+        this.index = index;
+        this.waitlistService = waitlistService;
+        this.productServiceProvider = productServiceProvider;
+        this.authServiceProvider = authServiceProvider;
+        this.notificationService = notificationService;
+        this.pageSize = pageSize;
+        this.notificationsPerUnit = notificationsPerUnit;
+        this.maxPerSecond = maxPerSecond;
+    }
+
+    /**
+     * Starts notifying the product's waitlist, unless a fan-out for it is already running.
+     */
+    public void release(long productId) {
+        if (!releasing.add(productId)) {
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                fanOut(productId);
+            } catch (RuntimeException e) {
+                log.error("Back-in-stock fan-out failed for product {}", productId, e);
+            } finally {
+                releasing.remove(productId);
+            }
+        });
+    }
+
+    /**
+     * Notifies the product's waitlist page by page until the stock allowance or the list runs out.
+     *
+     * @return the number of subscribers notified
+     */
+    int fanOut(long productId) {
+        index.reload(productId);
+        long startNanos = System.nanoTime();
+        int sent = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            Optional<Product> product = productServiceProvider.findProductById(productId);
+            if (product.isEmpty() || !product.get().isInStock()) {
+                break;
+            }
+            long allowance = (long) product.get().getStockQuantity() * notificationsPerUnit - sent;
+            if (allowance <= 0) {
+                break;
+            }
+            // Notified subscribers leave the list, so the next page always starts at the front
+            long[] page = index.page(productId, 0, (int) Math.min(pageSize, allowance));
+            if (page.length == 0) {
+                break;
+            }
+            notificationService.sendProductAvailableNotifications(activeUsers(page), product.get());
+            waitlistService.removeNotified(productId, page);
+            sent += page.length;
+            notified.add(page.length);
+            pace(startNanos, sent);
+        }
+        if (sent > 0) {
+            log.info("Notified {} waiting customers that product {} is back, {} still waiting",
+                    sent, productId, index.size(productId));
+        }
+        return sent;
+    }
+
+    private List<User> activeUsers(long[] userIds) {
+        List<Long> ids = new ArrayList<>(userIds.length);
+        for (long userId : userIds) {
+            ids.add(userId);
+        }
+        List<User> users = new ArrayList<>(userIds.length);
+        for (User user : authServiceProvider.findUsersByIds(ids)) {
+            if (user.getStatus() == UserStatus.ACTIVE) {
+                users.add(user);
+            }
+        }
+        return users;
+    }
+
+    /**
+     * Sleeps until sending {@code sent} notifications since the start is within the rate limit.
+     */
+    private void pace(long startNanos, int sent) {
+        long dueNanos = startNanos + TimeUnit.SECONDS.toNanos(sent) / maxPerSecond;
+        long waitNanos = dueNanos - System.nanoTime();
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of subscribers notified since startup.
+     */
+    public long getNotifiedCount() {
+        return notified.sum();
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
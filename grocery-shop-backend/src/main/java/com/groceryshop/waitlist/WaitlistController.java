@@ -0,0 +1,74 @@
+package com.groceryshop.waitlist;
+
+import com.groceryshop.auth.spi.AuthServiceProvider;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/waitlist/products")
+@Tag(name = "Waitlist", description = "Back-in-stock notification APIs")
+@SecurityRequirement(name = "bearer-jwt")
+public class WaitlistController {
+
+    private final WaitlistService waitlistService;
+    private final AuthServiceProvider authServiceProvider;
+
+    public WaitlistController(WaitlistService waitlistService, AuthServiceProvider authServiceProvider) {
+        this.waitlistService = waitlistService;
+        this.authServiceProvider = authServiceProvider;
+    }
+
+    @PostMapping("/{productId}")
+    @Operation(summary = "Join waitlist", description = "Get notified once when an out-of-stock product is back")
+    @PreAuthorize("hasRole('CUSTOMER') or hasRole('ADMIN')")
+    public ResponseEntity<WaitlistStatus> subscribe(@PathVariable Long productId, Authentication authentication) {
+        Long userId = getUserIdFromAuthentication(authentication);
+        waitlistService.subscribe(productId, userId);
+        return ResponseEntity.ok(status(productId, userId));
+    }
+
+    @DeleteMapping("/{productId}")
+    @Operation(summary = "Leave waitlist", description = "Stop waiting for a product")
+    @PreAuthorize("hasRole('CUSTOMER') or hasRole('ADMIN')")
+    public ResponseEntity<WaitlistStatus> unsubscribe(@PathVariable Long productId, Authentication authentication) {
+        Long userId = getUserIdFromAuthentication(authentication);
+        waitlistService.unsubscribe(productId, userId);
+        return ResponseEntity.ok(status(productId, userId));
+    }
+
+    @GetMapping("/{productId}")
+    @Operation(summary = "Get waitlist status", description = "Whether the current user is waiting for a product")
+    @PreAuthorize("hasRole('CUSTOMER') or hasRole('ADMIN')")
+    public ResponseEntity<WaitlistStatus> getStatus(@PathVariable Long productId, Authentication authentication) {
+        return ResponseEntity.ok(status(productId, getUserIdFromAuthentication(authentication)));
+    }
+
+    private WaitlistStatus status(Long productId, Long userId) {
+        return new WaitlistStatus(productId, waitlistService.isSubscribed(productId, userId),
+                waitlistService.countSubscribers(productId));
+    }
+
+    /**
+     * Extracts user ID from Spring Security Authentication object.
+     */
+    private Long getUserIdFromAuthentication(Authentication authentication) {
+        if (authentication.getPrincipal() instanceof org.springframework.security.core.userdetails.User userDetails) {
+            String email = userDetails.getUsername();
+            return authServiceProvider.findUserByEmail(email)
+                    .orElseThrow(() -> new RuntimeException("User not found with email: " + email))
+                    .getId();
+        }
+        throw new RuntimeException("Unable to extract user ID from authentication");
+    }
+
+    /**
+     * A user's place on a product's waitlist.
+     */
+    public record WaitlistStatus(Long productId, boolean subscribed, int waiting) {
+    }
+}
@@ -0,0 +1,162 @@
+package com.groceryshop.waitlist;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * In-memory index of who is waiting for which product: per product, the user ids in
+ * subscription order in a plain {@code long[]}, so tens of thousands of subscribers cost a few
+ * hundred kilobytes and can be paged through without touching the database.
+ * <p>
+ * A product's list is loaded from the database on first use and kept in step with subscribe and
+ * unsubscribe calls on this node. Before a fan-out it is {@link #reload reloaded}, so
+ * subscriptions made on other nodes are not missed.
+ */
+public class WaitlistIndex {
+
+    private final Map<Long, Subscribers> products = new ConcurrentHashMap<>();
+    private final Function<Long, List<Long>> loader;
+
+    /**
+     * @param loader returns a product's subscriber ids from the database, earliest first
+     */
+    public WaitlistIndex(Function<Long, List<Long>> loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * Adds a subscriber at the end of the product's list, unless already on it.
+     *
+     * @return true if the user was added
+     */
+    public boolean add(long productId, long userId) {
+        return subscribers(productId).add(userId);
+    }
+
+    /**
+     * Removes a subscriber from the product's list.
+     *
+     * @return true if the user was on it
+     */
+    public boolean remove(long productId, long userId) {
+        Subscribers subscribers = products.get(productId);
+        return subscribers != null && subscribers.removeAll(new long[] {userId}) > 0;
+    }
+
+    /**
+     * Removes notified subscribers from the product's list.
+     */
+    public void removeAll(long productId, long[] userIds) {
+        Subscribers subscribers = products.get(productId);
+        if (subscribers != null) {
+            subscribers.removeAll(userIds);
+        }
+    }
+
+    public boolean contains(long productId, long userId) {
+        return subscribers(productId).contains(userId);
+    }
+
+    public int size(long productId) {
+        return subscribers(productId).size();
+    }
+
+    /**
+     * Returns up to {@code count} subscriber ids starting at {@code from}, in subscription order.
+     */
+    public long[] page(long productId, int from, int count) {
+        return subscribers(productId).page(from, count);
+    }
+
+    /**
+     * Replaces the product's list with the one in the database.
+     */
+    public void reload(long productId) {
+        products.put(productId, Subscribers.of(loader.apply(productId)));
+    }
+
+    /**
+     * Forgets a product's list; it is loaded again on next use.
+     */
+    public void evict(long productId) {
+        products.remove(productId);
+    }
+
+    private Subscribers subscribers(long productId) {
+        return products.computeIfAbsent(productId, id -> Subscribers.of(loader.apply(id)));
+    }
+
+    /**
+     * One product's subscriber ids. Membership checks scan the array, which for these sizes
+     * is cheaper than keeping a hash set beside it.
+     */
+    private static final class Subscribers {
+        private long[] ids;
+        private int size;
+
+        private Subscribers(long[] ids) {
+            this.ids = ids;
+            this.size = ids.length;
+        }
+
+        static Subscribers of(List<Long> userIds) {
+            long[] ids = new long[userIds.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = userIds.get(i);
+            }
+            return new Subscribers(ids);
+        }
+
+        synchronized boolean add(long userId) {
+            if (indexOf(userId) >= 0) {
+                return false;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, Math.max(8, size + (size >> 1)));
+            }
+            ids[size++] = userId;
+            return true;
+        }
+
+        synchronized int removeAll(long[] userIds) {
+            long[] sorted = userIds.clone();
+            Arrays.sort(sorted);
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (Arrays.binarySearch(sorted, ids[i]) < 0) {
+                    ids[kept++] = ids[i];
+                }
+            }
+            int removed = size - kept;
+            size = kept;
+            return removed;
+        }
+
+        synchronized boolean contains(long userId) {
+            return indexOf(userId) >= 0;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized long[] page(int from, int count) {
+            if (from >= size) {
+                return new long[0];
+            }
+            return Arrays.copyOfRange(ids, from, Math.min(size, from + count));
+        }
+
+        private int indexOf(long userId) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == userId) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.groceryshop.waitlist;
+
+/**
+ * Back-in-stock waitlist: customers subscribe to an out-of-stock product and are notified,
+ * once, when it returns.
+ */
+public interface WaitlistService {
+
+    /**
+     * Puts a user on a product's waitlist.
+     *
+     * @param productId the product ID
+     * @param userId the user ID
+     * @return true if the user was added, false if already waiting
+     * @throws com.groceryshop.shared.exception.ResourceNotFoundException if the product does not exist
+     * @throws IllegalArgumentException if the product is in stock
+     */
+    boolean subscribe(Long productId, Long userId);
+
+    /**
+     * Takes a user off a product's waitlist.
+     *
+     * @param productId the product ID
+     * @param userId the user ID
+     * @return true if the user was waiting
+     */
+    boolean unsubscribe(Long productId, Long userId);
+
+    /**
+     * Checks whether a user is on a product's waitlist.
+     */
+    boolean isSubscribed(Long productId, Long userId);
+
+    /**
+     * Counts the users waiting for a product.
+     */
+    int countSubscribers(Long productId);
+
+    /**
+     * Takes users who have been notified off a product's waitlist.
+     *
+     * @param productId the product ID
+     * @param userIds the notified user IDs
+     */
+    void removeNotified(Long productId, long[] userIds);
+}
@@ -0,0 +1,79 @@
+package com.groceryshop.waitlist;
+
+import com.groceryshop.product.Product;
+import com.groceryshop.product.spi.ProductServiceProvider;
+import com.groceryshop.shared.exception.ResourceNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Implementation of the WaitlistService interface.
+ * Subscriptions are stored in the database and mirrored in the {@link WaitlistIndex}.
+ */
+@Service
+@Transactional
+public class WaitlistServiceImpl implements WaitlistService {
+
+    private static final Logger log = LoggerFactory.getLogger(WaitlistServiceImpl.class);
+
+    private final WaitlistSubscriptionRepository subscriptionRepository;
+    private final WaitlistIndex index;
+    private final ProductServiceProvider productServiceProvider;
+
+    public WaitlistServiceImpl(WaitlistSubscriptionRepository subscriptionRepository, WaitlistIndex index,
+                               ProductServiceProvider productServiceProvider) {
+        this.subscriptionRepository = subscriptionRepository;
+        this.index = index;
+        this.productServiceProvider = productServiceProvider;
+    }
+
+    @Override
+    public boolean subscribe(Long productId, Long userId) {
+        Product product = productServiceProvider.findProductById(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + productId));
+        if (product.isInStock()) {
+            throw new IllegalArgumentException("Product is in stock: " + product.getName());
+        }
+        if (subscriptionRepository.existsByProductIdAndUserId(productId, userId)) {
+            return false;
+        }
+        subscriptionRepository.save(new WaitlistSubscription(productId, userId));
+        index.add(productId, userId);
+        log.info("User {} is waiting for product {}", userId, productId);
+        return true;
+    }
+
+    @Override
+    public boolean unsubscribe(Long productId, Long userId) {
+        int removed = subscriptionRepository.deleteByProductIdAndUserIdIn(productId, List.of(userId));
+        index.remove(productId, userId);
+        return removed > 0;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean isSubscribed(Long productId, Long userId) {
+        return index.contains(productId, userId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public int countSubscribers(Long productId) {
+        return index.size(productId);
+    }
+
+    @Override
+    public void removeNotified(Long productId, long[] userIds) {
+        List<Long> ids = new ArrayList<>(userIds.length);
+        for (long userId : userIds) {
+            ids.add(userId);
+        }
+        subscriptionRepository.deleteByProductIdAndUserIdIn(productId, ids);
+        index.removeAll(productId, userIds);
+    }
+}
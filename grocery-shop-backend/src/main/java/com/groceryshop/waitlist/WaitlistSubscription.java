@@ -0,0 +1,61 @@
+package com.groceryshop.waitlist;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A customer waiting to be told that an out-of-stock product is available again.
+ * Holds ids only: the waitlist never needs the product or user entities to keep its order.
+ */
+@Entity
+@Table(name = "back_in_stock_subscriptions")
+public class WaitlistSubscription {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public WaitlistSubscription() {}
+
+    public WaitlistSubscription(Long productId, Long userId) {
+        this.productId = productId;
+        this.userId = userId;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Lifecycle callbacks
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
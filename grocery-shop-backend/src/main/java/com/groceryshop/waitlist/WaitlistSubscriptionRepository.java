@@ -0,0 +1,26 @@
+package com.groceryshop.waitlist;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface WaitlistSubscriptionRepository extends JpaRepository<WaitlistSubscription, Long> {
+
+    boolean existsByProductIdAndUserId(Long productId, Long userId);
+
+    /**
+     * Returns the ids of the users waiting for a product, earliest subscription first.
+     */
+    @Query("SELECT s.userId FROM WaitlistSubscription s WHERE s.productId = :productId ORDER BY s.id")
+    List<Long> findUserIdsByProductId(@Param("productId") Long productId);
+
+    @Modifying
+    @Query("DELETE FROM WaitlistSubscription s WHERE s.productId = :productId AND s.userId IN :userIds")
+    int deleteByProductIdAndUserIdIn(@Param("productId") Long productId, @Param("userIds") Collection<Long> userIds);
+}
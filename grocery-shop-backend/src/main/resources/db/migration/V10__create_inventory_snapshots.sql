@@ -0,0 +1,23 @@
+-- Periodic per-product stock snapshots of the inventory ledger, so the stock at a point in time
+-- is found from the latest snapshot before it plus the few ledger rows after it
+CREATE TABLE inventory_snapshots (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    product_id BIGINT NOT NULL,
+    last_transaction_id BIGINT NOT NULL, -- Ledger rows up to this one are included
+    quantity INT NOT NULL,
+    snapshot_at TIMESTAMP NOT NULL,
+    FOREIGN KEY (product_id) REFERENCES products(id)
+);
+
+CREATE INDEX idx_inventory_snapshots_product ON inventory_snapshots(product_id, last_transaction_id);
+CREATE INDEX idx_inventory_product_id_id ON inventory_transactions(product_id, id);
+
+-- Products added or changed since the ledger was created were not recorded in it; one adjustment
+-- each brings the ledger in line with the current stock
+INSERT INTO inventory_transactions (product_id, transaction_type, quantity_change, previous_quantity, new_quantity, reason, created_at)
+SELECT p.id, 'ADJUSTMENT', p.stock_quantity - COALESCE(l.total, 0), COALESCE(l.total, 0), p.stock_quantity,
+       'Ledger reconciliation', NOW()
+FROM products p
+LEFT JOIN (SELECT product_id, SUM(quantity_change) AS total FROM inventory_transactions GROUP BY product_id) l
+    ON l.product_id = p.id
+WHERE p.stock_quantity <> COALESCE(l.total, 0);
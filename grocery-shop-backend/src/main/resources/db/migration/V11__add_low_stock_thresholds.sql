@@ -0,0 +1,7 @@
+-- Per-product low-stock threshold, and whether its low-stock alert has fired since it was last
+-- re-armed. Existing products keep the former fixed threshold of 10.
+ALTER TABLE products ADD COLUMN low_stock_threshold INT NOT NULL DEFAULT 10;
+ALTER TABLE products ADD COLUMN low_stock_alerted BOOLEAN NOT NULL DEFAULT FALSE;
+
+-- Products already low have been alerted on every stock change so far; do not alert them again
+UPDATE products SET low_stock_alerted = TRUE WHERE stock_quantity <= low_stock_threshold;
@@ -0,0 +1,4 @@
+-- One snapshot per product and ledger position, so nodes snapshotting the same rows at once cannot
+-- leave duplicates that a later snapshot would join to twice
+DROP INDEX idx_inventory_snapshots_product;
+CREATE UNIQUE INDEX idx_inventory_snapshots_product ON inventory_snapshots(product_id, last_transaction_id);
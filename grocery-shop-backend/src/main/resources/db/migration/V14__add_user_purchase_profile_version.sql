@@ -0,0 +1,3 @@
+-- Optimistic lock on purchase profiles, so an order merged on one node is never written over by
+-- a merge on another
+ALTER TABLE user_purchase_profiles ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
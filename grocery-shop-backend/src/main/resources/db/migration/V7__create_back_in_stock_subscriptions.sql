@@ -0,0 +1,13 @@
+-- Customers waiting for an out-of-stock product to come back
+CREATE TABLE back_in_stock_subscriptions (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    product_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    FOREIGN KEY (product_id) REFERENCES products(id),
+    FOREIGN KEY (user_id) REFERENCES users(id),
+    CONSTRAINT uk_back_in_stock_product_user UNIQUE (product_id, user_id)
+);
+
+-- Subscribers are read per product in subscription order
+CREATE INDEX idx_back_in_stock_product_id ON back_in_stock_subscriptions(product_id, id);
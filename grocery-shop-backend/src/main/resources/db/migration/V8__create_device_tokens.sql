@@ -0,0 +1,12 @@
+-- Push notification device tokens; a token belongs to the user last signed in on the device
+CREATE TABLE device_tokens (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    token VARCHAR(512) NOT NULL UNIQUE,
+    platform VARCHAR(20) NOT NULL, -- IOS, ANDROID, WEB
+    created_at TIMESTAMP NOT NULL,
+    last_seen_at TIMESTAMP NOT NULL,
+    FOREIGN KEY (user_id) REFERENCES users(id)
+);
+
+CREATE INDEX idx_device_tokens_user_id ON device_tokens(user_id);
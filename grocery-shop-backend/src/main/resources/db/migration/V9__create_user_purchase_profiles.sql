@@ -0,0 +1,8 @@
+-- What each customer has bought, materialized from order items for personalized recommendations
+CREATE TABLE user_purchase_profiles (
+    user_id BIGINT PRIMARY KEY,
+    profile BYTEA NOT NULL,
+    last_order_id BIGINT NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    FOREIGN KEY (user_id) REFERENCES users(id)
+);
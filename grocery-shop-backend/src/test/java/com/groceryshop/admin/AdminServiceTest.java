@@ -74,7 +74,7 @@ class AdminServiceTest {
         when(orderServiceProvider.sumTotalAmountByStatus(OrderStatus.DELIVERED))
             .thenReturn(Optional.of(BigDecimal.valueOf(5000.00)));
         when(orderServiceProvider.countOrdersByStatus(OrderStatus.PENDING)).thenReturn(10L);
-        when(productServiceProvider.countProductsByStockLessThan(10)).thenReturn(5L);
+        when(productServiceProvider.countLowStockProducts()).thenReturn(5L);
 
         LocalDateTime startOfDay = LocalDate.now().atStartOfDay();
         LocalDateTime endOfDay = LocalDate.now().atTime(LocalTime.MAX);
@@ -103,7 +103,7 @@ class AdminServiceTest {
         when(orderServiceProvider.sumTotalAmountByStatus(OrderStatus.DELIVERED))
             .thenReturn(Optional.empty());
         when(orderServiceProvider.countOrdersByStatus(OrderStatus.PENDING)).thenReturn(0L);
-        when(productServiceProvider.countProductsByStockLessThan(10)).thenReturn(2L);
+        when(productServiceProvider.countLowStockProducts()).thenReturn(2L);
 
         LocalDateTime startOfDay = LocalDate.now().atStartOfDay();
         LocalDateTime endOfDay = LocalDate.now().atTime(LocalTime.MAX);
@@ -153,8 +153,8 @@ class AdminServiceTest {
         when(productServiceProvider.countProductsByStatusAndStockGreaterThan(ProductStatus.ACTIVE, 0))
             .thenReturn(80L);
         when(productServiceProvider.countProductsByStockQuantity(0)).thenReturn(10L);
-        when(productServiceProvider.countProductsByStockLessThan(10)).thenReturn(15L);
-        when(productServiceProvider.findProductsByStockLessThan(10))
+        when(productServiceProvider.countLowStockProducts()).thenReturn(15L);
+        when(productServiceProvider.findLowStockProducts())
             .thenReturn(List.of(testProduct));
 
         // When
@@ -245,7 +245,7 @@ class AdminServiceTest {
         adminService.updateProductStock(1L, 50);
 
         // Then
-        verify(productServiceProvider).updateProductStock(1L, 50);
+        verify(productServiceProvider).adjustProductStock(1L, 50, "Admin stock update");
     }
 
     @Test
@@ -14,6 +14,7 @@ import com.groceryshop.shared.dto.request.UpdateCartItemRequest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -265,6 +266,24 @@ class CartServiceTest {
         verify(cartRepository).save(testCart);
     }
 
+    @Test
+    void clearCart_ShouldPublishCartClearedEvent_WhenCartHadItems() {
+        // Given
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(testUser));
+        when(cartRepository.findByCustomerId(anyLong())).thenReturn(Optional.of(testCart));
+        when(cartItemRepository.findByCartId(anyLong())).thenReturn(List.of(testCartItem));
+
+        // When
+        cartService.clearCart(testUser.getId());
+
+        // Then
+        ArgumentCaptor<CartClearedEvent> event = ArgumentCaptor.forClass(CartClearedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(testCart.getId(), event.getValue().cartId());
+        assertEquals(testUser.getId(), event.getValue().customerId());
+        assertEquals(1, event.getValue().itemCount());
+    }
+
     @Test
     void checkout_ShouldCreateOrderAndClearCart_WhenValidRequest() {
         // Given
@@ -0,0 +1,101 @@
+package com.groceryshop.notification;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompiledTemplateTest {
+
+    @Test
+    void render_ShouldReplaceEveryPlaceholder_WhenValuesArePresent() {
+        // Given
+        CompiledTemplate template = CompiledTemplate.parse("Hi ${name}, order ${orderId} for ${name}.");
+
+        // When
+        String rendered = template.render(Map.of("name", "Ada", "orderId", "42"));
+
+        // Then
+        assertEquals("Hi Ada, order 42 for Ada.", rendered);
+        assertEquals(Set.of("name", "orderId"), template.placeholderNames());
+    }
+
+    @Test
+    void render_ShouldKeepPlaceholderAndLiteralDollar_WhenValueIsMissing() {
+        // Given
+        CompiledTemplate template = CompiledTemplate.parse("Total: $${total} ${missing} ${unterminated");
+
+        // When
+        String rendered = template.render(Map.of("total", "4.99"));
+
+        // Then
+        assertEquals("Total: $4.99 ${missing} ${unterminated", rendered);
+    }
+
+    @Test
+    void render_ShouldMatchTemplateResolve_WhenRenderingNotificationBodies() {
+        // Given
+        String body = """
+            Dear ${customerName},
+
+            - Order ID: ${orderId}
+            - Total Amount: $${totalAmount}
+            """;
+        Map<String, String> values = Map.of("customerName", "Ada Lovelace", "orderId", "7", "totalAmount", "12.50");
+
+        // When
+        String rendered = CompiledTemplate.parse(body).render(values);
+
+        // Then
+        String expected = body;
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            expected = expected.replace("${" + entry.getKey() + "}", entry.getValue());
+        }
+        assertEquals(expected, rendered);
+    }
+
+    @Test
+    void renderAll_ShouldRenderOncePerRecipient_WhenGivenManyValueSets() {
+        // Given
+        CompiledTemplate template = CompiledTemplate.parse("Hi ${name}!");
+
+        // When
+        List<String> rendered = template.renderAll(List.of(Map.of("name", "Ada"), Map.of("name", "Alan"), Map.of()));
+
+        // Then
+        assertEquals(List.of("Hi Ada!", "Hi Alan!", "Hi ${name}!"), rendered);
+    }
+
+    @Test
+    void compile_ShouldReturnCachedTemplate_WhenTextHasPlaceholders() {
+        // Given
+        String text = "Cached ${value}";
+
+        // When
+        CompiledTemplate first = EmailTemplateRegistry.compile(text);
+        CompiledTemplate second = EmailTemplateRegistry.compile(new String(text));
+
+        // Then
+        assertSame(first, second);
+        assertEquals("Cached 1", second.render(Map.of("value", "1")));
+    }
+
+    @Test
+    void resolveAll_ShouldResolveSubjectAndBodyPerRecipient_WhenBatchRendering() {
+        // Given
+        EmailTemplate template = EmailTemplate.of("${product} is back", "Hi ${firstName}, ${product} is back.");
+
+        // When
+        List<EmailTemplate.ResolvedEmail> resolved = template.resolveAll(List.of(
+            Map.of("firstName", "Ada", "product", "Milk"),
+            Map.of("firstName", "Alan", "product", "Milk")));
+
+        // Then
+        assertEquals(2, resolved.size());
+        assertEquals("Milk is back", resolved.get(0).subject());
+        assertEquals("Hi Alan, Milk is back.", resolved.get(1).body());
+    }
+}
@@ -0,0 +1,75 @@
+package com.groceryshop.notification;
+
+import com.groceryshop.auth.spi.AuthServiceProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeviceTokenRegistryTest {
+
+    @Mock
+    private DeviceTokenRepository repository;
+
+    @Mock
+    private AuthServiceProvider authServiceProvider;
+
+    private DeviceTokenRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new DeviceTokenRegistry(repository, authServiceProvider, Duration.ofMinutes(5));
+    }
+
+    @Test
+    void register_ShouldInsertToken_WhenTokenIsNew() {
+        // Given
+        when(repository.findByToken("token-a")).thenReturn(Optional.empty());
+
+        // When
+        registry.register(1L, "token-a", DevicePlatform.ANDROID);
+
+        // Then
+        verify(repository).saveAndFlush(any(DeviceToken.class));
+        verify(repository, never()).save(any(DeviceToken.class));
+    }
+
+    @Test
+    void register_ShouldMoveConcurrentlyInsertedToken_WhenInsertHitsUniqueConstraint() {
+        // Given - another registration of the same token inserted it after our lookup
+        DeviceToken inserted = new DeviceToken(2L, "token-a", DevicePlatform.ANDROID);
+        when(repository.findByToken("token-a")).thenReturn(Optional.empty()).thenReturn(Optional.of(inserted));
+        when(repository.saveAndFlush(any(DeviceToken.class)))
+                .thenThrow(new DataIntegrityViolationException("duplicate token"));
+
+        // When
+        registry.register(1L, "token-a", DevicePlatform.IOS);
+
+        // Then
+        verify(repository).save(inserted);
+        assertEquals(1L, inserted.getUserId());
+        assertEquals(DevicePlatform.IOS, inserted.getPlatform());
+    }
+
+    @Test
+    void register_ShouldRethrow_WhenConflictingRowIsGone() {
+        // Given
+        DataIntegrityViolationException conflict = new DataIntegrityViolationException("duplicate token");
+        when(repository.findByToken("token-a")).thenReturn(Optional.empty());
+        when(repository.saveAndFlush(any(DeviceToken.class))).thenThrow(conflict);
+
+        // When & Then
+        assertSame(conflict, assertThrows(DataIntegrityViolationException.class,
+                () -> registry.register(1L, "token-a", DevicePlatform.ANDROID)));
+    }
+}
@@ -0,0 +1,119 @@
+package com.groceryshop.notification;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares rendering an order confirmation email with the previous resolver, one
+ * {@code String.replace} pass over the whole text per placeholder, against the compiled template
+ * rendered singly and in batches. Reports nanoseconds per email after a warm-up.
+ * <p>
+ * Not part of the regular build; run with
+ * {@code mvn test -Dtest=EmailTemplateRenderBenchmarkTest -Dtemplate.benchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "template.benchmark", matches = "true")
+class EmailTemplateRenderBenchmarkTest {
+
+    private static final String BODY = """
+        Dear ${customerName},
+
+        Thank you for your order! Your order has been successfully placed.
+
+        Order Details:
+        - Order ID: ${orderId}
+        - Total Amount: $${totalAmount}
+        - Order Date: ${orderDate}
+        - Delivery Address: ${deliveryAddress}
+
+        You will receive updates on your order status. If you have any questions,
+        please contact our customer service.
+
+        Best regards,
+        Grocery Shop Team
+        """;
+    private static final int RECIPIENTS = 1_000;
+    private static final int ROUNDS = 200;
+    private static final int WARM_UP_ROUNDS = 50;
+
+    @Test
+    void compiledTemplate_ShouldRenderFasterThanReplaceResolver_WhenRenderingManyEmails() {
+        List<Map<String, String>> values = new ArrayList<>(RECIPIENTS);
+        for (int i = 0; i < RECIPIENTS; i++) {
+            values.add(Map.of(
+                "customerName", "Customer " + i,
+                "orderId", Integer.toString(i),
+                "totalAmount", (i % 100) + ".99",
+                "orderDate", "2025-01-01T10:00:00",
+                "deliveryAddress", i + " Market Street"));
+        }
+        CompiledTemplate compiled = EmailTemplateRegistry.compile(BODY);
+        assertEquals(replaceResolve(values.get(0)), compiled.render(values.get(0)));
+
+        long replace = measure(() -> {
+            long chars = 0;
+            for (Map<String, String> each : values) {
+                chars += replaceResolve(each).length();
+            }
+            return chars;
+        });
+        long single = measure(() -> {
+            long chars = 0;
+            for (Map<String, String> each : values) {
+                chars += EmailTemplateRegistry.compile(BODY).render(each).length();
+            }
+            return chars;
+        });
+        long batch = measure(() -> {
+            long chars = 0;
+            for (String rendered : compiled.renderAll(values)) {
+                chars += rendered.length();
+            }
+            return chars;
+        });
+
+        System.out.printf("%-10s %10s%n", "resolver", "ns/email");
+        System.out.printf("%-10s %10d%n", "replace", replace);
+        System.out.printf("%-10s %10d%n", "compiled", single);
+        System.out.printf("%-10s %10d%n", "batch", batch);
+
+        assertTrue(single < replace);
+    }
+
+    /**
+     * Returns the average nanoseconds per email over the measured rounds.
+     */
+    private static long measure(Round round) {
+        long sink = 0;
+        for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+            sink += round.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            sink += round.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        assertTrue(sink > 0);
+        return elapsed / ((long) ROUNDS * RECIPIENTS);
+    }
+
+    // The resolver EmailTemplate used before templates were compiled
+    private static String replaceResolve(Map<String, String> values) {
+        String result = BODY;
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            String placeholder = "${" + entry.getKey() + "}";
+            result = result.replace(placeholder, entry.getValue());
+        }
+        return result;
+    }
+
+    @FunctionalInterface
+    private interface Round {
+        long run();
+    }
+}
@@ -0,0 +1,197 @@
+package com.groceryshop.notification;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedNotificationJournalTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @TempDir
+    Path directory;
+
+    private MappedNotificationJournal journal;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (journal != null) {
+            journal.destroy();
+        }
+    }
+
+    @Test
+    void replay_ShouldReturnUnacknowledgedTasks_WhenJournalIsReopened() throws IOException {
+        // Given
+        journal = open(4096);
+        long first = journal.append(task("a@example.com", Map.of("orderId", 1)));
+        long second = journal.append(task("b@example.com", null));
+        long third = journal.append(task("c@example.com", null));
+        journal.acknowledge(second);
+        journal.destroy();
+
+        // When
+        journal = open(4096);
+        List<Long> sequences = new ArrayList<>();
+        List<NotificationTask> tasks = new ArrayList<>();
+        journal.replay((sequence, task) -> {
+            sequences.add(sequence);
+            tasks.add(task);
+        });
+
+        // Then
+        assertEquals(List.of(first, third), sequences);
+        assertEquals("a@example.com", tasks.get(0).recipient());
+        assertEquals(NotificationType.EMAIL, tasks.get(0).type());
+        assertEquals("Order update", tasks.get(0).subject());
+        assertEquals(Map.of("orderId", 1), tasks.get(0).metadata());
+        assertNull(tasks.get(1).metadata());
+    }
+
+    @Test
+    void append_ShouldContinueSequence_WhenJournalIsReopened() throws IOException {
+        // Given
+        journal = open(4096);
+        long before = journal.append(task("a@example.com", null));
+        journal.destroy();
+
+        // When
+        journal = open(4096);
+        long after = journal.append(task("b@example.com", null));
+
+        // Then
+        assertTrue(after > before);
+    }
+
+    @Test
+    void append_ShouldSucceed_WhenTrailingSegmentHasNoReadableEntries() throws IOException {
+        // Given - a crash right after the next segment was created, before anything reached it
+        journal = open(4096);
+        long before = journal.append(task("a@example.com", null));
+        journal.destroy();
+        journal = null;
+        Path empty = directory.resolve(String.format("%020d%s", before + 1, MappedNotificationJournal.SEGMENT_SUFFIX));
+        Files.write(empty, new byte[4096]);
+
+        // When
+        journal = open(4096);
+        long after = journal.append(task("b@example.com", null));
+        journal.destroy();
+        journal = open(4096);
+        List<String> recipients = new ArrayList<>();
+        journal.replay((sequence, task) -> recipients.add(task.recipient()));
+
+        // Then
+        assertEquals(before + 1, after);
+        assertEquals(List.of("a@example.com", "b@example.com"), recipients);
+    }
+
+    @Test
+    void flush_ShouldDeleteDeliveredSegmentsAndAdvanceOffset_WhenAllEntriesAreAcknowledged() {
+        // Given - small segments so that a few entries span several of them
+        journal = open(256);
+        List<Long> sequences = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            sequences.add(journal.append(task("user" + i + "@example.com", null)));
+        }
+        assertTrue(journal.getSegmentCount() > 2);
+
+        // When
+        sequences.forEach(journal::acknowledge);
+        journal.flush();
+
+        // Then - only the active segment is left
+        assertEquals(1, journal.getSegmentCount());
+        assertEquals(sequences.getLast() + 1, journal.getCommittedOffset());
+        assertEquals(0, journal.getPendingCount());
+    }
+
+    @Test
+    void flush_ShouldKeepOffsetAtOldestPendingEntry_WhenEntriesAreAcknowledgedOutOfOrder() {
+        // Given
+        journal = open(4096);
+        long first = journal.append(task("a@example.com", null));
+        long second = journal.append(task("b@example.com", null));
+
+        // When
+        journal.acknowledge(second);
+        journal.flush();
+
+        // Then
+        assertEquals(first, journal.getCommittedOffset());
+        assertEquals(1, journal.getPendingCount());
+    }
+
+    @Test
+    void replay_ShouldStopAtTornEntry_WhenSegmentTailIsCorrupt() throws IOException {
+        // Given
+        journal = open(4096);
+        journal.append(task("a@example.com", null));
+        journal.append(task("b@example.com", null));
+        journal.destroy();
+        journal = null;
+        corruptLastByteOfSecondEntry();
+
+        // When
+        journal = open(4096);
+        List<String> recipients = new ArrayList<>();
+        journal.replay((sequence, task) -> recipients.add(task.recipient()));
+
+        // Then
+        assertEquals(List.of("a@example.com"), recipients);
+    }
+
+    @Test
+    void append_ShouldWaitForGroupCommit_WhenSyncOnAppendIsEnabled() {
+        // Given
+        journal = new MappedNotificationJournal(directory, 4096, Duration.ofMillis(5), true, OBJECT_MAPPER);
+
+        // When
+        long sequence = journal.append(task("a@example.com", null));
+
+        // Then - a subsequent flush finds nothing new to force
+        assertTrue(sequence >= 0);
+        assertEquals(1, journal.getPendingCount());
+    }
+
+    private MappedNotificationJournal open(int segmentBytes) {
+        return new MappedNotificationJournal(directory, segmentBytes, Duration.ofHours(1), false, OBJECT_MAPPER);
+    }
+
+    private static NotificationTask task(String recipient, Object metadata) {
+        return new NotificationTask(NotificationType.EMAIL, recipient, "Order update", "Your order shipped", metadata);
+    }
+
+    private void corruptLastByteOfSecondEntry() throws IOException {
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.filter(path -> path.toString().endsWith(MappedNotificationJournal.SEGMENT_SUFFIX))
+                    .findFirst()
+                    .orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(4);
+            channel.read(header, 0);
+            int firstEntry = 16 + header.flip().getInt();
+            header.clear();
+            channel.read(header, firstEntry);
+            int secondLength = header.flip().getInt();
+            channel.write(ByteBuffer.wrap(new byte[] {0x7f}), firstEntry + 16 + secondLength - 1);
+        }
+    }
+}
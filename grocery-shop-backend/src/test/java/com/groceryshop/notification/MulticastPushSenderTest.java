@@ -0,0 +1,116 @@
+package com.groceryshop.notification;
+
+import com.groceryshop.auth.UserRole;
+import com.groceryshop.notification.PushGateway.MulticastResult;
+import com.groceryshop.notification.PushGateway.PushMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MulticastPushSenderTest {
+
+    @Mock
+    private DeviceTokenRegistry registry;
+
+    @Mock
+    private PushGateway gateway;
+
+    private MulticastPushSender sender;
+
+    @BeforeEach
+    void setUp() {
+        sender = new MulticastPushSender(registry, gateway);
+        lenient().when(gateway.maxTokensPerRequest()).thenReturn(2);
+    }
+
+    @Test
+    void sendBatch_ShouldMulticastOncePerChunk_WhenTasksShareMessage() throws Exception {
+        // Given
+        List<NotificationTask> tasks = List.of(
+            new NotificationTask(NotificationType.PUSH, "1", "Sale", "Milk is on sale", null),
+            new NotificationTask(NotificationType.PUSH, "users:2,3", "Sale", "Milk is on sale", null));
+        when(registry.tokens(Set.of(1L, 2L, 3L))).thenReturn(List.of("token-a", "token-b", "token-c"));
+        when(gateway.multicast(any(), anyList())).thenReturn(new MulticastResult(2, List.of()));
+
+        // When
+        sender.sendBatch(tasks);
+
+        // Then
+        PushMessage message = new PushMessage("Sale", "Milk is on sale", null);
+        verify(gateway).multicast(message, List.of("token-a", "token-b"));
+        verify(gateway).multicast(message, List.of("token-c"));
+        verify(registry).prune(List.of());
+    }
+
+    @Test
+    void send_ShouldResolveRoleToActiveUsers_WhenRecipientIsRole() throws Exception {
+        // Given
+        NotificationTask task = new NotificationTask(NotificationType.PUSH, "role:ADMIN", "Low Stock Alert",
+            "Milk is running low on stock", Map.of("productId", 1L));
+        when(registry.usersWithRole(UserRole.ADMIN)).thenReturn(List.of(7L, 8L));
+        when(registry.tokens(Set.of(7L, 8L))).thenReturn(List.of("admin-token"));
+        when(gateway.multicast(any(), anyList())).thenReturn(new MulticastResult(1, List.of()));
+
+        // When
+        sender.send(task);
+
+        // Then
+        verify(gateway).multicast(
+            new PushMessage("Low Stock Alert", "Milk is running low on stock", Map.of("productId", 1L)),
+            List.of("admin-token"));
+    }
+
+    @Test
+    void sendBatch_ShouldPruneRejectedTokens_WhenProviderReportsThemInvalid() throws Exception {
+        // Given
+        NotificationTask task = new NotificationTask(NotificationType.PUSH, "1", "Hi", "Hello", null);
+        when(registry.tokens(Set.of(1L))).thenReturn(List.of("stale-token", "fresh-token"));
+        when(gateway.multicast(any(), anyList())).thenReturn(new MulticastResult(1, List.of("stale-token")));
+
+        // When
+        sender.sendBatch(List.of(task));
+
+        // Then
+        verify(registry).prune(List.of("stale-token"));
+    }
+
+    @Test
+    void sendBatch_ShouldNotCallProvider_WhenRecipientsHaveNoDevices() throws Exception {
+        // Given
+        NotificationTask task = new NotificationTask(NotificationType.PUSH, "users:4,5", "Hi", "Hello", null);
+        when(registry.tokens(Set.of(4L, 5L))).thenReturn(List.of());
+
+        // When
+        sender.sendBatch(List.of(task));
+
+        // Then
+        verify(gateway, never()).multicast(any(), anyList());
+        verify(registry, never()).prune(anyCollection());
+    }
+
+    @Test
+    void parse_ShouldRoundTripRecipient_WhenAudienceIsFormatted() {
+        // Given
+        List<PushAudience> audiences = List.of(
+            new PushAudience.User(42L),
+            new PushAudience.Users(List.of(1L, 2L, 3L)),
+            new PushAudience.Role(UserRole.ADMIN));
+
+        // When / Then
+        for (PushAudience audience : audiences) {
+            assertEquals(audience, PushAudience.parse(audience.recipient()));
+        }
+        assertThrows(IllegalArgumentException.class, () -> PushAudience.parse("admin"));
+    }
+}
@@ -0,0 +1,267 @@
+package com.groceryshop.notification;
+
+import com.groceryshop.notification.NotificationDispatcher.ChannelSettings;
+import com.groceryshop.shared.messaging.BackpressurePolicy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NotificationDispatcherTest {
+
+    private NotificationDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() {
+        if (dispatcher != null && dispatcher.isRunning()) {
+            dispatcher.stop();
+        }
+    }
+
+    @Test
+    void dispatch_ShouldDeliverInParallel_WhenRecipientsDiffer() throws Exception {
+        // Given
+        RecordingSender sender = new RecordingSender(NotificationType.EMAIL, 8, 100);
+        dispatcher = newDispatcher(sender, new ChannelSettings(8, 100, BackpressurePolicy.BLOCK));
+        dispatcher.start();
+
+        // When
+        long start = System.nanoTime();
+        for (int i = 0; i < 8; i++) {
+            dispatcher.dispatch(task(NotificationType.EMAIL, "user" + i + "@example.com"));
+        }
+
+        // Then - eight 100 ms sends finish well before they would serially
+        assertTrue(sender.delivered.await(5, TimeUnit.SECONDS));
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 600);
+        assertEquals(8, dispatcher.stats(NotificationType.EMAIL).sent());
+    }
+
+    @Test
+    void dispatch_ShouldPreserveOrder_WhenNotificationsShareRecipient() throws Exception {
+        // Given
+        RecordingSender sender = new RecordingSender(NotificationType.PUSH, 20, 1);
+        dispatcher = newDispatcher(sender, new ChannelSettings(4, 100, BackpressurePolicy.BLOCK));
+        dispatcher.start();
+
+        // When
+        for (int i = 0; i < 20; i++) {
+            dispatcher.dispatch(new NotificationTask(NotificationType.PUSH, "42", "update " + i, "", null));
+        }
+
+        // Then
+        assertTrue(sender.delivered.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 20; i++) {
+            assertEquals("update " + i, sender.subjects.get(i));
+        }
+    }
+
+    @Test
+    void dispatch_ShouldShedNotification_WhenQueueIsFullAndPolicyIsDrop() {
+        // Given - not started, so nothing drains the single-slot queue
+        RecordingSender sender = new RecordingSender(NotificationType.PUSH, 1, 0);
+        dispatcher = newDispatcher(sender, new ChannelSettings(1, 1, BackpressurePolicy.DROP));
+
+        // When
+        boolean first = dispatcher.dispatch(task(NotificationType.PUSH, "1"));
+        boolean second = dispatcher.dispatch(task(NotificationType.PUSH, "2"));
+
+        // Then
+        assertTrue(first);
+        assertFalse(second);
+        NotificationDispatcher.ChannelStats stats = dispatcher.stats(NotificationType.PUSH);
+        assertEquals(1, stats.depth());
+        assertEquals(1, stats.dropped());
+    }
+
+    @Test
+    void dispatch_ShouldGiveUpAfterTimeout_WhenQueueIsFullAndPolicyIsBlock() {
+        // Given
+        RecordingSender sender = new RecordingSender(NotificationType.EMAIL, 1, 0);
+        dispatcher = newDispatcher(sender, new ChannelSettings(1, 1, BackpressurePolicy.BLOCK));
+        dispatcher.dispatch(task(NotificationType.EMAIL, "a@example.com"));
+
+        // When
+        long start = System.nanoTime();
+        boolean queued = dispatcher.dispatch(task(NotificationType.EMAIL, "b@example.com"));
+
+        // Then
+        assertFalse(queued);
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() >= 40);
+        assertEquals(1, dispatcher.stats(NotificationType.EMAIL).dropped());
+    }
+
+    @Test
+    void dispatch_ShouldReturnFalse_WhenChannelHasNoSender() {
+        // Given
+        dispatcher = newDispatcher(new RecordingSender(NotificationType.EMAIL, 1, 0),
+                new ChannelSettings(1, 10, BackpressurePolicy.DROP));
+
+        // When / Then
+        assertFalse(dispatcher.dispatch(task(NotificationType.SMS, "+15550100")));
+    }
+
+    @Test
+    void stop_ShouldDeliverQueuedNotifications_WhenDrainTimeoutAllows() throws Exception {
+        // Given
+        RecordingSender sender = new RecordingSender(NotificationType.EMAIL, 5, 10);
+        dispatcher = newDispatcher(sender, new ChannelSettings(1, 10, BackpressurePolicy.BLOCK));
+        for (int i = 0; i < 5; i++) {
+            dispatcher.dispatch(task(NotificationType.EMAIL, "user@example.com"));
+        }
+        dispatcher.start();
+
+        // When
+        dispatcher.stop();
+
+        // Then
+        assertEquals(0, sender.delivered.getCount());
+        assertEquals(5, dispatcher.stats(NotificationType.EMAIL).sent());
+    }
+
+    @Test
+    void dispatch_ShouldSendWholeBatchInOneProviderCall_WhenBatchingIsEnabled() throws Exception {
+        // Given - queued before start, so the worker finds them all waiting
+        BatchingSender sender = new BatchingSender(NotificationType.EMAIL, 100);
+        dispatcher = newDispatcher(sender,
+                new ChannelSettings(1, 200, BackpressurePolicy.BLOCK, 50, Duration.ofMillis(200)));
+        for (int i = 0; i < 100; i++) {
+            dispatcher.dispatch(task(NotificationType.EMAIL, "user" + i + "@example.com"));
+        }
+
+        // When
+        dispatcher.start();
+
+        // Then
+        assertTrue(sender.delivered.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(50, 50), sender.batchSizes);
+        dispatcher.stop();
+        NotificationDispatcher.ChannelStats stats = dispatcher.stats(NotificationType.EMAIL);
+        assertEquals(100, stats.sent());
+        assertEquals(2, stats.providerCalls());
+    }
+
+    @Test
+    void dispatch_ShouldWaitForBatchToFill_WhenLingerIsSet() throws Exception {
+        // Given
+        BatchingSender sender = new BatchingSender(NotificationType.PUSH, 3);
+        dispatcher = newDispatcher(sender,
+                new ChannelSettings(1, 10, BackpressurePolicy.DROP, 10, Duration.ofMillis(500)));
+        dispatcher.start();
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            dispatcher.dispatch(task(NotificationType.PUSH, String.valueOf(i)));
+            Thread.sleep(20);
+        }
+
+        // Then
+        assertTrue(sender.delivered.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(3), sender.batchSizes);
+    }
+
+    @Test
+    void dispatch_ShouldCoalesceIntoDigest_WhenUpdatesShareOrderAndRecipient() throws Exception {
+        // Given - ten orders, each with ten status updates for its customer
+        BatchingSender sender = new BatchingSender(NotificationType.EMAIL, 10);
+        dispatcher = newDispatcher(sender,
+                new ChannelSettings(1, 200, BackpressurePolicy.BLOCK, 100, Duration.ofMillis(200)));
+        for (int update = 0; update < 10; update++) {
+            for (int order = 0; order < 10; order++) {
+                dispatcher.dispatch(new NotificationTask(NotificationType.EMAIL, "customer" + order + "@example.com",
+                        "Order #" + order, "status " + update, null, "order-status:" + order));
+            }
+        }
+
+        // When
+        dispatcher.start();
+
+        // Then - one provider call carrying one digest per order
+        assertTrue(sender.delivered.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(10), sender.batchSizes);
+        NotificationTask digest = sender.tasks.get(0);
+        assertEquals("Order #0 (10 updates)", digest.subject());
+        assertTrue(digest.content().startsWith("status 9"));
+        assertTrue(digest.content().contains("status 0"));
+        dispatcher.stop();
+        NotificationDispatcher.ChannelStats stats = dispatcher.stats(NotificationType.EMAIL);
+        assertEquals(100, stats.sent());
+        assertEquals(90, stats.coalesced());
+        assertEquals(1, stats.providerCalls());
+    }
+
+    private static NotificationDispatcher newDispatcher(NotificationSender sender, ChannelSettings settings) {
+        return new NotificationDispatcher(Map.of(sender.type(), settings), List.of(sender), Duration.ofMillis(50),
+                Duration.ofSeconds(5), false,
+                NotificationJournal.DISABLED, new SimpleMeterRegistry());
+    }
+
+    private static NotificationTask task(NotificationType type, String recipient) {
+        return new NotificationTask(type, recipient, "subject", "body", null);
+    }
+
+    private static class RecordingSender implements NotificationSender {
+        private final NotificationType type;
+        private final long delayMillis;
+        final CountDownLatch delivered;
+        final List<String> subjects = new CopyOnWriteArrayList<>();
+
+        RecordingSender(NotificationType type, int expected, long delayMillis) {
+            this.type = type;
+            this.delayMillis = delayMillis;
+            this.delivered = new CountDownLatch(expected);
+        }
+
+        @Override
+        public NotificationType type() {
+            return type;
+        }
+
+        @Override
+        public void send(NotificationTask task) throws InterruptedException {
+            Thread.sleep(delayMillis);
+            subjects.add(task.subject());
+            delivered.countDown();
+        }
+    }
+
+    /**
+     * Stub provider with a bulk API that records each batch it is handed.
+     */
+    private static class BatchingSender implements NotificationSender {
+        private final NotificationType type;
+        final CountDownLatch delivered;
+        final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        final List<NotificationTask> tasks = new CopyOnWriteArrayList<>();
+
+        BatchingSender(NotificationType type, int expected) {
+            this.type = type;
+            this.delivered = new CountDownLatch(expected);
+        }
+
+        @Override
+        public NotificationType type() {
+            return type;
+        }
+
+        @Override
+        public void send(NotificationTask task) {
+            sendBatch(List.of(task));
+        }
+
+        @Override
+        public void sendBatch(List<NotificationTask> batch) {
+            batchSizes.add(batch.size());
+            tasks.addAll(batch);
+            batch.forEach(task -> delivered.countDown());
+        }
+    }
+}
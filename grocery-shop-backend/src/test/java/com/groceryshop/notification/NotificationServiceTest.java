@@ -2,6 +2,7 @@ package com.groceryshop.notification;
 
 import com.groceryshop.TestDataFactory;
 import com.groceryshop.auth.User;
+import com.groceryshop.auth.UserRole;
 import com.groceryshop.order.Order;
 import com.groceryshop.order.OrderStatus;
 import com.groceryshop.product.Product;
@@ -14,6 +15,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -81,7 +83,8 @@ class NotificationServiceTest {
         // Then
         // Verify email notification
         ArgumentCaptor<EmailTemplate> emailCaptor = ArgumentCaptor.forClass(EmailTemplate.class);
-        verify(emailService).sendEmail(eq(testUser.getEmail()), emailCaptor.capture());
+        verify(emailService).sendEmail(eq(testUser.getEmail()), emailCaptor.capture(),
+            eq("order-status:" + testOrder.getId()));
 
         EmailTemplate emailTemplate = emailCaptor.getValue();
         assertTrue(emailTemplate.subject().contains("Order Status Update"));
@@ -92,7 +95,8 @@ class NotificationServiceTest {
             eq(testUser.getId().toString()),
             eq("Order Update"),
             contains("is now confirmed"),
-            any(Map.class)
+            any(Map.class),
+            eq("order-status:" + testOrder.getId())
         );
     }
 
@@ -107,7 +111,8 @@ class NotificationServiceTest {
         // Then
         // Verify email notification
         ArgumentCaptor<EmailTemplate> emailCaptor = ArgumentCaptor.forClass(EmailTemplate.class);
-        verify(emailService).sendEmail(eq(testUser.getEmail()), emailCaptor.capture());
+        verify(emailService).sendEmail(eq(testUser.getEmail()), emailCaptor.capture(),
+            eq("order-status:" + testOrder.getId()));
 
         EmailTemplate emailTemplate = emailCaptor.getValue();
         EmailTemplate.ResolvedEmail resolved = emailTemplate.resolve();
@@ -118,7 +123,8 @@ class NotificationServiceTest {
             eq(testUser.getId().toString()),
             eq("Order Update"),
             contains("is now shipped"),
-            any(Map.class)
+            any(Map.class),
+            eq("order-status:" + testOrder.getId())
         );
     }
 
@@ -133,7 +139,8 @@ class NotificationServiceTest {
         // Then
         // Verify email notification
         ArgumentCaptor<EmailTemplate> emailCaptor = ArgumentCaptor.forClass(EmailTemplate.class);
-        verify(emailService).sendEmail(eq(testUser.getEmail()), emailCaptor.capture());
+        verify(emailService).sendEmail(eq(testUser.getEmail()), emailCaptor.capture(),
+            eq("order-status:" + testOrder.getId()));
 
         EmailTemplate emailTemplate = emailCaptor.getValue();
         EmailTemplate.ResolvedEmail resolved = emailTemplate.resolve();
@@ -144,7 +151,8 @@ class NotificationServiceTest {
             eq(testUser.getId().toString()),
             eq("Order Update"),
             contains("is now delivered"),
-            any(Map.class)
+            any(Map.class),
+            eq("order-status:" + testOrder.getId())
         );
     }
 
@@ -159,7 +167,8 @@ class NotificationServiceTest {
         // Then
         // Verify email notification
         ArgumentCaptor<EmailTemplate> emailCaptor = ArgumentCaptor.forClass(EmailTemplate.class);
-        verify(emailService).sendEmail(eq(testUser.getEmail()), emailCaptor.capture());
+        verify(emailService).sendEmail(eq(testUser.getEmail()), emailCaptor.capture(),
+            eq("order-status:" + testOrder.getId()));
 
         EmailTemplate emailTemplate = emailCaptor.getValue();
         EmailTemplate.ResolvedEmail resolved = emailTemplate.resolve();
@@ -170,7 +179,8 @@ class NotificationServiceTest {
             eq(testUser.getId().toString()),
             eq("Order Update"),
             contains("is now cancelled"),
-            any(Map.class)
+            any(Map.class),
+            eq("order-status:" + testOrder.getId())
         );
     }
 
@@ -193,9 +203,9 @@ class NotificationServiceTest {
         assertTrue(resolved.body().contains("100")); // Current stock (from TestDataFactory)
         assertTrue(resolved.body().contains("10")); // Threshold (hardcoded in implementation)
 
-        // Verify push notification to admin
-        verify(pushService).sendPushNotification(
-            eq("admin"),
+        // Verify push notification to admin users
+        verify(pushService).sendPushNotificationToRole(
+            eq(UserRole.ADMIN),
             eq("Low Stock Alert"),
             contains("is running low on stock"),
             any(Map.class)
@@ -279,6 +289,32 @@ class NotificationServiceTest {
         );
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void sendProductAvailableNotifications_ShouldRenderOneBatch_WhenNotifyingManyUsers() {
+        // Given
+        User otherUser = TestDataFactory.createTestUser(3L, "other@example.com", com.groceryshop.auth.UserRole.CUSTOMER);
+        otherUser.setFirstName("Other");
+
+        // When
+        notificationService.sendProductAvailableNotifications(List.of(testUser, otherUser), testProduct);
+
+        // Then
+        ArgumentCaptor<Map<String, Map<String, String>>> recipientsCaptor = ArgumentCaptor.forClass(Map.class);
+        verify(emailService).sendEmails(any(EmailTemplate.class), recipientsCaptor.capture());
+        Map<String, Map<String, String>> recipients = recipientsCaptor.getValue();
+        assertEquals(List.of(testUser.getEmail(), otherUser.getEmail()), List.copyOf(recipients.keySet()));
+        assertEquals("Other", recipients.get(otherUser.getEmail()).get("firstName"));
+
+        verify(pushService).sendPushNotificationToUsers(
+            eq(List.of("1", "3")),
+            eq("Product Available"),
+            contains("is back in stock"),
+            any(Map.class)
+        );
+        verify(emailService, never()).sendEmail(anyString(), any(EmailTemplate.class));
+    }
+
     @Test
     void sendOrderConfirmation_ShouldThrowNpeForNullCustomer() {
         // Given - order with null customer (shouldn't happen in real scenario but test edge case)
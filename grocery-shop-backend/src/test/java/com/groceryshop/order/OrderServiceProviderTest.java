@@ -2,7 +2,10 @@ package com.groceryshop.order;
 
 import com.groceryshop.TestDataFactory;
 import com.groceryshop.auth.User;
+import com.groceryshop.order.spi.OrderProducts;
 import com.groceryshop.order.spi.OrderServiceProvider;
+import com.groceryshop.order.spi.PurchasedProduct;
+import com.groceryshop.product.ProductCategory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -13,9 +16,12 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -31,13 +37,16 @@ class OrderServiceProviderTest {
     @Mock
     private OrderRepository orderRepository;
 
+    @Mock
+    private OrderItemRepository orderItemRepository;
+
     private OrderServiceProvider orderServiceProvider;
     private Order testOrder;
     private User testUser;
 
     @BeforeEach
     void setUp() {
-        orderServiceProvider = new OrderServiceProviderImpl(orderRepository);
+        orderServiceProvider = new OrderServiceProviderImpl(orderRepository, orderItemRepository);
         testOrder = TestDataFactory.createTestOrder();
         testUser = TestDataFactory.createTestUser();
     }
@@ -242,4 +251,80 @@ class OrderServiceProviderTest {
         // Then
         assertFalse(result.isPresent());
     }
+
+    @Test
+    void findOrderProductsAfter_ShouldGroupProductsByOrder_WhenOrdersExist() {
+        // Given
+        LocalDateTime placed = LocalDateTime.of(2025, 1, 1, 10, 0);
+        when(orderRepository.findIdsAndOrderDatesAfter(eq(5L), any())).thenReturn(List.of(
+            new Object[] {6L, placed}, new Object[] {7L, placed.plusHours(1)}));
+        when(orderItemRepository.findOrderAndProductIdsByOrderIdIn(anyCollection())).thenReturn(List.of(
+            new Object[] {7L, 30L}, new Object[] {6L, 10L}, new Object[] {6L, 20L}));
+
+        // When
+        List<OrderProducts> result = orderServiceProvider.findOrderProductsAfter(5L, 100);
+
+        // Then
+        assertEquals(List.of(
+            new OrderProducts(6L, placed, List.of(10L, 20L)),
+            new OrderProducts(7L, placed.plusHours(1), List.of(30L))), result);
+    }
+
+    @Test
+    void findLastOrderIdBefore_ShouldReturnZero_WhenNoOrdersBeforeDate() {
+        // Given
+        LocalDateTime date = LocalDateTime.of(2025, 1, 1, 0, 0);
+        when(orderRepository.findMaxIdByOrderDateBefore(date)).thenReturn(null);
+
+        // When / Then
+        assertEquals(0L, orderServiceProvider.findLastOrderIdBefore(date));
+    }
+
+    @Test
+    void findPurchasedProductsByCustomer_ShouldMapGroupedRows_WhenCustomerHasOrders() {
+        // Given
+        when(orderItemRepository.summarizePurchasesByCustomerId(1L)).thenReturn(List.of(
+            new Object[] {10L, ProductCategory.DAIRY, 3L, 12L}, new Object[] {20L, ProductCategory.FRUITS, 1L, 9L}));
+
+        // When
+        List<PurchasedProduct> result = orderServiceProvider.findPurchasedProductsByCustomer(1L);
+
+        // Then
+        assertEquals(List.of(
+            new PurchasedProduct(10L, ProductCategory.DAIRY, 3L, 12L),
+            new PurchasedProduct(20L, ProductCategory.FRUITS, 1L, 9L)), result);
+    }
+
+    @Test
+    void forEachPurchase_ShouldVisitEveryStreamedLine_WhenOrdersExist() {
+        // Given
+        when(orderItemRepository.streamCustomerAndProductIds()).thenReturn(Stream.of(
+            new Object[] {1L, 10L}, new Object[] {2L, 20L}));
+        List<long[]> visited = new ArrayList<>();
+
+        // When
+        orderServiceProvider.forEachPurchase((customerId, productId) -> visited.add(new long[] {customerId, productId}));
+
+        // Then
+        assertEquals(2, visited.size());
+        assertArrayEquals(new long[] {2L, 20L}, visited.get(1));
+    }
+
+    @Test
+    void forEachDailySale_ShouldVisitEveryDayOfTheRange_WhenOrdersExist() {
+        // Given
+        LocalDate from = LocalDate.of(2024, 3, 1);
+        LocalDate to = LocalDate.of(2024, 3, 8);
+        when(orderItemRepository.streamDailyQuantitiesByProduct(from.atStartOfDay(), to.atStartOfDay(),
+            OrderStatus.CANCELLED)).thenReturn(Stream.of(
+            new Object[] {10L, LocalDate.of(2024, 3, 2), 4L}, new Object[] {20L, LocalDate.of(2024, 3, 5), 1L}));
+        List<String> visited = new ArrayList<>();
+
+        // When
+        orderServiceProvider.forEachDailySale(from, to,
+            (productId, day, quantity) -> visited.add(productId + "@" + day + "x" + quantity));
+
+        // Then
+        assertEquals(List.of("10@2024-03-02x4", "20@2024-03-05x1"), visited);
+    }
 }
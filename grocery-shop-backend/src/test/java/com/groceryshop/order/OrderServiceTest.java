@@ -12,6 +12,7 @@ import com.groceryshop.product.spi.ProductServiceProvider;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -177,6 +178,26 @@ class OrderServiceTest {
         verify(orderRepository).save(testOrder);
     }
 
+    @Test
+    void updateOrderStatus_ShouldPublishHandledEvent_WhenOrderSetBackToPending() {
+        // Given
+        testOrder.setStatus(OrderStatus.CONFIRMED);
+        when(orderRepository.findById(anyLong())).thenReturn(Optional.of(testOrder));
+        when(orderRepository.save(any(Order.class))).thenReturn(testOrder);
+        OrderEventHandler handler = new OrderEventHandler(orderService);
+
+        // When
+        Order result = orderService.updateOrderStatus(testOrder.getId(), OrderStatus.PENDING);
+
+        // Then
+        assertEquals(OrderStatus.PENDING, result.getStatus());
+        ArgumentCaptor<OrderStatusUpdatedEvent> event = ArgumentCaptor.forClass(OrderStatusUpdatedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(OrderStatus.CONFIRMED, event.getValue().oldStatus());
+        assertEquals(OrderStatus.PENDING, event.getValue().newStatus());
+        assertDoesNotThrow(() -> handler.handleOrderStatusUpdated(event.getValue()));
+    }
+
     @Test
     void updateOrderStatus_ShouldThrowException_WhenOrderNotFound() {
         // Given
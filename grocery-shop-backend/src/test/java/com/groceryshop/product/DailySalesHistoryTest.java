@@ -0,0 +1,62 @@
+package com.groceryshop.product;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DailySalesHistoryTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 1);
+
+    @Test
+    void series_ShouldReturnSalesOldestFirst_WhenHistoryHasMovedOn() {
+        // Given
+        DailySalesHistory history = new DailySalesHistory(3);
+        history.add(1L, DAY, 4);
+        history.add(1L, DAY.plusDays(1), 2);
+        history.add(1L, DAY.plusDays(1), 1);
+
+        // When
+        history.advanceTo(DAY.plusDays(3));
+
+        // Then
+        // The first day dropped out and the slot it used was cleared for the new one
+        assertArrayEquals(new int[] {3, 0, 0}, history.series(1L));
+        assertEquals(DAY.plusDays(3), history.lastDay());
+    }
+
+    @Test
+    void add_ShouldIgnoreSales_WhenDayIsOlderThanHistory() {
+        // Given
+        DailySalesHistory history = new DailySalesHistory(7);
+        history.advanceTo(DAY.plusDays(10));
+
+        // When
+        history.add(1L, DAY, 5);
+        history.add(2L, DAY.plusDays(10), 5);
+
+        // Then
+        assertArrayEquals(new int[7], history.series(1L));
+        assertEquals(5, history.series(2L)[6]);
+        assertEquals(1, history.productCount());
+    }
+
+    @Test
+    void add_ShouldKeepEverySeries_WhenManyProductsAreAdded() {
+        // Given
+        DailySalesHistory history = new DailySalesHistory(14);
+
+        // When
+        for (long productId = 1; productId <= 1_000; productId++) {
+            history.add(productId, DAY, productId);
+        }
+
+        // Then
+        assertEquals(1_000, history.productCount());
+        assertEquals(1_000, history.series(1_000L)[13]);
+        assertEquals(1, history.series(1L)[13]);
+    }
+}
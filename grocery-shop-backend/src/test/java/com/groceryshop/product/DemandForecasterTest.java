@@ -0,0 +1,133 @@
+package com.groceryshop.product;
+
+import com.groceryshop.TestDataFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DemandForecasterTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 3, 29);
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private final List<LocalDate[]> loadedRanges = new ArrayList<>();
+    private DemandForecaster forecaster;
+
+    @BeforeEach
+    void setUp() {
+        Clock clock = Clock.fixed(TODAY.atTime(10, 0).toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        forecaster = new DemandForecaster(productRepository, (from, to, visitor) -> {
+            loadedRanges.add(new LocalDate[] {from, to});
+            for (LocalDate day = from; day.isBefore(to); day = day.plusDays(1)) {
+                // Product 1 sells 4 a day; product 3 sells 10 on weekdays and 30 on weekends, give or take 3
+                visitor.visit(1L, day, 4);
+                int weekend = day.getDayOfWeek().getValue() >= 6 ? 20 : 0;
+                visitor.visit(3L, day, 10 + weekend + (int) (day.toEpochDay() * 5 % 11 % 7) - 3);
+            }
+        }, 56, 45, 0.95, 2, 2, clock);
+        when(productRepository.findAllIds()).thenReturn(List.of(1L, 2L, 3L));
+    }
+
+    @Test
+    void forecast_ShouldProjectSalesAndRestockDate_WhenProductSellsSteadily() {
+        // Given
+        forecaster.run();
+        Product product = product(1L, 40);
+
+        // When
+        InventoryForecast forecast = forecaster.forecast(product);
+
+        // Then
+        assertEquals(4, forecast.averageDailySales());
+        assertEquals(120, forecast.forecastedDemand());
+        assertEquals(80, forecast.recommendedRestockQuantity());
+        // 40 in stock last ten days; ordered two days ahead of running out
+        assertEquals(TODAY.plusDays(8), forecast.nextRestockDate());
+        assertEquals(new BigDecimal("1.00"), forecast.confidenceLevel());
+        assertEquals(1, loadedRanges.size());
+        assertEquals(TODAY.minusDays(56), loadedRanges.get(0)[0]);
+        assertEquals(TODAY, loadedRanges.get(0)[1]);
+    }
+
+    @Test
+    void forecast_ShouldRecommendSafetyStock_WhenSalesVary() {
+        // Given
+        forecaster.run();
+        Product product = product(3L, 100);
+
+        // When
+        InventoryForecast forecast = forecaster.forecast(product);
+
+        // Then
+        // 21 weekdays selling about 10 and 9 weekend days selling about 30
+        assertTrue(forecast.forecastedDemand() > 420 && forecast.forecastedDemand() < 540,
+                "forecast " + forecast.forecastedDemand());
+        assertTrue(forecast.recommendedRestockQuantity() > forecast.forecastedDemand() - 100);
+        assertTrue(forecast.confidenceLevel().compareTo(new BigDecimal("0.95")) >= 0);
+        assertTrue(forecast.confidenceLevel().compareTo(BigDecimal.ONE) < 0);
+    }
+
+    @Test
+    void forecast_ShouldReportNoDemand_WhenProductDidNotSell() {
+        // Given
+        forecaster.run();
+
+        // When
+        InventoryForecast forecast = forecaster.forecast(product(2L, 5));
+
+        // Then
+        assertEquals(0, forecast.averageDailySales());
+        assertEquals(0, forecast.forecastedDemand());
+        assertEquals(0, forecast.recommendedRestockQuantity());
+        assertEquals(TODAY.plusDays(45), forecast.nextRestockDate());
+        assertEquals(new BigDecimal("1.00"), forecast.confidenceLevel());
+    }
+
+    @Test
+    void forecast_ShouldReportNoConfidence_WhenProductWasNotForecast() {
+        // Given
+        forecaster.run();
+
+        // When
+        InventoryForecast forecast = forecaster.forecast(product(4L, 5));
+
+        // Then
+        assertNull(forecast.averageDailySales());
+        assertNull(forecast.nextRestockDate());
+        assertEquals(new BigDecimal("0.00"), forecast.confidenceLevel());
+    }
+
+    @Test
+    void run_ShouldNotReloadSales_WhenRunAgainOnTheSameDay() {
+        // When
+        forecaster.run();
+        forecaster.run();
+
+        // Then
+        assertEquals(1, loadedRanges.size());
+        assertEquals(3, forecaster.size());
+    }
+
+    private static Product product(long id, int stock) {
+        Product product = TestDataFactory.createTestProduct(id, "Product " + id, ProductCategory.PANTRY);
+        product.setStockQuantity(stock);
+        return product;
+    }
+}
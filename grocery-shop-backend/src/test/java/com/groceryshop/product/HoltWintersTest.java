@@ -0,0 +1,52 @@
+package com.groceryshop.product;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HoltWintersTest {
+
+    @Test
+    void fit_ShouldForecastTheWeeklyPattern_WhenSalesRepeatEveryWeek() {
+        // Given
+        int[] week = {10, 10, 10, 10, 12, 30, 30};
+        int[] series = new int[56];
+        for (int i = 0; i < series.length; i++) {
+            // Small deterministic noise around the pattern
+            series[i] = week[i % 7] + (i * 7 % 5) - 2;
+        }
+
+        // When
+        HoltWinters.Fit fit = HoltWinters.fit(series);
+
+        // Then
+        // The series ends on the last day of a week, so the next day is the first of one
+        for (int day = 1; day <= 14; day++) {
+            double expected = week[(day - 1) % 7];
+            assertEquals(expected, fit.forecast(day), 2.5, "day " + day);
+        }
+        assertTrue(fit.residualStdDev() > 0 && fit.residualStdDev() < 3);
+    }
+
+    @Test
+    void fit_ShouldForecastNothing_WhenNothingWasSold() {
+        // Given
+        int[] series = new int[28];
+
+        // When
+        HoltWinters.Fit fit = HoltWinters.fit(series);
+
+        // Then
+        assertEquals(0, fit.forecast(1));
+        assertEquals(0, fit.forecast(30));
+        assertEquals(0, fit.residualStdDev());
+    }
+
+    @Test
+    void fit_ShouldThrowException_WhenSeriesIsShorterThanTwoWeeks() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> HoltWinters.fit(new int[13]));
+    }
+}
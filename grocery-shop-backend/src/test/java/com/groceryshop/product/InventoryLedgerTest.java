@@ -0,0 +1,152 @@
+package com.groceryshop.product;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class InventoryLedgerTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private InventoryLedger ledger;
+
+    @BeforeEach
+    void setUp() {
+        Clock clock = Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        ledger = new InventoryLedger(jdbcTemplate, 100, 2, Duration.ofMillis(200), Duration.ofHours(1), clock);
+    }
+
+    @Test
+    void flush_ShouldWriteChangesInMultiRowInserts_WhenChangesQueued() {
+        // Given
+        ledger.onStockUpdated(new StockUpdatedEvent(this, 1L, "Apple", 10, 7, InventoryTransactionType.STOCK_OUT, "Order 5"));
+        ledger.onStockUpdated(new StockUpdatedEvent(this, 2L, "Pear", 0, 20));
+        ledger.onStockUpdated(new StockUpdatedEvent(this, 1L, "Apple", 7, 50, InventoryTransactionType.ADJUSTMENT, "Recount"));
+
+        // When
+        ledger.flush();
+
+        // Then
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate, times(2)).update(sql.capture(), args.capture());
+        assertTrue(sql.getAllValues().get(0).endsWith("(?, ?, ?, ?, ?, ?, ?, ?), (?, ?, ?, ?, ?, ?, ?, ?)"));
+        assertTrue(sql.getAllValues().get(1).endsWith("VALUES (?, ?, ?, ?, ?, ?, ?, ?)"));
+
+        List<Object[]> batches = args.getAllValues();
+        assertEquals(16, batches.get(0).length);
+        assertEquals(1L, batches.get(0)[0]);
+        assertEquals("STOCK_OUT", batches.get(0)[1]);
+        assertEquals(-3, batches.get(0)[2]);
+        assertEquals(10, batches.get(0)[3]);
+        assertEquals(7, batches.get(0)[4]);
+        assertEquals(NOW, batches.get(0)[7]);
+        assertEquals("STOCK_IN", batches.get(0)[9]);
+        assertEquals(20, batches.get(0)[10]);
+        assertEquals("ADJUSTMENT", batches.get(1)[1]);
+        assertEquals(43, batches.get(1)[2]);
+        assertEquals(3, ledger.getAppendedCount());
+        assertEquals(3, ledger.getWrittenCount());
+        assertEquals(0, ledger.getQueued());
+    }
+
+    @Test
+    void onProductAdded_ShouldRecordInitialStock_WhenProductHasStock() {
+        // Given
+        ledger.onProductAdded(new ProductAddedEvent(this, 3L, "Milk", 25));
+
+        // When
+        ledger.flush();
+
+        // Then
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate).update(anyString(), args.capture());
+        assertEquals(3L, args.getValue()[0]);
+        assertEquals("INITIAL", args.getValue()[1]);
+        assertEquals(25, args.getValue()[2]);
+        assertEquals(0, args.getValue()[3]);
+    }
+
+    @Test
+    void onStockUpdated_ShouldRecordNothing_WhenStockUnchanged() {
+        // Given
+        ledger.onStockUpdated(new StockUpdatedEvent(this, 1L, "Apple", 10, 10));
+        ledger.onProductAdded(new ProductAddedEvent(this, 3L, "Milk", 0));
+
+        // When
+        ledger.flush();
+
+        // Then
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+        assertEquals(0, ledger.getAppendedCount());
+    }
+
+    @Test
+    void flush_ShouldDropOnlyRowsThatCannotBeWritten_WhenBatchBreaksConstraint() {
+        // Given - product 2 was deleted while its change was queued
+        ledger.onStockUpdated(new StockUpdatedEvent(this, 1L, "Apple", 10, 7));
+        ledger.onStockUpdated(new StockUpdatedEvent(this, 2L, "Pear", 0, 20));
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenAnswer(invocation -> {
+            Object[] args = (Object[]) invocation.getRawArguments()[1];
+            for (int i = 0; i < args.length; i += 8) {
+                if (args[i].equals(2L)) {
+                    throw new DataIntegrityViolationException("foreign key violation");
+                }
+            }
+            return args.length / 8;
+        });
+
+        // When
+        ledger.flush();
+
+        // Then
+        verify(jdbcTemplate, times(3)).update(anyString(), any(Object[].class));
+        assertEquals(1, ledger.getWrittenCount());
+        assertEquals(1, ledger.getDroppedCount());
+        assertEquals(0, ledger.getFailedBatchCount());
+    }
+
+    @Test
+    void snapshot_ShouldCoverRowsUpToPreviousSnapshotsLatest_WhenOtherNodesMayStillCommit() {
+        // Given
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(40L, 55L);
+        when(jdbcTemplate.update(anyString(), eq(NOW), eq(40L))).thenReturn(3);
+
+        // When
+        int first = ledger.snapshot();
+        int second = ledger.snapshot();
+
+        // Then
+        assertEquals(0, first);
+        assertEquals(3, second);
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).update(sql.capture(), eq(NOW), eq(40L));
+        assertTrue(sql.getValue().contains("t.id <= ?"));
+        assertEquals(3, ledger.getSnapshotCount());
+    }
+}
@@ -11,6 +11,7 @@ import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -33,12 +34,22 @@ class InventoryServiceTest {
     @Mock
     private ApplicationEventPublisher eventPublisher;
 
+    @Mock
+    private DemandForecaster demandForecaster;
+
+    @Mock
+    private InventoryTransactionRepository inventoryTransactionRepository;
+
+    @Mock
+    private InventorySnapshotRepository inventorySnapshotRepository;
+
     private InventoryService inventoryService;
     private Product testProduct;
 
     @BeforeEach
     void setUp() {
-        inventoryService = new InventoryServiceImpl(productRepository, eventPublisher);
+        inventoryService = new InventoryServiceImpl(productRepository, eventPublisher, demandForecaster,
+                inventoryTransactionRepository, inventorySnapshotRepository);
         testProduct = TestDataFactory.createTestProduct();
         testProduct.setStockQuantity(100); // Set initial stock
     }
@@ -60,10 +71,10 @@ class InventoryServiceTest {
         ArgumentCaptor<StockUpdatedEvent> eventCaptor = ArgumentCaptor.forClass(StockUpdatedEvent.class);
         verify(eventPublisher).publishEvent(eventCaptor.capture());
         StockUpdatedEvent event = eventCaptor.getValue();
-        assertEquals(1L, event.getProductId());
-        assertEquals(testProduct.getName(), event.getProductName());
-        assertEquals(100, event.getOldStock()); // Original stock
-        assertEquals(150, event.getNewStock()); // Updated stock
+        assertEquals(1L, event.productId());
+        assertEquals(testProduct.getName(), event.productName());
+        assertEquals(100, event.oldStock()); // Original stock
+        assertEquals(150, event.newStock()); // Updated stock
     }
 
     @Test
@@ -83,39 +94,30 @@ class InventoryServiceTest {
         ArgumentCaptor<StockUpdatedEvent> eventCaptor = ArgumentCaptor.forClass(StockUpdatedEvent.class);
         verify(eventPublisher).publishEvent(eventCaptor.capture());
         StockUpdatedEvent event = eventCaptor.getValue();
-        assertEquals(100, event.getOldStock()); // Original stock
-        assertEquals(70, event.getNewStock()); // Updated stock
+        assertEquals(100, event.oldStock()); // Original stock
+        assertEquals(70, event.newStock()); // Updated stock
     }
 
     @Test
-    void updateStock_ShouldPublishLowStockAlert_WhenStockBelowThreshold() {
+    void updateStock_ShouldLeaveLowStockAlertToMonitor_WhenStockBelowThreshold() {
         // Given
-        testProduct.setStockQuantity(15); // Above threshold initially
+        testProduct.setStockQuantity(15);
         when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
         when(productRepository.save(any(Product.class))).thenReturn(testProduct);
 
         // When - reduce stock to below threshold (10)
         inventoryService.updateStock(1L, -10);
 
-        // Then
+        // Then - only the stock change is published; LowStockMonitor raises the alert from it
         assertEquals(5, testProduct.getStockQuantity());
-
-        // Verify both StockUpdatedEvent and LowStockAlertEvent were published
         ArgumentCaptor<StockUpdatedEvent> stockEventCaptor = ArgumentCaptor.forClass(StockUpdatedEvent.class);
-        ArgumentCaptor<LowStockAlertEvent> alertCaptor = ArgumentCaptor.forClass(LowStockAlertEvent.class);
-
         verify(eventPublisher).publishEvent(stockEventCaptor.capture());
-        verify(eventPublisher).publishEvent(alertCaptor.capture());
+        verify(eventPublisher, never()).publishEvent(any(LowStockAlertEvent.class));
 
         StockUpdatedEvent stockEvent = stockEventCaptor.getValue();
-        assertEquals(1L, stockEvent.getProductId());
-        assertEquals(15, stockEvent.getOldStock()); // Original stock before update
-        assertEquals(5, stockEvent.getNewStock()); // Updated stock
-
-        LowStockAlertEvent alert = alertCaptor.getValue();
-        assertEquals(1L, alert.productId());
-        assertEquals(5, alert.currentStock());
-        assertEquals(10, alert.threshold());
+        assertEquals(1L, stockEvent.productId());
+        assertEquals(15, stockEvent.oldStock());
+        assertEquals(5, stockEvent.newStock());
     }
 
     @Test
@@ -128,7 +130,7 @@ class InventoryServiceTest {
             () -> inventoryService.updateStock(999L, 50));
         assertTrue(exception.getMessage().contains("Product not found with id: 999"));
         verify(productRepository, never()).save(any(Product.class));
-        verify(eventPublisher, never()).publishEvent(any());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
     }
 
     @Test
@@ -142,7 +144,7 @@ class InventoryServiceTest {
             () -> inventoryService.updateStock(1L, -50));
         assertEquals("Stock cannot be negative", exception.getMessage());
         verify(productRepository, never()).save(any(Product.class));
-        verify(eventPublisher, never()).publishEvent(any());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
     }
 
     @Test
@@ -173,7 +175,7 @@ class InventoryServiceTest {
     void getLowStockProducts_ShouldReturnProductsBelowThreshold() {
         // Given
         List<Product> lowStockProducts = Arrays.asList(testProduct);
-        when(productRepository.findLowStockProducts(ProductStatus.ACTIVE, 10)).thenReturn(lowStockProducts);
+        when(productRepository.findLowStockProducts(ProductStatus.ACTIVE)).thenReturn(lowStockProducts);
 
         // When
         List<Product> result = inventoryService.getLowStockProducts();
@@ -181,27 +183,23 @@ class InventoryServiceTest {
         // Then
         assertEquals(1, result.size());
         assertEquals(testProduct.getId(), result.get(0).getId());
-        verify(productRepository).findLowStockProducts(ProductStatus.ACTIVE, 10);
+        verify(productRepository).findLowStockProducts(ProductStatus.ACTIVE);
     }
 
     @Test
     void getInventoryForecast_ShouldReturnForecast_WhenProductExists() {
         // Given
         when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+        InventoryForecast expected = new InventoryForecast(1L, testProduct.getName(), 100, 5, 150,
+                LocalDate.now().plusDays(18), 62, BigDecimal.valueOf(0.95));
+        when(demandForecaster.forecast(testProduct)).thenReturn(expected);
 
         // When
         InventoryForecast forecast = inventoryService.getInventoryForecast(1L);
 
         // Then
-        assertNotNull(forecast);
-        assertEquals(1L, forecast.productId());
-        assertEquals(testProduct.getName(), forecast.productName());
-        assertEquals(100, forecast.currentStock());
-        assertEquals(5, forecast.averageDailySales()); // Mock value from implementation
-        assertEquals(150, forecast.forecastedDemand()); // 5 * 30 days
-        assertEquals(50, forecast.recommendedRestockQuantity()); // max(150 - 100, 0)
-        assertEquals(BigDecimal.valueOf(0.85), forecast.confidenceLevel());
-        assertEquals(LocalDate.now().plusDays(7), forecast.nextRestockDate());
+        assertEquals(expected, forecast);
+        verify(demandForecaster).forecast(testProduct);
     }
 
     @Test
@@ -264,4 +262,52 @@ class InventoryServiceTest {
             () -> inventoryService.hasSufficientStock(999L, 50));
         assertTrue(exception.getMessage().contains("Product not found with id: 999"));
     }
+
+    @Test
+    void getStockLevelAt_ShouldAddLaterChangesToSnapshot_WhenSnapshotExists() {
+        // Given
+        LocalDateTime at = LocalDateTime.of(2024, 3, 1, 12, 0);
+        InventorySnapshot snapshot = mock(InventorySnapshot.class);
+        when(snapshot.getQuantity()).thenReturn(80);
+        when(snapshot.getLastTransactionId()).thenReturn(42L);
+        when(productRepository.existsById(1L)).thenReturn(true);
+        when(inventorySnapshotRepository
+                .findFirstByProductIdAndSnapshotAtLessThanEqualOrderByLastTransactionIdDesc(1L, at))
+                .thenReturn(Optional.of(snapshot));
+        when(inventoryTransactionRepository.sumQuantityChanges(1L, 42L, at)).thenReturn(-15L);
+
+        // When
+        Integer stock = inventoryService.getStockLevelAt(1L, at);
+
+        // Then
+        assertEquals(65, stock);
+    }
+
+    @Test
+    void getStockLevelAt_ShouldSumWholeLedger_WhenNoSnapshotBefore() {
+        // Given
+        LocalDateTime at = LocalDateTime.of(2024, 3, 1, 12, 0);
+        when(productRepository.existsById(1L)).thenReturn(true);
+        when(inventorySnapshotRepository
+                .findFirstByProductIdAndSnapshotAtLessThanEqualOrderByLastTransactionIdDesc(1L, at))
+                .thenReturn(Optional.empty());
+        when(inventoryTransactionRepository.sumQuantityChanges(1L, 0L, at)).thenReturn(30L);
+
+        // When
+        Integer stock = inventoryService.getStockLevelAt(1L, at);
+
+        // Then
+        assertEquals(30, stock);
+    }
+
+    @Test
+    void getStockLevelAt_ShouldThrowException_WhenProductNotFound() {
+        // Given
+        when(productRepository.existsById(999L)).thenReturn(false);
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class,
+            () -> inventoryService.getStockLevelAt(999L, LocalDateTime.now()));
+        assertTrue(exception.getMessage().contains("Product not found with id: 999"));
+    }
 }
@@ -0,0 +1,140 @@
+package com.groceryshop.product;
+
+import com.groceryshop.TestDataFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LowStockMonitorTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private LowStockMonitor monitor;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        monitor = new LowStockMonitor(productRepository, eventPublisher,
+                new LowStockThresholds(10, Map.of(), 1.5));
+        product = TestDataFactory.createTestProduct();
+        product.setLowStockThreshold(10);
+    }
+
+    @Test
+    void onStockUpdated_ShouldPublishLowStockAlert_WhenStockFallsToThreshold() {
+        // Given
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productRepository.markLowStockAlerted(1L)).thenReturn(1);
+
+        // When
+        monitor.onStockUpdated(new StockUpdatedEvent(this, 1L, product.getName(), 15, 10));
+
+        // Then
+        ArgumentCaptor<LowStockAlertEvent> alertCaptor = ArgumentCaptor.forClass(LowStockAlertEvent.class);
+        verify(eventPublisher).publishEvent(alertCaptor.capture());
+        LowStockAlertEvent alert = alertCaptor.getValue();
+        assertEquals(1L, alert.productId());
+        assertEquals(10, alert.currentStock());
+        assertEquals(10, alert.threshold());
+    }
+
+    @Test
+    void onStockUpdated_ShouldNotAlertAgain_WhenAlertAlreadyFired() {
+        // Given - another change already fired it
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productRepository.markLowStockAlerted(1L)).thenReturn(0);
+
+        // When
+        monitor.onStockUpdated(new StockUpdatedEvent(this, 1L, product.getName(), 8, 7));
+
+        // Then
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void onStockUpdated_ShouldSkipWrite_WhenProductKnownToBeAlerted() {
+        // Given
+        Product alerted = alertedProduct();
+
+        // When
+        monitor.onStockUpdated(new StockUpdatedEvent(this, 1L, alerted.getName(), 6, 5));
+
+        // Then
+        verify(productRepository, never()).markLowStockAlerted(anyLong());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void onStockUpdated_ShouldStayQuiet_WhenStockRecoversBelowHighWaterMark() {
+        // Given
+        Product alerted = alertedProduct();
+
+        // When - above the threshold of 10 but not above its high-water mark of 15
+        monitor.onStockUpdated(new StockUpdatedEvent(this, 1L, alerted.getName(), 5, 15));
+
+        // Then
+        verify(productRepository, never()).rearmLowStockAlert(anyLong());
+        verify(productRepository, never()).markLowStockAlerted(anyLong());
+    }
+
+    @Test
+    void onStockUpdated_ShouldRearmAlert_WhenStockRisesAboveHighWaterMark() {
+        // Given
+        Product alerted = alertedProduct();
+        when(productRepository.rearmLowStockAlert(1L)).thenReturn(1);
+
+        // When
+        monitor.onStockUpdated(new StockUpdatedEvent(this, 1L, alerted.getName(), 5, 16));
+
+        // Then
+        verify(productRepository).rearmLowStockAlert(1L);
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void highWaterMark_ShouldNeverBeBelowThreshold() {
+        // Given
+        LowStockThresholds thresholds = new LowStockThresholds(10, Map.of(ProductCategory.DAIRY, 20), 1.5);
+
+        // Then
+        assertEquals(15, thresholds.highWaterMark(10));
+        assertEquals(0, thresholds.highWaterMark(0));
+        assertEquals(20, thresholds.forCategory(ProductCategory.DAIRY));
+        assertEquals(10, thresholds.forCategory(ProductCategory.MEAT));
+    }
+
+    /**
+     * The flag is only written by the repository's conditional updates, so alerted products are
+     * stubbed rather than set up.
+     */
+    private Product alertedProduct() {
+        Product alerted = mock(Product.class);
+        lenient().when(alerted.getId()).thenReturn(1L);
+        lenient().when(alerted.getName()).thenReturn(product.getName());
+        when(alerted.getLowStockThreshold()).thenReturn(10);
+        lenient().when(alerted.isLowStockAlerted()).thenReturn(true);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(alerted));
+        return alerted;
+    }
+}
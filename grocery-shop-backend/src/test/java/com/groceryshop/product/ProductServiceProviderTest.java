@@ -5,8 +5,10 @@ import com.groceryshop.product.spi.ProductServiceProvider;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -30,12 +32,15 @@ class ProductServiceProviderTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     private ProductServiceProvider productServiceProvider;
     private Product testProduct;
 
     @BeforeEach
     void setUp() {
-        productServiceProvider = new ProductServiceProviderImpl(productRepository);
+        productServiceProvider = new ProductServiceProviderImpl(productRepository, eventPublisher);
         testProduct = TestDataFactory.createTestProduct();
     }
 
@@ -143,6 +148,21 @@ class ProductServiceProviderTest {
         assertEquals(testProduct.getId(), result.get(0).getId());
     }
 
+    @Test
+    void findLowStockProducts_ShouldReturnActiveProductsAtOrBelowTheirThreshold() {
+        // Given
+        when(productRepository.findLowStockProducts(ProductStatus.ACTIVE)).thenReturn(List.of(testProduct));
+        when(productRepository.countLowStockProducts(ProductStatus.ACTIVE)).thenReturn(1L);
+
+        // When
+        List<Product> result = productServiceProvider.findLowStockProducts();
+        long count = productServiceProvider.countLowStockProducts();
+
+        // Then
+        assertEquals(List.of(testProduct), result);
+        assertEquals(1L, count);
+    }
+
     @Test
     void updateProductStock_ShouldUpdateStock_WhenProductExists() {
         // Given
@@ -168,6 +188,26 @@ class ProductServiceProviderTest {
         verify(productRepository, never()).save(any(Product.class));
     }
 
+    @Test
+    void adjustProductStock_ShouldUpdateStockAndPublishAdjustment_WhenStockChanges() {
+        // Given
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+
+        // When
+        productServiceProvider.adjustProductStock(1L, 40, "Stock count");
+
+        // Then
+        assertEquals(40, testProduct.getStockQuantity());
+        verify(productRepository).save(testProduct);
+        ArgumentCaptor<StockUpdatedEvent> eventCaptor = ArgumentCaptor.forClass(StockUpdatedEvent.class);
+        verify(eventPublisher).publishEvent(eventCaptor.capture());
+        StockUpdatedEvent event = eventCaptor.getValue();
+        assertEquals(100, event.oldStock());
+        assertEquals(40, event.newStock());
+        assertEquals(InventoryTransactionType.ADJUSTMENT, event.type());
+        assertEquals("Stock count", event.reason());
+    }
+
     @Test
     void findProductById_ShouldHandleNullId() {
         // Given
@@ -7,6 +7,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.context.ApplicationEventPublisher;
@@ -19,6 +20,7 @@ import org.springframework.data.jpa.domain.Specification;
 import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -39,12 +41,20 @@ class ProductServiceTest {
     @Mock
     private ApplicationEventPublisher eventPublisher;
 
+    @Mock
+    private InventoryTransactionRepository inventoryTransactionRepository;
+
+    @Mock
+    private InventorySnapshotRepository inventorySnapshotRepository;
+
     private ProductService productService;
     private Product testProduct;
 
     @BeforeEach
     void setUp() {
-        productService = new ProductServiceImpl(productRepository, eventPublisher);
+        productService = new ProductServiceImpl(productRepository, eventPublisher,
+                new LowStockThresholds(10, Map.of(ProductCategory.FRUITS, 15), 1.5),
+                inventoryTransactionRepository, inventorySnapshotRepository);
         testProduct = TestDataFactory.createTestProduct();
     }
 
@@ -121,9 +131,29 @@ class ProductServiceTest {
         ArgumentCaptor<ProductAddedEvent> eventCaptor = ArgumentCaptor.forClass(ProductAddedEvent.class);
         verify(eventPublisher).publishEvent(eventCaptor.capture());
         ProductAddedEvent event = eventCaptor.getValue();
-        assertEquals(savedProduct.getId(), event.getProductId());
-        assertEquals(savedProduct.getName(), event.getProductName());
-        assertEquals(savedProduct.getStockQuantity(), event.getInitialStock());
+        assertEquals(savedProduct.getId(), event.productId());
+        assertEquals(savedProduct.getName(), event.productName());
+        assertEquals(savedProduct.getStockQuantity(), event.initialStock());
+    }
+
+    @Test
+    void createProduct_ShouldUseCategoryThreshold_WhenNoneRequested() {
+        // Given
+        CreateProductRequest fruit = new CreateProductRequest(
+            "Apple", null, BigDecimal.valueOf(0.99), null, ProductCategory.FRUITS, 40
+        );
+        CreateProductRequest custom = new CreateProductRequest(
+            "Rice", null, BigDecimal.valueOf(3.49), null, ProductCategory.PANTRY, 40, 25
+        );
+        when(productRepository.save(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        Product apple = productService.createProduct(fruit);
+        Product rice = productService.createProduct(custom);
+
+        // Then
+        assertEquals(15, apple.getLowStockThreshold());
+        assertEquals(25, rice.getLowStockThreshold());
     }
 
     @Test
@@ -149,12 +179,12 @@ class ProductServiceTest {
         ArgumentCaptor<StockUpdatedEvent> stockEventCaptor = ArgumentCaptor.forClass(StockUpdatedEvent.class);
         verify(eventPublisher).publishEvent(stockEventCaptor.capture());
         StockUpdatedEvent stockEvent = stockEventCaptor.getValue();
-        assertEquals(100, stockEvent.getOldStock());
-        assertEquals(150, stockEvent.getNewStock());
+        assertEquals(100, stockEvent.oldStock());
+        assertEquals(150, stockEvent.newStock());
 
         // Verify product updated event
         ArgumentCaptor<ProductUpdatedEvent> productEventCaptor = ArgumentCaptor.forClass(ProductUpdatedEvent.class);
-        verify(eventPublisher, times(2)).publishEvent(any()); // StockUpdatedEvent + ProductUpdatedEvent
+        verify(eventPublisher, times(2)).publishEvent(any(Object.class)); // StockUpdatedEvent + ProductUpdatedEvent
     }
 
     @Test
@@ -201,6 +231,21 @@ class ProductServiceTest {
         verify(productRepository).delete(testProduct);
     }
 
+    @Test
+    void deleteProduct_ShouldDeleteLedgerRowsAndSnapshotsFirst_WhenProductHasStockHistory() {
+        // Given
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+
+        // When
+        productService.deleteProduct(1L);
+
+        // Then
+        InOrder inOrder = inOrder(inventorySnapshotRepository, inventoryTransactionRepository, productRepository);
+        inOrder.verify(inventorySnapshotRepository).deleteByProductId(1L);
+        inOrder.verify(inventoryTransactionRepository).deleteByProductId(1L);
+        inOrder.verify(productRepository).delete(testProduct);
+    }
+
     @Test
     void deleteProduct_ShouldThrowException_WhenProductDoesNotExist() {
         // Given
@@ -0,0 +1,134 @@
+package com.groceryshop.recommendation;
+
+import com.groceryshop.TestDataFactory;
+import com.groceryshop.product.Product;
+import com.groceryshop.product.ProductCategory;
+import com.groceryshop.product.ProductStatus;
+import com.groceryshop.recommendation.spi.RecommendationServiceProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CartComplementEngineTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    @Mock
+    private RecommendationServiceProvider recommendationServiceProvider;
+
+    private ProductLookup productLookup;
+    private PopularityCounters popularityCounters;
+    private CartComplementEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        productLookup = new ProductLookup(recommendationServiceProvider, Duration.ofMinutes(1), 1_000);
+        popularityCounters = new PopularityCounters(Duration.ofDays(7), 100, NOW);
+        CategoryCandidates categoryCandidates = new CategoryCandidates(recommendationServiceProvider, productLookup,
+                popularityCounters, 10, Duration.ofMinutes(1));
+        engine = new CartComplementEngine(recommendationServiceProvider, categoryCandidates, 0.5);
+    }
+
+    @Test
+    void rank_ShouldPutProductsBoughtWithSeveralCartLinesFirst_WhenCartHasCoPurchases() {
+        // Given
+        when(recommendationServiceProvider.findProductsByCategoryAndStatus(any(ProductCategory.class), eq(ProductStatus.ACTIVE)))
+                .thenReturn(List.of());
+        when(recommendationServiceProvider.getFrequentlyBoughtTogetherProductCounts(1L))
+                .thenReturn(Map.of(2L, 4L, 10L, 8L, 11L, 2L));
+        when(recommendationServiceProvider.getFrequentlyBoughtTogetherProductCounts(2L))
+                .thenReturn(Map.of(1L, 4L, 11L, 6L));
+
+        // When
+        long[] ranked = engine.rank(List.of(1L, 2L), List.of(ProductCategory.FRUITS), 5);
+
+        // Then
+        // 11 scores 2/8 + 6/6, 10 scores 8/8; the cart's own products are left out
+        assertArrayEquals(new long[]{11L, 10L}, ranked);
+    }
+
+    @Test
+    void rank_ShouldKeepOnlyLimitBestAndSkipCartCategories_WhenCategoriesHaveCandidates() {
+        // Given
+        Product fruit = product(20L, ProductCategory.FRUITS);
+        List<Product> vegetables = List.of(product(30L, ProductCategory.VEGETABLES),
+                product(31L, ProductCategory.VEGETABLES), product(32L, ProductCategory.VEGETABLES));
+        when(recommendationServiceProvider.findProductsByCategoryAndStatus(any(ProductCategory.class), eq(ProductStatus.ACTIVE)))
+                .thenReturn(List.of());
+        when(recommendationServiceProvider.findProductsByCategoryAndStatus(ProductCategory.VEGETABLES, ProductStatus.ACTIVE))
+                .thenReturn(vegetables);
+        when(recommendationServiceProvider.getFrequentlyBoughtTogetherProductCounts(20L)).thenReturn(Map.of());
+
+        // When
+        long[] ranked = engine.rank(List.of(fruit.getId()), List.of(ProductCategory.FRUITS), 2);
+
+        // Then
+        assertArrayEquals(new long[]{30L, 31L}, ranked);
+        verify(recommendationServiceProvider, never()).findProductsByCategoryAndStatus(ProductCategory.FRUITS, ProductStatus.ACTIVE);
+        // Loaded products are resolved without reading them again
+        assertEquals(vegetables.get(0), productLookup.getAll(List.of(30L)).get(30L));
+        verify(recommendationServiceProvider, never()).findProductsByIds(anyCollection());
+    }
+
+    @Test
+    void rank_ShouldReadEachCategoryOnce_WhenCalledRepeatedly() {
+        // Given
+        when(recommendationServiceProvider.findProductsByCategoryAndStatus(any(ProductCategory.class), eq(ProductStatus.ACTIVE)))
+                .thenReturn(List.of());
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            engine.rank(List.of(1L), List.of(ProductCategory.FRUITS), 4);
+        }
+
+        // Then
+        verify(recommendationServiceProvider, times(1))
+                .findProductsByCategoryAndStatus(ProductCategory.DAIRY, ProductStatus.ACTIVE);
+        verify(recommendationServiceProvider, times(3)).getFrequentlyBoughtTogetherProductCounts(1L);
+    }
+
+    @Test
+    void rank_ShouldNotReadCategory_WhenPopularProductsFillTheList() {
+        // Given
+        CategoryCandidates categoryCandidates = new CategoryCandidates(recommendationServiceProvider, productLookup,
+                popularityCounters, 1, Duration.ofMinutes(1));
+        engine = new CartComplementEngine(recommendationServiceProvider, categoryCandidates, 0.5);
+        Product dairy = product(40L, ProductCategory.DAIRY);
+        when(recommendationServiceProvider.findProductsByIds(anyCollection())).thenReturn(List.of(dairy));
+        popularityCounters.record(40L, NOW);
+        popularityCounters.republish(productLookup, NOW);
+        when(recommendationServiceProvider.findProductsByCategoryAndStatus(any(ProductCategory.class), eq(ProductStatus.ACTIVE)))
+                .thenReturn(List.of());
+
+        // When
+        long[] ranked = engine.rank(List.of(1L), List.of(ProductCategory.FRUITS), 3);
+
+        // Then
+        assertArrayEquals(new long[]{40L}, ranked);
+        verify(recommendationServiceProvider, never()).findProductsByCategoryAndStatus(ProductCategory.DAIRY, ProductStatus.ACTIVE);
+    }
+
+    private static Product product(long id, ProductCategory category) {
+        Product product = TestDataFactory.createTestProduct(id, "Product " + id, category);
+        product.setStatus(ProductStatus.ACTIVE);
+        product.setStockQuantity(10);
+        return product;
+    }
+}
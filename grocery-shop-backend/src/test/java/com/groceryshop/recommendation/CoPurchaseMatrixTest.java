@@ -0,0 +1,89 @@
+package com.groceryshop.recommendation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoPurchaseMatrixTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void neighbours_ShouldRankProductsByCoPurchaseCount_WhenOrdersRecorded() {
+        // Given
+        CoPurchaseMatrix matrix = new CoPurchaseMatrix(10, 50);
+
+        // When
+        matrix.record(1L, List.of(1L, 2L, 3L));
+        matrix.record(2L, List.of(1L, 3L));
+        matrix.record(3L, List.of(1L, 3L, 3L));
+
+        // Then
+        assertEquals(Map.of(3L, 3L, 2L, 1L), matrix.neighbours(1L, 5));
+        assertEquals(List.of(3L, 2L), List.copyOf(matrix.neighbours(1L, 5).keySet()));
+        assertEquals(Map.of(1L, 1L, 3L, 1L), matrix.neighbours(2L, 5));
+        assertEquals(3L, matrix.lastOrderId());
+    }
+
+    @Test
+    void record_ShouldIgnoreSingleProductOrders_WhenNothingToPair() {
+        // Given
+        CoPurchaseMatrix matrix = new CoPurchaseMatrix(10, 50);
+
+        // When
+        matrix.record(1L, List.of(1L));
+        matrix.record(2L, List.of(4L, 4L));
+
+        // Then
+        assertEquals(0, matrix.productCount());
+        assertTrue(matrix.neighbours(1L, 5).isEmpty());
+        assertEquals(2L, matrix.lastOrderId());
+    }
+
+    @Test
+    void record_ShouldKeepMostFrequentNeighbours_WhenPruning() {
+        // Given
+        CoPurchaseMatrix matrix = new CoPurchaseMatrix(2, 50);
+        matrix.record(1L, List.of(1L, 2L));
+        matrix.record(2L, List.of(1L, 2L));
+        matrix.record(3L, List.of(1L, 3L));
+        matrix.record(4L, List.of(1L, 3L));
+
+        // When
+        matrix.record(5L, List.of(1L, 4L, 5L, 6L));
+
+        // Then
+        assertEquals(Map.of(2L, 2L, 3L, 2L), matrix.neighbours(1L, 10));
+    }
+
+    @Test
+    void load_ShouldRestoreCountsAndLastOrder_WhenSnapshotSaved() throws IOException {
+        // Given
+        CoPurchaseMatrix matrix = new CoPurchaseMatrix(10, 50);
+        matrix.record(41L, List.of(1L, 2L, 3L));
+        matrix.record(42L, List.of(2L, 3L));
+        Path file = directory.resolve("snapshots/co-purchase.bin");
+        matrix.save(file);
+
+        // When
+        CoPurchaseMatrix restored = new CoPurchaseMatrix(10, 50);
+        boolean loaded = restored.load(file);
+
+        // Then
+        assertTrue(loaded);
+        assertEquals(42L, restored.lastOrderId());
+        assertEquals(3, restored.productCount());
+        assertEquals(matrix.neighbours(2L, 10), restored.neighbours(2L, 10));
+        assertFalse(restored.load(directory.resolve("missing.bin")));
+        Files.writeString(file, "not a snapshot");
+        assertThrows(IOException.class, () -> restored.load(file));
+    }
+}
@@ -0,0 +1,89 @@
+package com.groceryshop.recommendation;
+
+import com.groceryshop.order.OrderCreatedEvent;
+import com.groceryshop.order.OrderStatus;
+import com.groceryshop.order.spi.OrderProducts;
+import com.groceryshop.recommendation.spi.RecommendationServiceProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CoPurchaseTrackerTest {
+
+    @Mock
+    private RecommendationServiceProvider recommendationServiceProvider;
+
+    @TempDir
+    Path directory;
+
+    private CoPurchaseMatrix matrix;
+    private CoPurchaseTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        matrix = new CoPurchaseMatrix(10, 50);
+        tracker = new CoPurchaseTracker(matrix, recommendationServiceProvider, directory.resolve("co-purchase.bin"), 2);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        tracker.destroy();
+    }
+
+    @Test
+    void catchUp_ShouldReplayOrdersPageByPage_WhenOrdersWerePlacedSinceSnapshot() {
+        // Given
+        when(recommendationServiceProvider.findOrderProductsAfter(0L, 2)).thenReturn(List.of(
+            new OrderProducts(1L, LocalDateTime.now(), List.of(10L, 20L)),
+            new OrderProducts(2L, LocalDateTime.now(), List.of(10L, 30L))));
+        when(recommendationServiceProvider.findOrderProductsAfter(2L, 2)).thenReturn(List.of(
+            new OrderProducts(3L, LocalDateTime.now(), List.of(10L, 20L))));
+
+        // When
+        int replayed = tracker.catchUp();
+
+        // Then
+        assertEquals(3, replayed);
+        assertEquals(3L, matrix.lastOrderId());
+        assertEquals(Map.of(20L, 2L, 30L, 1L), matrix.neighbours(10L, 5));
+    }
+
+    @Test
+    void onOrderCreated_ShouldRecordOnlyOrdersNotReplayed_WhenWarmedUp() throws InterruptedException {
+        // Given
+        when(recommendationServiceProvider.findOrderProductsAfter(0L, 2)).thenReturn(List.of(
+            new OrderProducts(5L, LocalDateTime.now(), List.of(1L, 2L))));
+        tracker.start(Duration.ofHours(1));
+
+        // When
+        tracker.onOrderCreated(orderCreated(5L, List.of(1L, 2L)));
+        tracker.onOrderCreated(orderCreated(6L, List.of(1L, 2L, 3L)));
+        tracker.destroy();
+
+        // Then
+        assertEquals(Map.of(2L, 2L, 3L, 1L), matrix.neighbours(1L, 5));
+        CoPurchaseMatrix restored = new CoPurchaseMatrix(10, 50);
+        assertDoesNotThrow(() -> assertTrue(restored.load(directory.resolve("co-purchase.bin"))));
+        assertEquals(6L, restored.lastOrderId());
+    }
+
+    private static OrderCreatedEvent orderCreated(long orderId, List<Long> productIds) {
+        return new OrderCreatedEvent(orderId, 1L, BigDecimal.TEN, OrderStatus.PENDING, "1 Market Street",
+            LocalDateTime.now(), "customer@example.com", productIds);
+    }
+}
@@ -0,0 +1,88 @@
+package com.groceryshop.recommendation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HnswIndexTest {
+
+    private static final int DIMENSIONS = 24;
+
+    @Test
+    void search_ShouldFindMostTrueNeighbours_WhenComparedWithBruteForce() {
+        // Given
+        Random random = new Random(42);
+        float[][] vectors = new float[2_000][];
+        for (int i = 0; i < vectors.length; i++) {
+            vectors[i] = randomUnitVector(random);
+        }
+        HnswIndex index = new HnswIndex(DIMENSIONS, 12, 100);
+        // Inserted from several threads, as the startup build does
+        IntStream.range(0, vectors.length).parallel().forEach(i -> index.add(i, vectors[i]));
+
+        // When
+        int hits = 0;
+        int queries = 100;
+        for (int q = 0; q < queries; q++) {
+            float[] query = randomUnitVector(random);
+            long[] found = index.search(query, 10, 100, -1);
+            long[] exact = bruteForce(vectors, query, 10);
+            for (long key : found) {
+                if (Arrays.stream(exact).anyMatch(e -> e == key)) {
+                    hits++;
+                }
+            }
+        }
+
+        // Then
+        assertEquals(vectors.length, index.size());
+        assertTrue(hits / (queries * 10.0) > 0.9, "recall@10 was " + hits / (queries * 10.0));
+    }
+
+    @Test
+    void add_ShouldReplaceVectorAndHideOldOne_WhenKeyIsAddedAgain() {
+        // Given
+        Random random = new Random(7);
+        HnswIndex index = new HnswIndex(DIMENSIONS, 8, 50);
+        for (int i = 0; i < 200; i++) {
+            index.add(i, randomUnitVector(random));
+        }
+        float[] target = randomUnitVector(random);
+
+        // When
+        index.add(5, target);
+        index.remove(6);
+
+        // Then
+        assertArrayEquals(new long[] {5}, index.search(target, 1, 50, -1));
+        assertEquals(199, index.size());
+        assertEquals(2, index.deletedCount());
+        assertTrue(Arrays.stream(index.search(index.vector(7), 199, 400, -1)).noneMatch(key -> key == 6));
+    }
+
+    static float[] randomUnitVector(Random random) {
+        float[] vector = new float[DIMENSIONS];
+        double norm = 0;
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] = (float) random.nextGaussian();
+            norm += vector[i] * vector[i];
+        }
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] /= (float) Math.sqrt(norm);
+        }
+        return vector;
+    }
+
+    static long[] bruteForce(float[][] vectors, float[] query, int k) {
+        return IntStream.range(0, vectors.length)
+            .boxed()
+            .sorted((a, b) -> Float.compare(HnswIndex.distance(query, vectors[a]), HnswIndex.distance(query, vectors[b])))
+            .limit(k)
+            .mapToLong(Integer::longValue)
+            .toArray();
+    }
+}
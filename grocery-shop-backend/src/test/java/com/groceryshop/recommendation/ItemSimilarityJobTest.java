@@ -0,0 +1,100 @@
+package com.groceryshop.recommendation;
+
+import com.groceryshop.order.spi.PurchaseVisitor;
+import com.groceryshop.recommendation.spi.RecommendationServiceProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Path;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@ExtendWith(MockitoExtension.class)
+class ItemSimilarityJobTest {
+
+    // customer, product; customer 1 bought product 10 twice
+    private static final long[][] PURCHASES = {
+        {1, 10}, {1, 20}, {1, 10},
+        {2, 10}, {2, 20}, {2, 30},
+        {3, 20}, {3, 30},
+        {4, 10}, {4, 20}
+    };
+
+    @Mock
+    private RecommendationServiceProvider recommendationServiceProvider;
+
+    @TempDir
+    Path directory;
+
+    private ItemSimilarityJob job;
+
+    @AfterEach
+    void tearDown() {
+        job.destroy();
+    }
+
+    @Test
+    void run_ShouldPublishTopCosineNeighbours_WhenCustomersShareProducts() {
+        // Given
+        givenPurchases();
+        ItemSimilarityIndex index = new ItemSimilarityIndex();
+        job = new ItemSimilarityJob(recommendationServiceProvider, index, directory.resolve("similarity.bin"),
+            2, 2, 100, 2);
+
+        // When
+        ItemSimilarityJob.Report report = job.run();
+
+        // Then
+        // 10 and 20 share 3 of 3 and 4 customers (0.87), 20 and 30 share 2 of 4 and 2 (0.71),
+        // 10 and 30 share only customer 2
+        assertArrayEquals(new long[] {20}, index.similar(10, 5));
+        assertArrayEquals(new long[] {10, 30}, index.similar(20, 5));
+        assertArrayEquals(new long[] {20}, index.similar(30, 5));
+        assertArrayEquals(new long[0], index.similar(99, 5));
+        assertArrayEquals(new long[] {30}, index.recommend(Set.of(10L, 20L)));
+        assertEquals(3, report.products());
+        assertEquals(4, report.customers());
+        assertEquals(10, report.purchases());
+        assertTrue(report.fileBytes() > 0);
+    }
+
+    @Test
+    void run_ShouldLeaveOutCustomersWithTooManyProducts_WhenComputing() {
+        // Given
+        givenPurchases();
+        ItemSimilarityIndex index = new ItemSimilarityIndex();
+        job = new ItemSimilarityJob(recommendationServiceProvider, index, directory.resolve("similarity.bin"),
+            2, 2, 2, 1);
+
+        // When
+        job.run();
+
+        // Then
+        // Without customer 2, products 20 and 30 only share customer 3
+        assertArrayEquals(new long[] {10}, index.similar(20, 5));
+        assertArrayEquals(new long[0], index.similar(30, 5));
+
+        // A fresh index serves the published file
+        ItemSimilarityIndex reloaded = new ItemSimilarityIndex();
+        assertTrue(reloaded.load(directory.resolve("similarity.bin")));
+        assertEquals(3, reloaded.itemCount());
+        assertArrayEquals(new long[] {20}, reloaded.similar(10, 5));
+    }
+
+    private void givenPurchases() {
+        doAnswer(invocation -> {
+            PurchaseVisitor visitor = invocation.getArgument(0);
+            for (long[] purchase : PURCHASES) {
+                visitor.visit(purchase[0], purchase[1]);
+            }
+            return null;
+        }).when(recommendationServiceProvider).forEachPurchase(any());
+    }
+}
@@ -0,0 +1,108 @@
+package com.groceryshop.recommendation;
+
+import com.groceryshop.TestDataFactory;
+import com.groceryshop.product.ProductCategory;
+import com.groceryshop.recommendation.spi.RecommendationServiceProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PopularityCountersTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+    private static final long DAY = Duration.ofDays(1).toMillis();
+
+    @Mock
+    private RecommendationServiceProvider recommendationServiceProvider;
+
+    private ProductLookup productLookup;
+    private PopularityCounters counters;
+
+    @BeforeEach
+    void setUp() {
+        productLookup = new ProductLookup(recommendationServiceProvider, Duration.ofMinutes(1), 1_000);
+        counters = new PopularityCounters(Duration.ofDays(1), 10, NOW);
+        lenient().when(recommendationServiceProvider.findProductsByIds(anyCollection())).thenReturn(List.of(
+            TestDataFactory.createTestProduct(1L, "Apple", ProductCategory.FRUITS),
+            TestDataFactory.createTestProduct(2L, "Milk", ProductCategory.DAIRY),
+            TestDataFactory.createTestProduct(3L, "Pear", ProductCategory.FRUITS)));
+    }
+
+    @Test
+    void top_ShouldRankRecentPurchasesAboveOlderOnes_WhenScoresDecay() {
+        // Given: three purchases two half-lives ago weigh less than one today plus one yesterday
+        for (int i = 0; i < 3; i++) {
+            counters.record(1L, NOW - 2 * DAY);
+        }
+        counters.record(2L, NOW - DAY);
+        counters.record(2L, NOW);
+
+        // When
+        counters.republish(productLookup, NOW);
+
+        // Then
+        assertArrayEquals(new long[] {2L, 1L}, counters.top(5));
+        assertArrayEquals(new long[] {2L}, counters.top(1));
+    }
+
+    @Test
+    void top_ShouldRankWithinCategory_WhenCategoryRequested() {
+        // Given
+        counters.record(1L, NOW);
+        counters.record(2L, NOW);
+        counters.record(2L, NOW);
+        counters.record(3L, NOW);
+        counters.record(3L, NOW);
+
+        // When
+        counters.republish(productLookup, NOW);
+
+        // Then
+        assertArrayEquals(new long[] {2L, 3L, 1L}, counters.top(5));
+        assertArrayEquals(new long[] {3L, 1L}, counters.top(ProductCategory.FRUITS, 5));
+        assertArrayEquals(new long[0], counters.top(ProductCategory.MEAT, 5));
+    }
+
+    @Test
+    void republish_ShouldDropProducts_WhenMissingOrDecayed() {
+        // Given
+        counters.record(1L, NOW - 30 * DAY);
+        counters.record(2L, NOW);
+        counters.record(99L, NOW);
+
+        // When
+        counters.republish(productLookup, NOW);
+        counters.republish(productLookup, NOW);
+
+        // Then
+        assertArrayEquals(new long[] {2L}, counters.top(5));
+        assertEquals(1, counters.size());
+        verify(recommendationServiceProvider, times(1)).findProductsByIds(anyCollection());
+    }
+
+    @Test
+    void republish_ShouldKeepRanking_WhenLandmarkIsRebased() {
+        // Given
+        counters.record(1L, NOW);
+        counters.record(2L, NOW);
+        counters.record(2L, NOW);
+        long later = NOW + 65 * DAY;
+        counters.record(1L, later);
+
+        // When
+        counters.republish(productLookup, later);
+
+        // Then
+        assertArrayEquals(new long[] {1L}, counters.top(5));
+    }
+}
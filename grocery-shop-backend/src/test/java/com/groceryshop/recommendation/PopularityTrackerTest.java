@@ -0,0 +1,95 @@
+package com.groceryshop.recommendation;
+
+import com.groceryshop.TestDataFactory;
+import com.groceryshop.order.OrderCreatedEvent;
+import com.groceryshop.order.OrderStatus;
+import com.groceryshop.order.spi.OrderProducts;
+import com.groceryshop.product.ProductCategory;
+import com.groceryshop.recommendation.spi.RecommendationServiceProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PopularityTrackerTest {
+
+    private static final Instant NOW = Instant.parse("2025-06-01T12:00:00Z");
+
+    @Mock
+    private RecommendationServiceProvider recommendationServiceProvider;
+
+    private PopularityCounters counters;
+    private PopularityTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        Clock clock = Clock.fixed(NOW, ZoneOffset.UTC);
+        counters = new PopularityCounters(Duration.ofDays(1), 10, NOW.toEpochMilli());
+        tracker = new PopularityTracker(counters, new ProductLookup(recommendationServiceProvider,
+            Duration.ofMinutes(1), 1_000), recommendationServiceProvider, Duration.ofDays(7), 100, clock);
+        lenient().when(recommendationServiceProvider.findProductsByIds(anyCollection())).thenReturn(List.of(
+            TestDataFactory.createTestProduct(1L, "Apple", ProductCategory.FRUITS),
+            TestDataFactory.createTestProduct(2L, "Milk", ProductCategory.DAIRY)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        tracker.destroy();
+    }
+
+    @Test
+    void warmUp_ShouldWeightReplayedOrdersByDate_WhenRecentOrdersExist() {
+        // Given
+        LocalDateTime now = LocalDateTime.ofInstant(NOW, ZoneOffset.UTC);
+        when(recommendationServiceProvider.findLastOrderIdBefore(now.minusDays(7))).thenReturn(10L);
+        when(recommendationServiceProvider.findOrderProductsAfter(10L, 100)).thenReturn(List.of(
+            new OrderProducts(11L, now.minusDays(3), List.of(1L)),
+            new OrderProducts(12L, now.minusDays(3), List.of(1L)),
+            new OrderProducts(13L, now.minusHours(1), List.of(2L))));
+
+        // When
+        tracker.warmUp();
+
+        // Then
+        assertArrayEquals(new long[] {2L, 1L}, counters.top(5));
+    }
+
+    @Test
+    void onOrderCreated_ShouldNotCountOrderTwice_WhenAlreadyReplayed() {
+        // Given
+        LocalDateTime now = LocalDateTime.ofInstant(NOW, ZoneOffset.UTC);
+        when(recommendationServiceProvider.findLastOrderIdBefore(any())).thenReturn(0L);
+        when(recommendationServiceProvider.findOrderProductsAfter(0L, 100)).thenReturn(List.of(
+            new OrderProducts(1L, now, List.of(1L))));
+        tracker.warmUp();
+
+        // When
+        tracker.onOrderCreated(orderCreated(1L, List.of(1L)));
+        tracker.onOrderCreated(orderCreated(2L, List.of(2L)));
+        tracker.onOrderCreated(orderCreated(3L, List.of(2L)));
+        tracker.republish();
+
+        // Then
+        assertArrayEquals(new long[] {2L, 1L}, counters.top(5));
+    }
+
+    private static OrderCreatedEvent orderCreated(long orderId, List<Long> productIds) {
+        return new OrderCreatedEvent(orderId, 1L, BigDecimal.TEN, OrderStatus.PENDING, "1 Market Street",
+            LocalDateTime.now(), "customer@example.com", productIds);
+    }
+}
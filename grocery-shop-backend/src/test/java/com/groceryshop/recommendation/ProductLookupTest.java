@@ -0,0 +1,84 @@
+package com.groceryshop.recommendation;
+
+import com.groceryshop.TestDataFactory;
+import com.groceryshop.product.Product;
+import com.groceryshop.product.StockUpdatedEvent;
+import com.groceryshop.recommendation.spi.RecommendationServiceProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductLookupTest {
+
+    @Mock
+    private RecommendationServiceProvider recommendationServiceProvider;
+
+    private ProductLookup productLookup;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        productLookup = new ProductLookup(recommendationServiceProvider, Duration.ofMinutes(1), 2);
+        product = TestDataFactory.createTestProduct();
+        product.setId(1L);
+    }
+
+    @Test
+    void getAll_ShouldLoadOnlyMissingIds_WhenSomeAreCached() {
+        // Given
+        Product other = TestDataFactory.createTestProduct();
+        other.setId(2L);
+        when(recommendationServiceProvider.findProductsByIds(List.of(1L))).thenReturn(List.of(product));
+        when(recommendationServiceProvider.findProductsByIds(List.of(2L, 3L))).thenReturn(List.of(other));
+        productLookup.getAll(List.of(1L));
+
+        // When
+        Map<Long, Product> found = productLookup.getAll(List.of(1L, 2L, 3L));
+
+        // Then
+        assertEquals(Map.of(1L, product, 2L, other), found);
+        verify(recommendationServiceProvider).findProductsByIds(List.of(2L, 3L));
+    }
+
+    @Test
+    void getAll_ShouldReloadProduct_WhenItsStockChanged() {
+        // Given
+        when(recommendationServiceProvider.findProductsByIds(List.of(1L))).thenReturn(List.of(product));
+        productLookup.getAll(List.of(1L));
+
+        // When
+        productLookup.onStockUpdated(new StockUpdatedEvent(this, 1L, product.getName(), 100, 0));
+        productLookup.getAll(List.of(1L));
+
+        // Then
+        verify(recommendationServiceProvider, times(2)).findProductsByIds(List.of(1L));
+    }
+
+    @Test
+    void getAll_ShouldStayWithinMaxEntries_WhenLoadingMoreProducts() {
+        // Given
+        Product second = TestDataFactory.createTestProduct();
+        second.setId(2L);
+        Product third = TestDataFactory.createTestProduct();
+        third.setId(3L);
+        when(recommendationServiceProvider.findProductsByIds(List.of(1L, 2L))).thenReturn(List.of(product, second));
+        when(recommendationServiceProvider.findProductsByIds(List.of(3L))).thenReturn(List.of(third));
+        productLookup.getAll(List.of(1L, 2L));
+
+        // When
+        productLookup.getAll(List.of(3L));
+
+        // Then
+        assertTrue(productLookup.size() <= 2);
+    }
+}
@@ -0,0 +1,130 @@
+package com.groceryshop.recommendation;
+
+import com.groceryshop.product.Product;
+import com.groceryshop.product.ProductCategory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Measures recall@10 of the similar-products index against an exact scan, and the search latency,
+ * for a range of beam widths over a synthetic catalog of product names and descriptions.
+ * Reports recall, mean and p99 microseconds per search, and the exact scan's mean for comparison.
+ * <p>
+ * Not part of the regular build; run with
+ * {@code mvn test -Dtest=ProductSimilarityBenchmarkTest -Dsimilarity.benchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "similarity.benchmark", matches = "true")
+class ProductSimilarityBenchmarkTest {
+
+    private static final int PRODUCTS = 20_000;
+    private static final int QUERIES = 1_000;
+    private static final int K = 10;
+    private static final int[] EF_VALUES = {16, 32, 64, 128, 256};
+    private static final String[] ADJECTIVES = {
+        "organic", "fresh", "frozen", "smoked", "low fat", "whole", "sliced", "premium", "family size",
+        "sweet", "spicy", "gluten free", "wholegrain", "free range", "unsalted", "dried", "roasted"};
+    private static final String[] NOUNS = {
+        "milk", "cheese", "yogurt", "butter", "apples", "bananas", "grapes", "carrots", "spinach", "potatoes",
+        "chicken", "beef", "salmon", "ham", "bread", "pasta", "rice", "beans", "coffee", "tea", "juice",
+        "water", "cereal", "oats", "honey", "tomatoes", "onions", "peppers", "sausages", "cream"};
+
+    @Test
+    void search_ShouldTradeRecallForLatency_WhenBeamWidthGrows() {
+        Random random = new Random(1);
+        List<Product> products = new ArrayList<>(PRODUCTS);
+        for (int i = 0; i < PRODUCTS; i++) {
+            products.add(randomProduct(i + 1L, random));
+        }
+        ProductVectorizer vectorizer = new ProductVectorizer(256);
+        vectorizer.fit(products);
+        float[][] vectors = products.stream().map(vectorizer::vectorize).toArray(float[][]::new);
+
+        long buildStart = System.nanoTime();
+        HnswIndex index = new HnswIndex(vectorizer.dimensions(), 16, 100);
+        IntStream.range(0, PRODUCTS).parallel().forEach(i -> index.add(i + 1L, vectors[i]));
+        long buildMillis = (System.nanoTime() - buildStart) / 1_000_000;
+
+        int[] queries = random.ints(QUERIES, 0, PRODUCTS).toArray();
+        long[][] exact = new long[QUERIES][];
+        long scanStart = System.nanoTime();
+        for (int q = 0; q < QUERIES; q++) {
+            exact[q] = exactNeighbours(vectors, queries[q]);
+        }
+        long scanMicros = (System.nanoTime() - scanStart) / 1_000 / QUERIES;
+
+        System.out.printf("%d products, built in %d ms; exact scan %d us/search%n", PRODUCTS, buildMillis, scanMicros);
+        System.out.printf("%6s %8s %10s %10s%n", "ef", "recall", "mean us", "p99 us");
+        double bestRecall = 0;
+        for (int ef : EF_VALUES) {
+            // Warm up
+            for (int q = 0; q < QUERIES; q++) {
+                index.search(vectors[queries[q]], K, ef, queries[q] + 1L);
+            }
+            long[] latencies = new long[QUERIES];
+            int hits = 0;
+            for (int q = 0; q < QUERIES; q++) {
+                long start = System.nanoTime();
+                long[] found = index.search(vectors[queries[q]], K, ef, queries[q] + 1L);
+                latencies[q] = System.nanoTime() - start;
+                for (long key : found) {
+                    for (long e : exact[q]) {
+                        if (e == key) {
+                            hits++;
+                            break;
+                        }
+                    }
+                }
+            }
+            Arrays.sort(latencies);
+            double recall = hits / (double) (QUERIES * K);
+            bestRecall = Math.max(bestRecall, recall);
+            System.out.printf("%6d %8.3f %10d %10d%n", ef, recall,
+                Arrays.stream(latencies).sum() / QUERIES / 1_000, latencies[QUERIES * 99 / 100] / 1_000);
+        }
+
+        assertTrue(bestRecall > 0.9);
+    }
+
+    private static long[] exactNeighbours(float[][] vectors, int query) {
+        long[] keys = new long[K];
+        float[] distances = new float[K];
+        Arrays.fill(distances, Float.MAX_VALUE);
+        for (int i = 0; i < vectors.length; i++) {
+            if (i == query) {
+                continue;
+            }
+            float distance = HnswIndex.distance(vectors[query], vectors[i]);
+            if (distance < distances[K - 1]) {
+                int j = K - 1;
+                while (j > 0 && distances[j - 1] > distance) {
+                    distances[j] = distances[j - 1];
+                    keys[j] = keys[j - 1];
+                    j--;
+                }
+                distances[j] = distance;
+                keys[j] = i + 1L;
+            }
+        }
+        return keys;
+    }
+
+    private static Product randomProduct(long id, Random random) {
+        String noun = NOUNS[random.nextInt(NOUNS.length)];
+        String name = ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + noun + " " + (100 + random.nextInt(900)) + "g";
+        String description = ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + noun + " with "
+            + NOUNS[random.nextInt(NOUNS.length)] + ", " + ADJECTIVES[random.nextInt(ADJECTIVES.length)];
+        Product product = new Product(name, description, BigDecimal.valueOf(50 + random.nextInt(2_000), 2),
+            ProductCategory.values()[random.nextInt(ProductCategory.values().length)], 10);
+        product.setId(id);
+        return product;
+    }
+}
@@ -0,0 +1,86 @@
+package com.groceryshop.recommendation;
+
+import com.groceryshop.TestDataFactory;
+import com.groceryshop.product.Product;
+import com.groceryshop.product.ProductCategory;
+import com.groceryshop.recommendation.spi.RecommendationServiceProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductSimilarityIndexTest {
+
+    @Mock
+    private RecommendationServiceProvider recommendationServiceProvider;
+
+    private ProductSimilarityIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSimilarityIndex(recommendationServiceProvider, new ProductVectorizer(256), 8, 50, 50, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        index.destroy();
+    }
+
+    @Test
+    void similar_ShouldRankProductWithCloserContentFirst_WhenIndexIsBuilt() {
+        // Given
+        when(recommendationServiceProvider.findAllProducts(anyInt(), anyInt())).thenReturn(List.of(
+            product(1L, "Whole Milk", "Fresh whole milk from local farms", ProductCategory.DAIRY, "2.49"),
+            product(2L, "Skimmed Milk", "Fresh skimmed milk, low fat", ProductCategory.DAIRY, "2.29"),
+            product(3L, "Greek Yogurt", "Thick strained yogurt", ProductCategory.DAIRY, "3.99"),
+            product(4L, "Organic Bananas", "Sweet ripe bananas", ProductCategory.FRUITS, "1.99"),
+            product(5L, "Sirloin Steak", "Aged beef sirloin", ProductCategory.MEAT, "15.99")));
+
+        // When
+        index.rebuild();
+
+        // Then
+        assertEquals(5, index.size());
+        long[] similar = index.similar(1L, 3);
+        assertEquals(2L, similar[0]);
+        assertEquals(3L, similar[1]);
+        assertArrayEquals(new long[0], index.similar(99L, 3));
+    }
+
+    @Test
+    void reindex_ShouldUseNewContent_WhenProductIsUpdated() {
+        // Given
+        Product bananas = product(4L, "Organic Bananas", "Sweet ripe bananas", ProductCategory.FRUITS, "1.99");
+        when(recommendationServiceProvider.findAllProducts(anyInt(), anyInt())).thenReturn(List.of(
+            product(1L, "Whole Milk", "Fresh whole milk", ProductCategory.DAIRY, "2.49"),
+            product(2L, "Red Apples", "Crisp red apples", ProductCategory.FRUITS, "2.99"),
+            bananas));
+        index.rebuild();
+        Product renamed = product(4L, "Whole Milk Drink", "Fresh whole milk", ProductCategory.DAIRY, "2.49");
+        when(recommendationServiceProvider.findProductsByIds(List.of(4L))).thenReturn(List.of(renamed));
+
+        // When
+        index.reindex(4L);
+
+        // Then
+        assertEquals(4L, index.similar(1L, 1)[0]);
+        assertEquals(3, index.size());
+    }
+
+    private static Product product(Long id, String name, String description, ProductCategory category, String price) {
+        Product product = TestDataFactory.createTestProduct(id, name, category);
+        product.setDescription(description);
+        product.setPrice(new BigDecimal(price));
+        return product;
+    }
+}
@@ -0,0 +1,256 @@
+package com.groceryshop.recommendation;
+
+import com.groceryshop.TestDataFactory;
+import com.groceryshop.order.spi.PurchasedProduct;
+import com.groceryshop.product.ProductCategory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PurchaseProfileStoreTest {
+
+    @Mock
+    private UserPurchaseProfileRepository repository;
+
+    private final List<Long> historyLoads = new ArrayList<>();
+    private final Map<Long, UserPurchaseProfile> rows = new ConcurrentHashMap<>();
+    private PurchaseProfileStore store;
+
+    @BeforeEach
+    void setUp() {
+        Function<Long, List<PurchasedProduct>> history = userId -> {
+            historyLoads.add(userId);
+            return List.of(
+                new PurchasedProduct(30L, ProductCategory.DAIRY, 2, 7L),
+                new PurchasedProduct(10L, ProductCategory.FRUITS, 1, 4L));
+        };
+        store = new PurchaseProfileStore(repository, history,
+            ids -> List.of(TestDataFactory.createTestProduct(20L, "Beef", ProductCategory.MEAT)), 2);
+        lenient().when(repository.findById(any())).thenReturn(Optional.empty());
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.destroy();
+    }
+
+    @Test
+    void get_ShouldBuildFromHistoryOnceAndStore_WhenNoProfileIsStored() {
+        // When
+        PurchaseProfile first = store.get(1L);
+        PurchaseProfile second = store.get(1L);
+
+        // Then
+        assertSame(first, second);
+        assertEquals(List.of(1L), historyLoads);
+        assertEquals(List.of(10L, 30L), first.productIds());
+        assertTrue(first.productIds().contains(30L));
+        assertEquals(Map.of(ProductCategory.DAIRY, 2L, ProductCategory.FRUITS, 1L), first.categoryCounts());
+        assertEquals(7L, first.lastOrderId());
+        verify(repository).saveAndFlush(any(UserPurchaseProfile.class));
+    }
+
+    @Test
+    void get_ShouldDecodeStoredProfile_WhenRowExists() {
+        // Given
+        UserPurchaseProfile row = new UserPurchaseProfile(1L);
+        row.update(PurchaseProfile.of(List.of(new PurchasedProduct(5L, ProductCategory.PANTRY, 3, 2L))));
+        when(repository.findById(1L)).thenReturn(Optional.of(row));
+
+        // When
+        PurchaseProfile profile = store.get(1L);
+
+        // Then
+        assertTrue(historyLoads.isEmpty());
+        assertEquals(List.of(5L), profile.productIds());
+        assertEquals(Map.of(ProductCategory.PANTRY, 3L), profile.categoryCounts());
+        assertEquals(2L, profile.lastOrderId());
+    }
+
+    @Test
+    void get_ShouldKeepStoredProfile_WhenAnotherNodeStoredItFirst() {
+        // Given
+        UserPurchaseProfile row = new UserPurchaseProfile(1L);
+        row.update(PurchaseProfile.of(List.of(new PurchasedProduct(5L, ProductCategory.PANTRY, 3, 9L))));
+        when(repository.findById(1L)).thenReturn(Optional.empty()).thenReturn(Optional.of(row));
+        when(repository.saveAndFlush(any(UserPurchaseProfile.class)))
+            .thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        // When
+        PurchaseProfile profile = store.get(1L);
+
+        // Then
+        assertEquals(List.of(5L), profile.productIds());
+        assertEquals(9L, profile.lastOrderId());
+        assertSame(profile, store.get(1L));
+    }
+
+    @Test
+    void merge_ShouldAddOrder_WhenItCommitsWhileProfileIsBeingBuilt() throws Exception {
+        // Given
+        storeRows();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PurchaseProfileStore slowStore = new PurchaseProfileStore(repository, userId -> {
+            loading.countDown();
+            await(release);
+            return List.of(new PurchasedProduct(30L, ProductCategory.DAIRY, 2, 7L));
+        }, ids -> List.of(TestDataFactory.createTestProduct(20L, "Beef", ProductCategory.MEAT)), 2);
+        try {
+            Thread building = Thread.ofPlatform().start(() -> slowStore.get(1L));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            AtomicBoolean merged = new AtomicBoolean();
+            Thread merging = Thread.ofPlatform().start(() -> merged.set(slowStore.merge(1L, 8L, List.of(20L))));
+            while (merging.getState() != Thread.State.WAITING) {
+                Thread.onSpinWait();
+            }
+
+            // When
+            release.countDown();
+            building.join(5000);
+            merging.join(5000);
+
+            // Then
+            assertTrue(merged.get());
+            PurchaseProfile profile = slowStore.get(1L);
+            assertEquals(List.of(20L, 30L), profile.productIds());
+            assertEquals(8L, profile.lastOrderId());
+        } finally {
+            release.countDown();
+            slowStore.destroy();
+        }
+    }
+
+    @Test
+    void merge_ShouldAddOrderOnce_WhenProfileExists() {
+        // Given
+        storeRows();
+        store.get(1L);
+
+        // When
+        boolean merged = store.merge(1L, 8L, List.of(20L, 10L));
+        boolean mergedAgain = store.merge(1L, 8L, List.of(20L, 10L));
+
+        // Then
+        assertTrue(merged);
+        assertFalse(mergedAgain);
+        PurchaseProfile profile = store.get(1L);
+        assertEquals(List.of(10L, 20L, 30L), profile.productIds());
+        assertEquals(1L, profile.categoryCounts().get(ProductCategory.MEAT));
+        assertEquals(8L, profile.lastOrderId());
+    }
+
+    @Test
+    void merge_ShouldSkip_WhenCustomerHasNoProfile() {
+        // When
+        boolean merged = store.merge(1L, 8L, List.of(20L));
+
+        // Then
+        assertFalse(merged);
+        verify(repository, never()).save(any(UserPurchaseProfile.class));
+    }
+
+    @Test
+    void merge_ShouldBuildOnStoredRow_WhenAnotherNodeMergedSinceCached() {
+        // Given
+        storeRows();
+        PurchaseProfile cached = store.get(1L);
+        UserPurchaseProfile mergedElsewhere = new UserPurchaseProfile(1L);
+        mergedElsewhere.update(cached.with(9L, List.of(40L), Map.of()));
+        rows.put(1L, mergedElsewhere);
+
+        // When
+        boolean merged = store.merge(1L, 10L, List.of(20L));
+
+        // Then
+        assertTrue(merged);
+        PurchaseProfile stored = rows.get(1L).toProfile();
+        assertEquals(List.of(10L, 20L, 30L, 40L), stored.productIds());
+        assertEquals(10L, stored.lastOrderId());
+        assertEquals(stored.productIds(), store.get(1L).productIds());
+    }
+
+    @Test
+    void merge_ShouldStartOver_WhenRowChangedBeforeItWasWritten() {
+        // Given
+        storeRows();
+        store.get(1L);
+        when(repository.save(any(UserPurchaseProfile.class)))
+            .thenThrow(new ObjectOptimisticLockingFailureException(UserPurchaseProfile.class, 1L))
+            .thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        boolean merged = store.merge(1L, 8L, List.of(20L));
+
+        // Then
+        assertTrue(merged);
+        verify(repository, times(2)).save(any(UserPurchaseProfile.class));
+        assertEquals(8L, store.get(1L).lastOrderId());
+    }
+
+    @Test
+    void get_ShouldEvictLeastRecentlyUsed_WhenCacheIsFull() {
+        // Given
+        store.get(1L);
+        store.get(2L);
+        store.get(1L);
+
+        // When
+        store.get(3L);
+        store.get(1L);
+        store.get(2L);
+
+        // Then
+        assertEquals(2, store.size());
+        assertEquals(List.of(1L, 2L, 3L, 2L), historyLoads);
+    }
+
+    /**
+     * Backs the repository mock with {@link #rows}, handing out a copy of a row on each read as
+     * the database would.
+     */
+    private void storeRows() {
+        when(repository.findById(any())).thenAnswer(invocation -> Optional.ofNullable(rows.get(invocation.<Long>getArgument(0)))
+            .map(row -> {
+                UserPurchaseProfile copy = new UserPurchaseProfile(row.getUserId());
+                copy.update(row.toProfile());
+                return copy;
+            }));
+        Answer<UserPurchaseProfile> save = invocation -> {
+            UserPurchaseProfile row = invocation.getArgument(0);
+            rows.put(row.getUserId(), row);
+            return row;
+        };
+        lenient().when(repository.saveAndFlush(any(UserPurchaseProfile.class))).thenAnswer(save);
+        lenient().when(repository.save(any(UserPurchaseProfile.class))).thenAnswer(save);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.groceryshop.recommendation;
+
+import com.groceryshop.TestDataFactory;
+import com.groceryshop.cart.CartClearedEvent;
+import com.groceryshop.cart.ItemAddedToCartEvent;
+import com.groceryshop.order.OrderCreatedEvent;
+import com.groceryshop.product.Product;
+import com.groceryshop.product.ProductUpdatedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecommendationCacheTest {
+
+    private final AtomicInteger computations = new AtomicInteger();
+    private final Supplier<List<Product>> loader = () -> {
+        computations.incrementAndGet();
+        return List.of(TestDataFactory.createTestProduct());
+    };
+    private RecommendationCache cache;
+
+    @AfterEach
+    void tearDown() {
+        cache.destroy();
+    }
+
+    @Test
+    void get_ShouldServeStaleResultAndRefreshInBackground_WhenOlderThanRefreshAfter() throws InterruptedException {
+        // Given
+        cache = new RecommendationCache(100, Duration.ofMinutes(10), Duration.ZERO, 1);
+        List<Product> first = cache.get(1L, RecommendationCache.Strategy.PERSONALIZED, 5, loader);
+
+        // When
+        List<Product> stale = cache.get(1L, RecommendationCache.Strategy.PERSONALIZED, 5, loader);
+
+        // Then
+        assertSame(first, stale);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (cache.getRefreshCount() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, cache.getRefreshCount());
+        assertEquals(1, cache.getStaleHitCount());
+        assertEquals(2, computations.get());
+        assertNotSame(first, cache.get(1L, RecommendationCache.Strategy.PERSONALIZED, 5, loader));
+    }
+
+    @Test
+    void onDomainEvent_ShouldDropOnlyThatUsersResults_WhenCartOrOrderChanges() {
+        // Given
+        cache = new RecommendationCache(100, Duration.ofMinutes(10), Duration.ofMinutes(1), 1);
+        cache.get(1L, RecommendationCache.Strategy.PERSONALIZED, 5, loader);
+        cache.get(1L, RecommendationCache.Strategy.CART_BASED, 5, loader);
+        cache.get(2L, RecommendationCache.Strategy.PERSONALIZED, 5, loader);
+
+        // When
+        cache.onDomainEvent(new ItemAddedToCartEvent(this, 10L, 1L, 3L, "Milk", 1, 5));
+        cache.onDomainEvent(new ProductUpdatedEvent(this, 3L, "Milk"));
+        cache.get(1L, RecommendationCache.Strategy.PERSONALIZED, 5, loader);
+        cache.get(2L, RecommendationCache.Strategy.PERSONALIZED, 5, loader);
+        cache.onDomainEvent(new OrderCreatedEvent(7L, 2L, BigDecimal.TEN));
+
+        // Then
+        assertEquals(4, computations.get());
+        assertEquals(2, cache.getInvalidationCount());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void onDomainEvent_ShouldDropUsersResults_WhenCartIsCleared() {
+        // Given
+        cache = new RecommendationCache(100, Duration.ofMinutes(10), Duration.ofMinutes(1), 1);
+        cache.get(1L, RecommendationCache.Strategy.CART_BASED, 5, loader);
+
+        // When
+        cache.onDomainEvent(new CartClearedEvent(this, 10L, 1L, 3));
+        cache.get(1L, RecommendationCache.Strategy.CART_BASED, 5, loader);
+
+        // Then
+        assertEquals(2, computations.get());
+        assertEquals(1, cache.getInvalidationCount());
+    }
+
+    @Test
+    void get_ShouldEvictLeastRecentlyActiveUsers_WhenFull() {
+        // Given
+        cache = new RecommendationCache(4, Duration.ofMinutes(10), Duration.ofMinutes(1), 1);
+        for (long userId = 1; userId <= 4; userId++) {
+            cache.get(userId, RecommendationCache.Strategy.PERSONALIZED, 5, loader);
+        }
+        cache.get(1L, RecommendationCache.Strategy.PERSONALIZED, 5, loader);
+
+        // When
+        cache.get(5L, RecommendationCache.Strategy.PERSONALIZED, 5, loader);
+
+        // Then
+        assertTrue(cache.size() <= 4);
+        assertTrue(cache.getEvictionCount() > 0);
+        cache.get(1L, RecommendationCache.Strategy.PERSONALIZED, 5, loader);
+        assertEquals(5, computations.get());
+    }
+}
@@ -11,6 +11,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 
@@ -21,16 +22,29 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class RecommendationServiceTest {
 
+    private static final long NOW = 1_700_000_000_000L;
+
     @Mock
     private RecommendationServiceProvider recommendationServiceProvider;
 
     private RecommendationService recommendationService;
+    private ProductLookup productLookup;
+    private PopularityCounters popularityCounters;
+    private RecommendationCache recommendationCache;
     private Product testProduct1;
     private Product testProduct2;
 
     @BeforeEach
     void setUp() {
-        recommendationService = new RecommendationServiceImpl(recommendationServiceProvider);
+        productLookup = new ProductLookup(recommendationServiceProvider, Duration.ofMinutes(1), 1_000);
+        popularityCounters = new PopularityCounters(Duration.ofDays(7), 100, NOW);
+        recommendationCache = new RecommendationCache(100, Duration.ofMinutes(10), Duration.ofMinutes(1), 1);
+        recommendationService = new RecommendationServiceImpl(recommendationServiceProvider, productLookup,
+                popularityCounters, recommendationCache, new ItemSimilarityIndex(),
+                new ProductSimilarityIndex(recommendationServiceProvider, new ProductVectorizer(64), 8, 50, 50, 1),
+                new CartComplementEngine(recommendationServiceProvider, new CategoryCandidates(
+                        recommendationServiceProvider, productLookup, popularityCounters, 50, Duration.ofMinutes(1)),
+                        0.5));
 
         testProduct1 = TestDataFactory.createTestProduct();
         testProduct1.setId(1L);
@@ -60,10 +74,10 @@ class RecommendationServiceTest {
 
         // Mock popular for fallback
         Map<Long, Long> popularCounts = Map.of(3L, 10L);
-        when(recommendationServiceProvider.getPopularProductCounts()).thenReturn(popularCounts);
 
         List<Product> allProducts = List.of(testProduct2);
-        when(recommendationServiceProvider.findAllProducts(0, Integer.MAX_VALUE)).thenReturn(allProducts);
+        when(recommendationServiceProvider.findProductsByIds(anyCollection())).thenReturn(allProducts);
+        givenPopularProducts(popularCounts);
 
         // When
         List<Product> recommendations = recommendationService.getPersonalizedRecommendations(userId, limit);
@@ -74,7 +88,7 @@ class RecommendationServiceTest {
         verify(recommendationServiceProvider).getUserPurchasedProductIds(userId);
         verify(recommendationServiceProvider).getUserCategoryPreferences(userId);
         verify(recommendationServiceProvider).findProductsByCategoryAndStatus(ProductCategory.FRUITS, ProductStatus.ACTIVE);
-        verify(recommendationServiceProvider, times(1)).findAllProducts(anyInt(), anyInt());
+        verify(recommendationServiceProvider, times(1)).findProductsByIds(anyCollection());
     }
 
     @Test
@@ -85,10 +99,10 @@ class RecommendationServiceTest {
         when(recommendationServiceProvider.getUserPurchasedProductIds(userId)).thenReturn(List.of());
 
         Map<Long, Long> popularCounts = Map.of(1L, 10L);
-        when(recommendationServiceProvider.getPopularProductCounts()).thenReturn(popularCounts);
 
         List<Product> allProducts = List.of(testProduct1);
-        when(recommendationServiceProvider.findAllProducts(0, Integer.MAX_VALUE)).thenReturn(allProducts);
+        when(recommendationServiceProvider.findProductsByIds(anyCollection())).thenReturn(allProducts);
+        givenPopularProducts(popularCounts);
 
         // When
         List<Product> recommendations = recommendationService.getPersonalizedRecommendations(userId, limit);
@@ -98,8 +112,7 @@ class RecommendationServiceTest {
         assertTrue(recommendations.contains(testProduct1));
         verify(recommendationServiceProvider).getUserPurchasedProductIds(userId);
         verify(recommendationServiceProvider, never()).getUserCategoryPreferences(anyLong());
-        verify(recommendationServiceProvider).getPopularProductCounts();
-        verify(recommendationServiceProvider).findAllProducts(0, Integer.MAX_VALUE);
+        verify(recommendationServiceProvider).findProductsByIds(anyCollection());
     }
 
     @Test
@@ -143,10 +156,10 @@ class RecommendationServiceTest {
         when(recommendationServiceProvider.getUserPurchasedProductIds(userId)).thenReturn(purchasedIds);
 
         Map<Long, Long> popularCounts = Map.of(1L, 10L);
-        when(recommendationServiceProvider.getPopularProductCounts()).thenReturn(popularCounts);
 
         List<Product> allProducts = List.of(testProduct1);
-        when(recommendationServiceProvider.findAllProducts(0, Integer.MAX_VALUE)).thenReturn(allProducts);
+        when(recommendationServiceProvider.findProductsByIds(anyCollection())).thenReturn(allProducts);
+        givenPopularProducts(popularCounts);
 
         // When
         List<Product> recommendations = recommendationService.getCartBasedRecommendations(userId, limit);
@@ -180,10 +193,10 @@ class RecommendationServiceTest {
         // Given
         int limit = 2;
         Map<Long, Long> purchaseCounts = Map.of(1L, 10L);
-        when(recommendationServiceProvider.getPopularProductCounts()).thenReturn(purchaseCounts);
 
         List<Product> allProducts = List.of(testProduct1);
-        when(recommendationServiceProvider.findAllProducts(0, Integer.MAX_VALUE)).thenReturn(allProducts);
+        when(recommendationServiceProvider.findProductsByIds(anyCollection())).thenReturn(allProducts);
+        givenPopularProducts(purchaseCounts);
 
         // When
         List<Product> popular = recommendationService.getPopularProducts(limit);
@@ -191,8 +204,37 @@ class RecommendationServiceTest {
         // Then
         assertEquals(1, popular.size());
         assertEquals(testProduct1, popular.get(0));
-        verify(recommendationServiceProvider).getPopularProductCounts();
-        verify(recommendationServiceProvider).findAllProducts(0, Integer.MAX_VALUE);
+        verify(recommendationServiceProvider).findProductsByIds(anyCollection());
+    }
+
+    @Test
+    void getPopularProducts_ShouldLookUpOnlyRankedProductsOnce_WhenCalledRepeatedly() {
+        // Given
+        Map<Long, Long> purchaseCounts = Map.of(1L, 10L, 2L, 5L);
+        when(recommendationServiceProvider.findProductsByIds(anyCollection())).thenReturn(List.of(testProduct1, testProduct2));
+        givenPopularProducts(purchaseCounts);
+
+        // When
+        recommendationService.getPopularProducts(2);
+        List<Product> popular = recommendationService.getPopularProducts(2);
+
+        // Then
+        assertEquals(List.of(testProduct1, testProduct2), popular);
+        verify(recommendationServiceProvider, times(1)).findProductsByIds(anyCollection());
+        verify(recommendationServiceProvider, never()).findAllProducts(anyInt(), anyInt());
+    }
+
+    @Test
+    void getPopularProducts_ShouldNotOverflow_WhenLimitIsHuge() {
+        // Given
+        when(recommendationServiceProvider.findProductsByIds(anyCollection())).thenReturn(List.of(testProduct1, testProduct2));
+        givenPopularProducts(Map.of(1L, 10L, 2L, 5L));
+
+        // When
+        List<Product> popular = recommendationService.getPopularProducts(Integer.MAX_VALUE);
+
+        // Then
+        assertEquals(List.of(testProduct1, testProduct2), popular);
     }
 
     @Test
@@ -204,7 +246,7 @@ class RecommendationServiceTest {
         when(recommendationServiceProvider.getFrequentlyBoughtTogetherProductCounts(productId)).thenReturn(coPurchases);
 
         List<Product> allProducts = List.of(testProduct1, testProduct2);
-        when(recommendationServiceProvider.findAllProducts(0, Integer.MAX_VALUE)).thenReturn(allProducts);
+        when(recommendationServiceProvider.findProductsByIds(anyCollection())).thenReturn(allProducts);
 
         // When
         List<Product> recommendations = recommendationService.getFrequentlyBoughtTogether(productId, limit);
@@ -213,7 +255,7 @@ class RecommendationServiceTest {
         assertEquals(1, recommendations.size());
         assertTrue(recommendations.contains(testProduct2));
         verify(recommendationServiceProvider).getFrequentlyBoughtTogetherProductCounts(productId);
-        verify(recommendationServiceProvider).findAllProducts(0, Integer.MAX_VALUE);
+        verify(recommendationServiceProvider).findProductsByIds(anyCollection());
     }
 
     @Test
@@ -225,10 +267,10 @@ class RecommendationServiceTest {
         when(recommendationServiceProvider.getUserPurchasedProductIds(userId)).thenReturn(purchasedIds);
 
         Map<Long, Long> popularCounts = Map.of(1L, 10L);
-        when(recommendationServiceProvider.getPopularProductCounts()).thenReturn(popularCounts);
 
         List<Product> allProducts = List.of(testProduct1);
-        when(recommendationServiceProvider.findAllProducts(0, Integer.MAX_VALUE)).thenReturn(allProducts);
+        when(recommendationServiceProvider.findProductsByIds(anyCollection())).thenReturn(allProducts);
+        givenPopularProducts(popularCounts);
 
         // When
         List<Product> recommendations = recommendationService.getUserPreferredCategoriesRecommendations(userId, limit);
@@ -237,7 +279,68 @@ class RecommendationServiceTest {
         assertEquals(1, recommendations.size());
         assertTrue(recommendations.contains(testProduct1));
         verify(recommendationServiceProvider).getUserPurchasedProductIds(userId);
-        verify(recommendationServiceProvider).getPopularProductCounts();
-        verify(recommendationServiceProvider).findAllProducts(0, Integer.MAX_VALUE);
+        verify(recommendationServiceProvider).findProductsByIds(anyCollection());
+    }
+
+    @Test
+    void getCategoryRecommendations_ShouldRankPopularProductsFirst_WhenCategoryHasPurchases() {
+        // Given
+        ProductCategory category = testProduct2.getCategory();
+        when(recommendationServiceProvider.findProductsByIds(anyCollection())).thenReturn(List.of(testProduct2));
+        givenPopularProducts(Map.of(2L, 3L));
+        when(recommendationServiceProvider.findProductsByCategoryAndStatus(category, ProductStatus.ACTIVE))
+                .thenReturn(List.of(testProduct1, testProduct2));
+
+        // When
+        List<Product> recommendations = recommendationService.getCategoryRecommendations(category, 2);
+
+        // Then
+        assertEquals(List.of(testProduct2, testProduct1), recommendations);
+    }
+
+    @Test
+    void getCategoryRecommendations_ShouldSkipCategoryQuery_WhenRankingFillsLimit() {
+        // Given
+        when(recommendationServiceProvider.findProductsByIds(anyCollection())).thenReturn(List.of(testProduct1, testProduct2));
+        givenPopularProducts(Map.of(1L, 3L, 2L, 5L));
+
+        // When
+        List<Product> recommendations = recommendationService.getCategoryRecommendations(testProduct1.getCategory(), 2);
+
+        // Then
+        assertEquals(List.of(testProduct2, testProduct1), recommendations);
+        verify(recommendationServiceProvider, never()).findProductsByCategoryAndStatus(any(), any());
+    }
+
+    /**
+     * Records the given number of purchases per product and publishes the ranking.
+     */
+    private void givenPopularProducts(Map<Long, Long> purchaseCounts) {
+        purchaseCounts.forEach((productId, count) -> {
+            for (long i = 0; i < count; i++) {
+                popularityCounters.record(productId, NOW);
+            }
+        });
+        popularityCounters.republish(productLookup, NOW);
+    }
+
+    @Test
+    void getPersonalizedRecommendations_ShouldServeFromCache_WhenCalledAgain() {
+        // Given
+        when(recommendationServiceProvider.getUserPurchasedProductIds(1L)).thenReturn(List.of(1L));
+        when(recommendationServiceProvider.getUserCategoryPreferences(1L)).thenReturn(Map.of(ProductCategory.PANTRY, 1L));
+        when(recommendationServiceProvider.findProductsByCategoryAndStatus(ProductCategory.PANTRY, ProductStatus.ACTIVE))
+                .thenReturn(List.of(testProduct1, testProduct2));
+
+        // When
+        List<Product> first = recommendationService.getPersonalizedRecommendations(1L, 1);
+        List<Product> second = recommendationService.getPersonalizedRecommendations(1L, 1);
+
+        // Then
+        assertEquals(List.of(testProduct2), first);
+        assertSame(first, second);
+        verify(recommendationServiceProvider, times(1)).getUserPurchasedProductIds(1L);
+        assertEquals(1, recommendationCache.getHitCount());
+        assertEquals(1, recommendationCache.getMissCount());
     }
 }
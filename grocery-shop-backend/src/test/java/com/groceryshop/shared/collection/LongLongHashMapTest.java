@@ -0,0 +1,52 @@
+package com.groceryshop.shared.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongLongHashMapTest {
+
+    @Test
+    void addTo_ShouldMatchHashMap_WhenGrowingPastInitialCapacity() {
+        // Given
+        LongLongHashMap map = new LongLongHashMap();
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        // When
+        for (int i = 0; i < 10_000; i++) {
+            long key = random.nextInt(2_000) - 1_000;
+            map.addTo(key, i);
+            expected.merge(key, (long) i, Long::sum);
+        }
+
+        // Then
+        assertEquals(expected.size(), map.size());
+        expected.forEach((key, value) -> assertEquals(value, map.get(key)));
+        Map<Long, Long> visited = new HashMap<>();
+        map.forEach(visited::put);
+        assertEquals(expected, visited);
+    }
+
+    @Test
+    void get_ShouldReturnZero_WhenKeyIsAbsent() {
+        // Given
+        LongLongHashMap map = new LongLongHashMap();
+        map.put(0L, 5L);
+        map.put(7L, 9L);
+
+        // When / Then
+        assertEquals(5L, map.get(0L));
+        assertEquals(0L, map.get(8L));
+        assertTrue(map.containsKey(0L));
+        assertFalse(map.containsKey(8L));
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertEquals(0L, map.get(0L));
+    }
+}
@@ -0,0 +1,80 @@
+package com.groceryshop.shared.event;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StaleEventFilterTest {
+
+    private record TestEvent(Long aggregateId) implements DomainEvent {
+        @Override
+        public String aggregateType() {
+            return "test";
+        }
+    }
+
+    private static EventEnvelope<TestEvent> envelope(long aggregateId, long sequence) {
+        return envelope("node-a", aggregateId, sequence);
+    }
+
+    private static EventEnvelope<TestEvent> envelope(String origin, long aggregateId, long sequence) {
+        return new EventEnvelope<>(EventEnvelope.CURRENT_VERSION, UUID.randomUUID(), "TestEvent", "test",
+                aggregateId, null, Instant.now(), origin, sequence, new TestEvent(aggregateId));
+    }
+
+    @Test
+    void of_ShouldAssignIncreasingSequences_WhenEventsAreWrappedInOrder() {
+        // When
+        EventEnvelope<TestEvent> first = EventEnvelope.of(new TestEvent(1L));
+        EventEnvelope<TestEvent> second = EventEnvelope.of(new TestEvent(1L));
+
+        // Then
+        assertTrue(second.sequence() > first.sequence());
+        assertEquals("TestEvent", first.eventType());
+        assertEquals(1L, first.aggregateId());
+        assertEquals(first.origin(), second.origin());
+        assertNotEquals(first.eventId(), second.eventId());
+    }
+
+    @Test
+    void accept_ShouldDropStaleAndDuplicateEvents_WhenNewerEventWasSeen() {
+        // Given
+        StaleEventFilter filter = new StaleEventFilter();
+
+        // When / Then
+        assertTrue(filter.accept(envelope(1L, 10)));
+        assertFalse(filter.accept(envelope(1L, 10)));
+        assertFalse(filter.accept(envelope(1L, 5)));
+        assertTrue(filter.accept(envelope(1L, 11)));
+        assertTrue(filter.accept(envelope(2L, 1)));
+    }
+
+    @Test
+    void accept_ShouldNotDropEvent_WhenItComesFromAnotherNode() {
+        // Given
+        StaleEventFilter filter = new StaleEventFilter();
+        filter.accept(envelope("node-a", 1L, 10));
+
+        // When / Then
+        // node-b's clock is behind: a lower sequence does not make its event older
+        assertTrue(filter.accept(envelope("node-b", 1L, 5)));
+        assertFalse(filter.accept(envelope("node-b", 1L, 5)));
+        assertTrue(filter.accept(envelope("node-a", 1L, 11)));
+    }
+
+    @Test
+    void accept_ShouldForgetLeastRecentlySeenAggregates_WhenCapacityExceeded() {
+        // Given
+        StaleEventFilter filter = new StaleEventFilter(2);
+        filter.accept(envelope(1L, 10));
+        filter.accept(envelope(2L, 10));
+        filter.accept(envelope(3L, 10));
+
+        // When / Then
+        assertTrue(filter.accept(envelope(1L, 5)));
+        assertFalse(filter.accept(envelope(3L, 5)));
+    }
+}
@@ -0,0 +1,143 @@
+package com.groceryshop.shared.messaging;
+
+import com.groceryshop.config.MessagingTopology;
+import com.groceryshop.config.RabbitMQConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for InProcessEventBus routing and delivery.
+ */
+class InProcessEventBusTest {
+
+    private InProcessEventBus eventBus;
+
+    @BeforeEach
+    void setUp() {
+        eventBus = new InProcessEventBus(16, WaitStrategy.Type.BLOCKING, BackpressurePolicy.BLOCK, Duration.ofMillis(200));
+        eventBus.declare(MessagingTopology.declarables());
+    }
+
+    @AfterEach
+    void tearDown() {
+        eventBus.stop();
+    }
+
+    @Test
+    void publish_ShouldDeliverToQueuesBoundWithMatchingKey() throws InterruptedException {
+        // Given
+        CountDownLatch latch = new CountDownLatch(2);
+        List<String> orderEvents = new CopyOnWriteArrayList<>();
+        List<String> processing = new CopyOnWriteArrayList<>();
+        eventBus.subscribe(RabbitMQConfig.ORDER_EVENTS_QUEUE, String.class, payload -> {
+            orderEvents.add(payload);
+            latch.countDown();
+        });
+        eventBus.subscribe(RabbitMQConfig.ORDER_PROCESSING_QUEUE, String.class, payload -> {
+            processing.add(payload);
+            latch.countDown();
+        });
+        eventBus.start();
+
+        // When
+        eventBus.publish(RabbitMQConfig.ORDER_EXCHANGE, RabbitMQConfig.ORDER_CREATED_KEY, "created");
+        eventBus.publish(RabbitMQConfig.ORDER_EXCHANGE, RabbitMQConfig.ORDER_PROCESSING_KEY, "processing");
+
+        // Then
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        assertEquals(List.of("created"), orderEvents);
+        assertEquals(List.of("processing"), processing);
+    }
+
+    @Test
+    void publish_ShouldRouteTopicAndHeadersExchanges() throws InterruptedException {
+        // Given
+        CountDownLatch latch = new CountDownLatch(3);
+        List<String> inventoryEvents = new CopyOnWriteArrayList<>();
+        List<String> emails = new CopyOnWriteArrayList<>();
+        eventBus.subscribe(RabbitMQConfig.INVENTORY_EVENTS_QUEUE, String.class, payload -> {
+            inventoryEvents.add(payload);
+            latch.countDown();
+        });
+        eventBus.subscribe(RabbitMQConfig.NOTIFICATION_EMAIL_QUEUE, String.class, payload -> {
+            emails.add(payload);
+            latch.countDown();
+        });
+        eventBus.start();
+
+        // When
+        eventBus.publish(RabbitMQConfig.INVENTORY_EXCHANGE, RabbitMQConfig.STOCK_UPDATED_KEY, "stock");
+        eventBus.publish(RabbitMQConfig.INVENTORY_EXCHANGE, RabbitMQConfig.LOW_STOCK_ALERT_KEY, "low");
+        eventBus.publish(RabbitMQConfig.NOTIFICATION_EXCHANGE, "", Map.of("type", "email"), "email");
+        eventBus.publish(RabbitMQConfig.NOTIFICATION_EXCHANGE, "", Map.of("type", "push"), "push");
+
+        // Then
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        assertEquals(List.of("stock", "low"), inventoryEvents);
+        assertEquals(List.of("email"), emails);
+    }
+
+    @Test
+    void publish_ShouldDispatchToHandlerMatchingPayloadType() throws InterruptedException {
+        // Given
+        CountDownLatch latch = new CountDownLatch(2);
+        List<Object> strings = new CopyOnWriteArrayList<>();
+        List<Object> numbers = new CopyOnWriteArrayList<>();
+        eventBus.subscribe(RabbitMQConfig.ORDER_EVENTS_QUEUE, String.class, payload -> {
+            strings.add(payload);
+            latch.countDown();
+        });
+        eventBus.subscribe(RabbitMQConfig.ORDER_EVENTS_QUEUE, Long.class, payload -> {
+            numbers.add(payload);
+            latch.countDown();
+        });
+        eventBus.start();
+
+        // When
+        eventBus.publish(RabbitMQConfig.ORDER_EXCHANGE, RabbitMQConfig.ORDER_CREATED_KEY, 42L);
+        eventBus.publish(RabbitMQConfig.ORDER_EXCHANGE, RabbitMQConfig.ORDER_CREATED_KEY, "text");
+
+        // Then
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        assertEquals(List.of("text"), strings);
+        assertEquals(List.of(42L), numbers);
+    }
+
+    @Test
+    void publish_ShouldDropWhenFullAndPolicyIsDrop() {
+        // Given - consumer never started, so the ring fills up
+        InProcessEventBus dropping = new InProcessEventBus(4, WaitStrategy.Type.SLEEPING, BackpressurePolicy.DROP, Duration.ZERO);
+        dropping.declare(MessagingTopology.declarables());
+        dropping.subscribe(RabbitMQConfig.ORDER_EVENTS_QUEUE, String.class, payload -> { });
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            dropping.publish(RabbitMQConfig.ORDER_EXCHANGE, RabbitMQConfig.ORDER_CREATED_KEY, "event-" + i);
+        }
+
+        // Then
+        InProcessEventBus.QueueStats stats = dropping.stats(RabbitMQConfig.ORDER_EVENTS_QUEUE);
+        assertEquals(4, stats.depth());
+        assertEquals(4, stats.published());
+        assertEquals(6, stats.dropped());
+    }
+
+    @Test
+    void topicMatches_ShouldFollowAmqpWildcards() {
+        assertTrue(InProcessEventBus.topicMatches("stock.*", "stock.updated"));
+        assertFalse(InProcessEventBus.topicMatches("stock.*", "stock.low.critical"));
+        assertTrue(InProcessEventBus.topicMatches("stock.#", "stock.low.critical"));
+        assertTrue(InProcessEventBus.topicMatches("#", "stock"));
+        assertFalse(InProcessEventBus.topicMatches("*", "stock.updated"));
+    }
+}
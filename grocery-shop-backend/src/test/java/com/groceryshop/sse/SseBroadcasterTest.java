@@ -0,0 +1,205 @@
+package com.groceryshop.sse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SseBroadcasterTest {
+
+    private static final SseFrameEncoder ENCODER = new SseFrameEncoder(new ObjectMapper());
+
+    private SseBroadcaster broadcaster;
+
+    @AfterEach
+    void tearDown() {
+        if (broadcaster != null) {
+            broadcaster.destroy();
+        }
+    }
+
+    @Test
+    void encode_ShouldWriteSseWireFormat_WhenEventHasJsonPayload() {
+        // Given
+        SseFrameEncoder encoder = new SseFrameEncoder(new ObjectMapper());
+
+        // When
+        SseFrame frame = encoder.encode(new SseEvent("7", "order-status", Map.of("orderId", 1)));
+
+        // Then
+        assertEquals("id:7\nevent:order-status\nretry:3000\ndata:{\"orderId\":1}\n\n",
+                new String(frame.bytes(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void encode_ShouldSplitDataLines_WhenPayloadContainsNewlines() {
+        // Given
+        SseFrameEncoder encoder = new SseFrameEncoder(new ObjectMapper());
+
+        // When
+        SseFrame frame = encoder.encode(new SseEvent("1", "note", "line one\nline two"));
+
+        // Then
+        assertTrue(new String(frame.bytes(), StandardCharsets.UTF_8).endsWith("data:line one\ndata:line two\n\n"));
+    }
+
+    @Test
+    void deliver_ShouldWriteFramesInOrderOnWriterThread_WhenConnectionIsOpen() throws Exception {
+        // Given
+        broadcaster = newBroadcaster(16, SlowConsumerPolicy.DROP);
+        RecordingEmitter emitter = new RecordingEmitter(3);
+        SseConnection connection = broadcaster.open("c1", "user", emitter, closed -> { });
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            broadcaster.deliver(connection, ENCODER.encode(new SseEvent(String.valueOf(i), "e", "x")));
+        }
+
+        // Then
+        assertTrue(emitter.written.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("0", "1", "2"), emitter.ids);
+        assertNotEquals(Thread.currentThread().getName(), emitter.writerThread);
+    }
+
+    @Test
+    void deliver_ShouldDropFrameWithoutBlocking_WhenSubscriberQueueIsFull() throws Exception {
+        // Given
+        broadcaster = newBroadcaster(2, SlowConsumerPolicy.DROP);
+        BlockedEmitter emitter = new BlockedEmitter();
+        SseConnection connection = broadcaster.open("slow", "user", emitter, closed -> { });
+        broadcaster.deliver(connection, ENCODER.encode(new SseEvent("0", "e", "x")));
+        assertTrue(emitter.writing.await(5, TimeUnit.SECONDS));
+
+        // When - the writer is stuck on the first frame, two more fill the queue
+        boolean second = broadcaster.deliver(connection, ENCODER.encode(new SseEvent("1", "e", "x")));
+        boolean third = broadcaster.deliver(connection, ENCODER.encode(new SseEvent("2", "e", "x")));
+        boolean fourth = broadcaster.deliver(connection, ENCODER.encode(new SseEvent("3", "e", "x")));
+
+        // Then
+        assertTrue(second);
+        assertTrue(third);
+        assertFalse(fourth);
+        assertEquals(1, broadcaster.getFramesDropped());
+        assertTrue(connection.isOpen());
+        emitter.release.countDown();
+    }
+
+    @Test
+    void deliver_ShouldCloseConnection_WhenSubscriberIsSlowAndPolicyIsDisconnect() throws Exception {
+        // Given
+        broadcaster = newBroadcaster(1, SlowConsumerPolicy.DISCONNECT);
+        BlockedEmitter emitter = new BlockedEmitter();
+        AtomicBoolean closed = new AtomicBoolean();
+        SseConnection connection = broadcaster.open("slow", "user", emitter, c -> closed.set(true));
+        broadcaster.deliver(connection, ENCODER.encode(new SseEvent("0", "e", "x")));
+        assertTrue(emitter.writing.await(5, TimeUnit.SECONDS));
+        broadcaster.deliver(connection, ENCODER.encode(new SseEvent("1", "e", "x")));
+
+        // When
+        boolean delivered = broadcaster.deliver(connection, ENCODER.encode(new SseEvent("2", "e", "x")));
+
+        // Then
+        assertFalse(delivered);
+        assertFalse(connection.isOpen());
+        assertTrue(closed.get());
+        assertEquals(1, broadcaster.getSlowConsumerDisconnects());
+        emitter.release.countDown();
+    }
+
+    @Test
+    void deliver_ShouldReturnWithoutWaitingForBlockedSend_WhenDisconnectingSlowSubscriber() throws Exception {
+        // Given - like ResponseBodyEmitter, send() and complete() share the emitter's lock
+        broadcaster = newBroadcaster(1, SlowConsumerPolicy.DISCONNECT);
+        LockingBlockedEmitter emitter = new LockingBlockedEmitter();
+        SseConnection connection = broadcaster.open("slow", "user", emitter, c -> { });
+        broadcaster.deliver(connection, ENCODER.encode(new SseEvent("0", "e", "x")));
+        assertTrue(emitter.writing.await(5, TimeUnit.SECONDS));
+        broadcaster.deliver(connection, ENCODER.encode(new SseEvent("1", "e", "x")));
+
+        // When
+        boolean delivered = assertTimeoutPreemptively(Duration.ofSeconds(1),
+                () -> broadcaster.deliver(connection, ENCODER.encode(new SseEvent("2", "e", "x"))));
+
+        // Then - the emitter is completed once the stuck send lets go
+        assertFalse(delivered);
+        assertFalse(connection.isOpen());
+        emitter.release.countDown();
+        assertTrue(emitter.completed.await(5, TimeUnit.SECONDS));
+    }
+
+    private static SseBroadcaster newBroadcaster(int queueCapacity, SlowConsumerPolicy policy) {
+        return new SseBroadcaster(queueCapacity, 2, 8, policy);
+    }
+
+    static class RecordingEmitter extends SseEmitter {
+        final List<String> ids = new CopyOnWriteArrayList<>();
+        final CountDownLatch written;
+        volatile String writerThread;
+
+        RecordingEmitter(int expected) {
+            this.written = new CountDownLatch(expected);
+        }
+
+        @Override
+        public synchronized void send(Set<ResponseBodyEmitter.DataWithMediaType> items) {
+            writerThread = Thread.currentThread().getName();
+            for (ResponseBodyEmitter.DataWithMediaType item : items) {
+                String frame = new String((byte[]) item.getData(), StandardCharsets.UTF_8);
+                ids.add(frame.substring(3, frame.indexOf('\n')));
+                written.countDown();
+            }
+        }
+    }
+
+    private static class LockingBlockedEmitter extends SseEmitter {
+        final CountDownLatch writing = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch completed = new CountDownLatch(1);
+
+        @Override
+        public synchronized void send(Set<ResponseBodyEmitter.DataWithMediaType> items) throws IOException {
+            writing.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed.countDown();
+        }
+    }
+
+    private static class BlockedEmitter extends SseEmitter {
+        final CountDownLatch writing = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public void send(Set<ResponseBodyEmitter.DataWithMediaType> items) throws IOException {
+            writing.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.groceryshop.sse;
+
+import com.groceryshop.config.RabbitMQConfig;
+import com.groceryshop.shared.messaging.EventBus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class SseClusterTest {
+
+    private EventBus eventBus;
+    private SseCluster cluster;
+
+    @BeforeEach
+    void setUp() {
+        eventBus = mock(EventBus.class);
+        SseSubscriptionRegistry registry = new SseSubscriptionRegistry(8, Duration.ofMinutes(5));
+        cluster = new SseCluster(new SseNode("local"), registry, eventBus, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void nodesWatching_ShouldReturnOnlyInterestedNodes_WhenNodesAnnouncedTopics() {
+        // Given
+        cluster.receive(full("a", Map.of(SseTopicType.ORDER, List.of(1L)), Set.of()));
+        cluster.receive(full("b", Map.of(SseTopicType.ORDER, List.of(2L)), Set.of()));
+        cluster.receive(full("c", Map.of(), Set.of(SseTopicType.ORDER)));
+
+        // When
+        List<String> watching = cluster.nodesWatching(SseTopicType.ORDER, 1L);
+
+        // Then
+        assertEquals(Set.of("a", "c"), Set.copyOf(watching));
+        assertTrue(cluster.nodesWatching(SseTopicType.USER, 1L).isEmpty());
+    }
+
+    @Test
+    void forward_ShouldSendDeliveryKeyedByNode_WhenNodesAreGiven() {
+        // When
+        cluster.forward(List.of("a", "b"), SseTopicType.ORDER, 7L, "order-status-update", "{}");
+
+        // Then
+        ArgumentCaptor<Object> message = ArgumentCaptor.forClass(Object.class);
+        verify(eventBus).publish(eq(RabbitMQConfig.SSE_DELIVERY_EXCHANGE), eq("a"), message.capture());
+        verify(eventBus).publish(eq(RabbitMQConfig.SSE_DELIVERY_EXCHANGE), eq("b"), any(Object.class));
+        assertEquals(new SseClusterMessage.Delivery("local", SseTopicType.ORDER, 7L, "order-status-update", "{}"),
+                message.getValue());
+        assertEquals(2, cluster.getForwardedCount());
+    }
+
+    @Test
+    void receive_ShouldAddTopicsAndReplaceOnFullAnnouncement_WhenNodeAnnouncesAgain() {
+        // Given
+        cluster.receive(full("a", Map.of(SseTopicType.ORDER, List.of(1L)), Set.of()));
+        cluster.receive(new SseClusterMessage.Presence("a", false, false,
+                Map.of(SseTopicType.ORDER, List.of(2L)), Set.of()));
+        assertEquals(List.of("a"), cluster.nodesWatching(SseTopicType.ORDER, 1L));
+        assertEquals(List.of("a"), cluster.nodesWatching(SseTopicType.ORDER, 2L));
+
+        // When
+        cluster.receive(full("a", Map.of(SseTopicType.ORDER, List.of(2L)), Set.of()));
+
+        // Then
+        assertTrue(cluster.nodesWatching(SseTopicType.ORDER, 1L).isEmpty());
+        assertEquals(List.of("a"), cluster.nodesWatching(SseTopicType.ORDER, 2L));
+    }
+
+    @Test
+    void receive_ShouldAnswerWithOwnPresence_WhenNodeIsSeenForTheFirstTime() {
+        // When
+        cluster.receive(full("a", Map.of(), Set.of()));
+        cluster.receive(full("a", Map.of(), Set.of()));
+
+        // Then
+        verify(eventBus, times(1)).publish(eq(RabbitMQConfig.SSE_PRESENCE_EXCHANGE), eq(""), any(Object.class));
+        assertEquals(1, cluster.getRemoteNodeCount());
+    }
+
+    @Test
+    void receive_ShouldForgetNodeAndIgnoreOwnAnnouncements_WhenNodeLeaves() {
+        // Given
+        cluster.receive(full("a", Map.of(SseTopicType.USER, List.of(3L)), Set.of()));
+        cluster.receive(full("local", Map.of(SseTopicType.USER, List.of(3L)), Set.of()));
+
+        // When
+        cluster.receive(new SseClusterMessage.Presence("a", false, true, Map.of(), Set.of()));
+
+        // Then
+        assertTrue(cluster.nodesWatching(SseTopicType.USER, 3L).isEmpty());
+        assertEquals(0, cluster.getRemoteNodeCount());
+    }
+
+    @Test
+    void expire_ShouldForgetNode_WhenLeaseLapses() {
+        // Given
+        SsePresenceMap presence = new SsePresenceMap(1_000);
+        presence.apply(full("a", Map.of(SseTopicType.ORDER, List.of(1L)), Set.of()), 0);
+
+        // When
+        int expired = presence.expire(1_000);
+
+        // Then
+        assertEquals(1, expired);
+        assertTrue(presence.nodesWatching(SseTopicType.ORDER, 1L, 1_000).isEmpty());
+    }
+
+    private static SseClusterMessage.Presence full(String node, Map<SseTopicType, List<Long>> topics,
+                                                   Set<SseTopicType> wildcards) {
+        return new SseClusterMessage.Presence(node, true, false, topics, wildcards);
+    }
+}
@@ -0,0 +1,56 @@
+package com.groceryshop.sse;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SseConnectionLimiterTest {
+
+    @Test
+    void tryAcquire_ShouldRefuse_WhenUserReachedPerUserLimit() {
+        // Given
+        SseConnectionLimiter limiter = new SseConnectionLimiter(10, 2);
+        limiter.tryAcquire("alice");
+        limiter.tryAcquire("alice");
+
+        // When
+        boolean third = limiter.tryAcquire("alice");
+        boolean other = limiter.tryAcquire("bob");
+
+        // Then
+        assertFalse(third);
+        assertTrue(other);
+        assertEquals(2, limiter.getConnectionCount("alice"));
+        assertEquals(3, limiter.getConnectionCount());
+    }
+
+    @Test
+    void tryAcquire_ShouldRefuse_WhenGlobalLimitReached() {
+        // Given
+        SseConnectionLimiter limiter = new SseConnectionLimiter(2, 5);
+        limiter.tryAcquire("alice");
+        limiter.tryAcquire("bob");
+
+        // When
+        boolean refused = limiter.tryAcquire("carol");
+
+        // Then
+        assertFalse(refused);
+        assertEquals(2, limiter.getConnectionCount());
+        assertEquals(0, limiter.getConnectionCount("carol"));
+    }
+
+    @Test
+    void release_ShouldFreeSlot_WhenConnectionCloses() {
+        // Given
+        SseConnectionLimiter limiter = new SseConnectionLimiter(1, 1);
+        limiter.tryAcquire("alice");
+
+        // When
+        limiter.release("alice");
+
+        // Then
+        assertEquals(0, limiter.getConnectionCount());
+        assertTrue(limiter.tryAcquire("bob"));
+    }
+}
@@ -0,0 +1,96 @@
+package com.groceryshop.sse;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SseHeartbeatWheelTest {
+
+    private SseBroadcaster broadcaster;
+
+    @AfterEach
+    void tearDown() {
+        if (broadcaster != null) {
+            broadcaster.destroy();
+        }
+    }
+
+    @Test
+    void tick_ShouldSendHeartbeat_WhenConnectionWasQuietForHeartbeatInterval() throws Exception {
+        // Given
+        broadcaster = new SseBroadcaster(16, 1, 8, SlowConsumerPolicy.DROP);
+        CommentEmitter emitter = new CommentEmitter();
+        SseConnection connection = broadcaster.open("c1", "user", emitter, c -> { });
+        SseHeartbeatWheel wheel = new SseHeartbeatWheel(broadcaster, Duration.ZERO, Duration.ofMinutes(1), 1, () -> { });
+        wheel.add(connection);
+
+        // When
+        wheel.tick();
+
+        // Then
+        assertTrue(emitter.written.await(5, TimeUnit.SECONDS));
+        assertEquals(":\n\n", emitter.lastFrame);
+        assertEquals(1, wheel.getHeartbeatsSent());
+        assertTrue(connection.isOpen());
+    }
+
+    @Test
+    void tick_ShouldAbortConnection_WhenNoWriteCompletedWithinIdleTimeout() {
+        // Given
+        broadcaster = new SseBroadcaster(16, 1, 8, SlowConsumerPolicy.DROP);
+        AtomicBoolean closed = new AtomicBoolean();
+        SseConnection connection = broadcaster.open("c1", "user", new CommentEmitter(), c -> closed.set(true));
+        SseHeartbeatWheel wheel = new SseHeartbeatWheel(broadcaster, Duration.ZERO, Duration.ZERO, 1, () -> { });
+        wheel.add(connection);
+
+        // When
+        wheel.tick();
+
+        // Then
+        assertFalse(connection.isOpen());
+        assertTrue(closed.get());
+        assertEquals(1, wheel.getConnectionsReaped());
+        assertEquals(0, wheel.getHeartbeatsSent());
+    }
+
+    @Test
+    void tick_ShouldRunHousekeepingOncePerRevolution_WhenCursorWraps() {
+        // Given
+        broadcaster = new SseBroadcaster(16, 1, 8, SlowConsumerPolicy.DROP);
+        AtomicInteger revolutions = new AtomicInteger();
+        SseHeartbeatWheel wheel = new SseHeartbeatWheel(broadcaster, Duration.ofSeconds(15), Duration.ofMinutes(1), 4,
+                revolutions::incrementAndGet);
+
+        // When
+        for (int i = 0; i < 9; i++) {
+            wheel.tick();
+        }
+
+        // Then
+        assertEquals(2, revolutions.get());
+    }
+
+    private static class CommentEmitter extends SseEmitter {
+        final CountDownLatch written = new CountDownLatch(1);
+        volatile String lastFrame;
+
+        @Override
+        public void send(Set<ResponseBodyEmitter.DataWithMediaType> items) {
+            for (ResponseBodyEmitter.DataWithMediaType item : items) {
+                lastFrame = new String((byte[]) item.getData(), StandardCharsets.UTF_8);
+            }
+            written.countDown();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.groceryshop.sse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.groceryshop.shared.messaging.EventBus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class SseServiceTest {
+
+    private SseBroadcaster broadcaster;
+    private SseConnectionLimiter limiter;
+    private SseService sseService;
+
+    @BeforeEach
+    void setUp() {
+        broadcaster = new SseBroadcaster(16, 1, 8, SlowConsumerPolicy.DROP);
+        limiter = new SseConnectionLimiter(10, 1);
+        SseSubscriptionRegistry registry = new SseSubscriptionRegistry(8, Duration.ofMinutes(5));
+        SseHeartbeatWheel heartbeatWheel = new SseHeartbeatWheel(broadcaster, Duration.ofSeconds(15),
+                Duration.ofMinutes(1), 4, () -> { });
+        SseCluster cluster = new SseCluster(new SseNode("local"), registry, mock(EventBus.class), Duration.ofMinutes(1));
+        sseService = new SseService(registry, broadcaster, new SseFrameEncoder(new ObjectMapper()), limiter,
+                heartbeatWheel, cluster);
+    }
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.destroy();
+    }
+
+    @Test
+    void subscribe_ShouldReleaseConnection_WhenSnapshotFails() {
+        // When
+        assertThrows(IllegalStateException.class, () -> sseService.subscribe(SseTopicType.ORDER, 1L, "user", null,
+                () -> { throw new IllegalStateException("snapshot failed"); }));
+
+        // Then - the user's only slot is free again
+        assertEquals(0, sseService.getConnectionCount());
+        assertEquals(0, limiter.getConnectionCount("user"));
+        assertNotNull(sseService.subscribe(SseTopicType.ORDER, 1L, "user", null, null));
+    }
+
+    @Test
+    void subscribeAll_ShouldReleaseConnection_WhenSnapshotFails() {
+        // When
+        assertThrows(IllegalStateException.class, () -> sseService.subscribeAll(SseTopicType.ADMIN_INVENTORY, "admin",
+                null, () -> { throw new IllegalStateException("snapshot failed"); }));
+
+        // Then
+        assertEquals(0, sseService.getConnectionCount());
+        assertEquals(0, limiter.getConnectionCount("admin"));
+        assertNotNull(sseService.subscribeAll(SseTopicType.ADMIN_INVENTORY, "admin", null, null));
+    }
+}
@@ -0,0 +1,174 @@
+package com.groceryshop.sse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SseSubscriptionRegistryTest {
+
+    private static final SseFrameEncoder ENCODER = new SseFrameEncoder(new ObjectMapper());
+    private static final BiFunction<SseEvent, Long, SseFrame> FRAME_AT =
+            (event, sequence) -> ENCODER.frame(String.valueOf(sequence), event.getEventType(), ENCODER.encodeData(event.getData()));
+
+    private SseSubscriptionRegistry registry;
+    private SseBroadcaster broadcaster;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SseSubscriptionRegistry(4, Duration.ofMinutes(5));
+        broadcaster = new SseBroadcaster(16, 1, 8, SlowConsumerPolicy.DROP);
+    }
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.destroy();
+    }
+
+    private SseConnection connection(String id, SseEmitter emitter) {
+        SseConnection connection = broadcaster.open(id, "user", emitter, registry::unregister);
+        registry.register(connection);
+        return connection;
+    }
+
+    private SseConnection connection(String id) {
+        return connection(id, new SseEmitter());
+    }
+
+    private void subscribe(SseConnection connection, SseTopicType type, long id, long lastSequence, String snapshot) {
+        registry.subscribe(connection, type, id, lastSequence,
+                () -> snapshot == null ? null : new SseEvent("snapshot", snapshot), FRAME_AT, broadcaster);
+    }
+
+    private void publish(SseTopicType type, long id, String data) {
+        registry.find(type, id).publish(broadcaster, sequence -> ENCODER.frame(String.valueOf(sequence), "e",
+                ENCODER.encodeData(data)));
+    }
+
+    @Test
+    void subscribe_ShouldKeepEveryConnection_WhenSameUserOpensSeveralStreams() {
+        // Given
+        SseConnection firstTab = connection("tab-1");
+        SseConnection secondTab = connection("tab-2");
+
+        // When
+        subscribe(firstTab, SseTopicType.USER, 7L, -1, null);
+        subscribe(secondTab, SseTopicType.USER, 7L, -1, null);
+
+        // Then
+        assertEquals(2, registry.find(SseTopicType.USER, 7L).subscribers().length);
+        assertTrue(registry.isWatched(SseTopicType.USER, 7L));
+        assertFalse(registry.isWatched(SseTopicType.USER, 8L));
+    }
+
+    @Test
+    void unregister_ShouldRemoveConnectionFromAllTopics_WhenConnectionCloses() {
+        // Given
+        SseConnection connection = connection("c");
+        subscribe(connection, SseTopicType.USER, 1L, -1, null);
+        subscribe(connection, SseTopicType.ORDER, 42L, -1, null);
+
+        // When
+        broadcaster.close(connection);
+
+        // Then
+        assertEquals(0, registry.find(SseTopicType.USER, 1L).subscribers().length);
+        assertEquals(0, registry.find(SseTopicType.ORDER, 42L).subscribers().length);
+        assertEquals(0, registry.getConnectionCount());
+    }
+
+    @Test
+    void evictIdleTopics_ShouldDropTopics_WhenUnwatchedForLongerThanRetention() throws Exception {
+        // Given
+        registry = new SseSubscriptionRegistry(4, Duration.ofMillis(1));
+        SseConnection connection = connection("c");
+        subscribe(connection, SseTopicType.ORDER, 42L, -1, null);
+        broadcaster.close(connection);
+        Thread.sleep(10);
+
+        // When
+        int evicted = registry.evictIdleTopics();
+
+        // Then
+        assertEquals(1, evicted);
+        assertNull(registry.find(SseTopicType.ORDER, 42L));
+        assertEquals(0, registry.getTopicCount());
+    }
+
+    @Test
+    void subscribeAll_ShouldWatchEveryTopicOfType_WhenAdminUsesWildcard() {
+        // Given
+        SseConnection admin = connection("admin");
+
+        // When
+        registry.subscribeAll(admin, SseTopicType.ORDER, -1, () -> null, FRAME_AT, broadcaster);
+
+        // Then
+        assertTrue(registry.isWatched(SseTopicType.ORDER, 99L));
+        assertArrayEquals(new SseConnection[]{admin}, registry.wildcard(SseTopicType.ORDER).subscribers());
+        assertFalse(registry.isWildcardWatched(SseTopicType.USER));
+    }
+
+    @Test
+    void subscribers_ShouldReturnSameSnapshot_WhenMembershipIsUnchanged() {
+        // Given
+        SseConnection connection = connection("c");
+        subscribe(connection, SseTopicType.ORDER, 5L, -1, null);
+
+        // When
+        SseConnection[] first = registry.find(SseTopicType.ORDER, 5L).subscribers();
+        SseConnection[] second = registry.find(SseTopicType.ORDER, 5L).subscribers();
+        registry.unsubscribe(connection, SseTopicType.ORDER, 5L);
+
+        // Then
+        assertSame(first, second);
+        assertEquals(0, registry.find(SseTopicType.ORDER, 5L).subscribers().length);
+    }
+
+    @Test
+    void subscribe_ShouldReplayMissedEvents_WhenLastEventIdIsStillBuffered() throws Exception {
+        // Given
+        SseConnection first = connection("first");
+        subscribe(first, SseTopicType.ORDER, 1L, -1, "state");
+        publish(SseTopicType.ORDER, 1L, "a");
+        publish(SseTopicType.ORDER, 1L, "b");
+        broadcaster.close(first);
+        publish(SseTopicType.ORDER, 1L, "c");
+
+        // When - reconnect having seen sequence 1
+        SseBroadcasterTest.RecordingEmitter emitter = new SseBroadcasterTest.RecordingEmitter(2);
+        subscribe(connection("second", emitter), SseTopicType.ORDER, 1L, 1, "state");
+
+        // Then
+        assertTrue(emitter.written.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("2", "3"), emitter.ids);
+        assertEquals(1, registry.getReplayedCount());
+    }
+
+    @Test
+    void subscribe_ShouldSendSnapshotAtCurrentSequence_WhenLastEventIdIsTooOld() throws Exception {
+        // Given
+        SseConnection first = connection("first");
+        subscribe(first, SseTopicType.ORDER, 1L, -1, null);
+        for (int i = 0; i < 6; i++) {
+            publish(SseTopicType.ORDER, 1L, "event-" + i);
+        }
+
+        // When - the replay ring only holds the last 4 events
+        SseBroadcasterTest.RecordingEmitter emitter = new SseBroadcasterTest.RecordingEmitter(1);
+        subscribe(connection("second", emitter), SseTopicType.ORDER, 1L, 1, "state");
+
+        // Then
+        assertTrue(emitter.written.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("6"), emitter.ids);
+        assertEquals(2, registry.getSnapshotCount());
+    }
+}
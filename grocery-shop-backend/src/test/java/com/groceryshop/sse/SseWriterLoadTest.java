@@ -0,0 +1,121 @@
+package com.groceryshop.sse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares platform-thread and virtual-thread SSE writers under a growing number of concurrent
+ * streams whose writes block, as they do on real sockets. For each stream count it reports the
+ * p99 time from publishing an event to writing it, and the largest stream count each mode
+ * sustained within the latency budget.
+ * <p>
+ * Not part of the regular build; run with
+ * {@code mvn test -Dtest=SseWriterLoadTest -Dsse.load-test=true}.
+ */
+@EnabledIfSystemProperty(named = "sse.load-test", matches = "true")
+class SseWriterLoadTest {
+
+    private static final SseFrameEncoder ENCODER = new SseFrameEncoder(new ObjectMapper());
+    private static final int[] STREAM_COUNTS = {1_000, 5_000, 10_000, 20_000};
+    private static final int EVENTS = 5;
+    private static final long WRITE_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+    private static final long P99_BUDGET_MILLIS = 1_000;
+
+    @Test
+    void virtualThreadWriters_ShouldSustainMoreStreamsWithinBudget_WhenWritesBlock() throws Exception {
+        int platformMax = 0;
+        int virtualMax = 0;
+        System.out.printf("%-8s %8s %12s%n", "writers", "streams", "p99 (ms)");
+        for (int streams : STREAM_COUNTS) {
+            long platformP99 = run(new SseBroadcaster(256, 4, 32, SlowConsumerPolicy.DROP), streams);
+            long virtualP99 = run(new SseBroadcaster(256, SseBroadcaster.virtualThreadWriters(), 32,
+                    SlowConsumerPolicy.DROP), streams);
+            System.out.printf("%-8s %8d %12d%n", "platform", streams, platformP99);
+            System.out.printf("%-8s %8d %12d%n", "virtual", streams, virtualP99);
+            if (platformP99 <= P99_BUDGET_MILLIS) {
+                platformMax = streams;
+            }
+            if (virtualP99 <= P99_BUDGET_MILLIS) {
+                virtualMax = streams;
+            }
+        }
+        System.out.printf("Max streams within %d ms p99: platform %d, virtual %d%n",
+                P99_BUDGET_MILLIS, platformMax, virtualMax);
+
+        assertTrue(virtualMax >= platformMax);
+    }
+
+    /**
+     * Publishes {@link #EVENTS} events to every stream and returns the p99 publish-to-write latency.
+     */
+    private static long run(SseBroadcaster broadcaster, int streams) throws InterruptedException {
+        try {
+            long[] publishedAt = new long[EVENTS];
+            CountDownLatch written = new CountDownLatch(streams * EVENTS);
+            long[] latencies = new long[streams * EVENTS];
+            AtomicInteger recorded = new AtomicInteger();
+            List<SseConnection> connections = new ArrayList<>(streams);
+            for (int i = 0; i < streams; i++) {
+                SseEmitter emitter = new BlockingEmitter(publishedAt, latencies, recorded, written);
+                connections.add(broadcaster.open("load-" + i, "user-" + i, emitter, c -> { }));
+            }
+            for (int event = 0; event < EVENTS; event++) {
+                SseFrame frame = ENCODER.encode(new SseEvent(String.valueOf(event), "load", "x"));
+                publishedAt[event] = System.nanoTime();
+                for (SseConnection connection : connections) {
+                    broadcaster.deliver(connection, frame);
+                }
+            }
+            assertTrue(written.await(5, TimeUnit.MINUTES));
+            long[] sorted = Arrays.copyOf(latencies, recorded.get());
+            Arrays.sort(sorted);
+            return TimeUnit.NANOSECONDS.toMillis(sorted[(int) Math.ceil(sorted.length * 0.99) - 1]);
+        } finally {
+            broadcaster.destroy();
+        }
+    }
+
+    /**
+     * Emitter whose writes block for a fixed time per flush, like a socket write to a distant client.
+     */
+    private static class BlockingEmitter extends SseEmitter {
+        private final long[] publishedAt;
+        private final long[] latencies;
+        private final AtomicInteger recorded;
+        private final CountDownLatch written;
+
+        BlockingEmitter(long[] publishedAt, long[] latencies, AtomicInteger recorded, CountDownLatch written) {
+            this.publishedAt = publishedAt;
+            this.latencies = latencies;
+            this.recorded = recorded;
+            this.written = written;
+        }
+
+        @Override
+        public void send(Set<ResponseBodyEmitter.DataWithMediaType> items) {
+            LockSupport.parkNanos(WRITE_NANOS);
+            long now = System.nanoTime();
+            for (ResponseBodyEmitter.DataWithMediaType item : items) {
+                String frame = new String((byte[]) item.getData(), StandardCharsets.UTF_8);
+                int event = Integer.parseInt(frame.substring(3, frame.indexOf('\n')));
+                latencies[recorded.getAndIncrement()] = now - publishedAt[event];
+                written.countDown();
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.groceryshop.waitlist;
+
+import com.groceryshop.TestDataFactory;
+import com.groceryshop.auth.User;
+import com.groceryshop.auth.UserRole;
+import com.groceryshop.auth.spi.AuthServiceProvider;
+import com.groceryshop.notification.NotificationService;
+import com.groceryshop.product.Product;
+import com.groceryshop.product.StockUpdatedEvent;
+import com.groceryshop.product.spi.ProductServiceProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for BackInStockFanout.
+ */
+@ExtendWith(MockitoExtension.class)
+class BackInStockFanoutTest {
+
+    private static final long PRODUCT_ID = 1L;
+
+    @Mock
+    private WaitlistService waitlistService;
+
+    @Mock
+    private ProductServiceProvider productServiceProvider;
+
+    @Mock
+    private AuthServiceProvider authServiceProvider;
+
+    @Mock
+    private NotificationService notificationService;
+
+    private WaitlistIndex index;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        List<Long> subscribers = LongStream.rangeClosed(1, 25).boxed().toList();
+        index = new WaitlistIndex(productId -> subscribers);
+        product = TestDataFactory.createTestProduct();
+        lenient().when(productServiceProvider.findProductById(PRODUCT_ID)).thenReturn(Optional.of(product));
+        lenient().when(authServiceProvider.findUsersByIds(anyCollection())).thenAnswer(invocation -> {
+            List<User> users = new ArrayList<>();
+            for (Long id : invocation.<Collection<Long>>getArgument(0)) {
+                users.add(TestDataFactory.createTestUser(id, "user" + id + "@example.com", UserRole.CUSTOMER));
+            }
+            return users;
+        });
+        lenient().doAnswer(invocation -> {
+            index.removeAll(PRODUCT_ID, invocation.getArgument(1));
+            return null;
+        }).when(waitlistService).removeNotified(eq(PRODUCT_ID), any(long[].class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void fanOut_ShouldNotifyWholeWaitlistInPages_WhenStockCoversIt() {
+        // Given
+        BackInStockFanout fanout = newFanout(10, 3);
+
+        // When
+        int notified = fanout.fanOut(PRODUCT_ID);
+
+        // Then - 25 subscribers in pages of 10, 10 and 5, in subscription order
+        assertEquals(25, notified);
+        ArgumentCaptor<List<User>> pages = ArgumentCaptor.forClass(List.class);
+        verify(notificationService, times(3)).sendProductAvailableNotifications(pages.capture(), eq(product));
+        assertEquals(List.of(10, 10, 5), pages.getAllValues().stream().map(List::size).toList());
+        assertEquals(1L, pages.getAllValues().get(0).get(0).getId());
+        assertEquals(0, index.size(PRODUCT_ID));
+    }
+
+    @Test
+    void fanOut_ShouldNotifyOnlyAsManyAsStockAllows_WhenFewUnitsReturn() {
+        // Given - 2 units at 3 notifications per unit
+        product.setStockQuantity(2);
+        BackInStockFanout fanout = newFanout(4, 3);
+
+        // When
+        int notified = fanout.fanOut(PRODUCT_ID);
+
+        // Then - the others keep their place for the next restock
+        assertEquals(6, notified);
+        assertArrayEquals(new long[] {7L, 8L}, index.page(PRODUCT_ID, 0, 2));
+        assertEquals(19, index.size(PRODUCT_ID));
+    }
+
+    @Test
+    void fanOut_ShouldStop_WhenProductSellsOutDuringFanOut() {
+        // Given
+        BackInStockFanout fanout = newFanout(10, 3);
+        doAnswer(invocation -> {
+            product.setStockQuantity(0);
+            return null;
+        }).when(notificationService).sendProductAvailableNotifications(anyList(), eq(product));
+
+        // When
+        int notified = fanout.fanOut(PRODUCT_ID);
+
+        // Then
+        assertEquals(10, notified);
+        assertEquals(15, index.size(PRODUCT_ID));
+    }
+
+    @Test
+    void fanOut_ShouldSkipInactiveUsers_WhenLoadingPage() {
+        // Given
+        when(authServiceProvider.findUsersByIds(anyCollection())).thenAnswer(invocation -> {
+            User inactive = TestDataFactory.createTestUser(2L, "inactive@example.com", UserRole.CUSTOMER);
+            inactive.setStatus(com.groceryshop.auth.UserStatus.INACTIVE);
+            return List.of(TestDataFactory.createTestUser(1L, "user1@example.com", UserRole.CUSTOMER), inactive);
+        });
+        BackInStockFanout fanout = newFanout(2, 1);
+        product.setStockQuantity(2);
+
+        // When
+        fanout.fanOut(PRODUCT_ID);
+
+        // Then
+        verify(notificationService).sendProductAvailableNotifications(
+                argThat(users -> users.size() == 1 && users.get(0).getId() == 1L), eq(product));
+        verify(waitlistService).removeNotified(PRODUCT_ID, new long[] {1L, 2L});
+    }
+
+    @Test
+    void isRestock_ShouldBeTrueOnlyForZeroToPositive_WhenStockChanges() {
+        assertTrue(BackInStockDetector.isRestock(new StockUpdatedEvent(this, PRODUCT_ID, "Milk", 0, 5)));
+        assertFalse(BackInStockDetector.isRestock(new StockUpdatedEvent(this, PRODUCT_ID, "Milk", 3, 5)));
+        assertFalse(BackInStockDetector.isRestock(new StockUpdatedEvent(this, PRODUCT_ID, "Milk", 5, 0)));
+    }
+
+    private BackInStockFanout newFanout(int pageSize, int notificationsPerUnit) {
+        return new BackInStockFanout(index, waitlistService, productServiceProvider, authServiceProvider,
+                notificationService, pageSize, notificationsPerUnit, 1_000_000);
+    }
+}
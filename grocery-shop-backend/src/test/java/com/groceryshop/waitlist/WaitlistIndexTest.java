@@ -0,0 +1,60 @@
+package com.groceryshop.waitlist;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WaitlistIndexTest {
+
+    @Test
+    void page_ShouldReturnSubscribersInSubscriptionOrder_WhenLoadedAndAddedTo() {
+        // Given
+        WaitlistIndex index = new WaitlistIndex(productId -> List.of(30L, 10L));
+
+        // When
+        boolean added = index.add(1L, 20L);
+        boolean duplicate = index.add(1L, 10L);
+
+        // Then
+        assertTrue(added);
+        assertFalse(duplicate);
+        assertArrayEquals(new long[] {30L, 10L, 20L}, index.page(1L, 0, 10));
+        assertArrayEquals(new long[] {10L}, index.page(1L, 1, 1));
+        assertArrayEquals(new long[0], index.page(1L, 3, 10));
+    }
+
+    @Test
+    void removeAll_ShouldKeepRemainingOrder_WhenNotifiedSubscribersLeave() {
+        // Given
+        WaitlistIndex index = new WaitlistIndex(productId -> List.of(1L, 2L, 3L, 4L, 5L));
+
+        // When
+        index.removeAll(7L, new long[0]);
+        index.size(7L);
+        index.removeAll(7L, new long[] {4L, 1L});
+        boolean removed = index.remove(7L, 3L);
+
+        // Then
+        assertTrue(removed);
+        assertFalse(index.contains(7L, 1L));
+        assertArrayEquals(new long[] {2L, 5L}, index.page(7L, 0, 10));
+    }
+
+    @Test
+    void reload_ShouldReadDatabaseAgain_WhenCalled() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+        WaitlistIndex index = new WaitlistIndex(productId -> loads.incrementAndGet() == 1 ? List.of(1L) : List.of(1L, 2L));
+        assertEquals(1, index.size(5L));
+
+        // When
+        index.reload(5L);
+
+        // Then
+        assertEquals(2, index.size(5L));
+        assertEquals(2, loads.get());
+    }
+}